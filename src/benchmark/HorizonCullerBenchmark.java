@@ -0,0 +1,377 @@
+package benchmark;
+
+import entities.Entity;
+import models.BoundingVolume;
+import models.ObjParser;
+import models.RawModel;
+import models.TexturedModel;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import spatial.QuadTree;
+import terrain.Terrain;
+import toolbox.Frustum;
+import toolbox.HorizonCuller;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Dieser Benchmark misst den {@link HorizonCuller} auf der Vegetation der Szene (rund 14.000 Entities), die wie in
+ * {@link main.VegetationGameLoop} aus der Vegetationskarte erzeugt und in einen {@link QuadTree} eingefügt wird.
+ *
+ * Für zufällige Kamerapositionen auf Augenhöhe über dem Terrain werden der Aufbau des Horizonts, die Frustum-Abfrage
+ * allein und die Frustum-Abfrage mit Horizont nach Aufwärmdurchläufen gemessen. Ausgegeben werden die mittlere und
+ * maximale Dauer je Variante, die Anzahl der sichtbaren Entities sowie die Entities, die der Horizont verwirft,
+ * obwohl die Sichtlinie zu ihrer Oberkante über dem gerenderten Terrain frei ist. Da der {@link
+ * renderEngine.TerrainRenderer} das Level of Detail je Chunk nach dem Abstand wählt, wird an jeder Stelle der
+ * Sichtlinie die niedrigste Oberfläche aller Level of Detail angenommen.
+ *
+ * Aufruf: java -cp "out:lib/jars/*" benchmark.HorizonCullerBenchmark [Kamerapositionen] [Aufwärmdurchläufe] [Durchläufe]
+ */
+public class HorizonCullerBenchmark {
+
+    /**
+     * Pfad zum Ressourcen-Verzeichnis
+     */
+    private static final String RESOURCES = "res/";
+    /**
+     * Modelle der Vegetation in der Reihenfolge von {@link main.VegetationGameLoop}
+     */
+    private static final String[] MODELS = {
+            "trees/bigtree1", "trees/oak1", "trees/christmastree", "trees/flower", "assets/bush", "assets/grass"};
+    /**
+     * Dichte der Vegetation wie in {@link main.VegetationGameLoop#prepare}
+     */
+    private static final float VEGETATION_DENSITY = 0.017f;
+    /**
+     * Höhe der Kamera über dem Terrain
+     */
+    private static final float EYE_HEIGHT = 7;
+    /**
+     * Schrittweite der Sichtlinienprüfung
+     */
+    private static final float SIGHT_STEP = 0.5f;
+    /**
+     * Standardanzahl der Kamerapositionen
+     */
+    private static final int DEFAULT_POSITIONS = 64;
+    /**
+     * Standardanzahl der Aufwärmdurchläufe je Kameraposition und Variante
+     */
+    private static final int DEFAULT_WARMUP_ITERATIONS = 20;
+    /**
+     * Standardanzahl der gemessenen Durchläufe je Kameraposition und Variante
+     */
+    private static final int DEFAULT_ITERATIONS = 50;
+
+    /**
+     * Startet den Benchmark.
+     *
+     * @param args optional Anzahl der Kamerapositionen, der Aufwärmdurchläufe und der gemessenen Durchläufe
+     * @throws IOException falls die Höhen- oder Vegetationskarte oder ein Modell nicht gelesen werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POSITIONS;
+        int warmupIterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_ITERATIONS;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        Random random = new Random(42);
+
+        // Terrain des Spielers und seine Nachbarn, wie sie die TerrainWorld im Umkreis 1 lädt
+        BufferedImage heightMap = Terrain.loadHeightMap("heightmap");
+        List<Terrain> terrains = new ArrayList<>();
+        Terrain center = null;
+        for (int gridZ = -1; gridZ <= 1; gridZ++) {
+            for (int gridX = -1; gridX <= 1; gridX++) {
+                Terrain terrain = new Terrain(gridX, gridZ, null, null, heightMap);
+                terrains.add(terrain);
+                if (gridX == 0 && gridZ == 0) {
+                    center = terrain;
+                }
+            }
+        }
+
+        QuadTree vegetation = new QuadTree(0, 0, Terrain.SIZE);
+        for (Entity entity : generateVegetation(center, random)) {
+            vegetation.insert(entity);
+        }
+        System.out.printf("%d Entities, %d Kamerapositionen, %d Durchläufe%n", vegetation.size(), positions, iterations);
+
+        Matrix4f projectionMatrix = createProjectionMatrix();
+        Frustum frustum = new Frustum();
+        HorizonCuller horizon = new HorizonCuller();
+        List<Entity> result = new ArrayList<>();
+        List<Entity> frustumResult = new ArrayList<>();
+
+        double[] update = new double[positions];
+        double[] frustumQuery = new double[positions];
+        double[] horizonQuery = new double[positions];
+        long frustumVisible = 0;
+        long horizonVisible = 0;
+        long falselyCulled = 0;
+
+        for (int p = 0; p < positions; p++) {
+            float x = random.nextFloat() * Terrain.SIZE;
+            float z = random.nextFloat() * Terrain.SIZE;
+            Vector3f cameraPosition = new Vector3f(x, center.getHeight(x, z) + EYE_HEIGHT, z);
+            frustum.update(projectionMatrix, createViewMatrix(cameraPosition, random.nextFloat() * 360, 10));
+
+            for (int i = 0; i < warmupIterations; i++) {
+                horizon.update(terrains, cameraPosition);
+                result.clear();
+                vegetation.queryFrustum(frustum, result);
+                result.clear();
+                vegetation.queryFrustum(frustum, horizon, result);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                horizon.update(terrains, cameraPosition);
+            }
+            update[p] = (System.nanoTime() - start) / 1e6 / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                frustumResult.clear();
+                vegetation.queryFrustum(frustum, frustumResult);
+            }
+            frustumQuery[p] = (System.nanoTime() - start) / 1e6 / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                result.clear();
+                vegetation.queryFrustum(frustum, horizon, result);
+            }
+            horizonQuery[p] = (System.nanoTime() - start) / 1e6 / iterations;
+
+            frustumVisible += frustumResult.size();
+            horizonVisible += result.size();
+            falselyCulled += countFalselyCulled(frustumResult, result, cameraPosition, terrains);
+        }
+
+        System.out.printf("%-28s %10s %10s %12s%n", "variant", "mean [ms]", "max [ms]", "entities");
+        System.out.printf("%-28s %10.4f %10.4f %12s%n", "horizon update", mean(update), max(update), "");
+        System.out.printf("%-28s %10.4f %10.4f %12d%n", "frustum", mean(frustumQuery), max(frustumQuery),
+                frustumVisible / positions);
+        System.out.printf("%-28s %10.4f %10.4f %12d%n", "frustum + horizon", mean(horizonQuery), max(horizonQuery),
+                horizonVisible / positions);
+        System.out.printf("Horizont verwirft im Mittel %d Entities (%.1f %%), davon %.1f mit freier Sichtlinie%n",
+                (frustumVisible - horizonVisible) / positions,
+                frustumVisible > 0 ? 100.0 * (frustumVisible - horizonVisible) / frustumVisible : 0.0,
+                falselyCulled / (double) positions);
+    }
+
+    /**
+     * Diese Funktion erzeugt die Vegetation wie {@link main.VegetationGameLoop}, jedoch mit festem Zufallsgenerator
+     * und ohne OpenGL. Die Modelle tragen nur ihre {@link BoundingVolume}.
+     *
+     * @param terrain Terrain, auf dem die Vegetation steht
+     * @param random  Zufallsgenerator
+     * @return Entities der Vegetation
+     * @throws IOException falls die Vegetationskarte oder ein Modell nicht gelesen werden kann
+     */
+    private static List<Entity> generateVegetation(Terrain terrain, Random random) throws IOException {
+        TexturedModel[] models = new TexturedModel[MODELS.length];
+        for (int i = 0; i < MODELS.length; i++) {
+            RawModel rawModel = new RawModel(0, 0);
+            rawModel.setBoundingVolume(BoundingVolume.fromPositions(
+                    ObjParser.parse(new File(RESOURCES + MODELS[i] + ".obj")).getPositions()));
+            models[i] = new TexturedModel(rawModel, null);
+        }
+
+        BufferedImage vegetationMap = ImageIO.read(new File(RESOURCES + "vegetation.png"));
+        int squareCount = vegetationMap.getHeight();
+        float scalingFactor = Terrain.SIZE / (float) squareCount;
+        float maxPixelColor = (float) Math.pow(256, 3);
+
+        List<Entity> vegetation = new ArrayList<>();
+        for (int i = 0; i < squareCount; i++) {
+            for (int j = 0; j < squareCount; j++) {
+                float percentage = -vegetationMap.getRGB(j, i) / maxPixelColor;
+                if ((1 - percentage) * VEGETATION_DENSITY <= random.nextFloat()) {
+                    continue;
+                }
+                float object = random.nextFloat();
+                int model;
+                float scale;
+                if (object < 0.1) {
+                    model = 0;
+                    scale = random.nextFloat() * 2 + 2;
+                } else if (object < 0.2) {
+                    model = 1;
+                    scale = random.nextFloat() * 6 + 36;
+                } else if (object < 0.25) {
+                    model = 2;
+                    scale = random.nextFloat() * 6 + 25;
+                } else if (object < 0.35) {
+                    model = 3;
+                    scale = random.nextFloat() * 4 + 15;
+                } else if (object < 0.4) {
+                    model = 4;
+                    scale = random.nextFloat() * 20 + 15;
+                } else {
+                    model = 5;
+                    scale = random.nextFloat() * 10 + 8;
+                }
+                float worldX = scalingFactor * j + random.nextFloat() * 5 - 2.5f;
+                float worldZ = scalingFactor * i + random.nextFloat() * 5 - 2.5f;
+                vegetation.add(new Entity(models[model], new Vector3f(worldX, terrain.getHeight(worldX, worldZ), worldZ),
+                        0, random.nextFloat() * 360, 0, scale));
+            }
+        }
+        return vegetation;
+    }
+
+    /**
+     * Diese Funktion zählt die Entities, die der Horizont verworfen hat, obwohl die Sichtlinie von der Kamera zur
+     * Oberkante ihrer umschließenden Kugel über dem gerenderten Terrain frei ist.
+     *
+     * @param frustumResult  Ergebnis der Frustum-Abfrage
+     * @param horizonResult  Ergebnis der Abfrage mit Horizont
+     * @param cameraPosition Position der Kamera
+     * @param terrains       Terrains im Umkreis der Kamera
+     * @return Anzahl fälschlich verworfener Entities
+     */
+    private static int countFalselyCulled(List<Entity> frustumResult, List<Entity> horizonResult,
+                                          Vector3f cameraPosition, List<Terrain> terrains) {
+        Set<Entity> visible = Collections.newSetFromMap(new IdentityHashMap<>());
+        visible.addAll(horizonResult);
+        Vector3f center = new Vector3f();
+        int count = 0;
+        for (Entity entity : frustumResult) {
+            if (visible.contains(entity)) {
+                continue;
+            }
+            entity.getBoundingSphereCenter(center);
+            float top = center.y + entity.getBoundingSphereRadius();
+            if (isSightLineFree(cameraPosition, center.x, top, center.z, terrains)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Funktion prüft, ob die Strecke von der Kamera zu einem Punkt überall über der niedrigsten gerenderten
+     * Oberfläche des Terrains verläuft.
+     *
+     * @param from     Position der Kamera
+     * @param x        x-Koordinate des Ziels
+     * @param y        y-Koordinate des Ziels
+     * @param z        z-Koordinate des Ziels
+     * @param terrains Terrains im Umkreis der Kamera
+     * @return Information, ob die Sichtlinie frei ist
+     */
+    private static boolean isSightLineFree(Vector3f from, float x, float y, float z, List<Terrain> terrains) {
+        float dx = x - from.x;
+        float dy = y - from.y;
+        float dz = z - from.z;
+        int steps = (int) Math.ceil(Math.sqrt(dx * dx + dz * dz) / SIGHT_STEP);
+        for (int i = 1; i < steps; i++) {
+            float t = i / (float) steps;
+            float sampleX = from.x + dx * t;
+            float sampleZ = from.z + dz * t;
+            Terrain terrain = findTerrain(terrains, sampleX, sampleZ);
+            if (terrain == null) {
+                continue;
+            }
+            float height = Float.MAX_VALUE;
+            for (int lod = 0; lod < Terrain.LOD_STEPS.length; lod++) {
+                height = Math.min(height, terrain.getHeight(sampleX, sampleZ, lod));
+            }
+            if (from.y + dy * t < height) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Funktion sucht das Terrain, das eine Stelle der Welt überdeckt.
+     *
+     * @param terrains Terrains
+     * @param worldX   x-Koordinate der Welt
+     * @param worldZ   z-Koordinate der Welt
+     * @return Terrain oder null, falls keines die Stelle überdeckt
+     */
+    private static Terrain findTerrain(List<Terrain> terrains, float worldX, float worldZ) {
+        for (Terrain terrain : terrains) {
+            if (worldX >= terrain.getX() && worldX < terrain.getX() + Terrain.SIZE
+                    && worldZ >= terrain.getZ() && worldZ < terrain.getZ() + Terrain.SIZE) {
+                return terrain;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Diese Funktion erstellt die Projektionsmatrix wie der {@link renderEngine.MasterRenderer} für ein Bild im
+     * Format 16:9.
+     *
+     * @return Projektionsmatrix
+     */
+    private static Matrix4f createProjectionMatrix() {
+        float near = 0.1f;
+        float far = 1000f;
+        float yScale = (float) (1f / Math.tan(Math.toRadians(70 / 2f)));
+        Matrix4f matrix = new Matrix4f();
+        matrix.m00 = yScale / (16f / 9f);
+        matrix.m11 = yScale;
+        matrix.m22 = -((far + near) / (far - near));
+        matrix.m23 = -1;
+        matrix.m32 = -((2 * near * far) / (far - near));
+        matrix.m33 = 0;
+        return matrix;
+    }
+
+    /**
+     * Diese Funktion erstellt die Ansichtsmatrix wie {@link toolbox.Maths#createViewMatrix} ohne {@link entities.Camera}.
+     *
+     * @param position Position der Kamera
+     * @param yaw      Drehung um die y-Achse in Grad
+     * @param pitch    Neigung in Grad
+     * @return Ansichtsmatrix
+     */
+    private static Matrix4f createViewMatrix(Vector3f position, float yaw, float pitch) {
+        Matrix4f matrix = new Matrix4f();
+        Matrix4f.rotate((float) Math.toRadians(pitch), new Vector3f(1, 0, 0), matrix, matrix);
+        Matrix4f.rotate((float) Math.toRadians(yaw), new Vector3f(0, 1, 0), matrix, matrix);
+        Matrix4f.translate(new Vector3f(-position.x, -position.y, -position.z), matrix, matrix);
+        return matrix;
+    }
+
+    /**
+     * Diese Funktion berechnet den Mittelwert.
+     *
+     * @param values Werte
+     * @return Mittelwert
+     */
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length > 0 ? sum / values.length : 0;
+    }
+
+    /**
+     * Diese Funktion berechnet das Maximum.
+     *
+     * @param values Werte
+     * @return Maximum
+     */
+    private static double max(double[] values) {
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,203 @@
+package benchmark;
+
+import models.OBJLoader;
+import models.ObjMesh;
+import models.ObjParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Dieser Benchmark vergleicht den {@link ObjParser} (sequenziell und parallel) mit dem bisherigen zeilenweisen
+ * Parser ({@link OBJLoader#parseObjLegacy(File)}) auf allen OBJ-Dateien im Ressourcen-Verzeichnis.
+ *
+ * Je Datei und Variante werden zunächst Aufwärmdurchläufe und anschließend gemessene Durchläufe ausgeführt.
+ * Ausgegeben werden die mittlere Dauer und die im aufrufenden Thread allokierten Bytes je Durchlauf sowie die
+ * maximale Abweichung der Ergebnisse gegenüber dem bisherigen Parser.
+ *
+ * Aufruf: java -cp "out:lib/jars/*" benchmark.ObjParserBenchmark [Aufwärmdurchläufe] [Durchläufe]
+ */
+public class ObjParserBenchmark {
+
+    /**
+     * Pfad zum Ressourcen-Verzeichnis
+     */
+    private static final String RESOURCES = "res/";
+    /**
+     * Standardanzahl der Aufwärmdurchläufe je Datei und Variante
+     */
+    private static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    /**
+     * Standardanzahl der gemessenen Durchläufe je Datei und Variante
+     */
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    /**
+     * Eine zu messende Variante des Parsers.
+     */
+    private interface Variant {
+        /**
+         * Diese Funktion liest eine OBJ-Datei.
+         *
+         * @param file OBJ-Datei
+         * @param data bereits gemappte Datei
+         * @return gelesene Vertex-Daten
+         * @throws IOException falls die Datei nicht gelesen werden kann
+         */
+        ObjMesh parse(File file, ByteBuffer data) throws IOException;
+    }
+
+    /**
+     * Startet den Benchmark.
+     *
+     * @param args optional Anzahl der Aufwärmdurchläufe und der gemessenen Durchläufe
+     * @throws IOException falls das Ressourcen-Verzeichnis nicht gelesen werden kann
+     */
+    public static void main(String[] args) throws IOException {
+        int warmupIterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WARMUP_ITERATIONS;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(Paths.get(RESOURCES))) {
+            files = paths.filter(path -> path.toString().endsWith(".obj")).sorted().collect(Collectors.toList());
+        }
+
+        System.out.printf("%-32s %10s %12s %12s %12s %14s %14s %10s%n", "file", "size [KiB]",
+                "legacy [ms]", "bytes [ms]", "parallel [ms]", "legacy [MiB]", "bytes [MiB]", "max diff");
+        for (Path path : files) {
+            File file = path.toFile();
+            ByteBuffer data = map(file);
+
+            ObjMesh reference;
+            try {
+                reference = OBJLoader.parseObjLegacy(file);
+            } catch (RuntimeException e) {
+                // z.B. Vierecke oder fehlende Texturkoordinaten, die der bisherige Parser nicht unterstützt
+                reference = null;
+            }
+
+            double[] legacy = reference == null ? null
+                    : measure((f, d) -> OBJLoader.parseObjLegacy(f), file, data, warmupIterations, iterations);
+            double[] bytes = measure((f, d) -> ObjParser.parse(d, false), file, data, warmupIterations, iterations);
+            double[] parallel = measure((f, d) -> ObjParser.parse(d, true), file, data, warmupIterations, iterations);
+
+            System.out.printf("%-32s %10d %12s %12.2f %12.2f %14s %14.2f %10s%n",
+                    Paths.get(RESOURCES).relativize(path),
+                    file.length() >> 10,
+                    legacy == null ? "n/a" : String.format("%.2f", legacy[0]),
+                    bytes[0], parallel[0],
+                    legacy == null ? "n/a" : String.format("%.2f", legacy[1] / (1 << 20)),
+                    bytes[1] / (1 << 20),
+                    reference == null ? "n/a" : String.format("%.1e", maxDifference(reference, ObjParser.parse(data, true))));
+        }
+    }
+
+    /**
+     * Diese Funktion misst eine Variante des Parsers.
+     *
+     * @param variant          Variante
+     * @param file             OBJ-Datei
+     * @param data             gemappte Datei
+     * @param warmupIterations Anzahl der Aufwärmdurchläufe
+     * @param iterations       Anzahl der gemessenen Durchläufe
+     * @return mittlere Dauer in Millisekunden und mittlere allokierte Bytes des aufrufenden Threads je Durchlauf
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    private static double[] measure(Variant variant, File file, ByteBuffer data, int warmupIterations, int iterations) throws IOException {
+        for (int i = 0; i < warmupIterations; i++) {
+            variant.parse(file, data);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            variant.parse(file, data);
+        }
+        long duration = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new double[]{duration / 1e6 / iterations, allocated / (double) iterations};
+    }
+
+    /**
+     * Diese Funktion berechnet die maximale Abweichung zweier Ergebnisse über alle Eckpunkte der Dreiecke.
+     * Da der {@link ObjParser} gleiche Eckpunkte zusammenlegt, werden nicht die Vertex-Arrays, sondern die Werte
+     * an jedem Index verglichen. Eine unterschiedliche Anzahl an Dreiecken wird als unendliche Abweichung gewertet.
+     *
+     * @param expected erwartetes Ergebnis
+     * @param actual   zu prüfendes Ergebnis
+     * @return maximale Abweichung
+     */
+    private static double maxDifference(ObjMesh expected, ObjMesh actual) {
+        int[] expectedIndices = expected.getIndices();
+        int[] actualIndices = actual.getIndices();
+        if (expectedIndices.length != actualIndices.length) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double difference = 0;
+        for (int i = 0; i < expectedIndices.length; i++) {
+            difference = Math.max(difference, maxDifference(expected.getPositions(), expectedIndices[i],
+                    actual.getPositions(), actualIndices[i], 3));
+            difference = Math.max(difference, maxDifference(expected.getTextureCoords(), expectedIndices[i],
+                    actual.getTextureCoords(), actualIndices[i], 2));
+            difference = Math.max(difference, maxDifference(expected.getNormals(), expectedIndices[i],
+                    actual.getNormals(), actualIndices[i], 3));
+        }
+        return difference;
+    }
+
+    /**
+     * Diese Funktion berechnet die maximale Abweichung der Werte zweier Vertices.
+     *
+     * @param expected      erwartete Werte
+     * @param expectedIndex Index des erwarteten Vertex
+     * @param actual        zu prüfende Werte
+     * @param actualIndex   Index des zu prüfenden Vertex
+     * @param size          Anzahl der Floats je Vertex
+     * @return maximale Abweichung
+     */
+    private static double maxDifference(float[] expected, int expectedIndex, float[] actual, int actualIndex, int size) {
+        double difference = 0;
+        for (int i = 0; i < size; i++) {
+            difference = Math.max(difference, Math.abs(expected[expectedIndex * size + i] - actual[actualIndex * size + i]));
+        }
+        return difference;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der bisher im aktuellen Thread allokierten Bytes, sofern die JVM dies
+     * unterstützt.
+     *
+     * @return allokierte Bytes oder 0
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Diese Funktion mappt eine Datei in den Speicher.
+     *
+     * @param file Datei
+     * @return gemappte Datei
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
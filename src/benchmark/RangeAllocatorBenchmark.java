@@ -0,0 +1,165 @@
+package benchmark;
+
+import renderEngine.RangeAllocator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Dieser Benchmark prüft und misst den {@link RangeAllocator} des {@link renderEngine.MeshBuffer} mit zufälligen
+ * Folgen aus Vergeben und Freigeben, wie sie beim Laden und Entladen von Terrains und Modellen entstehen.
+ *
+ * Zuerst wird der Buffer mit vielen Bereichen gefüllt und jeder zweite davon freigegeben, sodass viele freie Bereiche
+ * im Baum liegen. Anschließend wird abwechselnd vergeben und freigegeben. Nach jedem Schritt wird die Belegung mit
+ * einem Referenzmodell verglichen: Vergebene Bereiche dürfen sich nicht überlappen, die freien Bereiche müssen genau
+ * die unbelegten Elemente vor dem Ende abdecken und angrenzende freie Bereiche müssen verbunden sein. Ausgegeben
+ * werden die Anzahl der Fehler und die mittlere Dauer je Vorgang ohne Prüfung.
+ *
+ * Aufruf: java -cp "out:lib/jars/*" benchmark.RangeAllocatorBenchmark [Bereiche] [Vorgänge]
+ */
+public class RangeAllocatorBenchmark {
+
+    /**
+     * Standardanzahl der Bereiche, mit denen der Buffer anfangs gefüllt wird
+     */
+    private static final int DEFAULT_RANGES = 2000;
+    /**
+     * Standardanzahl der Vorgänge nach dem Füllen
+     */
+    private static final int DEFAULT_OPERATIONS = 20000;
+    /**
+     * maximale Anzahl der Elemente eines Bereichs
+     */
+    private static final int MAX_COUNT = 64;
+
+    /**
+     * Startet den Benchmark.
+     *
+     * @param args optional Anzahl der Bereiche und der Vorgänge
+     */
+    public static void main(String[] args) {
+        int ranges = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RANGES;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_OPERATIONS;
+
+        int errors = run(ranges, operations, true, new Random(42));
+        long start = System.nanoTime();
+        run(ranges, operations, false, new Random(42));
+        double nanosPerOperation = (System.nanoTime() - start) / (double) (ranges * 3 / 2 + operations);
+
+        System.out.printf("%d Bereiche, %d Vorgänge: %d Fehler, %.1f ns je Vorgang%n",
+                ranges, operations, errors, nanosPerOperation);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Diese Funktion füllt einen {@link RangeAllocator}, fragmentiert ihn und führt zufällige Vorgänge aus.
+     *
+     * @param ranges     Anzahl der Bereiche beim Füllen
+     * @param operations Anzahl der Vorgänge nach dem Füllen
+     * @param verify     Information, ob nach jedem Vorgang gegen das Referenzmodell geprüft wird
+     * @param random     Zufallsgenerator
+     * @return Anzahl der Vorgänge, nach denen die Belegung fehlerhaft war
+     */
+    private static int run(int ranges, int operations, boolean verify, Random random) {
+        RangeAllocator allocator = new RangeAllocator();
+        BitSet occupied = new BitSet();
+        List<int[]> live = new ArrayList<>();
+        int errors = 0;
+
+        for (int i = 0; i < ranges; i++) {
+            errors += allocate(allocator, occupied, live, 1 + random.nextInt(MAX_COUNT), verify);
+        }
+        // Jeden zweiten Bereich freigeben, damit viele nicht angrenzende freie Bereiche entstehen
+        for (int i = live.size() - 1; i >= 0; i -= 2) {
+            errors += free(allocator, occupied, live, i, verify);
+        }
+        for (int i = 0; i < operations; i++) {
+            if (live.isEmpty() || random.nextBoolean()) {
+                errors += allocate(allocator, occupied, live, 1 + random.nextInt(MAX_COUNT), verify);
+            } else {
+                errors += free(allocator, occupied, live, random.nextInt(live.size()), verify);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Diese Funktion vergibt einen Bereich und trägt ihn in das Referenzmodell ein.
+     *
+     * @param allocator {@link RangeAllocator}
+     * @param occupied  belegte Elemente des Referenzmodells
+     * @param live      vergebene Bereiche (Anfang, Länge)
+     * @param count     Anzahl der Elemente
+     * @param verify    Information, ob geprüft wird
+     * @return 1, falls die Belegung danach fehlerhaft ist, sonst 0
+     */
+    private static int allocate(RangeAllocator allocator, BitSet occupied, List<int[]> live, int count,
+                                boolean verify) {
+        int start = allocator.allocate(count);
+        live.add(new int[]{start, count});
+        if (!verify) {
+            return 0;
+        }
+        boolean overlaps = occupied.get(start, start + count).cardinality() > 0;
+        occupied.set(start, start + count);
+        return overlaps || !isConsistent(allocator, occupied) ? 1 : 0;
+    }
+
+    /**
+     * Diese Funktion gibt einen vergebenen Bereich frei und entfernt ihn aus dem Referenzmodell.
+     *
+     * @param allocator {@link RangeAllocator}
+     * @param occupied  belegte Elemente des Referenzmodells
+     * @param live      vergebene Bereiche (Anfang, Länge)
+     * @param index     Index des Bereichs in live
+     * @param verify    Information, ob geprüft wird
+     * @return 1, falls die Belegung danach fehlerhaft ist, sonst 0
+     */
+    private static int free(RangeAllocator allocator, BitSet occupied, List<int[]> live, int index, boolean verify) {
+        int[] range = live.get(index);
+        live.set(index, live.get(live.size() - 1));
+        live.remove(live.size() - 1);
+        allocator.free(range[0], range[1]);
+        if (!verify) {
+            return 0;
+        }
+        occupied.clear(range[0], range[0] + range[1]);
+        return isConsistent(allocator, occupied) ? 0 : 1;
+    }
+
+    /**
+     * Diese Funktion vergleicht die freien Bereiche des {@link RangeAllocator} mit dem Referenzmodell.
+     *
+     * @param allocator {@link RangeAllocator}
+     * @param occupied  belegte Elemente des Referenzmodells
+     * @return Information, ob freie Bereiche, Ende und Anzahl der belegten Elemente übereinstimmen
+     */
+    private static boolean isConsistent(RangeAllocator allocator, BitSet occupied) {
+        int end = allocator.getEnd();
+        if (occupied.length() > end || allocator.getUsed() != occupied.cardinality()) {
+            return false;
+        }
+        BitSet free = new BitSet();
+        int previousEnd = -1;
+        for (Map.Entry<Integer, Integer> range : allocator.getFreeRanges().entrySet()) {
+            int start = range.getKey();
+            int length = range.getValue();
+            // Überlappende, angrenzende oder über das Ende reichende freie Bereiche sind Fehler
+            if (length <= 0 || start <= previousEnd || start + length >= end) {
+                return false;
+            }
+            free.set(start, start + length);
+            previousEnd = start + length;
+        }
+        // Frei ist genau, was vor dem Ende nicht belegt ist
+        BitSet expected = new BitSet();
+        expected.set(0, end);
+        expected.andNot(occupied);
+        return free.equals(expected);
+    }
+}
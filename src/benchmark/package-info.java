@@ -0,0 +1,5 @@
+/**
+ * Dieses Paket enthält eigenständig ausführbare Benchmarks, mit denen Optimierungen der Engine
+ * gegen die bisherigen Implementierungen gemessen werden können.
+ */
+package benchmark;
@@ -1,5 +1,6 @@
 package entities;
 
+import models.BoundingVolume;
 import models.TexturedModel;
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector2f;
@@ -33,6 +34,14 @@ public class Entity {
      */
     private final float scale;
 
+    /**
+     * zwischengespeicherte Transformationsmatrix der Entität
+     */
+    private final Matrix4f transformationMatrix = new Matrix4f();
+    /**
+     * Information, ob sich Position oder Rotation seit der letzten Berechnung der Transformationsmatrix geändert haben
+     */
+    private boolean transformationDirty = true;
 
     /**
      * Eine Entität bestehend aus dem {@link TexturedModel}, seiner Position, Rotation und Skalierung wird erstellt.
@@ -64,6 +73,7 @@ public class Entity {
         this.position.x += dx;
         this.position.y += dy;
         this.position.z += dz;
+        transformationDirty = true;
     }
 
     /**
@@ -77,6 +87,7 @@ public class Entity {
         this.rotX += dx;
         this.rotY += dy;
         this.rotZ += dz;
+        transformationDirty = true;
     }
 
     /**
@@ -93,14 +104,74 @@ public class Entity {
         return new Vector2f(x, y);
     }
 
+    /**
+     * Diese Funktion gibt die Ebene des Textur-Arrays zurück, in der die Textur der Entität liegt.
+     * Zusammen mit dem Texture Offset bestimmt sie den Ausschnitt der Textur.
+     *
+     * @return Ebene im Textur-Array (0 bei einer einzelnen Textur)
+     */
+    public int getTextureLayer() {
+        return Math.max(0, model.getTexture().getArrayLayer());
+    }
+
     /**
      * Diese Funktion gibt die Transformationsmatrix der Entität zurück,
      * die zur Verarbeitung im Shader benötigt wird.
+     * Die Matrix wird zwischengespeichert und nur neu berechnet, wenn sich Position oder Rotation geändert haben.
+     * Die zurückgegebene Matrix darf daher nicht verändert werden.
      *
      * @return Transformationsmatrix
      */
     public Matrix4f getTransformationMatrix() {
-        return Maths.createTransformationMatrix(position, rotX, rotY, rotZ, scale);
+        if (transformationDirty) {
+            Maths.createTransformationMatrix(position, rotX, rotY, rotZ, scale, transformationMatrix);
+            transformationDirty = false;
+        }
+        return transformationMatrix;
+    }
+
+    /**
+     * Diese Funktion berechnet den Mittelpunkt der umschließenden Kugel der Entität in Weltkoordinaten.
+     * Ohne {@link BoundingVolume} des Modells wird die Position der Entität verwendet.
+     *
+     * @param dest Vektor, in den der Mittelpunkt geschrieben wird
+     * @return Mittelpunkt der Kugel (dest)
+     */
+    public Vector3f getBoundingSphereCenter(Vector3f dest) {
+        BoundingVolume boundingVolume = model.getRawModel().getBoundingVolume();
+        if (boundingVolume == null) {
+            dest.set(position);
+            return dest;
+        }
+        Vector3f c = boundingVolume.getCenter();
+        Matrix4f m = getTransformationMatrix();
+        dest.set(m.m00 * c.x + m.m10 * c.y + m.m20 * c.z + m.m30,
+                m.m01 * c.x + m.m11 * c.y + m.m21 * c.z + m.m31,
+                m.m02 * c.x + m.m12 * c.y + m.m22 * c.z + m.m32);
+        return dest;
+    }
+
+    /**
+     * Diese Funktion übergibt den Radius der umschließenden Kugel der Entität in Weltkoordinaten.
+     * Ohne {@link BoundingVolume} des Modells ist der Radius unendlich, die Entität wird also nie verworfen.
+     *
+     * @return Radius der Kugel
+     */
+    public float getBoundingSphereRadius() {
+        BoundingVolume boundingVolume = model.getRawModel().getBoundingVolume();
+        if (boundingVolume == null) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return boundingVolume.getRadius() * scale;
+    }
+
+    /**
+     * Diese Funktion übergibt die Skalierung der Entität.
+     *
+     * @return Skalierung
+     */
+    public float getScale() {
+        return scale;
     }
 
     /**
@@ -114,6 +185,9 @@ public class Entity {
 
     /**
      * Diese Funktion übergibt die globale Position der Entität.
+     * Wird der Vektor direkt verändert, muss die Änderung über {@link Entity#setPosition(Vector3f)}
+     * oder {@link Entity#translate(float, float, float)} bekannt gemacht werden, damit die Transformationsmatrix
+     * neu berechnet wird.
      *
      * @return Position der Entität
      */
@@ -128,6 +202,7 @@ public class Entity {
      */
     public void setPosition(Vector3f position) {
         this.position = position;
+        transformationDirty = true;
     }
 
     /**
@@ -146,6 +221,7 @@ public class Entity {
      */
     public void setRotY(float rotY) {
         this.rotY = rotY;
+        transformationDirty = true;
     }
 }
 
@@ -7,6 +7,11 @@ import org.lwjgl.util.vector.Vector3f;
  */
 public class Light {
 
+    /**
+     * Anteil der Lichtfarbe, ab dem ein Licht nicht mehr berücksichtigt wird (weniger als eine 8-Bit-Farbstufe)
+     */
+    public static final float INFLUENCE_THRESHOLD = 1 / 256f;
+
     /**
      * globale Position des Lichts
      */
@@ -88,4 +93,45 @@ public class Light {
     public void setColor(Vector3f color) {
         this.color = color;
     }
+
+    /**
+     * Diese Funktion übergibt den hellsten Farbkanal des Lichts. Schwarze Lichter tragen nichts zur Beleuchtung bei.
+     *
+     * @return Helligkeit des Lichts
+     */
+    public float getBrightness() {
+        return Math.max(color.x, Math.max(color.y, color.z));
+    }
+
+    /**
+     * Diese Funktion übergibt den Beitrag des Lichts in einer Entfernung, also die Helligkeit geteilt durch die
+     * Abschwächung a + b * d + c * d².
+     *
+     * @param distance Entfernung zum Licht
+     * @return Beitrag des Lichts
+     */
+    public float getInfluence(float distance) {
+        return getBrightness() / (attenuation.x + attenuation.y * distance + attenuation.z * distance * distance);
+    }
+
+    /**
+     * Diese Funktion übergibt die Reichweite des Lichts, ab der sein Beitrag unter {@link Light#INFLUENCE_THRESHOLD}
+     * fällt.
+     *
+     * @return Reichweite, unendlich für Lichter ohne Abschwächung
+     */
+    public float getRange() {
+        float limit = getBrightness() / INFLUENCE_THRESHOLD - attenuation.x;
+        if (limit <= 0) {
+            return 0;
+        }
+        if (attenuation.z > 0) {
+            float b = attenuation.y;
+            return (float) ((-b + Math.sqrt(b * b + 4 * attenuation.z * limit)) / (2 * attenuation.z));
+        }
+        if (attenuation.y > 0) {
+            return limit / attenuation.y;
+        }
+        return Float.POSITIVE_INFINITY;
+    }
 }
@@ -5,7 +5,7 @@ import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 import org.lwjgl.util.vector.Vector3f;
 import renderEngine.DisplayManager;
-import terrain.Terrain;
+import terrain.TerrainWorld;
 
 /**
  * Diese Klasse repräsentiert einen Spieler mit Bewegungsprofilen.
@@ -82,10 +82,11 @@ public class Player extends Entity {
     /**
      * Diese Funktion aktualisiert die Position und Rotation des Spielers auf Grundlage der Tastatur- und Mauseingaben.
      * Diese Funktion berücksichtigt dabei den Untergrund auf dem Spiele steht, um die Höhe dementsprechend anzupassen.
+     * Bewegungen auf ein noch nicht geladenes Terrain werden verhindert.
      *
-     * @param terrain Untergrund
+     * @param world Untergrund
      */
-    public void move(Terrain terrain) {
+    public void move(TerrainWorld world) {
         checkInputs();
         checkMouse();
 
@@ -107,8 +108,13 @@ public class Player extends Entity {
         }
         verticalSpeed += GRAVITY * passedTime;
         float distanceVertical = verticalSpeed * passedTime;
+        // Solange das Ziel-Terrain noch nicht geladen ist, bleibt der Spieler an der Kante stehen
+        if (!world.isLoaded(getPosition().getX() - dx, getPosition().getZ() - dz)) {
+            dx = 0;
+            dz = 0;
+        }
         super.translate(-dx, distanceVertical, -dz);
-        float terrainHeight = terrain.getHeight(getPosition().getX(), getPosition().getZ());
+        float terrainHeight = world.getHeight(getPosition().getX(), getPosition().getZ());
 
         // Wenn der Spieler unter den Boden fällt, setze diesen zurück auf den Boden
         if (getPosition().getY() < terrainHeight) {
@@ -120,18 +126,6 @@ public class Player extends Entity {
             verticalSpeed = 0;
             super.getPosition().setY(terrainHeight);
         }
-
-        // Wenn der Spieler sich in die Nähe des Kartenrandes begibt, stoppe ihn
-        if (getPosition().getX() < 35) {
-            getPosition().setX(35);
-        } else if (getPosition().getX() > 765) {
-            getPosition().setX(765);
-        }
-        if (getPosition().getZ() < 35) {
-            getPosition().setZ(35);
-        } else if (getPosition().getZ() > 765) {
-            getPosition().setZ(765);
-        }
     }
 
     /**
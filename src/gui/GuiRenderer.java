@@ -2,10 +2,8 @@ package gui;
 
 import models.RawModel;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
 import org.lwjgl.util.vector.Matrix4f;
+import renderEngine.GLState;
 import renderEngine.Loader;
 import toolbox.Maths;
 
@@ -44,22 +42,20 @@ public class GuiRenderer {
      */
     public void render(List<GuiTexture> guis) {
         shader.start();
-        GL30.glBindVertexArray(quad.getVaoID());
-        GL20.glEnableVertexAttribArray(0);
+        GLState.bindVertexArray(quad.getVaoID());
+        GLState.enableVertexAttribArray(0);
+        GLState.setBlending(true);
+        GLState.setBlendFunction(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 
         for (GuiTexture gui : guis) {
-            GL13.glActiveTexture(GL13.GL_TEXTURE0);
-            GL11.glEnable(GL11.GL_BLEND);
-            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, gui.getTexture());
+            GLState.bindTexture(0, GL11.GL_TEXTURE_2D, gui.getTexture());
             Matrix4f matrix = Maths.createTransformationMatrix(gui.getPosition(), gui.getScale());
             shader.loadTransformation(matrix);
             GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, quad.getVertexCount());
         }
 
-        GL11.glDisable(GL11.GL_BLEND);
-        GL20.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
+        GLState.setBlending(false);
+        GLState.bindVertexArray(0);
         shader.stop();
     }
 
@@ -0,0 +1,143 @@
+package impostors;
+
+import models.VertexFormat;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import shaders.ShaderProgram;
+import textures.ModelTexture;
+
+/**
+ * Diese Klasse implementiert und erweitert das {@link ShaderProgram}, um ein Modell aus einer Blickrichtung
+ * in den Farb- und Normalen-Atlas der Impostors zu rendern.
+ */
+public class ImpostorBakeShader extends ShaderProgram {
+
+    /**
+     * Referenz auf die Vertex Shader Datei
+     */
+    private static final String VERTEX_FILE = "src/impostors/impostorBakeVertexShader";
+    /**
+     * Referenz auf die Fragment Shader Datei
+     */
+    private static final String FRAGMENT_FILE = "src/impostors/impostorBakeFragmentShader";
+
+    /**
+     * Referenz auf die Matrix aus Blickrichtung und orthografischer Projektion in dem Shader Programm
+     */
+    private int locationBakeMatrix;
+    /**
+     * Referenz auf die Information, ob die Normale nach oben zeigen soll
+     */
+    private int locationIsFakeLit;
+    /**
+     * Referenz auf die Verschiebung quantisierter Positionen in den Modellraum
+     */
+    private int locationPositionOffset;
+    /**
+     * Referenz auf die Skalierung quantisierter Positionen in den Modellraum
+     */
+    private int locationPositionScale;
+    /**
+     * Referenz auf die Ebene im Textur-Array
+     */
+    private int locationTextureLayer;
+    /**
+     * Referenz auf die Information, ob aus dem Textur-Array statt der einzelnen Textur gelesen werden soll
+     */
+    private int locationUseTextureArray;
+    /**
+     * Referenz auf den Sampler der einzelnen Textur
+     */
+    private int locationTextureSampler;
+    /**
+     * Referenz auf den Sampler des Textur-Arrays
+     */
+    private int locationTextureArraySampler;
+
+    /**
+     * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
+     * in der OpenGL-Shader-Language für das Vorrendern der Impostors erstellt.
+     */
+    public ImpostorBakeShader() {
+        super(VERTEX_FILE, FRAGMENT_FILE);
+    }
+
+    /**
+     * Diese Funktion macht die Positionen, Texturkoordinaten und Normalenvektoren der Verticies im Shader zugängig.
+     */
+    @Override
+    protected void bindAttributes() {
+        super.bindAttribute(0, "position");
+        super.bindAttribute(1, "textureCoordinates");
+        super.bindAttribute(2, "normal");
+    }
+
+    /**
+     * Diese Funktion bestimmt die Referenzen auf genutzte OpenGL Ressourcen, um Daten aus Java in den Shader zu laden.
+     */
+    @Override
+    protected void getAllUniformLocations() {
+        locationBakeMatrix = super.getUniformLocation("bakeMatrix");
+        locationIsFakeLit = super.getUniformLocation("isFakeLit");
+        locationPositionOffset = super.getUniformLocation("positionOffset");
+        locationPositionScale = super.getUniformLocation("positionScale");
+        locationTextureLayer = super.getUniformLocation("textureLayer");
+        locationUseTextureArray = super.getUniformLocation("useTextureArray");
+        locationTextureSampler = super.getUniformLocation("textureSampler");
+        locationTextureArraySampler = super.getUniformLocation("textureArraySampler");
+    }
+
+    /**
+     * Diese Funktion verbindet den Sampler der einzelnen Textur mit der Textur-Einheit 0
+     * und den Sampler des Textur-Arrays mit der Textur-Einheit 1.
+     */
+    @Override
+    public void connectTextureUnits() {
+        super.loadInt(locationTextureSampler, 0);
+        super.loadInt(locationTextureArraySampler, 1);
+    }
+
+    /**
+     * Diese Funktion hinterlegt, ob und aus welcher Ebene eines Textur-Arrays gelesen werden soll.
+     *
+     * @param texture Textur des Modells
+     */
+    public void loadTexture(ModelTexture texture) {
+        super.loadBoolean(locationUseTextureArray, texture.isTextureArray());
+        super.loadFloat(locationTextureLayer, Math.max(0, texture.getArrayLayer()));
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Matrix aus Blickrichtung und orthografischer Projektion.
+     *
+     * @param matrix Matrix für die aktuelle Ansicht
+     */
+    public void loadBakeMatrix(Matrix4f matrix) {
+        super.loadMatrix(locationBakeMatrix, matrix);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Information, ob die Normale nach oben zeigen soll.
+     *
+     * @param isFakeLit Information, ob die Normale nach oben zeigen soll
+     */
+    public void loadIsFakeLit(boolean isFakeLit) {
+        super.loadBoolean(locationIsFakeLit, isFakeLit);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Umrechnung quantisierter Positionen eines Modells in den Modellraum.
+     * Ohne {@link VertexFormat} werden die Positionen unverändert verwendet.
+     *
+     * @param format {@link VertexFormat} des Modells oder null
+     */
+    public void loadVertexFormat(VertexFormat format) {
+        if (format == null) {
+            super.loadVector(locationPositionOffset, new Vector3f(0, 0, 0));
+            super.loadFloat(locationPositionScale, 1);
+        } else {
+            super.loadVector(locationPositionOffset, format.getPositionOffset());
+            super.loadFloat(locationPositionScale, format.getPositionScale());
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package impostors;
+
+import entities.Entity;
+import entities.Light;
+import models.BoundingVolume;
+import models.RawModel;
+import models.TexturedModel;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.Display;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL14;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import renderEngine.GLState;
+import renderEngine.Loader;
+import renderEngine.MasterRenderer;
+import textures.ModelTexture;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diese Klasse ist ein Renderer zum Darstellen weit entfernter Entities als Impostors.
+ * <p>
+ * Jedes registrierte Modell wird beim Start einmalig aus {@link ImpostorRenderer#VIEW_COUNT} Blickrichtungen in
+ * eine Zeile eines Farb- und eines Normalen-Atlas gerendert. Beim Rendern wird jede Entity als instanziertes,
+ * zur Kamera gedrehtes Rechteck gezeichnet, das zwischen den beiden nächstgelegenen Ansichten überblendet.
+ */
+public class ImpostorRenderer {
+
+    /**
+     * Anzahl der Blickrichtungen, aus denen ein Modell vorgerendert wird
+     */
+    public static final int VIEW_COUNT = 8;
+    /**
+     * Maximale Anzahl an Modellen (Zeilen im Atlas)
+     */
+    public static final int MAX_MODELS = 8;
+    /**
+     * Kantenlänge einer Ansicht im Atlas in Pixeln
+     */
+    private static final int FRAME_SIZE = 128;
+
+    /**
+     * Eckpunkte des Billboards (x von links nach rechts, y von unten nach oben)
+     */
+    private static final float[] CORNERS = {-1, 1, -1, 0, 1, 1, 1, 0};
+    /**
+     * Anzahl der Floats pro Instanz im Instanz-VBO (Position + Skalierung, Rotation + Atlas-Zeile + frei)
+     */
+    private static final int INSTANCE_DATA_LENGTH = 8;
+    /**
+     * Anzahl der Instanzen, für die das Instanz-VBO initial angelegt wird
+     */
+    private static final int INITIAL_INSTANCE_CAPACITY = 1024;
+
+    /**
+     * Shader zum Rendern der Impostors
+     */
+    private final ImpostorShader shader = new ImpostorShader();
+    /**
+     * Shader zum Vorrendern der Ansichten
+     */
+    private final ImpostorBakeShader bakeShader = new ImpostorBakeShader();
+
+    /**
+     * Rechteck, das für jede Instanz gezeichnet wird
+     */
+    private final RawModel quad;
+    /**
+     * VBO, in das die Instanzdaten gestreamt werden
+     */
+    private final int instanceVbo;
+    /**
+     * Buffer zum Zusammenstellen der Instanzdaten
+     */
+    private FloatBuffer instanceBuffer = BufferUtils.createFloatBuffer(INITIAL_INSTANCE_CAPACITY * INSTANCE_DATA_LENGTH);
+
+    /**
+     * Framebuffer, in den die Ansichten gerendert werden
+     */
+    private int fbo = 0;
+    /**
+     * Renderbuffer für die Tiefe beim Vorrendern
+     */
+    private int depthBuffer = 0;
+    /**
+     * Textur mit den Farben aller Ansichten
+     */
+    private int colorAtlas = 0;
+    /**
+     * Textur mit den Normalen (im Modellraum) aller Ansichten
+     */
+    private int normalAtlas = 0;
+
+    /**
+     * Atlas-Zeile je registriertem Modell
+     */
+    private final Map<TexturedModel, Integer> rows = new HashMap<>();
+    /**
+     * Entities, die im nächsten Frame als Impostor gerendert werden sollen
+     */
+    private final List<Entity> entities = new ArrayList<>();
+    /**
+     * Anzahl der Impostors, die im letzten Frame gerendert wurden
+     */
+    private int renderedCount = 0;
+
+    /**
+     * Ein {@link ImpostorRenderer} wird erstellt. Projektionsmatrix und Nebelwerte liest der Shader aus dem
+     * gemeinsamen Uniform-Block {@link shaders.FrameData}.
+     *
+     * @param loader {@link Loader} zum Laden des Rechtecks und des Instanz-VBOs
+     */
+    public ImpostorRenderer(Loader loader) {
+        quad = loader.loadToVAO(CORNERS, 2);
+        instanceVbo = loader.createEmptyVbo(INITIAL_INSTANCE_CAPACITY * INSTANCE_DATA_LENGTH);
+
+        // Instanz-Attribute einmalig im VAO des Rechtecks hinterlegen
+        GLState.bindVertexArray(quad.getVaoID());
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        int stride = INSTANCE_DATA_LENGTH * 4;
+        GL20.glVertexAttribPointer(1, 4, GL11.GL_FLOAT, false, stride, 0);
+        GL33.glVertexAttribDivisor(1, 1);
+        GL20.glVertexAttribPointer(2, 4, GL11.GL_FLOAT, false, stride, 4 * 4);
+        GL33.glVertexAttribDivisor(2, 1);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+    }
+
+    /**
+     * Diese Funktion rendert ein Modell aus allen Blickrichtungen in den Atlas, damit dessen Entities
+     * anschließend als Impostors dargestellt werden können.
+     *
+     * @param model texturiertes Modell
+     * @return Information, ob das Modell registriert ist
+     */
+    public boolean bake(TexturedModel model) {
+        if (rows.containsKey(model)) {
+            return true;
+        }
+        BoundingVolume boundingVolume = model.getRawModel().getBoundingVolume();
+        if (boundingVolume == null || rows.size() >= MAX_MODELS) {
+            System.err.println("Impostor could not be created! (" + rows.size() + "/" + MAX_MODELS + " models)");
+            return false;
+        }
+        if (fbo == 0) {
+            createAtlas();
+        }
+        int row = rows.size();
+
+        Vector3f min = boundingVolume.getMin();
+        Vector3f max = boundingVolume.getMax();
+        float halfWidth = (float) Math.sqrt(Math.max(min.x * min.x, max.x * max.x) + Math.max(min.z * min.z, max.z * max.z));
+
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
+        GLState.setDepthTest(true);
+        GL11.glEnable(GL11.GL_SCISSOR_TEST);
+        MasterRenderer.disableCulling();
+        GL11.glClearColor(0, 0, 0, 0);
+
+        RawModel rawModel = model.getRawModel();
+        GLState.bindVertexArray(rawModel.getVaoID());
+        GLState.enableVertexAttribArray(0);
+        GLState.enableVertexAttribArray(1);
+        GLState.enableVertexAttribArray(2);
+        ModelTexture modelTexture = model.getTexture();
+        if (modelTexture.isTextureArray()) {
+            GLState.bindTexture(1, GL30.GL_TEXTURE_2D_ARRAY, modelTexture.getId());
+        } else {
+            GLState.bindTexture(0, GL11.GL_TEXTURE_2D, modelTexture.getId());
+        }
+
+        bakeShader.start();
+        bakeShader.loadIsFakeLit(modelTexture.isFakeLit());
+        bakeShader.loadTexture(modelTexture);
+        bakeShader.loadVertexFormat(rawModel.getVertexFormat());
+        Matrix4f projection = createOrthographicMatrix(halfWidth, min.y, max.y);
+        Matrix4f view = new Matrix4f();
+        Matrix4f bakeMatrix = new Matrix4f();
+        for (int viewIndex = 0; viewIndex < VIEW_COUNT; viewIndex++) {
+            GL11.glViewport(viewIndex * FRAME_SIZE, row * FRAME_SIZE, FRAME_SIZE, FRAME_SIZE);
+            GL11.glScissor(viewIndex * FRAME_SIZE, row * FRAME_SIZE, FRAME_SIZE, FRAME_SIZE);
+            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+
+            // Blick aus Richtung (sin a, 0, cos a) auf den Ursprung des Modells
+            float angle = (float) (2 * Math.PI * viewIndex / VIEW_COUNT);
+            view.setIdentity();
+            Matrix4f.rotate(-angle, new Vector3f(0, 1, 0), view, view);
+            Matrix4f.mul(projection, view, bakeMatrix);
+            bakeShader.loadBakeMatrix(bakeMatrix);
+            GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, rawModel.getVertexCount(), GL11.GL_UNSIGNED_INT,
+                    rawModel.getIndexOffset(0), rawModel.getBaseVertex());
+        }
+        bakeShader.stop();
+
+        GLState.bindVertexArray(0);
+        MasterRenderer.enableCulling();
+        GL11.glDisable(GL11.GL_SCISSOR_TEST);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        GL11.glViewport(0, 0, Display.getWidth(), Display.getHeight());
+
+        for (int texture : new int[]{colorAtlas, normalAtlas}) {
+            GLState.bindTexture(0, GL11.GL_TEXTURE_2D, texture);
+            GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
+        }
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, 0);
+
+        shader.start();
+        shader.loadModelBounds(row, new Vector3f(halfWidth, min.y, max.y));
+        shader.stop();
+        rows.put(model, row);
+        return true;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob für ein Modell ein Impostor vorliegt.
+     *
+     * @param model texturiertes Modell
+     * @return Information, ob das Modell als Impostor dargestellt werden kann
+     */
+    public boolean hasImpostor(TexturedModel model) {
+        return rows.containsKey(model);
+    }
+
+    /**
+     * Diese Funktion übergibt eine Entity, die im nächsten Frame als Impostor gerendert werden soll.
+     *
+     * @param entity Entity mit einem registrierten Modell
+     */
+    public void processEntity(Entity entity) {
+        entities.add(entity);
+    }
+
+    /**
+     * Diese Funktion rendert alle übergebenen Entities mit einem einzigen instanzierten Draw Call als Impostors.
+     * Beleuchtet wird nur mit der ungedämpften Lichtquelle (Sonne/Mond), da Punktlichter auf diese Entfernung
+     * keinen sichtbaren Beitrag mehr leisten.
+     *
+     * Kamera, Nebel und Himmelfarbe liest der Shader aus {@link shaders.FrameData}.
+     *
+     * @param lights Lichter der Szene
+     */
+    public void render(List<Light> lights) {
+        renderedCount = entities.size();
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        ensureInstanceCapacity(entities.size());
+        instanceBuffer.clear();
+        for (Entity entity : entities) {
+            Vector3f position = entity.getPosition();
+            instanceBuffer.put(position.x);
+            instanceBuffer.put(position.y);
+            instanceBuffer.put(position.z);
+            instanceBuffer.put(entity.getScale());
+            instanceBuffer.put((float) Math.toRadians(entity.getRotY()));
+            instanceBuffer.put(rows.get(entity.getModel()));
+            instanceBuffer.put(0);
+            instanceBuffer.put(0);
+        }
+        instanceBuffer.flip();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instanceBuffer, GL15.GL_STREAM_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        shader.start();
+        shader.loadAtlasLayout(VIEW_COUNT, MAX_MODELS);
+        shader.loadLight(findDirectionalLight(lights));
+
+        MasterRenderer.disableCulling();
+        GLState.bindVertexArray(quad.getVaoID());
+        GLState.enableVertexAttribArray(0);
+        GLState.enableVertexAttribArray(1);
+        GLState.enableVertexAttribArray(2);
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, colorAtlas);
+        GLState.bindTexture(1, GL11.GL_TEXTURE_2D, normalAtlas);
+
+        GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, quad.getVertexCount(), entities.size());
+
+        GLState.bindVertexArray(0);
+        MasterRenderer.enableCulling();
+        shader.stop();
+
+        entities.clear();
+    }
+
+    /**
+     * Diese Funktion vergrößert den Buffer für die Instanzdaten, falls dieser nicht ausreicht.
+     *
+     * @param instanceCount Anzahl der Instanzen
+     */
+    private void ensureInstanceCapacity(int instanceCount) {
+        int required = instanceCount * INSTANCE_DATA_LENGTH;
+        if (instanceBuffer.capacity() < required) {
+            instanceBuffer = BufferUtils.createFloatBuffer(Math.max(required, instanceBuffer.capacity() * 2));
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Impostors, die im letzten Frame gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Impostors
+     */
+    public int getRenderedCount() {
+        return renderedCount;
+    }
+
+    /**
+     * Entbindet alle Ressourcen, die vor Beenden der Anwendung wieder freigegeben werden müssen.
+     */
+    public void cleanUp() {
+        shader.cleanUp();
+        bakeShader.cleanUp();
+        if (fbo != 0) {
+            GL30.glDeleteFramebuffers(fbo);
+            GL30.glDeleteRenderbuffers(depthBuffer);
+            GL11.glDeleteTextures(colorAtlas);
+            GL11.glDeleteTextures(normalAtlas);
+            GLState.forgetTexture(colorAtlas);
+            GLState.forgetTexture(normalAtlas);
+        }
+    }
+
+    /**
+     * Diese Funktion sucht die ungedämpfte Lichtquelle der Szene (Sonne/Mond).
+     *
+     * @param lights Lichter der Szene
+     * @return ungedämpfte Lichtquelle oder null, falls keine vorhanden ist
+     */
+    private static Light findDirectionalLight(List<Light> lights) {
+        for (Light light : lights) {
+            Vector3f attenuation = light.getAttenuation();
+            if (attenuation.y == 0 && attenuation.z == 0) {
+                return light;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Diese Funktion erstellt eine orthografische Projektion, die ein Modell aus jeder horizontalen Blickrichtung
+     * vollständig abbildet.
+     *
+     * @param halfWidth halbe Breite des Modells (horizontaler Radius um die y-Achse)
+     * @param bottom    minimale Höhe des Modells
+     * @param top       maximale Höhe des Modells
+     * @return Projektionsmatrix
+     */
+    private static Matrix4f createOrthographicMatrix(float halfWidth, float bottom, float top) {
+        Matrix4f matrix = new Matrix4f();
+        matrix.m00 = 1 / halfWidth;
+        matrix.m11 = 2 / (top - bottom);
+        matrix.m22 = -1 / halfWidth;
+        matrix.m31 = -(top + bottom) / (top - bottom);
+        matrix.m33 = 1;
+        return matrix;
+    }
+
+    /**
+     * Diese Funktion legt den Framebuffer mit Farb- und Normalen-Atlas sowie einem Tiefenpuffer an.
+     */
+    private void createAtlas() {
+        int width = VIEW_COUNT * FRAME_SIZE;
+        int height = MAX_MODELS * FRAME_SIZE;
+
+        fbo = GL30.glGenFramebuffers();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
+        colorAtlas = createAtlasTexture(width, height);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, colorAtlas, 0);
+        normalAtlas = createAtlasTexture(width, height);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT1, GL11.GL_TEXTURE_2D, normalAtlas, 0);
+
+        depthBuffer = GL30.glGenRenderbuffers();
+        GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, depthBuffer);
+        GL30.glRenderbufferStorage(GL30.GL_RENDERBUFFER, GL14.GL_DEPTH_COMPONENT24, width, height);
+        GL30.glFramebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL30.GL_RENDERBUFFER, depthBuffer);
+
+        IntBuffer drawBuffers = BufferUtils.createIntBuffer(2);
+        drawBuffers.put(GL30.GL_COLOR_ATTACHMENT0).put(GL30.GL_COLOR_ATTACHMENT1).flip();
+        GL20.glDrawBuffers(drawBuffers);
+
+        // Der gesamte Atlas startet transparent
+        GL11.glClearColor(0, 0, 0, 0);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+
+        if (GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            System.err.println("Impostor framebuffer is not complete!");
+        }
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+    }
+
+    /**
+     * Diese Funktion legt eine leere RGBA-Textur mit Mipmaps für den Atlas an.
+     *
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @return Referenz auf die Textur
+     */
+    private static int createAtlasTexture(int width, int height) {
+        int texture = GL11.glGenTextures();
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, texture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        return texture;
+    }
+}
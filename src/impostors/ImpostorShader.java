@@ -0,0 +1,131 @@
+package impostors;
+
+import entities.Light;
+import org.lwjgl.util.vector.Vector3f;
+import shaders.ShaderProgram;
+
+/**
+ * Diese Klasse implementiert und erweitert das {@link ShaderProgram} für die Darstellung der Impostors.
+ * Kamera, Nebel und Himmelfarbe liest der Shader aus dem gemeinsamen Uniform-Block {@link shaders.FrameData}.
+ */
+public class ImpostorShader extends ShaderProgram {
+
+    /**
+     * Referenz auf die Impostor Vertex Shader Datei
+     */
+    private static final String VERTEX_FILE = "src/impostors/impostorVertexShader";
+    /**
+     * Referenz auf die Impostor Fragment Shader Datei
+     */
+    private static final String FRAGMENT_FILE = "src/impostors/impostorFragmentShader";
+
+    /**
+     * Referenz auf die Position der Lichtquelle in dem Shader Programm
+     */
+    private int locationLightPosition;
+    /**
+     * Referenz auf die Farbe der Lichtquelle in dem Shader Programm
+     */
+    private int locationLightColor;
+    /**
+     * Referenz auf die Ausdehnung der Modelle je Zeile des Atlas in dem Shader Programm
+     */
+    private int[] locationModelBounds;
+    /**
+     * Referenz auf die Anzahl der Blickrichtungen je Modell
+     */
+    private int locationViewCount;
+    /**
+     * Referenz auf die Anzahl der Zeilen des Atlas
+     */
+    private int locationRowCount;
+    /**
+     * Referenz auf den Farb-Atlas in dem Shader Programm
+     */
+    private int locationColorAtlas;
+    /**
+     * Referenz auf den Normalen-Atlas in dem Shader Programm
+     */
+    private int locationNormalAtlas;
+
+    /**
+     * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
+     * in der OpenGL-Shader-Language für die Impostors erstellt.
+     */
+    public ImpostorShader() {
+        super(VERTEX_FILE, FRAGMENT_FILE);
+    }
+
+    /**
+     * Diese Funktion macht die Eckpunkte des Billboards und die Instanzdaten im Shader zugängig.
+     */
+    @Override
+    protected void bindAttributes() {
+        super.bindAttribute(0, "corner");
+        super.bindAttribute(1, "instancePosition");
+        super.bindAttribute(2, "instanceData");
+    }
+
+    /**
+     * Diese Funktion bestimmt die Referenzen auf genutzte OpenGL Ressourcen, um Daten aus Java in den Shader zu laden.
+     */
+    @Override
+    protected void getAllUniformLocations() {
+        locationLightPosition = super.getUniformLocation("directionalLightPosition");
+        locationLightColor = super.getUniformLocation("directionalLightColor");
+        locationViewCount = super.getUniformLocation("viewCount");
+        locationRowCount = super.getUniformLocation("rowCount");
+        locationColorAtlas = super.getUniformLocation("colorAtlas");
+        locationNormalAtlas = super.getUniformLocation("normalAtlas");
+
+        locationModelBounds = new int[ImpostorRenderer.MAX_MODELS];
+        for (int i = 0; i < ImpostorRenderer.MAX_MODELS; i++) {
+            locationModelBounds[i] = super.getUniformLocation("modelBounds[" + i + "]");
+        }
+    }
+
+    /**
+     * Diese Funktion verbindet die Atlas-Sampler mit den Textur-Einheiten 0 und 1.
+     */
+    @Override
+    public void connectTextureUnits() {
+        super.loadInt(locationColorAtlas, 0);
+        super.loadInt(locationNormalAtlas, 1);
+    }
+
+    /**
+     * Diese Funktion hinterlegt den Aufbau des Atlas.
+     *
+     * @param viewCount Anzahl der Blickrichtungen je Modell
+     * @param rowCount  Anzahl der Zeilen des Atlas
+     */
+    public void loadAtlasLayout(int viewCount, int rowCount) {
+        super.loadFloat(locationViewCount, viewCount);
+        super.loadFloat(locationRowCount, rowCount);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Ausdehnung eines Modells im Modellraum.
+     *
+     * @param row    Zeile des Modells im Atlas
+     * @param bounds halbe Breite, minimale und maximale Höhe des Modells
+     */
+    public void loadModelBounds(int row, Vector3f bounds) {
+        super.loadVector(locationModelBounds[row], bounds);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Lichtquelle, mit der die Impostors beleuchtet werden.
+     *
+     * @param light Lichtquelle oder null, falls nur das Umgebungslicht wirken soll
+     */
+    public void loadLight(Light light) {
+        if (light != null) {
+            super.loadVector(locationLightPosition, light.getPosition());
+            super.loadVector(locationLightColor, light.getColor());
+        } else {
+            super.loadVector(locationLightPosition, new Vector3f(0, 1, 0));
+            super.loadVector(locationLightColor, new Vector3f(0, 0, 0));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Dieses Paket stellt Klassen bereit, um weit entfernte Vegetation als vorgerenderte Billboards (Impostors)
+ * darzustellen.
+ */
+package impostors;
@@ -4,23 +4,26 @@ import entities.Camera;
 import entities.Entity;
 import entities.Light;
 import entities.Player;
-import models.OBJLoader;
 import models.RawModel;
 import models.TexturedModel;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 import org.lwjgl.util.vector.Vector3f;
 import renderEngine.DisplayManager;
-import renderEngine.Loader;
+import renderEngine.AssetPipeline;
+import renderEngine.AssetRegistry;
 import renderEngine.MasterRenderer;
-import sound.AudioMaster;
 import sound.Source;
+import spatial.LightManager;
+import spatial.QuadTree;
 import terrain.Terrain;
+import terrain.TerrainWorld;
 import textures.ModelTexture;
 import toolbox.MousePicker;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Der GameLoop zur Generierung und zum Rendern der Entities.
@@ -36,11 +39,10 @@ public class EntityGameLoop {
      */
     private static Player player;
     /**
-     * Die Liste mit den Lichtern der Szene
-     * Bis zu vier Lichter werden aktuell unterstützt, ist aber bei ausreichend Rechenleistung
-     * beliebig erweiterbar.
+     * Die Lichter der Szene
+     * Es werden beliebig viele Lichter unterstützt, jedes Fragment berechnet nur die stärksten Lichter in seiner Nähe.
      */
-    private static List<Light> lights;
+    private static LightManager lights;
 
     /**
      * Das Weihnachtsbaum Objekt in der Szene
@@ -114,6 +116,10 @@ public class EntityGameLoop {
      * Die Vögel, die über dem Wald fliegen
      */
     private static List<Entity> birds;
+    /**
+     * Räumlicher Index der beweglichen Entities (Vögel und Dino), der nach jeder Bewegung nachgeführt wird
+     */
+    private static QuadTree movingEntities;
 
     /**
      * Gibt an, ob der Spieler gerade Stritte macht
@@ -158,73 +164,109 @@ public class EntityGameLoop {
     private static boolean dragonVisible = false;
 
     /**
-     * Unter Nutzung des Terrains, eines Loaders und des Renderers
+     * Unter Nutzung des Terrains, der {@link AssetPipeline} und des Renderers
      * werden alle Entities (außerhalb der Vegetation) erstellt.
+     * Modelle und Texturen werden über die {@link AssetRegistry} angefordert, damit mehrfach verwendete Modelle
+     * (z.B. die Vögel) nur einmal geladen und gemeinsam gerendert werden. Die auch als Vegetation genutzten Modelle
+     * werden von {@link VegetationGameLoop#getModel} übernommen, das daher zuerst vorbereitet werden muss.
      *
-     * @param terrain  {@link Terrain}
-     * @param loader   {@link Loader}
+     * @param world    {@link TerrainWorld}
+     * @param assets   {@link AssetPipeline} zum Warten auf die Ressourcen und zum Laden der Toneffekte
+     * @param registry {@link AssetRegistry} zum geteilten Laden der Modelle und Texturen
      * @param renderer {@link MasterRenderer}
      */
-    public static void prepare(Terrain terrain, Loader loader, MasterRenderer renderer) {
+    public static void prepare(TerrainWorld world, AssetPipeline assets, AssetRegistry registry, MasterRenderer renderer) {
+        // Alle Ressourcen werden angefordert, bevor auf die erste gewartet wird
+        Future<RawModel> playerModelAsset = registry.loadModel("assets/player");
+        Future<Integer> playerTextureAsset = registry.loadTexture("assets/player");
+        Future<RawModel> treeDecorationModelAsset = registry.loadModel("trees/shinytree");
+        Future<Integer> treeDecorationTextureAsset = registry.loadTexture("trees/shinytree");
+        Future<RawModel> caveEntryModelAsset = registry.loadModel("cavefinal");
+        Future<Integer> caveEntryTextureAsset = registry.loadTexture("cavefinal");
+        Future<RawModel> caveModelAsset = registry.loadModel("dickemap");
+        Future<Integer> caveTextureAsset = registry.loadTexture("dickemap");
+        Future<RawModel> diamondModelAsset = registry.loadModel("assets/diamond");
+        Future<Integer> diamondTextureAsset = registry.loadTexture("assets/diamond");
+        Future<RawModel> standModelAsset = registry.loadModel("assets/stativ");
+        Future<Integer> standTextureAsset = registry.loadTexture("assets/stativ");
+        Future<RawModel> dinoModelAsset = registry.loadModel("assets/unsafedino");
+        Future<Integer> dinoTextureAsset = registry.loadTexture("assets/unsafedino");
+        Future<RawModel> houseModelAsset = registry.loadModel("assets/house");
+        Future<Integer> houseTextureAsset = registry.loadTexture("assets/house");
+        Future<RawModel> colorBirdModelAsset = registry.loadModel("failes/birdcolor");
+        Future<Integer> colorBirdTextureAsset = registry.loadTexture("failes/birdcolor");
+        Future<RawModel> forestFailesModelAsset = registry.loadModel("failes/forestfailes");
+        Future<Integer> forestFailesTextureAsset = registry.loadTexture("failes/forestfailes");
+        Future<RawModel> newPlayerModelAsset = registry.loadModel("failes/newplayer");
+        Future<Integer> newPlayerTextureAsset = registry.loadTexture("failes/newplayer");
+        Future<RawModel> oldUserModelAsset = registry.loadModel("failes/olduser");
+        Future<Integer> oldUserTextureAsset = registry.loadTexture("failes/olduser");
+        Future<RawModel> runTreeModelAsset = registry.loadModel("failes/runtree");
+        Future<Integer> runTreeTextureAsset = registry.loadTexture("failes/runtree");
+        Future<RawModel> dragonModelAsset = registry.loadModel("dragon");
+        Future<Integer> dragonTextureAsset = registry.loadTexture("blue");
+        Future<RawModel> spawnTreeModelAsset = registry.loadModel("trees/parrottree");
+        Future<Integer> spawnTreeTextureAsset = registry.loadTexture("trees/parrottree");
+        Future<TexturedModel> birdAsset = registry.loadTexturedModel("trees/firstbird");
+        Future<Integer> footstepsAsset = assets.loadSound("sound/footsteps_short.wav");
+
         /** Player Start */
-        RawModel playerModel = OBJLoader.loadObjModel("assets/player", loader);
-        ModelTexture playerTexture = new ModelTexture(loader.loadTexture("assets/player"));
+        RawModel playerModel = assets.await(playerModelAsset);
+        ModelTexture playerTexture = new ModelTexture(assets.await(playerTextureAsset));
         TexturedModel texturedPlayerModel = new TexturedModel(playerModel, playerTexture);
-        player = new Player(texturedPlayerModel, new Vector3f(400, terrain.getHeight(400, 400), 400), 0, 180, 0, 8);
+        player = new Player(texturedPlayerModel, new Vector3f(400, world.getHeight(400, 400), 400), 0, 180, 0, 8);
         camera = new Camera(player);
         /** Player End */
 
         /** Lights Start */
-        lights = new ArrayList<>();
+        lights = new LightManager();
         lights.add(new Light(new Vector3f(0, 0, 0), new Vector3f(1, 1, 1), new Vector3f(1, 0.01f, 0.001f)));
         lights.add(new Light(new Vector3f(0, 0, 0), new Vector3f(1, 1, 1), new Vector3f(1, 0.01f, 0.001f)));
         lights.add(new Light(new Vector3f(+600, 3000, -500), new Vector3f(1f, 1f, 1f)));
-        lights.add(new Light(new Vector3f(430, terrain.getHeight(430, 380) + 10, 380), new Vector3f(0, 0, 0), new Vector3f(1, 0.01f, 0.01f)));
+        lights.add(new Light(new Vector3f(430, world.getHeight(430, 380) + 10, 380), new Vector3f(0, 0, 0), new Vector3f(1, 0.01f, 0.01f)));
         /** Lights End */
 
         /** Christmas Tree Start */
-        RawModel christmasTreeModel = OBJLoader.loadObjModel("trees/christmastree", loader);
-        ModelTexture christmasTreeTexture = new ModelTexture(loader.loadTexture("trees/christmastree"));
-        TexturedModel texturedChristmasTreeModel = new TexturedModel(christmasTreeModel, christmasTreeTexture);
-        christmasTree = new Entity(texturedChristmasTreeModel, new Vector3f(430, terrain.getHeight(430, 380), 380), 0, 0, 0, 18);
+        TexturedModel texturedChristmasTreeModel = VegetationGameLoop.getModel("trees/christmastree");
+        christmasTree = new Entity(texturedChristmasTreeModel, new Vector3f(430, world.getHeight(430, 380), 380), 0, 0, 0, 18);
 
-        RawModel treeDecorationModel = OBJLoader.loadObjModel("trees/shinytree", loader);
-        ModelTexture treeDecorationTexture = new ModelTexture(loader.loadTexture("trees/shinytree"));
+        RawModel treeDecorationModel = assets.await(treeDecorationModelAsset);
+        ModelTexture treeDecorationTexture = new ModelTexture(assets.await(treeDecorationTextureAsset));
         treeDecorationTexture.setShineDamper(15);
         treeDecorationTexture.setReflectivity(1);
         TexturedModel treeDecorationTexturedModel = new TexturedModel(treeDecorationModel, treeDecorationTexture);
-        treeDecoration = new Entity(treeDecorationTexturedModel, new Vector3f(430, terrain.getHeight(430, 380), 380), 0, 0, 0, 18);
+        treeDecoration = new Entity(treeDecorationTexturedModel, new Vector3f(430, world.getHeight(430, 380), 380), 0, 0, 0, 18);
         /** Christmas Tree End */
 
         /** Cave Start */
-        RawModel caveEntryModel = OBJLoader.loadObjModel("cavefinal", loader);
-        ModelTexture caveEntryTexture = new ModelTexture(loader.loadTexture("cavefinal"));
+        RawModel caveEntryModel = assets.await(caveEntryModelAsset);
+        ModelTexture caveEntryTexture = new ModelTexture(assets.await(caveEntryTextureAsset));
         TexturedModel caveEntryTexturedModel = new TexturedModel(caveEntryModel, caveEntryTexture);
-        caveEntry = new Entity(caveEntryTexturedModel, new Vector3f(185, terrain.getHeight(185, 216) + 10, 216), 0, -30, 0, 60);
+        caveEntry = new Entity(caveEntryTexturedModel, new Vector3f(185, world.getHeight(185, 216) + 10, 216), 0, -30, 0, 60);
 
-        RawModel caveModel = OBJLoader.loadObjModel("dickemap", loader);
-        ModelTexture caveTexture = new ModelTexture(loader.loadTexture("dickemap"));
+        RawModel caveModel = assets.await(caveModelAsset);
+        ModelTexture caveTexture = new ModelTexture(assets.await(caveTextureAsset));
         TexturedModel caveTexturedModel = new TexturedModel(caveModel, caveTexture);
-        cave = new Entity(caveTexturedModel, new Vector3f(167, terrain.getHeight(185, 216) + 5, 210), 0, -30, 0, 1.7f);
+        cave = new Entity(caveTexturedModel, new Vector3f(167, world.getHeight(185, 216) + 5, 210), 0, -30, 0, 1.7f);
         /** Cave End */
 
         /** Start Diamond */
-        RawModel diamondModel = OBJLoader.loadObjModel("assets/diamond", loader);
-        ModelTexture diamondTexture = new ModelTexture(loader.loadTexture("assets/diamond"));
+        RawModel diamondModel = assets.await(diamondModelAsset);
+        ModelTexture diamondTexture = new ModelTexture(assets.await(diamondTextureAsset));
         diamondTexture.setShineDamper(15);
         diamondTexture.setReflectivity(1);
         TexturedModel diamondTexturedModel = new TexturedModel(diamondModel, diamondTexture);
-        diamond = new Entity(diamondTexturedModel, new Vector3f(200, terrain.getHeight(200, 120) + 9, 120), 0, -30, 0, 20);
+        diamond = new Entity(diamondTexturedModel, new Vector3f(200, world.getHeight(200, 120) + 9, 120), 0, -30, 0, 20);
 
-        RawModel standModel = OBJLoader.loadObjModel("assets/stativ", loader);
-        ModelTexture standTexture = new ModelTexture(loader.loadTexture("assets/stativ"));
+        RawModel standModel = assets.await(standModelAsset);
+        ModelTexture standTexture = new ModelTexture(assets.await(standTextureAsset));
         TexturedModel standTexturedModel = new TexturedModel(standModel, standTexture);
-        stand = new Entity(standTexturedModel, new Vector3f(200, terrain.getHeight(200, 120) - 1, 120), 0, -30, 0, 15);
+        stand = new Entity(standTexturedModel, new Vector3f(200, world.getHeight(200, 120) - 1, 120), 0, -30, 0, 15);
         /** End Diamond */
 
         /** Dino Start */
-        RawModel model = OBJLoader.loadObjModel("assets/unsafedino", loader);
-        ModelTexture texture = new ModelTexture(loader.loadTexture("assets/unsafedino"));
+        RawModel model = assets.await(dinoModelAsset);
+        ModelTexture texture = new ModelTexture(assets.await(dinoTextureAsset));
         texture.setShineDamper(15);
         texture.setReflectivity(1);
         TexturedModel texturedModel = new TexturedModel(model, texture);
@@ -232,57 +274,57 @@ public class EntityGameLoop {
         /** Dino End */
 
         /** House Start */
-        RawModel houseModel = OBJLoader.loadObjModel("assets/house", loader);
-        ModelTexture houseTexture = new ModelTexture(loader.loadTexture("assets/house"));
+        RawModel houseModel = assets.await(houseModelAsset);
+        ModelTexture houseTexture = new ModelTexture(assets.await(houseTextureAsset));
         TexturedModel texturedHouseModel = new TexturedModel(houseModel, houseTexture);
-        house = new Entity(texturedHouseModel, new Vector3f(400, terrain.getHeight(400, 400), 400), 0, 180, 0, 18);
+        house = new Entity(texturedHouseModel, new Vector3f(400, world.getHeight(400, 400), 400), 0, 180, 0, 18);
         /** House End */
 
         /** FAILES Start */
         // 200x x 120z
-        RawModel colorBirdModel = OBJLoader.loadObjModel("failes/birdcolor", loader);
-        ModelTexture colorBirdTexture = new ModelTexture(loader.loadTexture("failes/birdcolor"));
+        RawModel colorBirdModel = assets.await(colorBirdModelAsset);
+        ModelTexture colorBirdTexture = new ModelTexture(assets.await(colorBirdTextureAsset));
         TexturedModel texturedcolorBirdModel = new TexturedModel(colorBirdModel, colorBirdTexture);
-        colorBird = new Entity(texturedcolorBirdModel, new Vector3f(190, terrain.getHeight(190, 130) + 20, 130), 0, 0, 0, 18);
+        colorBird = new Entity(texturedcolorBirdModel, new Vector3f(190, world.getHeight(190, 130) + 20, 130), 0, 0, 0, 18);
 
-        RawModel forestFailesModel = OBJLoader.loadObjModel("failes/forestfailes", loader);
-        ModelTexture forestFailesTexture = new ModelTexture(loader.loadTexture("failes/forestfailes"));
+        RawModel forestFailesModel = assets.await(forestFailesModelAsset);
+        ModelTexture forestFailesTexture = new ModelTexture(assets.await(forestFailesTextureAsset));
         TexturedModel texturedforestFailesModel = new TexturedModel(forestFailesModel, forestFailesTexture);
-        forestFailes = new Entity(texturedforestFailesModel, new Vector3f(210, terrain.getHeight(210, 110) + 20, 90), 0, 0, 0, 18);
+        forestFailes = new Entity(texturedforestFailesModel, new Vector3f(210, world.getHeight(210, 110) + 20, 90), 0, 0, 0, 18);
 
-        RawModel newPlayerModel = OBJLoader.loadObjModel("failes/newplayer", loader);
-        ModelTexture newPlayerTexture = new ModelTexture(loader.loadTexture("failes/newplayer"));
+        RawModel newPlayerModel = assets.await(newPlayerModelAsset);
+        ModelTexture newPlayerTexture = new ModelTexture(assets.await(newPlayerTextureAsset));
         TexturedModel texturednewPlayerModel = new TexturedModel(newPlayerModel, newPlayerTexture);
-        newPlayer = new Entity(texturednewPlayerModel, new Vector3f(210, terrain.getHeight(210, 130) + 10, 130), 0, 0, 0, 18);
+        newPlayer = new Entity(texturednewPlayerModel, new Vector3f(210, world.getHeight(210, 130) + 10, 130), 0, 0, 0, 18);
 
-        RawModel oldUserModel = OBJLoader.loadObjModel("failes/olduser", loader);
-        ModelTexture oldUserTexture = new ModelTexture(loader.loadTexture("failes/olduser"));
+        RawModel oldUserModel = assets.await(oldUserModelAsset);
+        ModelTexture oldUserTexture = new ModelTexture(assets.await(oldUserTextureAsset));
         TexturedModel texturedoldUserModel = new TexturedModel(oldUserModel, oldUserTexture);
-        oldUser = new Entity(texturedoldUserModel, new Vector3f(210, terrain.getHeight(210, 110) + 15, 110), 0, 0, 0, 18);
+        oldUser = new Entity(texturedoldUserModel, new Vector3f(210, world.getHeight(210, 110) + 15, 110), 0, 0, 0, 18);
 
-        RawModel runTreeModel = OBJLoader.loadObjModel("failes/runtree", loader);
-        ModelTexture runTreeTexture = new ModelTexture(loader.loadTexture("failes/runtree"));
+        RawModel runTreeModel = assets.await(runTreeModelAsset);
+        ModelTexture runTreeTexture = new ModelTexture(assets.await(runTreeTextureAsset));
         TexturedModel texturedrunTreeModel = new TexturedModel(runTreeModel, runTreeTexture);
-        runTree = new Entity(texturedrunTreeModel, new Vector3f(220, terrain.getHeight(220, 110) + 12.5f, 110), 0, 0, 0, 18);
+        runTree = new Entity(texturedrunTreeModel, new Vector3f(220, world.getHeight(220, 110) + 12.5f, 110), 0, 0, 0, 18);
 
         /** FAILES End */
 
         /** Add Benchmark Dragon */
-        RawModel dragonModel = OBJLoader.loadObjModel("dragon", loader);
-        ModelTexture dragonTexture = new ModelTexture(loader.loadTexture("blue"));
+        RawModel dragonModel = assets.await(dragonModelAsset);
+        ModelTexture dragonTexture = new ModelTexture(assets.await(dragonTextureAsset));
         TexturedModel texturedrdragonModel = new TexturedModel(dragonModel, dragonTexture);
         dragonTexture.setShineDamper(15);
         dragonTexture.setReflectivity(1);
-        dragon = new Entity(texturedrdragonModel, new Vector3f(410, terrain.getHeight(410, 375), 375), 0, 0, 0, 1);
+        dragon = new Entity(texturedrdragonModel, new Vector3f(410, world.getHeight(410, 375), 375), 0, 0, 0, 1);
 
         /** End Benchmark Dragon /
 
         /** Spawn Tree Start */
 
-        RawModel spawnTreeModel = OBJLoader.loadObjModel("trees/parrottree", loader);
-        ModelTexture spawnTreeTexture = new ModelTexture(loader.loadTexture("trees/parrottree"));
+        RawModel spawnTreeModel = assets.await(spawnTreeModelAsset);
+        ModelTexture spawnTreeTexture = new ModelTexture(assets.await(spawnTreeTextureAsset));
         TexturedModel texturedspawnTreeModel = new TexturedModel(spawnTreeModel, spawnTreeTexture);
-        spawnTree = new Entity(texturedspawnTreeModel, new Vector3f(390, terrain.getHeight(390, 370), 370), 0, 0, 0, 18);
+        spawnTree = new Entity(texturedspawnTreeModel, new Vector3f(390, world.getHeight(390, 370), 370), 0, 0, 0, 18);
 
         /** Spawn Tree End */
 
@@ -290,10 +332,9 @@ public class EntityGameLoop {
         /** Birds Start */
         birds = new ArrayList<>();
 
-        RawModel birdModel = OBJLoader.loadObjModel("trees/firstbird", loader);
-        ModelTexture birdTexture = new ModelTexture(loader.loadTexture("trees/firstbird"));
+        // Alle Vögel teilen sich ein TexturedModel und werden daher in einem Batch gerendert
+        TexturedModel birdTexturedModel = assets.await(birdAsset);
         for (int i = 0; i < 350; i++) {
-            TexturedModel birdTexturedModel = new TexturedModel(birdModel, birdTexture);
             float x = (float) Math.random() * 800;
             float z = (float) Math.random() * 800;
             float y = 65 * (float) Math.random() + 60;
@@ -305,15 +346,19 @@ public class EntityGameLoop {
         }
         /** Birds End */
 
+        movingEntities = new QuadTree(0, 0, Terrain.SIZE);
+        movingEntities.insert(dino);
+        for (Entity bird : birds) {
+            movingEntities.insert(bird);
+        }
+
         /** Pick Objects */
-        picker = new MousePicker(camera, renderer.getProjectionMatrix(), terrain);
-        RawModel flowerModel = OBJLoader.loadObjModel("trees/flower", loader);
-        ModelTexture flowerTexture = new ModelTexture(loader.loadTexture("trees/flower"));
-        TexturedModel flowerDecorationTexturedModel = new TexturedModel(flowerModel, flowerTexture);
-        flower = new Entity(flowerDecorationTexturedModel, new Vector3f(430, terrain.getHeight(430, 380), 380), 0, 0, 0, 18);
+        picker = new MousePicker(camera, renderer.getProjectionMatrix(), world);
+        TexturedModel flowerDecorationTexturedModel = VegetationGameLoop.getModel("trees/flower");
+        flower = new Entity(flowerDecorationTexturedModel, new Vector3f(430, world.getHeight(430, 380), 380), 0, 0, 0, 18);
         /** End Pick Objects */
 
-        bufferFootsteps = AudioMaster.loadSound("sound/footsteps_short.wav");
+        bufferFootsteps = assets.await(footstepsAsset);
         source = new Source();
         source.setLooping(true);
 
@@ -324,10 +369,10 @@ public class EntityGameLoop {
     /**
      * Die Player-Figur wird auf die Ausgangsposition (x: 400, z: 400) zurückgesetzt.
      *
-     * @param terrain {@link Terrain} der genutzten Map zur Bestimmung der y-Position
+     * @param world {@link TerrainWorld} der genutzten Map zur Bestimmung der y-Position
      */
-    public static void resetPlayer(Terrain terrain) {
-        player.setPosition(new Vector3f(400, terrain.getHeight(400, 400), 400));
+    public static void resetPlayer(TerrainWorld world) {
+        player.setPosition(new Vector3f(400, world.getHeight(400, 400), 400));
     }
 
 
@@ -335,14 +380,16 @@ public class EntityGameLoop {
      * Unter Nutzung des Renderers werden alle Entities sowie Spielerbewegungen verarbeitet.
      *
      * @param renderer   {@link MasterRenderer}
-     * @param terrain    {@link Terrain}
+     * @param world      {@link TerrainWorld}
      * @param movePlayer Information, ob eine Bewegung des Spielers verarbeitet werden muss
      */
-    public static void loop(MasterRenderer renderer, Terrain terrain, boolean movePlayer) {
+    public static void loop(MasterRenderer renderer, TerrainWorld world, boolean movePlayer) {
         if (movePlayer) {
-            player.move(terrain);
+            player.move(world);
             camera.update();
         }
+        // Terrains um den Spieler nachladen bzw. freigeben
+        world.update(player.getPosition());
 
         renderer.processEntity(christmasTree);
         renderer.processEntity(treeDecoration);
@@ -356,7 +403,7 @@ public class EntityGameLoop {
         renderer.processEntity(newPlayer);
         renderer.processEntity(oldUser);
         renderer.processEntity(runTree);
-        renderer.processEntity(dino);
+        renderer.processEntities(movingEntities);
         renderer.processEntity(player);
         renderer.processEntity(diamond);
         renderer.render(lights, camera);
@@ -387,9 +434,10 @@ public class EntityGameLoop {
         /** Dino Start */
         float dinoX = (float) Math.sin(rotation) * radius + 400;
         float dinoZ = (float) Math.cos(rotation) * radius + 400;
-        float dinoY = terrain.getHeight(dinoX, dinoZ);
+        float dinoY = world.getHeight(dinoX, dinoZ);
         dino.setPosition(new Vector3f(dinoX, dinoY, dinoZ));
         dino.setRotY((float) Math.toDegrees(rotation) + 90);
+        movingEntities.update(dino);
         rotation += 0.0002f * DisplayManager.getFrameTime();
         lights.get(1).setPosition(new Vector3f(dino.getPosition().getX(), dino.getPosition().getY() + 7, dino.getPosition().getZ()));
         /** Dino End */
@@ -413,7 +461,7 @@ public class EntityGameLoop {
                 birdPos.setZ(800f);
             }
             bird.setPosition(birdPos);
-            renderer.processEntity(bird);
+            movingEntities.update(bird);
         }
         /** Bird End */
 
@@ -2,21 +2,27 @@ package main;
 
 import gui.GuiRenderer;
 import gui.GuiTexture;
+import models.OBJLoader;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.util.vector.Vector2f;
+import renderEngine.AssetPipeline;
+import renderEngine.AssetRegistry;
 import renderEngine.DisplayManager;
 import renderEngine.Loader;
 import renderEngine.MasterRenderer;
+import shaders.ProgramCache;
 import sound.AudioMaster;
 import sound.Source;
-import terrain.Terrain;
+import terrain.TerrainWorld;
 import textures.TerrainTexture;
 import textures.TerrainTexturePack;
+import textures.TextureCache;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Diese Klasse beinhaltet die Main Funktion der Anwendung und die Hauptschleife.
@@ -28,6 +34,22 @@ public class MainGameLoop {
      * Diese Variable ist im ersten Durchlaufs des true um bedingte initiale Konfigurationen vorzunehmen.
      */
     private static boolean firstStart = true;
+    /**
+     * Gibt an, ob die Taste zur Ausgabe der Render-Statistiken im letzten Frame gedrückt war.
+     */
+    private static boolean statisticsKeyDown = false;
+    /**
+     * Gibt an, ob die Taste zum Umschalten des Tiefen-Vorpasses im letzten Frame gedrückt war.
+     */
+    private static boolean depthPrepassKeyDown = false;
+    /**
+     * Gibt an, ob die Taste zum Umschalten der Verdeckungsabfragen im letzten Frame gedrückt war.
+     */
+    private static boolean occlusionCullingKeyDown = false;
+    /**
+     * Gibt an, ob die Taste zum Umschalten des Horizont-Cullings im letzten Frame gedrückt war.
+     */
+    private static boolean horizonCullingKeyDown = false;
 
     /**
      * Die Main Funktion der Anwendung.
@@ -37,31 +59,44 @@ public class MainGameLoop {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        long startTime = System.nanoTime();
         DisplayManager.createDisplay();
         Loader loader = new Loader();
+        AssetPipeline assets = new AssetPipeline(loader);
+        AssetRegistry registry = new AssetRegistry(assets, loader);
 
         /** Music Start */
         AudioMaster.init();
         AudioMaster.setListenerData(0, 0, 0);
 
-        int bufferBackgroundMusic = AudioMaster.loadSound("sound/music_short_short.wav");
-        Source source = new Source();
-        source.setVolume(0.25f);
-        source.setLooping(true);
-        source.play(bufferBackgroundMusic);
+        Future<Integer> backgroundMusicAsset = assets.loadSound("sound/music_short_short.wav");
         /** Music End */
 
         /** Terrain Start */
+        Future<Integer> backgroundTextureAsset = registry.loadTexture("grass");
+        Future<Integer> rTextureAsset = registry.loadTexture("mud");
+        Future<Integer> gTextureAsset = registry.loadTexture("grassFlowers");
+        Future<Integer> bTextureAsset = registry.loadTexture("path");
+        // Die Blend Map enthält Gewichte je Farbkanal und wird daher nicht verlustbehaftet komprimiert
+        Future<Integer> blendMapAsset = registry.loadTexture("blendMap", false);
+
+        // Die Skybox-Texturen werden parallel zu den Terrain-Texturen dekodiert
+        MasterRenderer renderer = new MasterRenderer(loader, assets);
 
-        TerrainTexture backgroundTexture = new TerrainTexture(loader.loadTexture("grass"));
-        TerrainTexture rTexture = new TerrainTexture(loader.loadTexture("mud"));
-        TerrainTexture gTexture = new TerrainTexture(loader.loadTexture("grassFlowers"));
-        TerrainTexture bTexture = new TerrainTexture(loader.loadTexture("path"));
+        TerrainTexture backgroundTexture = new TerrainTexture(assets.await(backgroundTextureAsset));
+        TerrainTexture rTexture = new TerrainTexture(assets.await(rTextureAsset));
+        TerrainTexture gTexture = new TerrainTexture(assets.await(gTextureAsset));
+        TerrainTexture bTexture = new TerrainTexture(assets.await(bTextureAsset));
 
         TerrainTexturePack texturePack = new TerrainTexturePack(backgroundTexture, rTexture, gTexture, bTexture);
-        TerrainTexture blendMap = new TerrainTexture(loader.loadTexture("blendMap"));
+        TerrainTexture blendMap = new TerrainTexture(assets.await(blendMapAsset));
 
-        Terrain terrain = new Terrain(0, 0, loader, texturePack, blendMap, "heightmap");
+        Source source = new Source();
+        source.setVolume(0.25f);
+        source.setLooping(true);
+        source.play(assets.await(backgroundMusicAsset));
+
+        TerrainWorld world = new TerrainWorld(loader, texturePack, blendMap, "heightmap");
         /** Terrain End */
 
 
@@ -78,17 +113,24 @@ public class MainGameLoop {
         /** GUI End */
 
 
-        MasterRenderer renderer = new MasterRenderer(loader);
-        VegetationGameLoop.prepare(terrain, loader);
-        EntityGameLoop.prepare(terrain, loader, renderer);
+        VegetationGameLoop.prepare(world, assets, registry, renderer);
+        EntityGameLoop.prepare(world, assets, registry, renderer);
+
+        System.out.println(OBJLoader.getLoadStatistics());
+        System.out.println(TextureCache.getStatistics());
+        System.out.println(ProgramCache.getStatistics());
+        System.out.println(assets.getStatistics());
+        System.out.println(registry.getStatistics());
+        System.out.println(loader.getStatistics());
+        System.out.printf("Zeit bis zum ersten Frame: %.1f ms%n", (System.nanoTime() - startTime) / 1e6);
 
         boolean closeRequested = false;
         while (!Display.isCloseRequested() && !closeRequested) {
 
             VegetationGameLoop.loop(renderer);
-            EntityGameLoop.loop(renderer, terrain, !escaped);
+            EntityGameLoop.loop(renderer, world, !escaped);
 
-            renderer.processTerrain(terrain);
+            world.processTerrains(renderer);
 
 
             /** Show Intro */
@@ -123,7 +165,7 @@ public class MainGameLoop {
                         guis.clear();
                         Mouse.setGrabbed(true); // Enable mouse
                         if (firstStart) {
-                            EntityGameLoop.resetPlayer(terrain);
+                            EntityGameLoop.resetPlayer(world);
                             firstStart = false;
                         }
                     } else if (mouseY < 360 && mouseY > 285) {
@@ -133,12 +175,42 @@ public class MainGameLoop {
                 }
             }
 
+            // Render-Statistiken des letzten Frames ausgeben (F3)
+            if (Keyboard.isKeyDown(Keyboard.KEY_F3) && !statisticsKeyDown) {
+                System.out.println(renderer.getStatistics());
+                System.out.println(ProgramCache.getStatistics());
+            }
+            statisticsKeyDown = Keyboard.isKeyDown(Keyboard.KEY_F3);
+
+            // Tiefen-Vorpass zum Vergleich der Überzeichnung umschalten (F4)
+            if (Keyboard.isKeyDown(Keyboard.KEY_F4) && !depthPrepassKeyDown) {
+                renderer.setDepthPrepass(!renderer.isDepthPrepass());
+                System.out.println("Tiefen-Vorpass " + (renderer.isDepthPrepass() ? "aktiviert" : "deaktiviert"));
+            }
+            depthPrepassKeyDown = Keyboard.isKeyDown(Keyboard.KEY_F4);
+
+            // Verdeckungsabfragen zum Vergleich umschalten (F5)
+            if (Keyboard.isKeyDown(Keyboard.KEY_F5) && !occlusionCullingKeyDown) {
+                renderer.setOcclusionCulling(!renderer.isOcclusionCulling());
+                System.out.println("Verdeckungsabfragen " + (renderer.isOcclusionCulling() ? "aktiviert" : "deaktiviert"));
+            }
+            occlusionCullingKeyDown = Keyboard.isKeyDown(Keyboard.KEY_F5);
+
+            // Verwerfen hinter dem Horizont des Terrains zum Vergleich umschalten (F6)
+            if (Keyboard.isKeyDown(Keyboard.KEY_F6) && !horizonCullingKeyDown) {
+                renderer.setHorizonCulling(!renderer.isHorizonCulling());
+                System.out.println("Horizont-Culling " + (renderer.isHorizonCulling() ? "aktiviert" : "deaktiviert"));
+            }
+            horizonCullingKeyDown = Keyboard.isKeyDown(Keyboard.KEY_F6);
+
             DisplayManager.updateDisplay();
         }
 
+        assets.cleanUp();
         AudioMaster.cleanUp();
         guiRenderer.cleanUp();
         renderer.cleanUp();
+        world.cleanUp();
         loader.cleanUp();
         DisplayManager.closeDisplay();
     }
@@ -1,13 +1,15 @@
 package main;
 
 import entities.Entity;
-import models.OBJLoader;
 import models.RawModel;
 import models.TexturedModel;
 import org.lwjgl.util.vector.Vector3f;
-import renderEngine.Loader;
+import renderEngine.AssetPipeline;
+import renderEngine.AssetRegistry;
 import renderEngine.MasterRenderer;
+import spatial.QuadTree;
 import terrain.Terrain;
+import terrain.TerrainWorld;
 import textures.ModelTexture;
 
 import javax.imageio.ImageIO;
@@ -15,7 +17,11 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Der GameLoop zur Generierung und zum Rendern der Vegetation.
@@ -23,20 +29,55 @@ import java.util.List;
 public class VegetationGameLoop {
 
     /**
-     * Alle Vegetations Entities, die vom {@link renderEngine.EntityRenderer} gerendert werden sollen.
+     * Modelle der Vegetation, deren gleichnamige Texturen in dieser Reihenfolge die Ebenen des Textur-Arrays bilden
      */
-    private static List<Entity> vegetation;
+    private static final String[] MODELS = {
+            "trees/bigtree1", "trees/oak1", "trees/christmastree", "trees/flower", "assets/bush", "assets/grass"};
 
     /**
-     * Unter Nutzung des Terrains und eines Loaders wird die Vegetation erstellt.
+     * Information, ob die Texturen der Vegetation als ein Textur-Array geladen werden, sodass alle Arten
+     * ohne Texturwechsel gerendert werden
+     */
+    private static boolean useTextureArray = true;
+
+    /**
+     * Modelle der Vegetation nach ihrem Namen, damit andere Entities dieselben Modelle und Texturen verwenden
+     */
+    private static final Map<String, TexturedModel> models = new HashMap<>();
+
+    /**
+     * Räumlicher Index aller Vegetations Entities, die vom {@link renderEngine.EntityRenderer} gerendert werden sollen.
+     */
+    private static QuadTree vegetation;
+
+    /**
+     * Unter Nutzung des Terrains und der {@link AssetPipeline} wird die Vegetation erstellt.
+     * Die Bäume werden beim Renderer als Impostors für große Entfernungen registriert.
      *
-     * @param terrain           {@link Terrain}
-     * @param loader            {@link Loader}
+     * @param world             {@link TerrainWorld} zur Bestimmung der Höhe
+     * @param assets            {@link AssetPipeline} zum Warten auf die Modelle
+     * @param registry          {@link AssetRegistry} zum geteilten Laden der Modelle
+     * @param renderer          {@link MasterRenderer}
      * @param vegetationDensity Dichte der Vegetation
      */
-    private static List<Entity> generateVegetation(Terrain terrain, Loader loader, float vegetationDensity) {
+    private static List<Entity> generateVegetation(TerrainWorld world, AssetPipeline assets, AssetRegistry registry, MasterRenderer renderer, float vegetationDensity) {
         ArrayList<Entity> vegetation = new ArrayList<>();
 
+        // Alle Modelle werden angefordert, bevor auf das erste gewartet wird
+        List<Future<TexturedModel>> modelAssets = new ArrayList<>();
+        List<Future<RawModel>> rawModelAssets = new ArrayList<>();
+        Future<Integer> textureArrayAsset = null;
+        if (useTextureArray) {
+            textureArrayAsset = registry.loadTextureArray(MODELS);
+            for (String model : MODELS) {
+                rawModelAssets.add(registry.loadModel(model));
+            }
+        } else {
+            for (String model : MODELS) {
+                modelAssets.add(registry.loadTexturedModel(model));
+            }
+        }
+
         BufferedImage vegetationMapImage = null;
         try {
             vegetationMapImage = ImageIO.read(new File("res/vegetation.png"));
@@ -45,15 +86,31 @@ public class VegetationGameLoop {
         }
 
         int squareCount = vegetationMapImage.getHeight();
-        float scalingFactor = 800 / (float) squareCount;
+        float scalingFactor = Terrain.SIZE / (float) squareCount;
+
+        if (useTextureArray) {
+            // Jede Art verwendet die Ebene ihrer Textur im gemeinsamen Array
+            int textureArray = assets.await(textureArrayAsset);
+            for (int layer = 0; layer < MODELS.length; layer++) {
+                modelAssets.add(CompletableFuture.completedFuture(
+                        new TexturedModel(assets.await(rawModelAssets.get(layer)), new ModelTexture(textureArray, layer))));
+            }
+        }
+
+        for (int i = 0; i < MODELS.length; i++) {
+            models.put(MODELS[i], assets.await(modelAssets.get(i)));
+        }
 
-        TexturedModel tree1TexturedModel = getTexturedModel(loader, "trees/bigtree1");
-        TexturedModel tree2TexturedModel = getTexturedModel(loader, "trees/oak1");
-        TexturedModel tree3TexturedModel = getTexturedModel(loader, "trees/christmastree");
+        TexturedModel tree1TexturedModel = assets.await(modelAssets.get(0));
+        TexturedModel tree2TexturedModel = assets.await(modelAssets.get(1));
+        TexturedModel tree3TexturedModel = assets.await(modelAssets.get(2));
+        renderer.registerImpostor(tree1TexturedModel);
+        renderer.registerImpostor(tree2TexturedModel);
+        renderer.registerImpostor(tree3TexturedModel);
 
-        TexturedModel flowerTexturedModel = getTexturedModel(loader, "trees/flower");
-        TexturedModel bushTexturedModel = getTexturedModel(loader, "assets/bush");
-        TexturedModel grassTexturedModel = getTexturedModel(loader, "assets/grass");
+        TexturedModel flowerTexturedModel = assets.await(modelAssets.get(3));
+        TexturedModel bushTexturedModel = assets.await(modelAssets.get(4));
+        TexturedModel grassTexturedModel = assets.await(modelAssets.get(5));
 
         for (int i = 0; i < squareCount; i++) {
             for (int j = 0; j < squareCount; j++) {
@@ -89,7 +146,7 @@ public class VegetationGameLoop {
                     float worldX = scalingFactor * j + offsetX;
                     float worldZ = scalingFactor * i + offsetZ;
 
-                    float y = terrain.getHeight(worldX, worldZ);
+                    float y = world.getHeight(worldX, worldZ);
                     Entity treeEntity =
                             new Entity(texturedModel, new Vector3f(worldX, y, worldZ),
                                     0, (float) Math.random() * 360, 0, scale);
@@ -101,18 +158,6 @@ public class VegetationGameLoop {
         return vegetation;
     }
 
-    /**
-     * Diese Funktion lädt ein texturiertes Modell.
-     * @param loader {@link Loader} zum Laden des Modells
-     * @param modelName Name des Modells
-     * @return {@link TexturedModel}
-     */
-    private static TexturedModel getTexturedModel(Loader loader, String modelName) {
-        RawModel tree1Model = OBJLoader.loadObjModel(modelName, loader);
-        ModelTexture tree1Texture = new ModelTexture(loader.loadTexture(modelName));
-        return new TexturedModel(tree1Model, tree1Texture);
-    }
-
     /**
      * Diese Funktion berechnet die Helligkeit eines Punktes in einem Bild.
      *
@@ -133,24 +178,50 @@ public class VegetationGameLoop {
     }
 
     /**
-     * Unter Nutzung des Terrains und eines Loaders wird die Vegetation erstellt.
+     * Unter Nutzung des Terrains und der {@link AssetPipeline} wird die Vegetation erstellt.
      * (Nutzt Funktion generateVegetation intern.)
      *
-     * @param terrain {@link Terrain}
-     * @param loader  {@link Loader}
+     * @param world    {@link TerrainWorld}
+     * @param assets   {@link AssetPipeline}
+     * @param registry {@link AssetRegistry}
+     * @param renderer {@link MasterRenderer} zum Registrieren der Impostors
+     */
+    public static void prepare(TerrainWorld world, AssetPipeline assets, AssetRegistry registry, MasterRenderer renderer) {
+        vegetation = new QuadTree(0, 0, Terrain.SIZE);
+        for (Entity vegetationEntity : generateVegetation(world, assets, registry, renderer, 0.017f)) {
+            vegetation.insert(vegetationEntity);
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt das Modell einer Vegetationsart, z.B. um einzelne Entities außerhalb der Vegetation mit
+     * derselben Textur (bzw. Ebene des Textur-Arrays) zu erstellen, sodass sie gemeinsam gerendert werden.
+     * Muss nach {@link VegetationGameLoop#prepare} aufgerufen werden.
+     *
+     * @param name Name des Modells, z.B. "trees/flower"
+     * @return Modell der Vegetationsart oder null, falls es nicht zur Vegetation gehört
+     */
+    public static TexturedModel getModel(String name) {
+        return models.get(name);
+    }
+
+    /**
+     * Diese Funktion hinterlegt, ob die Texturen der Vegetation als ein Textur-Array geladen werden.
+     * Muss vor {@link VegetationGameLoop#prepare} aufgerufen werden.
+     *
+     * @param textureArray Information, ob ein Textur-Array statt einzelner Texturen verwendet wird
      */
-    public static void prepare(Terrain terrain, Loader loader) {
-        vegetation = generateVegetation(terrain, loader, 0.017f);
+    public static void setUseTextureArray(boolean textureArray) {
+        useTextureArray = textureArray;
     }
 
     /**
      * Unter Nutzung des Renderers werden alle Vegetationseinträge verarbeitet.
+     * Der Renderer fragt dabei nur den sichtbaren Teil des räumlichen Index ab.
      *
      * @param renderer {@link MasterRenderer}
      */
     public static void loop(MasterRenderer renderer) {
-        for (Entity vegetationEntity : vegetation) {
-            renderer.processEntity(vegetationEntity);
-        }
+        renderer.processEntities(vegetation);
     }
 }
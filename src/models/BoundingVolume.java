@@ -0,0 +1,112 @@
+package models;
+
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * Diese Klasse beschreibt die Ausdehnung eines Modells im Modellraum durch eine achsenparallele Box (AABB)
+ * und eine umschließende Kugel.
+ */
+public class BoundingVolume {
+
+    /**
+     * minimale Ecke der achsenparallelen Box
+     */
+    private final Vector3f min;
+    /**
+     * maximale Ecke der achsenparallelen Box
+     */
+    private final Vector3f max;
+    /**
+     * Mittelpunkt der umschließenden Kugel
+     */
+    private final Vector3f center;
+    /**
+     * Radius der umschließenden Kugel
+     */
+    private final float radius;
+
+    /**
+     * Ein {@link BoundingVolume} wird aus der achsenparallelen Box und der umschließenden Kugel erstellt.
+     *
+     * @param min    minimale Ecke der Box
+     * @param max    maximale Ecke der Box
+     * @param center Mittelpunkt der Kugel
+     * @param radius Radius der Kugel
+     */
+    public BoundingVolume(Vector3f min, Vector3f max, Vector3f center, float radius) {
+        this.min = min;
+        this.max = max;
+        this.center = center;
+        this.radius = radius;
+    }
+
+    /**
+     * Diese Funktion berechnet das {@link BoundingVolume} für ein Array aus Vertex Positionen [x1, y1, z1, x2, ...].
+     * Die Kugel liegt im Mittelpunkt der Box und umschließt alle Positionen.
+     *
+     * @param positions Vertex Positionen
+     * @return {@link BoundingVolume} der Positionen
+     */
+    public static BoundingVolume fromPositions(float[] positions) {
+        Vector3f min = new Vector3f(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+        Vector3f max = new Vector3f(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        for (int i = 0; i + 2 < positions.length; i += 3) {
+            min.x = Math.min(min.x, positions[i]);
+            min.y = Math.min(min.y, positions[i + 1]);
+            min.z = Math.min(min.z, positions[i + 2]);
+            max.x = Math.max(max.x, positions[i]);
+            max.y = Math.max(max.y, positions[i + 1]);
+            max.z = Math.max(max.z, positions[i + 2]);
+        }
+        if (positions.length < 3) {
+            min.set(0, 0, 0);
+            max.set(0, 0, 0);
+        }
+
+        Vector3f center = new Vector3f((min.x + max.x) / 2f, (min.y + max.y) / 2f, (min.z + max.z) / 2f);
+        float radiusSquared = 0;
+        for (int i = 0; i + 2 < positions.length; i += 3) {
+            float dx = positions[i] - center.x;
+            float dy = positions[i + 1] - center.y;
+            float dz = positions[i + 2] - center.z;
+            radiusSquared = Math.max(radiusSquared, dx * dx + dy * dy + dz * dz);
+        }
+        return new BoundingVolume(min, max, center, (float) Math.sqrt(radiusSquared));
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale Ecke der achsenparallelen Box.
+     *
+     * @return minimale Ecke
+     */
+    public Vector3f getMin() {
+        return min;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale Ecke der achsenparallelen Box.
+     *
+     * @return maximale Ecke
+     */
+    public Vector3f getMax() {
+        return max;
+    }
+
+    /**
+     * Diese Funktion übergibt den Mittelpunkt der umschließenden Kugel.
+     *
+     * @return Mittelpunkt der Kugel
+     */
+    public Vector3f getCenter() {
+        return center;
+    }
+
+    /**
+     * Diese Funktion übergibt den Radius der umschließenden Kugel.
+     *
+     * @return Radius der Kugel
+     */
+    public float getRadius() {
+        return radius;
+    }
+}
@@ -0,0 +1,191 @@
+package models;
+
+import org.lwjgl.util.vector.Vector3f;
+import toolbox.CacheFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Diese Klasse speichert bereits übersetzte OBJ Modelle (inklusive ihrer Level of Detail) in einem kompakten
+ * Binärformat und stellt diese bei späteren Starts per Memory-Mapping ohne Kopie für OpenGL bereit.
+ *
+ * Aufbau einer Cache-Datei (in nativer Byte-Reihenfolge):
+ * Header (Magic, Version, Größe, Änderungszeitpunkt und CRC32 der OBJ-Datei, Anzahl Vertices und Level of Detail),
+ * {@link VertexFormat}, Indexanzahl je Level of Detail, {@link BoundingVolume}, verschränkte Vertex-Daten, Indizes.
+ */
+public class MeshCache {
+
+    /**
+     * Dateiendung der Cache-Dateien
+     */
+    private static final String EXTENSION = ".mesh";
+    /**
+     * Kennung am Anfang jeder Cache-Datei ("SFMC"). Wird die Datei mit einer anderen Byte-Reihenfolge gelesen,
+     * stimmt die Kennung nicht überein und die Datei wird neu erzeugt.
+     */
+    private static final int MAGIC = 0x53464D43;
+    /**
+     * Version des Dateiformats, muss bei Änderungen am Format oder an der Modell-Aufbereitung erhöht werden
+     */
+    private static final int VERSION = 3;
+    /**
+     * Größe des festen Teils des Headers in Bytes
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+    /**
+     * Größe des {@link BoundingVolume} in Bytes (min, max, Mittelpunkt, Radius)
+     */
+    private static final int BOUNDS_SIZE = 10 * 4;
+    /**
+     * Größe des {@link VertexFormat} in Bytes (Flags, Verschiebung, Skalierung)
+     */
+    private static final int FORMAT_SIZE = 4 + 4 * 4;
+    /**
+     * Flag für quantisierte Positionen
+     */
+    private static final int FLAG_QUANTIZED_POSITIONS = 1;
+    /**
+     * Flag für normalisierte Texturkoordinaten
+     */
+    private static final int FLAG_NORMALIZED_TEXTURE_COORDS = 2;
+
+    /**
+     * Diese Funktion lädt ein Modell aus dem Cache, sofern eine gültige Cache-Datei zur OBJ-Datei existiert.
+     * Die Vertex-Daten werden dabei nicht in Arrays kopiert, sondern als Ausschnitte der gemappten Datei übergeben,
+     * die der {@link renderEngine.Loader} direkt hochladen kann.
+     * Wurden die Positionen im Cache anders quantisiert als angefordert, ist der Cache ebenfalls ungültig.
+     *
+     * @param name              Name der OBJ-Datei relativ zum Ressourcen-Verzeichnis
+     * @param source            OBJ-Datei
+     * @param quantizePositions Information, ob die Positionen quantisiert sein sollen
+     * @return {@link ModelData} des Modells oder null, falls kein gültiger Cache existiert
+     */
+    public static ModelData load(String name, File source, boolean quantizePositions) {
+        File file = getCacheFile(name);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile cache = new RandomAccessFile(file, "r");
+             FileChannel channel = cache.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.nativeOrder());
+
+            if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                return null;
+            }
+            if (!CacheFiles.matchesSourceStamp(mapped, source)) {
+                return null;
+            }
+            int vertexCount = mapped.getInt();
+            int lodCount = mapped.getInt();
+            if (vertexCount < 0 || lodCount <= 0 || mapped.remaining() < FORMAT_SIZE + lodCount * 4 + BOUNDS_SIZE) {
+                return null;
+            }
+            int flags = mapped.getInt();
+            VertexFormat format = new VertexFormat((flags & FLAG_QUANTIZED_POSITIONS) != 0,
+                    (flags & FLAG_NORMALIZED_TEXTURE_COORDS) != 0,
+                    new Vector3f(mapped.getFloat(), mapped.getFloat(), mapped.getFloat()), mapped.getFloat());
+            if (format.isQuantizedPositions() != quantizePositions) {
+                return null;
+            }
+            int[] lodIndexCounts = new int[lodCount];
+            long totalIndices = 0;
+            for (int lod = 0; lod < lodCount; lod++) {
+                lodIndexCounts[lod] = mapped.getInt();
+                totalIndices += lodIndexCounts[lod];
+            }
+            BoundingVolume boundingVolume = new BoundingVolume(
+                    new Vector3f(mapped.getFloat(), mapped.getFloat(), mapped.getFloat()),
+                    new Vector3f(mapped.getFloat(), mapped.getFloat(), mapped.getFloat()),
+                    new Vector3f(mapped.getFloat(), mapped.getFloat(), mapped.getFloat()),
+                    mapped.getFloat());
+            if (mapped.remaining() != (long) vertexCount * format.getStride() + totalIndices * 4) {
+                return null;
+            }
+
+            ByteBuffer vertices = CacheFiles.slice(mapped, vertexCount * format.getStride());
+            ByteBuffer indices = CacheFiles.slice(mapped, (int) totalIndices * 4);
+
+            return new ModelData(vertices, format, vertexCount, indices, lodIndexCounts, boundingVolume);
+        } catch (IOException e) {
+            System.err.println("Could not read mesh cache " + file);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Diese Funktion schreibt ein übersetztes Modell in den Cache (siehe {@link CacheFiles#write(File, byte[])}).
+     *
+     * @param name           Name der OBJ-Datei relativ zum Ressourcen-Verzeichnis
+     * @param source         OBJ-Datei
+     * @param vertices       verschränkte Vertex-Daten, z.B. aus {@link VertexPacker#pack}
+     * @param format         Format der Vertex-Daten
+     * @param vertexCount    Anzahl der Vertices
+     * @param lodIndices     Indizes je Level of Detail, beginnend mit der vollen Detailstufe
+     * @param boundingVolume {@link BoundingVolume} der Positionen
+     */
+    public static void store(String name, File source, ByteBuffer vertices, VertexFormat format, int vertexCount,
+                             int[][] lodIndices, BoundingVolume boundingVolume) {
+        int totalIndices = 0;
+        for (int[] indices : lodIndices) {
+            totalIndices += indices.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + FORMAT_SIZE + lodIndices.length * 4 + BOUNDS_SIZE
+                + vertexCount * format.getStride() + totalIndices * 4).order(ByteOrder.nativeOrder());
+
+        File file = getCacheFile(name);
+        try {
+            buffer.putInt(MAGIC).putInt(VERSION);
+            CacheFiles.putSourceStamp(buffer, source);
+            buffer.putInt(vertexCount).putInt(lodIndices.length);
+            buffer.putInt((format.isQuantizedPositions() ? FLAG_QUANTIZED_POSITIONS : 0)
+                    | (format.isNormalizedTextureCoords() ? FLAG_NORMALIZED_TEXTURE_COORDS : 0));
+            putVector(buffer, format.getPositionOffset());
+            buffer.putFloat(format.getPositionScale());
+            for (int[] indices : lodIndices) {
+                buffer.putInt(indices.length);
+            }
+            putVector(buffer, boundingVolume.getMin());
+            putVector(buffer, boundingVolume.getMax());
+            putVector(buffer, boundingVolume.getCenter());
+            buffer.putFloat(boundingVolume.getRadius());
+            buffer.put(vertices.duplicate());
+            for (int[] indices : lodIndices) {
+                buffer.asIntBuffer().put(indices);
+                buffer.position(buffer.position() + indices.length * 4);
+            }
+
+            CacheFiles.write(file, buffer.array());
+        } catch (IOException e) {
+            System.err.println("Could not write mesh cache " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Diese Funktion schreibt einen Vektor in einen Buffer.
+     *
+     * @param buffer Buffer
+     * @param vector Vektor
+     */
+    private static void putVector(ByteBuffer buffer, Vector3f vector) {
+        buffer.putFloat(vector.x).putFloat(vector.y).putFloat(vector.z);
+    }
+
+    /**
+     * Diese Funktion übergibt die Cache-Datei zu einer OBJ-Datei.
+     *
+     * @param name Name der OBJ-Datei relativ zum Ressourcen-Verzeichnis
+     * @return Cache-Datei
+     */
+    private static File getCacheFile(String name) {
+        return CacheFiles.getCacheFile(name, ".obj", EXTENSION);
+    }
+}
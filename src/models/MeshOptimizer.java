@@ -0,0 +1,249 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse optimiert die Reihenfolge der Dreiecke und Vertices eines Modells für die GPU.
+ * <p>
+ * Die Dreiecke werden mit dem Algorithmus von Tom Forsyth ("Linear-Speed Vertex Cache Optimisation") so sortiert,
+ * dass bereits transformierte Vertices möglichst oft aus dem Post-Transform-Cache wiederverwendet werden.
+ * Anschließend werden die Vertices in der Reihenfolge ihrer ersten Verwendung abgelegt, damit sie beim Lesen aus dem
+ * Vertex Buffer möglichst zusammenhängend im Speicher liegen.
+ */
+public class MeshOptimizer {
+
+    /**
+     * Größe des Vertex-Caches, für den die Reihenfolge der Dreiecke optimiert wird
+     */
+    private static final int CACHE_SIZE = 32;
+    /**
+     * Größe des FIFO-Caches, mit dem die ACMR (average cache miss ratio) gemessen wird
+     */
+    private static final int ACMR_CACHE_SIZE = 16;
+    /**
+     * Exponent, mit dem die Bewertung eines Vertex mit seiner Position im Cache abfällt
+     */
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    /**
+     * Bewertung der Vertices des zuletzt ausgegebenen Dreiecks
+     */
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+    /**
+     * Gewichtung der Vertices, an denen nur noch wenige Dreiecke hängen
+     */
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    /**
+     * Exponent der Gewichtung nach verbleibenden Dreiecken
+     */
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    /**
+     * Diese Funktion sortiert die Dreiecke für den Post-Transform-Vertex-Cache.
+     *
+     * @param indices     Indizes der Dreiecke
+     * @param vertexCount Anzahl der Vertices
+     * @return Indizes in optimierter Reihenfolge
+     */
+    public static int[] optimizeVertexCache(int[] indices, int vertexCount) {
+        int triangleCount = indices.length / 3;
+        if (triangleCount == 0) {
+            return indices.clone();
+        }
+
+        // Dreiecke je Vertex (CSR), der vordere Teil jeder Liste enthält die noch nicht ausgegebenen Dreiecke
+        int[] activeCounts = new int[vertexCount];
+        for (int index : indices) {
+            activeCounts[index]++;
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] = offsets[vertex] + activeCounts[vertex];
+        }
+        int[] vertexTriangles = new int[indices.length];
+        int[] fill = new int[vertexCount];
+        for (int triangle = 0; triangle < triangleCount; triangle++) {
+            for (int corner = 0; corner < 3; corner++) {
+                int vertex = indices[triangle * 3 + corner];
+                vertexTriangles[offsets[vertex] + fill[vertex]++] = triangle;
+            }
+        }
+
+        int[] cachePositions = new int[vertexCount];
+        Arrays.fill(cachePositions, -1);
+        float[] vertexScores = new float[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            vertexScores[vertex] = vertexScore(-1, activeCounts[vertex]);
+        }
+        boolean[] emitted = new boolean[triangleCount];
+
+        int[] cache = new int[CACHE_SIZE + 3];
+        int[] newCache = new int[CACHE_SIZE + 3];
+        int cacheCount = 0;
+
+        int[] result = new int[triangleCount * 3];
+        int bestTriangle = -1;
+        int cursor = 0;
+        for (int output = 0; output < triangleCount; output++) {
+            if (bestTriangle < 0) {
+                // Kein Kandidat im Cache: nächstes noch nicht ausgegebenes Dreieck verwenden
+                while (emitted[cursor]) {
+                    cursor++;
+                }
+                bestTriangle = cursor;
+            }
+            emitted[bestTriangle] = true;
+            System.arraycopy(indices, bestTriangle * 3, result, output * 3, 3);
+
+            // Dreieck aus den aktiven Listen seiner Vertices entfernen
+            int newCacheCount = 0;
+            for (int corner = 0; corner < 3; corner++) {
+                int vertex = indices[bestTriangle * 3 + corner];
+                int start = offsets[vertex];
+                int last = start + activeCounts[vertex] - 1;
+                for (int i = start; i <= last; i++) {
+                    if (vertexTriangles[i] == bestTriangle) {
+                        vertexTriangles[i] = vertexTriangles[last];
+                        vertexTriangles[last] = bestTriangle;
+                        break;
+                    }
+                }
+                activeCounts[vertex]--;
+                newCache[newCacheCount++] = vertex;
+            }
+            // Vertices des Dreiecks an den Anfang des LRU-Caches setzen
+            for (int i = 0; i < cacheCount; i++) {
+                int vertex = cache[i];
+                if (vertex != newCache[0] && vertex != newCache[1] && vertex != newCache[2]) {
+                    newCache[newCacheCount++] = vertex;
+                }
+            }
+            int[] swap = cache;
+            cache = newCache;
+            newCache = swap;
+            cacheCount = newCacheCount;
+
+            // Bewertungen der betroffenen Vertices und ihrer Dreiecke aktualisieren
+            for (int i = 0; i < cacheCount; i++) {
+                int vertex = cache[i];
+                cachePositions[vertex] = i < CACHE_SIZE ? i : -1;
+                vertexScores[vertex] = vertexScore(cachePositions[vertex], activeCounts[vertex]);
+            }
+            cacheCount = Math.min(cacheCount, CACHE_SIZE);
+
+            bestTriangle = -1;
+            float bestScore = -1;
+            for (int i = 0; i < newCacheCount; i++) {
+                int vertex = cache[i];
+                for (int j = offsets[vertex], end = offsets[vertex] + activeCounts[vertex]; j < end; j++) {
+                    int triangle = vertexTriangles[j];
+                    float score = vertexScores[indices[triangle * 3]]
+                            + vertexScores[indices[triangle * 3 + 1]] + vertexScores[indices[triangle * 3 + 2]];
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestTriangle = triangle;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Diese Funktion sortiert die Vertices in der Reihenfolge ihrer ersten Verwendung in den Indizes der vollen
+     * Detailstufe und passt die Indizes aller Level of Detail entsprechend an.
+     *
+     * @param positions     Vertex Positionen, werden neu sortiert
+     * @param textureCoords Texturkoordinaten, werden neu sortiert
+     * @param normals       Normalenvektoren, werden neu sortiert
+     * @param lodIndices    Indizes je Level of Detail, beginnend mit der vollen Detailstufe; werden angepasst
+     */
+    public static void optimizeVertexFetch(float[] positions, float[] textureCoords, float[] normals, int[][] lodIndices) {
+        int vertexCount = positions.length / 3;
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int index : lodIndices[0]) {
+            if (remap[index] < 0) {
+                remap[index] = next++;
+            }
+        }
+        // Vertices, die von keinem Dreieck verwendet werden, ans Ende
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (remap[vertex] < 0) {
+                remap[vertex] = next++;
+            }
+        }
+
+        reorder(positions, 3, remap);
+        reorder(textureCoords, 2, remap);
+        reorder(normals, 3, remap);
+        for (int[] indices : lodIndices) {
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = remap[indices[i]];
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion berechnet die durchschnittliche Anzahl an Cache-Misses je Dreieck (ACMR) für einen FIFO-Cache
+     * mit {@link MeshOptimizer#ACMR_CACHE_SIZE} Einträgen. 3 bedeutet, dass jeder Vertex für jedes Dreieck neu
+     * transformiert werden muss, Werte um 0,5 bis 0,7 sind für geschlossene Netze sehr gut.
+     *
+     * @param indices     Indizes der Dreiecke
+     * @param vertexCount Anzahl der Vertices
+     * @return ACMR
+     */
+    public static float averageCacheMissRatio(int[] indices, int vertexCount) {
+        if (indices.length < 3) {
+            return 0;
+        }
+        int[] insertedAt = new int[vertexCount];
+        Arrays.fill(insertedAt, -(ACMR_CACHE_SIZE + 1));
+        int misses = 0;
+        for (int index : indices) {
+            if (misses - insertedAt[index] > ACMR_CACHE_SIZE) {
+                insertedAt[index] = misses;
+                misses++;
+            }
+        }
+        return misses / (float) (indices.length / 3);
+    }
+
+    /**
+     * Diese Funktion bewertet einen Vertex nach seiner Position im Cache und der Anzahl seiner noch nicht
+     * ausgegebenen Dreiecke.
+     *
+     * @param cachePosition Position im Cache oder -1
+     * @param activeCount   Anzahl der noch nicht ausgegebenen Dreiecke
+     * @return Bewertung
+     */
+    private static float vertexScore(int cachePosition, int activeCount) {
+        if (activeCount == 0) {
+            return -1;
+        }
+        float score = 0;
+        if (cachePosition >= 0) {
+            if (cachePosition < 3) {
+                score = LAST_TRIANGLE_SCORE;
+            } else {
+                float scaler = 1f / (CACHE_SIZE - 3);
+                score = (float) Math.pow(1 - (cachePosition - 3) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+        return score + VALENCE_BOOST_SCALE * (float) Math.pow(activeCount, -VALENCE_BOOST_POWER);
+    }
+
+    /**
+     * Diese Funktion sortiert ein Attribut-Array nach einer Neuzuordnung der Vertices.
+     *
+     * @param data  Attribut-Array, wird überschrieben
+     * @param size  Anzahl der Floats je Vertex
+     * @param remap neuer Index je Vertex
+     */
+    private static void reorder(float[] data, int size, int[] remap) {
+        float[] source = data.clone();
+        for (int vertex = 0; vertex < remap.length; vertex++) {
+            System.arraycopy(source, vertex * size, data, remap[vertex] * size, size);
+        }
+    }
+}
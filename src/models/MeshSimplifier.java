@@ -0,0 +1,488 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Diese Klasse vereinfacht Dreiecksnetze durch Kantenkollaps mit Quadric Error Metrics (Garland/Heckbert).
+ * <p>
+ * Es werden nur Halbkanten kollabiert, d.h. ein Eckpunkt wird auf einen bestehenden Eckpunkt verschoben.
+ * Dadurch verweisen die vereinfachten Indizes weiterhin auf die ursprünglichen Vertex-Daten und ein Level of Detail
+ * benötigt nur einen zusätzlichen Index-Buffer. Da die OBJ-Modelle jedes Dreieck mit eigenen Eckpunkten speichern,
+ * werden Eckpunkte mit gleicher Position für die Vereinfachung intern zusammengelegt.
+ */
+public class MeshSimplifier {
+
+    /**
+     * Gewichtung der Ebenen, die offene Ränder des Netzes (z.B. bei Blättern und Gras) erhalten
+     */
+    private static final double BOUNDARY_WEIGHT = 10;
+    /**
+     * minimaler Kosinus zwischen alter und neuer Dreiecksnormale, damit ein Kollaps erlaubt ist
+     */
+    private static final double MIN_NORMAL_COSINE = 0.2;
+
+    /**
+     * Diese Funktion vereinfacht ein Dreiecksnetz auf die angegebene Anzahl an Dreiecken.
+     *
+     * @param positions      Vertex Positionen [x1, y1, z1, x2, ...]
+     * @param textureCoords  Texturkoordinaten [u1, v1, u2, ...] zur Auswahl passender Eckpunkte an Nähten
+     * @param indices        Indizes der Dreiecke
+     * @param targetTriangles gewünschte Anzahl an Dreiecken
+     * @return Indizes des vereinfachten Netzes, die auf die ursprünglichen Vertex-Daten verweisen
+     */
+    public static int[] simplify(float[] positions, float[] textureCoords, int[] indices, int targetTriangles) {
+        int triangleCount = indices.length / 3;
+        if (triangleCount <= targetTriangles) {
+            return indices.clone();
+        }
+
+        // Eckpunkte mit gleicher Position zusammenlegen
+        Map<PositionKey, Integer> weldedIds = new HashMap<>();
+        int[] weldedOf = new int[positions.length / 3];
+        List<List<Integer>> originals = new ArrayList<>();
+        for (int vertex = 0; vertex < weldedOf.length; vertex++) {
+            PositionKey key = new PositionKey(positions[vertex * 3], positions[vertex * 3 + 1], positions[vertex * 3 + 2]);
+            Integer id = weldedIds.get(key);
+            if (id == null) {
+                id = originals.size();
+                weldedIds.put(key, id);
+                originals.add(new ArrayList<>());
+            }
+            weldedOf[vertex] = id;
+            originals.get(id).add(vertex);
+        }
+        int weldedCount = originals.size();
+        double[] weldedPositions = new double[weldedCount * 3];
+        for (int id = 0; id < weldedCount; id++) {
+            int vertex = originals.get(id).get(0);
+            weldedPositions[id * 3] = positions[vertex * 3];
+            weldedPositions[id * 3 + 1] = positions[vertex * 3 + 1];
+            weldedPositions[id * 3 + 2] = positions[vertex * 3 + 2];
+        }
+
+        int[] triangles = new int[indices.length];
+        int[] corners = indices.clone();
+        boolean[] deadTriangle = new boolean[triangleCount];
+        int liveTriangles = 0;
+        for (int i = 0; i < indices.length; i++) {
+            triangles[i] = weldedOf[indices[i]];
+        }
+        for (int t = 0; t < triangleCount; t++) {
+            int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+            if (a == b || b == c || a == c) {
+                deadTriangle[t] = true;
+            } else {
+                liveTriangles++;
+            }
+        }
+
+        // Quadriken und Nachbarschaften aufbauen
+        double[] quadrics = new double[weldedCount * 10];
+        List<List<Integer>> vertexTriangles = new ArrayList<>(weldedCount);
+        for (int id = 0; id < weldedCount; id++) {
+            vertexTriangles.add(new ArrayList<>());
+        }
+        Map<Long, Integer> edgeUsage = new HashMap<>();
+        Map<Long, Integer> edgeTriangle = new HashMap<>();
+        double[] normal = new double[3];
+        for (int t = 0; t < triangleCount; t++) {
+            if (deadTriangle[t]) {
+                continue;
+            }
+            double area = triangleNormal(weldedPositions, triangles[t * 3], triangles[t * 3 + 1], triangles[t * 3 + 2], normal);
+            if (area > 0) {
+                int p = triangles[t * 3] * 3;
+                double d = -(normal[0] * weldedPositions[p] + normal[1] * weldedPositions[p + 1] + normal[2] * weldedPositions[p + 2]);
+                for (int k = 0; k < 3; k++) {
+                    addPlane(quadrics, triangles[t * 3 + k], normal[0], normal[1], normal[2], d, area);
+                }
+            }
+            for (int k = 0; k < 3; k++) {
+                vertexTriangles.get(triangles[t * 3 + k]).add(t);
+                long edge = edgeKey(triangles[t * 3 + k], triangles[t * 3 + (k + 1) % 3]);
+                edgeUsage.merge(edge, 1, Integer::sum);
+                edgeTriangle.put(edge, t);
+            }
+        }
+
+        // Offene Ränder durch senkrechte Ebenen stabilisieren
+        for (Map.Entry<Long, Integer> entry : edgeUsage.entrySet()) {
+            if (entry.getValue() != 1) {
+                continue;
+            }
+            int a = (int) (entry.getKey() >> 32);
+            int b = (int) (long) entry.getKey();
+            int t = edgeTriangle.get(entry.getKey());
+            if (triangleNormal(weldedPositions, triangles[t * 3], triangles[t * 3 + 1], triangles[t * 3 + 2], normal) <= 0) {
+                continue;
+            }
+            double ex = weldedPositions[b * 3] - weldedPositions[a * 3];
+            double ey = weldedPositions[b * 3 + 1] - weldedPositions[a * 3 + 1];
+            double ez = weldedPositions[b * 3 + 2] - weldedPositions[a * 3 + 2];
+            double nx = ey * normal[2] - ez * normal[1];
+            double ny = ez * normal[0] - ex * normal[2];
+            double nz = ex * normal[1] - ey * normal[0];
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length <= 0) {
+                continue;
+            }
+            nx /= length;
+            ny /= length;
+            nz /= length;
+            double d = -(nx * weldedPositions[a * 3] + ny * weldedPositions[a * 3 + 1] + nz * weldedPositions[a * 3 + 2]);
+            double weight = BOUNDARY_WEIGHT * (ex * ex + ey * ey + ez * ez);
+            addPlane(quadrics, a, nx, ny, nz, d, weight);
+            addPlane(quadrics, b, nx, ny, nz, d, weight);
+        }
+
+        // Alle Kanten mit ihren Kosten in die Warteschlange legen
+        int[] stamps = new int[weldedCount];
+        boolean[] removed = new boolean[weldedCount];
+        PriorityQueue<Collapse> queue = new PriorityQueue<>();
+        for (Long edge : edgeUsage.keySet()) {
+            queue.add(createCollapse(quadrics, weldedPositions, stamps, (int) (edge >> 32), (int) (long) edge));
+        }
+
+        while (liveTriangles > targetTriangles && !queue.isEmpty()) {
+            Collapse collapse = queue.poll();
+            int from = collapse.from;
+            int to = collapse.to;
+            if (removed[from] || removed[to] || stamps[from] != collapse.stampFrom || stamps[to] != collapse.stampTo) {
+                continue;
+            }
+            if (flipsTriangles(weldedPositions, triangles, deadTriangle, vertexTriangles.get(from), from, to)) {
+                continue;
+            }
+
+            List<Integer> targetTriangleList = new ArrayList<>();
+            for (int t : vertexTriangles.get(to)) {
+                if (!deadTriangle[t]) {
+                    targetTriangleList.add(t);
+                }
+            }
+            for (int t : vertexTriangles.get(from)) {
+                if (deadTriangle[t]) {
+                    continue;
+                }
+                int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+                if (a == to || b == to || c == to) {
+                    deadTriangle[t] = true;
+                    liveTriangles--;
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    if (triangles[t * 3 + k] == from) {
+                        triangles[t * 3 + k] = to;
+                        corners[t * 3 + k] = closestOriginal(originals.get(to), textureCoords, corners[t * 3 + k]);
+                    }
+                }
+                targetTriangleList.add(t);
+            }
+            targetTriangleList.removeIf(t -> deadTriangle[t]);
+            vertexTriangles.set(to, targetTriangleList);
+            vertexTriangles.set(from, new ArrayList<>());
+            removed[from] = true;
+            for (int i = 0; i < 10; i++) {
+                quadrics[to * 10 + i] += quadrics[from * 10 + i];
+            }
+            stamps[to]++;
+
+            Set<Integer> neighbours = new HashSet<>();
+            for (int t : targetTriangleList) {
+                for (int k = 0; k < 3; k++) {
+                    if (triangles[t * 3 + k] != to) {
+                        neighbours.add(triangles[t * 3 + k]);
+                    }
+                }
+            }
+            for (int neighbour : neighbours) {
+                queue.add(createCollapse(quadrics, weldedPositions, stamps, to, neighbour));
+            }
+        }
+
+        int[] result = new int[liveTriangles * 3];
+        int pointer = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            if (!deadTriangle[t]) {
+                result[pointer++] = corners[t * 3];
+                result[pointer++] = corners[t * 3 + 1];
+                result[pointer++] = corners[t * 3 + 2];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Diese Funktion berechnet die günstigere Richtung eines Kantenkollapses zwischen zwei Eckpunkten.
+     *
+     * @param quadrics  Quadriken aller Eckpunkte
+     * @param positions Positionen der Eckpunkte
+     * @param stamps    Versionsnummern der Eckpunkte
+     * @param a         erster Eckpunkt
+     * @param b         zweiter Eckpunkt
+     * @return Kollaps mit den geringeren Kosten
+     */
+    private static Collapse createCollapse(double[] quadrics, double[] positions, int[] stamps, int a, int b) {
+        double costAB = evaluate(quadrics, a, b, positions, b);
+        double costBA = evaluate(quadrics, a, b, positions, a);
+        if (costAB <= costBA) {
+            return new Collapse(costAB, a, b, stamps[a], stamps[b]);
+        }
+        return new Collapse(costBA, b, a, stamps[b], stamps[a]);
+    }
+
+    /**
+     * Diese Funktion berechnet den quadratischen Fehler der Summe zweier Quadriken an der Position eines Eckpunkts.
+     *
+     * @param quadrics  Quadriken aller Eckpunkte
+     * @param a         erster Eckpunkt
+     * @param b         zweiter Eckpunkt
+     * @param positions Positionen der Eckpunkte
+     * @param target    Eckpunkt, an dessen Position ausgewertet wird
+     * @return Fehler
+     */
+    private static double evaluate(double[] quadrics, int a, int b, double[] positions, int target) {
+        double x = positions[target * 3];
+        double y = positions[target * 3 + 1];
+        double z = positions[target * 3 + 2];
+        double[] q = new double[10];
+        for (int i = 0; i < 10; i++) {
+            q[i] = quadrics[a * 10 + i] + quadrics[b * 10 + i];
+        }
+        return q[0] * x * x + 2 * q[1] * x * y + 2 * q[2] * x * z + 2 * q[3] * x
+                + q[4] * y * y + 2 * q[5] * y * z + 2 * q[6] * y
+                + q[7] * z * z + 2 * q[8] * z
+                + q[9];
+    }
+
+    /**
+     * Diese Funktion addiert die Fehlerquadrik einer Ebene ax + by + cz + d = 0 zu einem Eckpunkt.
+     *
+     * @param quadrics Quadriken aller Eckpunkte
+     * @param vertex   Eckpunkt
+     * @param a        x-Komponente der Normale
+     * @param b        y-Komponente der Normale
+     * @param c        z-Komponente der Normale
+     * @param d        Abstand der Ebene
+     * @param weight   Gewichtung der Ebene
+     */
+    private static void addPlane(double[] quadrics, int vertex, double a, double b, double c, double d, double weight) {
+        int i = vertex * 10;
+        quadrics[i] += weight * a * a;
+        quadrics[i + 1] += weight * a * b;
+        quadrics[i + 2] += weight * a * c;
+        quadrics[i + 3] += weight * a * d;
+        quadrics[i + 4] += weight * b * b;
+        quadrics[i + 5] += weight * b * c;
+        quadrics[i + 6] += weight * b * d;
+        quadrics[i + 7] += weight * c * c;
+        quadrics[i + 8] += weight * c * d;
+        quadrics[i + 9] += weight * d * d;
+    }
+
+    /**
+     * Diese Funktion prüft, ob das Verschieben eines Eckpunkts eines der angrenzenden Dreiecke umklappen
+     * oder entarten lassen würde.
+     *
+     * @param positions    Positionen der Eckpunkte
+     * @param triangles    Dreiecke
+     * @param deadTriangle entfernte Dreiecke
+     * @param adjacent     an den Eckpunkt angrenzende Dreiecke
+     * @param from         zu verschiebender Eckpunkt
+     * @param to           Zielpunkt
+     * @return Information, ob der Kollaps verworfen werden muss
+     */
+    private static boolean flipsTriangles(double[] positions, int[] triangles, boolean[] deadTriangle,
+                                          List<Integer> adjacent, int from, int to) {
+        double[] before = new double[3];
+        double[] after = new double[3];
+        for (int t : adjacent) {
+            if (deadTriangle[t]) {
+                continue;
+            }
+            int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+            if (a == to || b == to || c == to) {
+                continue;
+            }
+            if (triangleNormal(positions, a, b, c, before) <= 0) {
+                continue;
+            }
+            double area = triangleNormal(positions, a == from ? to : a, b == from ? to : b, c == from ? to : c, after);
+            if (area <= 0 || before[0] * after[0] + before[1] * after[1] + before[2] * after[2] < MIN_NORMAL_COSINE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Funktion berechnet die normierte Normale und die Fläche eines Dreiecks.
+     *
+     * @param positions Positionen der Eckpunkte
+     * @param a         erster Eckpunkt
+     * @param b         zweiter Eckpunkt
+     * @param c         dritter Eckpunkt
+     * @param normal    Array, in das die Normale geschrieben wird
+     * @return Fläche des Dreiecks
+     */
+    private static double triangleNormal(double[] positions, int a, int b, int c, double[] normal) {
+        double e1x = positions[b * 3] - positions[a * 3];
+        double e1y = positions[b * 3 + 1] - positions[a * 3 + 1];
+        double e1z = positions[b * 3 + 2] - positions[a * 3 + 2];
+        double e2x = positions[c * 3] - positions[a * 3];
+        double e2y = positions[c * 3 + 1] - positions[a * 3 + 1];
+        double e2z = positions[c * 3 + 2] - positions[a * 3 + 2];
+        double nx = e1y * e2z - e1z * e2y;
+        double ny = e1z * e2x - e1x * e2z;
+        double nz = e1x * e2y - e1y * e2x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length <= 0) {
+            return 0;
+        }
+        normal[0] = nx / length;
+        normal[1] = ny / length;
+        normal[2] = nz / length;
+        return length / 2;
+    }
+
+    /**
+     * Diese Funktion wählt unter den ursprünglichen Eckpunkten einer Position denjenigen,
+     * dessen Texturkoordinate der bisherigen Ecke eines Dreiecks am nächsten liegt.
+     *
+     * @param candidates    ursprüngliche Eckpunkte an der Zielposition
+     * @param textureCoords Texturkoordinaten
+     * @param previous      bisheriger Eckpunkt der Dreiecksecke
+     * @return gewählter Eckpunkt
+     */
+    private static int closestOriginal(List<Integer> candidates, float[] textureCoords, int previous) {
+        int best = candidates.get(0);
+        if (textureCoords == null || candidates.size() == 1) {
+            return best;
+        }
+        float bestDistance = Float.MAX_VALUE;
+        for (int candidate : candidates) {
+            float du = textureCoords[candidate * 2] - textureCoords[previous * 2];
+            float dv = textureCoords[candidate * 2 + 1] - textureCoords[previous * 2 + 1];
+            float distance = du * du + dv * dv;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Diese Funktion bildet einen richtungsunabhängigen Schlüssel für eine Kante.
+     *
+     * @param a erster Eckpunkt
+     * @param b zweiter Eckpunkt
+     * @return Schlüssel der Kante
+     */
+    private static long edgeKey(int a, int b) {
+        int min = Math.min(a, b);
+        int max = Math.max(a, b);
+        return ((long) min << 32) | (max & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Diese Klasse beschreibt einen möglichen Kollaps einer Halbkante mit seinen Kosten.
+     */
+    private static class Collapse implements Comparable<Collapse> {
+
+        /**
+         * Kosten des Kollapses
+         */
+        private final double cost;
+        /**
+         * Eckpunkt, der entfernt wird
+         */
+        private final int from;
+        /**
+         * Eckpunkt, auf den verschoben wird
+         */
+        private final int to;
+        /**
+         * Versionsnummer des entfernten Eckpunkts bei der Berechnung
+         */
+        private final int stampFrom;
+        /**
+         * Versionsnummer des Zielpunkts bei der Berechnung
+         */
+        private final int stampTo;
+
+        /**
+         * Ein Kollaps wird mit seinen Kosten und den beteiligten Eckpunkten erstellt.
+         *
+         * @param cost      Kosten
+         * @param from      entfernter Eckpunkt
+         * @param to        Zielpunkt
+         * @param stampFrom Versionsnummer des entfernten Eckpunkts
+         * @param stampTo   Versionsnummer des Zielpunkts
+         */
+        private Collapse(double cost, int from, int to, int stampFrom, int stampTo) {
+            this.cost = cost;
+            this.from = from;
+            this.to = to;
+            this.stampFrom = stampFrom;
+            this.stampTo = stampTo;
+        }
+
+        @Override
+        public int compareTo(Collapse other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
+    /**
+     * Diese Klasse dient als Schlüssel, um Eckpunkte mit exakt gleicher Position zu finden.
+     */
+    private static class PositionKey {
+
+        /**
+         * x-Koordinate
+         */
+        private final float x;
+        /**
+         * y-Koordinate
+         */
+        private final float y;
+        /**
+         * z-Koordinate
+         */
+        private final float z;
+
+        /**
+         * Ein Schlüssel wird aus einer Position erstellt.
+         *
+         * @param x x-Koordinate
+         * @param y y-Koordinate
+         * @param z z-Koordinate
+         */
+        private PositionKey(float x, float y, float z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PositionKey)) {
+                return false;
+            }
+            PositionKey other = (PositionKey) o;
+            return Float.compare(x, other.x) == 0 && Float.compare(y, other.y) == 0 && Float.compare(z, other.z) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Float.floatToIntBits(x) + Float.floatToIntBits(y)) + Float.floatToIntBits(z);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package models;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Diese Klasse enthält die fertig aufbereiteten Vertex-Daten eines Modells im Arbeitsspeicher, bevor diese durch den
+ * {@link renderEngine.Loader} auf die GPU geladen werden. Sie kann daher in einem beliebigen Thread erzeugt werden.
+ */
+public class ModelData {
+
+    /**
+     * Verschränkte Vertex-Daten im {@link ModelData#vertexFormat} (native Byte-Reihenfolge)
+     */
+    private final ByteBuffer vertices;
+    /**
+     * Format der Vertex-Daten
+     */
+    private final VertexFormat vertexFormat;
+    /**
+     * Anzahl der Vertices
+     */
+    private final int vertexCount;
+    /**
+     * Indizes aller Level of Detail hintereinander (native Byte-Reihenfolge)
+     */
+    private final ByteBuffer indices;
+    /**
+     * Anzahl der Indizes je Level of Detail
+     */
+    private final int[] lodIndexCounts;
+    /**
+     * Ausdehnung des Modells im Modellraum
+     */
+    private final BoundingVolume boundingVolume;
+
+    /**
+     * Die Vertex-Daten eines Modells werden zusammengefasst.
+     *
+     * @param vertices       verschränkte Vertex-Daten
+     * @param vertexFormat   Format der Vertex-Daten
+     * @param vertexCount    Anzahl der Vertices
+     * @param indices        Indizes aller Level of Detail hintereinander
+     * @param lodIndexCounts Anzahl der Indizes je Level of Detail
+     * @param boundingVolume Ausdehnung des Modells
+     */
+    public ModelData(ByteBuffer vertices, VertexFormat vertexFormat, int vertexCount, ByteBuffer indices,
+                     int[] lodIndexCounts, BoundingVolume boundingVolume) {
+        this.vertices = vertices;
+        this.vertexFormat = vertexFormat;
+        this.vertexCount = vertexCount;
+        this.indices = indices;
+        this.lodIndexCounts = lodIndexCounts;
+        this.boundingVolume = boundingVolume;
+    }
+
+    /**
+     * Diese Funktion übergibt die verschränkten Vertex-Daten.
+     *
+     * @return Vertex-Daten
+     */
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Diese Funktion übergibt das Format der Vertex-Daten.
+     *
+     * @return {@link VertexFormat}
+     */
+    public VertexFormat getVertexFormat() {
+        return vertexFormat;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Vertices.
+     *
+     * @return Anzahl der Vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Indizes aller Level of Detail.
+     *
+     * @return Indizes
+     */
+    public ByteBuffer getIndices() {
+        return indices;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Indizes je Level of Detail.
+     *
+     * @return Anzahl der Indizes je Level of Detail
+     */
+    public int[] getLodIndexCounts() {
+        return lodIndexCounts;
+    }
+
+    /**
+     * Diese Funktion übergibt die Ausdehnung des Modells.
+     *
+     * @return {@link BoundingVolume}
+     */
+    public BoundingVolume getBoundingVolume() {
+        return boundingVolume;
+    }
+}
@@ -1,15 +1,19 @@
 package models;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 import renderEngine.Loader;
 
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Diese Klasse kann Daten aus dem OBJ Format in die Model-Klassen ({@link RawModel}) übersetzen.
@@ -20,6 +24,45 @@ public class OBJLoader {
      * Pfad zum Ressourcen-Verzeichnis
      */
     private static final String RESOURCES = "res/";
+    /**
+     * Anteil der ursprünglichen Dreiecke, auf den die einzelnen Level of Detail vereinfacht werden
+     */
+    private static final float[] LOD_TRIANGLE_RATIOS = {0.5f, 0.25f, 0.1f};
+    /**
+     * Minimale Anzahl an Dreiecken, ab der für ein Modell Level of Detail erzeugt werden
+     */
+    private static final int MIN_TRIANGLES_FOR_LOD = 256;
+
+    /**
+     * Anzahl der Modelle, die aus dem {@link MeshCache} geladen wurden
+     */
+    private static final AtomicInteger cachedLoads = new AtomicInteger();
+    /**
+     * Gesamtdauer der Ladevorgänge aus dem {@link MeshCache} in Nanosekunden (summiert über alle Threads)
+     */
+    private static final AtomicLong cachedLoadTime = new AtomicLong();
+    /**
+     * Anzahl der Modelle, die aus der OBJ-Datei übersetzt wurden
+     */
+    private static final AtomicInteger parsedLoads = new AtomicInteger();
+    /**
+     * Gesamtdauer der Ladevorgänge aus OBJ-Dateien (inklusive Level of Detail und Schreiben des Caches) in Nanosekunden
+     * (summiert über alle Threads)
+     */
+    private static final AtomicLong parsedLoadTime = new AtomicLong();
+    /**
+     * Vertex-Daten aller geladenen Modelle im gepackten {@link VertexFormat} in Bytes
+     */
+    private static final AtomicLong packedVertexBytes = new AtomicLong();
+    /**
+     * Vertex-Daten aller geladenen Modelle im bisherigen Format aus getrennten Float-Buffern in Bytes
+     */
+    private static final AtomicLong unpackedVertexBytes = new AtomicLong();
+
+    /**
+     * Information, ob die Positionen der Modelle als 16-Bit-Werte relativ zur Bounding Box gespeichert werden
+     */
+    private static volatile boolean quantizePositions = true;
 
 
     /**
@@ -59,6 +102,133 @@ public class OBJLoader {
      * @return {@link RawModel} des Objektes
      */
     public static RawModel loadObjModel(String fileName, Loader loader) {
+        return uploadModel(parseObjModel(fileName), loader);
+    }
+
+    /**
+     * Diese Funktion lädt aufbereitete Vertex-Daten als {@link RawModel} in OpenGL.
+     * Muss im OpenGL-Thread aufgerufen werden.
+     *
+     * @param data   aufbereitete Vertex-Daten
+     * @param loader Loader zum Konvertieren der Daten in ein {@link RawModel}
+     * @return {@link RawModel} des Objektes
+     */
+    public static RawModel uploadModel(ModelData data, Loader loader) {
+        RawModel model = loader.loadToVAO(data.getVertices(), data.getVertexFormat(), data.getIndices(),
+                data.getLodIndexCounts());
+        model.setBoundingVolume(data.getBoundingVolume());
+        return model;
+    }
+
+    /**
+     * Diese Funktion liest ein OBJ Objekt aus einer Datei und bereitet die Vertex-Daten inklusive der Level of Detail
+     * auf, ohne OpenGL zu verwenden. Sie kann daher in einem Hintergrund-Thread aufgerufen werden.
+     * Existiert ein gültiger {@link MeshCache} zur Datei, werden die Daten daraus geladen. Andernfalls wird die Datei
+     * übersetzt und das Ergebnis für spätere Starts im Cache abgelegt.
+     *
+     * @param fileName Name der zuladenden Datei
+     * @return {@link ModelData} des Objektes
+     */
+    public static ModelData parseObjModel(String fileName) {
+        long start = System.nanoTime();
+        String name = fileName.endsWith(".obj") ? fileName : fileName + ".obj";
+        File source = new File(RESOURCES + name);
+
+        ModelData cachedData = MeshCache.load(name, source, quantizePositions);
+        if (cachedData != null) {
+            reportVertexMemory(name, cachedData);
+            cachedLoads.incrementAndGet();
+            cachedLoadTime.addAndGet(System.nanoTime() - start);
+            return cachedData;
+        }
+
+        ObjMesh mesh;
+        try {
+            mesh = ObjParser.parse(source);
+        } catch (IOException e) {
+            System.err.println("Could not load OBJ file!");
+            e.printStackTrace();
+            return null;
+        }
+        float[] verticesArray = mesh.getPositions();
+        float[] textureArray = mesh.getTextureCoords();
+        float[] normalsArray = mesh.getNormals();
+        int vertexCount = verticesArray.length / 3;
+
+        // Dreiecke für den Vertex-Cache sortieren, bevor die Level of Detail daraus abgeleitet werden
+        float cacheMissRatio = MeshOptimizer.averageCacheMissRatio(mesh.getIndices(), vertexCount);
+        int[] indicesArray = MeshOptimizer.optimizeVertexCache(mesh.getIndices(), vertexCount);
+        int[][] lodIndices = generateLevelsOfDetail(verticesArray, textureArray, indicesArray);
+        for (int lod = 1; lod < lodIndices.length; lod++) {
+            lodIndices[lod] = MeshOptimizer.optimizeVertexCache(lodIndices[lod], vertexCount);
+        }
+        MeshOptimizer.optimizeVertexFetch(verticesArray, textureArray, normalsArray, lodIndices);
+        System.out.printf("%s: %d Eckpunkte -> %d Vertices, ACMR %.2f -> %.2f%n", name, indicesArray.length,
+                vertexCount, cacheMissRatio, MeshOptimizer.averageCacheMissRatio(lodIndices[0], vertexCount));
+
+        BoundingVolume boundingVolume = BoundingVolume.fromPositions(verticesArray);
+        VertexFormat format = VertexFormat.forMesh(verticesArray, textureArray, quantizePositions);
+        ByteBuffer vertexBuffer = VertexPacker.pack(verticesArray, textureArray, normalsArray, format);
+        if (source.isFile()) {
+            MeshCache.store(name, source, vertexBuffer, format, vertexCount, lodIndices, boundingVolume);
+        }
+
+        int totalIndices = 0;
+        for (int[] lodIndex : lodIndices) {
+            totalIndices += lodIndex.length;
+        }
+        int[] lodIndexCounts = new int[lodIndices.length];
+        ByteBuffer indexBuffer = BufferUtils.createByteBuffer(totalIndices * 4);
+        for (int lod = 0; lod < lodIndices.length; lod++) {
+            lodIndexCounts[lod] = lodIndices[lod].length;
+            indexBuffer.asIntBuffer().put(lodIndices[lod]);
+            indexBuffer.position(indexBuffer.position() + lodIndices[lod].length * 4);
+        }
+        indexBuffer.flip();
+        ModelData data = new ModelData(vertexBuffer, format, vertexCount, indexBuffer, lodIndexCounts, boundingVolume);
+        reportVertexMemory(name, data);
+
+        parsedLoads.incrementAndGet();
+        parsedLoadTime.addAndGet(System.nanoTime() - start);
+        return data;
+    }
+
+    /**
+     * Diese Funktion legt fest, ob die Positionen neu geladener Modelle quantisiert werden. Ohne Quantisierung werden
+     * die Positionen als Floats gespeichert, Texturkoordinaten und Normalenvektoren bleiben gepackt.
+     *
+     * @param quantize Information, ob die Positionen als 16-Bit-Werte gespeichert werden sollen
+     */
+    public static void setQuantizePositions(boolean quantize) {
+        quantizePositions = quantize;
+    }
+
+    /**
+     * Diese Funktion gibt den Speicherbedarf der Vertex-Daten eines Modells im Vergleich zum bisherigen Format aus
+     * und summiert ihn für {@link OBJLoader#getLoadStatistics()}.
+     *
+     * @param name Name der OBJ-Datei
+     * @param data aufbereitete Vertex-Daten
+     */
+    private static void reportVertexMemory(String name, ModelData data) {
+        long packed = (long) data.getVertexCount() * data.getVertexFormat().getStride();
+        long unpacked = (long) data.getVertexCount() * VertexFormat.UNPACKED_STRIDE;
+        packedVertexBytes.addAndGet(packed);
+        unpackedVertexBytes.addAndGet(unpacked);
+        System.out.printf("%s: Vertex-Daten %.1f KiB statt %.1f KiB (%d Bytes je Vertex)%n", name,
+                packed / 1024f, unpacked / 1024f, data.getVertexFormat().getStride());
+    }
+
+    /**
+     * Diese Funktion liest eine OBJ-Datei zeilenweise über Strings und Vektor-Objekte ein.
+     * Sie wird nicht mehr zum Laden verwendet, sondern dient als Referenz für den {@link ObjParser}
+     * (siehe benchmark.ObjParserBenchmark). Unterstützt nur Dreiecke der Form "v/vt/vn".
+     *
+     * @param source OBJ-Datei
+     * @return gelesene Vertex-Daten
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    public static ObjMesh parseObjLegacy(File source) throws IOException {
         List<Vector3f> vertices = new ArrayList();
         List<Vector2f> textures = new ArrayList();
         List<Vector3f> normals = new ArrayList();
@@ -67,10 +237,8 @@ public class OBJLoader {
         float[] normalsArray = null;
         float[] textureArray = null;
 
-        String name = fileName.endsWith(".obj") ? fileName : fileName + ".obj";
-
         // Auslesen der Datei
-        try (BufferedReader reader = new BufferedReader(new FileReader(RESOURCES + name))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(source))) {
             String line;
             vertexLoop:
             while (true) {
@@ -99,11 +267,6 @@ public class OBJLoader {
                 }
                 line = reader.readLine();
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("Could not load OBJ file!");
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         float[] verticesArray = new float[vertices.size() * 3];
@@ -119,10 +282,54 @@ public class OBJLoader {
         for (int i = 0; i < indices.size(); i++) {
             indicesArray[i] = indices.get(i);
         }
-        return loader.loadToVAO(verticesArray, textureArray, normalsArray, indicesArray);
+        return new ObjMesh(verticesArray, textureArray, normalsArray, indicesArray);
+    }
+
+    /**
+     * Diese Funktion übergibt die Ladezeiten aller bisher geladenen Modelle, getrennt nach Modellen aus dem
+     * {@link MeshCache} (Warmstart) und aus OBJ-Dateien übersetzten Modellen (Kaltstart), sowie den Speicherbedarf
+     * ihrer Vertex-Daten auf der GPU.
+     *
+     * @return Ladezeiten und Speicherbedarf als lesbarer Text
+     */
+    public static String getLoadStatistics() {
+        return String.format("OBJ Modelle: %d aus dem Cache in %.1f ms, %d übersetzt in %.1f ms, "
+                        + "Vertex-Daten %.1f KiB statt %.1f KiB",
+                cachedLoads.get(), cachedLoadTime.get() / 1e6, parsedLoads.get(), parsedLoadTime.get() / 1e6,
+                packedVertexBytes.get() / 1024f, unpackedVertexBytes.get() / 1024f);
     }
 
 
+    /**
+     * Diese Funktion erzeugt aus den Indizes eines Modells eine Kette vereinfachter Level of Detail.
+     * Jede Stufe wird aus der vorherigen mit dem {@link MeshSimplifier} berechnet und verweist auf dieselben
+     * Vertex-Daten. Kleine Modelle erhalten keine zusätzlichen Stufen.
+     *
+     * @param positions     Vertex Positionen
+     * @param textureCoords Texturkoordinaten
+     * @param indices       Indizes der vollen Detailstufe
+     * @return Indizes je Level of Detail, beginnend mit der vollen Detailstufe
+     */
+    private static int[][] generateLevelsOfDetail(float[] positions, float[] textureCoords, int[] indices) {
+        int triangleCount = indices.length / 3;
+        if (triangleCount < MIN_TRIANGLES_FOR_LOD) {
+            return new int[][]{indices};
+        }
+        List<int[]> levels = new ArrayList<>();
+        levels.add(indices);
+        int[] previous = indices;
+        for (float ratio : LOD_TRIANGLE_RATIOS) {
+            int[] simplified = MeshSimplifier.simplify(positions, textureCoords, previous, (int) (triangleCount * ratio));
+            // Stufen, die kaum noch vereinfacht werden konnten, lohnen sich nicht
+            if (simplified.length >= previous.length * 0.9f) {
+                break;
+            }
+            levels.add(simplified);
+            previous = simplified;
+        }
+        return levels.toArray(new int[0][]);
+    }
+
     /**
      * Diese Funktion bearbeitet die Informationen einer Face-Zeile in der OBJ-Datei.
      *
@@ -0,0 +1,76 @@
+package models;
+
+/**
+ * Diese Klasse enthält die aus einer OBJ-Datei gelesenen Vertex-Daten als primitive Arrays.
+ * Jeder Vertex wird über seinen Positions-Index referenziert (siehe {@link OBJLoader}).
+ */
+public class ObjMesh {
+
+    /**
+     * Vertex Positionen [x1, y1, z1, x2, ...]
+     */
+    private final float[] positions;
+    /**
+     * Texturkoordinaten [u1, v1, u2, ...]
+     */
+    private final float[] textureCoords;
+    /**
+     * Normalenvektoren [x1, y1, z1, x2, ...]
+     */
+    private final float[] normals;
+    /**
+     * Indizes der Dreiecke
+     */
+    private final int[] indices;
+
+    /**
+     * Die Vertex-Daten einer OBJ-Datei werden zusammengefasst.
+     *
+     * @param positions     Vertex Positionen
+     * @param textureCoords Texturkoordinaten
+     * @param normals       Normalenvektoren
+     * @param indices       Indizes der Dreiecke
+     */
+    public ObjMesh(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+        this.positions = positions;
+        this.textureCoords = textureCoords;
+        this.normals = normals;
+        this.indices = indices;
+    }
+
+    /**
+     * Diese Funktion übergibt die Vertex Positionen.
+     *
+     * @return Vertex Positionen
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Diese Funktion übergibt die Texturkoordinaten.
+     *
+     * @return Texturkoordinaten
+     */
+    public float[] getTextureCoords() {
+        return textureCoords;
+    }
+
+    /**
+     * Diese Funktion übergibt die Normalenvektoren.
+     *
+     * @return Normalenvektoren
+     */
+    public float[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * Diese Funktion übergibt die Indizes der Dreiecke.
+     *
+     * @return Indizes
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+}
@@ -0,0 +1,509 @@
+package models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Diese Klasse liest OBJ-Dateien direkt auf Byte-Ebene aus einer gemappten Datei, ohne für jede Zeile Strings oder
+ * Vektor-Objekte zu erzeugen. Die Werte werden direkt in wachsende primitive Arrays geschrieben.
+ *
+ * Große Dateien werden an Zeilengrenzen in Abschnitte aufgeteilt, die parallel gelesen und anschließend
+ * zusammengeführt werden. Unterstützt werden "v", "vt", "vn" und "f" mit den Formen "v", "v/vt", "v//vn" und
+ * "v/vt/vn"; Polygone werden als Fächer trianguliert. Relative (negative) Indizes werden nicht unterstützt.
+ * Eckpunkte mit gleicher Position, Texturkoordinate und Normale werden zu einem Vertex zusammengelegt, auch wenn
+ * die Datei (wie bei den Blender-Exporten) für jedes Dreieck eigene Positions-Indizes verwendet.
+ */
+public class ObjParser {
+
+    /**
+     * Dateigröße in Bytes, ab der eine Datei parallel gelesen wird
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    /**
+     * Minimale Größe eines parallel gelesenen Abschnitts in Bytes
+     */
+    private static final int MIN_CHUNK_SIZE = 256 << 10;
+    /**
+     * Anfangsgröße der wachsenden Arrays eines Abschnitts
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Exakt darstellbare Zehnerpotenzen für das Umrechnen der Mantisse
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /**
+     * Maximale Anzahl an Ziffern, die in der Mantisse (long) aufgenommen werden
+     */
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    /**
+     * Anzahl der Floats eines Eckpunktes beim Zusammenlegen (Position, Texturkoordinate, Normale)
+     */
+    private static final int VERTEX_SIZE = 8;
+
+    /**
+     * Zu lesende Daten
+     */
+    private final ByteBuffer data;
+    /**
+     * aktuelle Leseposition
+     */
+    private int position;
+    /**
+     * Ende des zu lesenden Abschnitts (exklusiv)
+     */
+    private final int end;
+
+    /**
+     * gelesene Positionen
+     */
+    private float[] positions = new float[INITIAL_CAPACITY * 3];
+    /**
+     * Anzahl der gelesenen Floats in {@link ObjParser#positions}
+     */
+    private int positionCount = 0;
+    /**
+     * gelesene Texturkoordinaten
+     */
+    private float[] textures = new float[INITIAL_CAPACITY * 2];
+    /**
+     * Anzahl der gelesenen Floats in {@link ObjParser#textures}
+     */
+    private int textureCount = 0;
+    /**
+     * gelesene Normalenvektoren
+     */
+    private float[] normals = new float[INITIAL_CAPACITY * 3];
+    /**
+     * Anzahl der gelesenen Floats in {@link ObjParser#normals}
+     */
+    private int normalCount = 0;
+    /**
+     * Eckpunkte der triangulierten Flächen als Tripel (Position, Textur, Normale), 1-basiert, 0 = nicht angegeben
+     */
+    private int[] corners = new int[INITIAL_CAPACITY * 9];
+    /**
+     * Anzahl der gelesenen Werte in {@link ObjParser#corners}
+     */
+    private int cornerCount = 0;
+    /**
+     * Eckpunkte der aktuellen Fläche vor der Triangulierung
+     */
+    private int[] faceCorners = new int[3 * 8];
+
+    /**
+     * Ein {@link ObjParser} für einen Abschnitt der Daten wird erstellt.
+     *
+     * @param data  zu lesende Daten
+     * @param start Beginn des Abschnitts (Zeilenanfang)
+     * @param end   Ende des Abschnitts (exklusiv, Zeilenanfang oder Datenende)
+     */
+    private ObjParser(ByteBuffer data, int start, int end) {
+        this.data = data;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Diese Funktion liest eine OBJ-Datei. Dateien ab {@link ObjParser#PARALLEL_THRESHOLD} Bytes werden parallel gelesen.
+     *
+     * @param file OBJ-Datei
+     * @return gelesene Vertex-Daten
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    public static ObjMesh parse(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(data, data.limit() >= PARALLEL_THRESHOLD);
+        }
+    }
+
+    /**
+     * Diese Funktion liest OBJ-Daten aus einem Buffer (von 0 bis zum Limit).
+     *
+     * @param data     OBJ-Daten
+     * @param parallel gibt an, ob die Daten in mehreren Abschnitten parallel gelesen werden sollen
+     * @return gelesene Vertex-Daten
+     */
+    public static ObjMesh parse(ByteBuffer data, boolean parallel) {
+        int size = data.limit();
+        int chunkCount = parallel
+                ? Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, size / MIN_CHUNK_SIZE))
+                : 1;
+
+        // Abschnittsgrenzen auf den nächsten Zeilenanfang verschieben
+        int[] bounds = new int[chunkCount + 1];
+        bounds[chunkCount] = size;
+        for (int i = 1; i < chunkCount; i++) {
+            int bound = Math.max(bounds[i - 1], (int) ((long) size * i / chunkCount));
+            while (bound < size && data.get(bound - 1) != '\n') {
+                bound++;
+            }
+            bounds[i] = bound;
+        }
+
+        ObjParser[] chunks = new ObjParser[chunkCount];
+        if (chunkCount == 1) {
+            chunks[0] = new ObjParser(data, 0, size);
+            chunks[0].parseChunk();
+        } else {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                ObjParser chunk = new ObjParser(data.duplicate(), bounds[i], bounds[i + 1]);
+                chunks[i] = chunk;
+                tasks.add(ForkJoinPool.commonPool().submit(chunk::parseChunk));
+            }
+            try {
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Could not parse OBJ data", e);
+            }
+        }
+        return merge(chunks);
+    }
+
+    /**
+     * Diese Funktion führt die Abschnitte zusammen und erzeugt für jede unterschiedliche Kombination aus Position,
+     * Texturkoordinate und Normalenvektor genau einen Vertex.
+     *
+     * @param chunks gelesene Abschnitte in Reihenfolge der Datei
+     * @return zusammengeführte Vertex-Daten
+     */
+    private static ObjMesh merge(ObjParser[] chunks) {
+        int positionTotal = 0;
+        int textureTotal = 0;
+        int normalTotal = 0;
+        int cornerTotal = 0;
+        for (ObjParser chunk : chunks) {
+            positionTotal += chunk.positionCount;
+            textureTotal += chunk.textureCount;
+            normalTotal += chunk.normalCount;
+            cornerTotal += chunk.cornerCount;
+        }
+
+        float[] positions = new float[positionTotal];
+        float[] textures = chunks.length == 1 ? chunks[0].textures : new float[textureTotal];
+        float[] normals = chunks.length == 1 ? chunks[0].normals : new float[normalTotal];
+        int positionPointer = 0;
+        int texturePointer = 0;
+        int normalPointer = 0;
+        for (ObjParser chunk : chunks) {
+            System.arraycopy(chunk.positions, 0, positions, positionPointer, chunk.positionCount);
+            positionPointer += chunk.positionCount;
+            if (chunks.length > 1) {
+                System.arraycopy(chunk.textures, 0, textures, texturePointer, chunk.textureCount);
+                texturePointer += chunk.textureCount;
+                System.arraycopy(chunk.normals, 0, normals, normalPointer, chunk.normalCount);
+                normalPointer += chunk.normalCount;
+            }
+        }
+
+        // Jeder Eckpunkt wird über seine Werte (Position, Texturkoordinate, Normale) in einer Hashtabelle
+        // gesucht, sodass gleiche Eckpunkte nur einmal gespeichert werden und Nähte erhalten bleiben
+        int cornerCount = cornerTotal / 3;
+        float[] vertices = new float[cornerCount * VERTEX_SIZE];
+        int[] indices = new int[cornerCount];
+        int[] table = new int[Integer.highestOneBit(Math.max(1, cornerCount * 2 - 1)) << 1];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        float[] vertex = new float[VERTEX_SIZE];
+        int vertexCount = 0;
+        int indexPointer = 0;
+        for (ObjParser chunk : chunks) {
+            int[] corners = chunk.corners;
+            for (int i = 0; i < chunk.cornerCount; i += 3) {
+                int position = (corners[i] - 1) * 3;
+                vertex[0] = positions[position];
+                vertex[1] = positions[position + 1];
+                vertex[2] = positions[position + 2];
+                int texture = (corners[i + 1] - 1) * 2;
+                vertex[3] = texture >= 0 ? textures[texture] : 0;
+                vertex[4] = texture >= 0 ? 1 - textures[texture + 1] : 0; // anderes Koordinatensystem von Blender => 1-y
+                int normal = (corners[i + 2] - 1) * 3;
+                vertex[5] = normal >= 0 ? normals[normal] : 0;
+                vertex[6] = normal >= 0 ? normals[normal + 1] : 0;
+                vertex[7] = normal >= 0 ? normals[normal + 2] : 0;
+
+                int slot = hash(vertex) & mask;
+                while (table[slot] >= 0 && !equals(vertices, table[slot], vertex)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[slot] < 0) {
+                    table[slot] = vertexCount;
+                    System.arraycopy(vertex, 0, vertices, vertexCount * VERTEX_SIZE, VERTEX_SIZE);
+                    vertexCount++;
+                }
+                indices[indexPointer++] = table[slot];
+            }
+        }
+
+        float[] positionArray = new float[vertexCount * 3];
+        float[] textureArray = new float[vertexCount * 2];
+        float[] normalsArray = new float[vertexCount * 3];
+        for (int i = 0; i < vertexCount; i++) {
+            System.arraycopy(vertices, i * VERTEX_SIZE, positionArray, i * 3, 3);
+            System.arraycopy(vertices, i * VERTEX_SIZE + 3, textureArray, i * 2, 2);
+            System.arraycopy(vertices, i * VERTEX_SIZE + 5, normalsArray, i * 3, 3);
+        }
+        return new ObjMesh(positionArray, textureArray, normalsArray, indices);
+    }
+
+    /**
+     * Diese Funktion berechnet den Hashwert eines Eckpunktes aus den Bitmustern seiner Werte.
+     *
+     * @param vertex Werte des Eckpunktes
+     * @return Hashwert
+     */
+    private static int hash(float[] vertex) {
+        int hash = 0;
+        for (float value : vertex) {
+            hash = (hash ^ Float.floatToIntBits(value)) * 0x9E3779B1;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Diese Funktion vergleicht einen gespeicherten Eckpunkt bitweise mit einem gesuchten Eckpunkt.
+     *
+     * @param vertices gespeicherte Eckpunkte
+     * @param index    Index des gespeicherten Eckpunktes
+     * @param vertex   Werte des gesuchten Eckpunktes
+     * @return true, falls alle Werte übereinstimmen
+     */
+    private static boolean equals(float[] vertices, int index, float[] vertex) {
+        int offset = index * VERTEX_SIZE;
+        for (int i = 0; i < VERTEX_SIZE; i++) {
+            if (Float.floatToIntBits(vertices[offset + i]) != Float.floatToIntBits(vertex[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Funktion liest alle Zeilen des Abschnitts.
+     */
+    private void parseChunk() {
+        while (position < end) {
+            skipBlanks();
+            if (position >= end) {
+                break;
+            }
+            byte first = data.get(position);
+            byte second = position + 1 < end ? data.get(position + 1) : (byte) '\n';
+            if (first == 'v' && isBlank(second)) {
+                position += 2;
+                ensurePositionCapacity();
+                positions[positionCount++] = readFloat();
+                positions[positionCount++] = readFloat();
+                positions[positionCount++] = readFloat();
+            } else if (first == 'v' && second == 't') {
+                position += 2;
+                if (textureCount + 2 > textures.length) {
+                    textures = Arrays.copyOf(textures, textures.length * 2);
+                }
+                textures[textureCount++] = readFloat();
+                textures[textureCount++] = readFloat();
+            } else if (first == 'v' && second == 'n') {
+                position += 2;
+                if (normalCount + 3 > normals.length) {
+                    normals = Arrays.copyOf(normals, normals.length * 2);
+                }
+                normals[normalCount++] = readFloat();
+                normals[normalCount++] = readFloat();
+                normals[normalCount++] = readFloat();
+            } else if (first == 'f' && isBlank(second)) {
+                position += 2;
+                readFace();
+            }
+            skipLine();
+        }
+    }
+
+    /**
+     * Diese Funktion liest die Eckpunkte einer Fläche und legt sie als Fächer aus Dreiecken ab.
+     */
+    private void readFace() {
+        int count = 0;
+        while (true) {
+            skipBlanks();
+            if (position >= end || !isDigit(data.get(position))) {
+                break;
+            }
+            if (count + 3 > faceCorners.length) {
+                faceCorners = Arrays.copyOf(faceCorners, faceCorners.length * 2);
+            }
+            faceCorners[count] = readInt();
+            faceCorners[count + 1] = 0;
+            faceCorners[count + 2] = 0;
+            if (position < end && data.get(position) == '/') {
+                position++;
+                if (position < end && data.get(position) != '/') {
+                    faceCorners[count + 1] = readInt();
+                }
+                if (position < end && data.get(position) == '/') {
+                    position++;
+                    faceCorners[count + 2] = readInt();
+                }
+            }
+            count += 3;
+        }
+
+        int triangles = count / 3 - 2;
+        if (triangles <= 0) {
+            return;
+        }
+        if (cornerCount + triangles * 9 > corners.length) {
+            corners = Arrays.copyOf(corners, Math.max(corners.length * 2, cornerCount + triangles * 9));
+        }
+        for (int triangle = 1; triangle <= triangles; triangle++) {
+            System.arraycopy(faceCorners, 0, corners, cornerCount, 3);
+            System.arraycopy(faceCorners, triangle * 3, corners, cornerCount + 3, 6);
+            cornerCount += 9;
+        }
+    }
+
+    /**
+     * Diese Funktion liest eine positive Ganzzahl ab der aktuellen Position.
+     *
+     * @return gelesene Zahl
+     */
+    private int readInt() {
+        int value = 0;
+        while (position < end) {
+            byte b = data.get(position);
+            if (!isDigit(b)) {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            position++;
+        }
+        return value;
+    }
+
+    /**
+     * Diese Funktion liest eine Gleitkommazahl (mit optionalem Vorzeichen, Nachkommastellen und Exponent)
+     * ab der aktuellen Position. Führende Leerzeichen werden übersprungen.
+     *
+     * @return gelesene Zahl
+     */
+    private float readFloat() {
+        skipBlanks();
+        boolean negative = false;
+        if (position < end && (data.get(position) == '-' || data.get(position) == '+')) {
+            negative = data.get(position) == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        while (position < end && isDigit(data.get(position))) {
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (data.get(position) - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            position++;
+        }
+        if (position < end && data.get(position) == '.') {
+            position++;
+            while (position < end && isDigit(data.get(position))) {
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (data.get(position) - '0');
+                    exponent--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                }
+                position++;
+            }
+        }
+        if (position < end && (data.get(position) == 'e' || data.get(position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (data.get(position) == '-' || data.get(position) == '+')) {
+                negativeExponent = data.get(position) == '-';
+                position++;
+            }
+            int value = readInt();
+            exponent += negativeExponent ? -value : value;
+        }
+
+        double value = mantissa;
+        if (exponent < 0) {
+            value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value * Math.pow(10, exponent);
+        } else if (exponent > 0) {
+            value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Diese Funktion vergrößert das Array der Positionen, falls keine weitere Position hineinpasst.
+     */
+    private void ensurePositionCapacity() {
+        if (positionCount + 3 > positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+    }
+
+    /**
+     * Diese Funktion überspringt Leerzeichen und Tabulatoren.
+     */
+    private void skipBlanks() {
+        while (position < end) {
+            byte b = data.get(position);
+            if (b != ' ' && b != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Diese Funktion setzt die Position hinter das nächste Zeilenende.
+     */
+    private void skipLine() {
+        while (position < end && data.get(position) != '\n') {
+            position++;
+        }
+        position++;
+    }
+
+    /**
+     * Diese Funktion prüft, ob ein Byte eine Ziffer ist.
+     *
+     * @param b Byte
+     * @return true, falls es eine Ziffer ist
+     */
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Diese Funktion prüft, ob ein Byte ein Leerzeichen, ein Tabulator oder ein Zeilenende ist.
+     *
+     * @param b Byte
+     * @return true, falls es ein Trennzeichen ist
+     */
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -13,6 +13,26 @@ public class RawModel {
      * Anzahl der Eckpunkte des Modells
      */
     private final int vertexCount;
+    /**
+     * Anzahl der Indizes je Level of Detail (Index 0 = volle Detailstufe)
+     */
+    private final int[] lodIndexCounts;
+    /**
+     * Byte-Offsets der Level of Detail im gemeinsamen Index-Buffer
+     */
+    private final long[] lodIndexOffsets;
+    /**
+     * Position des ersten Vertex im Vertex-Buffer, die beim Zeichnen zu jedem Index addiert wird
+     */
+    private final int baseVertex;
+    /**
+     * Ausdehnung des Modells im Modellraum (kann fehlen, z.B. bei GUI-Quads)
+     */
+    private BoundingVolume boundingVolume;
+    /**
+     * Format der Vertex-Daten (kann fehlen, z.B. bei GUI-Quads aus reinen Float-Positionen)
+     */
+    private VertexFormat vertexFormat;
 
     /**
      * Ein {@link RawModel} wird mithilfe der Vertex Array Object-ID und der Anzahl der Eckpunkte erstellt.
@@ -21,8 +41,41 @@ public class RawModel {
      * @param vertexCount Anzahl der Eckpunkte
      */
     public RawModel(int vaoID, int vertexCount) {
+        this(vaoID, new int[]{vertexCount});
+    }
+
+    /**
+     * Ein {@link RawModel} wird mithilfe der Vertex Array Object-ID und der Anzahl der Indizes je Level of Detail
+     * erstellt. Die Level of Detail liegen hintereinander im selben Index-Buffer.
+     *
+     * @param vaoID          Vertex Array Object-ID
+     * @param lodIndexCounts Anzahl der Indizes je Level of Detail, beginnend mit der vollen Detailstufe
+     */
+    public RawModel(int vaoID, int[] lodIndexCounts) {
+        this(vaoID, lodIndexCounts, 0, 0);
+    }
+
+    /**
+     * Ein {@link RawModel} wird als Bereich in einem gemeinsamen Vertex- und Index-Buffer erstellt, z.B. aus einem
+     * {@link renderEngine.MeshBuffer}. Die Indizes des Modells sind relativ zu seinem ersten Vertex und werden mit
+     * glDrawElementsBaseVertex gezeichnet.
+     *
+     * @param vaoID          Vertex Array Object-ID des gemeinsamen Buffers
+     * @param lodIndexCounts Anzahl der Indizes je Level of Detail, beginnend mit der vollen Detailstufe
+     * @param baseVertex     Position des ersten Vertex im Vertex-Buffer
+     * @param firstIndex     Position des ersten Index im Index-Buffer
+     */
+    public RawModel(int vaoID, int[] lodIndexCounts, int baseVertex, int firstIndex) {
         this.vaoID = vaoID;
-        this.vertexCount = vertexCount;
+        this.vertexCount = lodIndexCounts[0];
+        this.lodIndexCounts = lodIndexCounts.clone();
+        this.lodIndexOffsets = new long[lodIndexCounts.length];
+        this.baseVertex = baseVertex;
+        long offset = firstIndex * 4L;
+        for (int lod = 0; lod < lodIndexCounts.length; lod++) {
+            lodIndexOffsets[lod] = offset;
+            offset += (long) lodIndexCounts[lod] * 4;
+        }
     }
 
     /**
@@ -42,4 +95,79 @@ public class RawModel {
     public int getVertexCount() {
         return vertexCount;
     }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der verfügbaren Level of Detail.
+     *
+     * @return Anzahl der Level of Detail (mindestens 1)
+     */
+    public int getLodCount() {
+        return lodIndexCounts.length;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Indizes eines Level of Detail.
+     *
+     * @param lod Level of Detail (0 = volle Detailstufe)
+     * @return Anzahl der Indizes
+     */
+    public int getIndexCount(int lod) {
+        return lodIndexCounts[lod];
+    }
+
+    /**
+     * Diese Funktion übergibt den Byte-Offset eines Level of Detail im (ggf. gemeinsamen) Index-Buffer.
+     *
+     * @param lod Level of Detail (0 = volle Detailstufe)
+     * @return Byte-Offset für glDrawElements
+     */
+    public long getIndexOffset(int lod) {
+        return lodIndexOffsets[lod];
+    }
+
+    /**
+     * Diese Funktion übergibt die Position des ersten Vertex, die beim Zeichnen mit glDrawElementsBaseVertex zu jedem
+     * Index addiert wird.
+     *
+     * @return Position des ersten Vertex im Vertex-Buffer (0 bei einem eigenen VAO)
+     */
+    public int getBaseVertex() {
+        return baseVertex;
+    }
+
+    /**
+     * Diese Funktion übergibt die Ausdehnung des Modells im Modellraum.
+     *
+     * @return {@link BoundingVolume} des Modells oder null, falls keine berechnet wurde
+     */
+    public BoundingVolume getBoundingVolume() {
+        return boundingVolume;
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Ausdehnung des Modells im Modellraum.
+     *
+     * @param boundingVolume {@link BoundingVolume} des Modells
+     */
+    public void setBoundingVolume(BoundingVolume boundingVolume) {
+        this.boundingVolume = boundingVolume;
+    }
+
+    /**
+     * Diese Funktion übergibt das Format der Vertex-Daten, z.B. um quantisierte Positionen im Shader umzurechnen.
+     *
+     * @return {@link VertexFormat} des Modells oder null, falls die Positionen als getrennte Floats vorliegen
+     */
+    public VertexFormat getVertexFormat() {
+        return vertexFormat;
+    }
+
+    /**
+     * Diese Funktion hinterlegt das Format der Vertex-Daten.
+     *
+     * @param vertexFormat {@link VertexFormat} des Modells
+     */
+    public void setVertexFormat(VertexFormat vertexFormat) {
+        this.vertexFormat = vertexFormat;
+    }
 }
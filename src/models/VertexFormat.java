@@ -0,0 +1,148 @@
+package models;
+
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * Diese Klasse beschreibt das verschränkte (interleaved) Vertex-Format eines Modells, wie es durch den
+ * {@link VertexPacker} erzeugt und durch den {@link renderEngine.Loader} an die Attribute 0 (Position),
+ * 1 (Texturkoordinaten) und 2 (Normalenvektor) gebunden wird.
+ *
+ * Aufbau eines Vertex:
+ * Position als 3 Floats oder als 3 normalisierte 16-Bit-Werte relativ zur Bounding Box (plus 2 Bytes Füllung),
+ * Texturkoordinaten als 2 normalisierte 16-Bit-Werte (nur im Bereich [0, 1]) oder als 2 Half Floats,
+ * Normalenvektor als GL_INT_2_10_10_10_REV (4 Bytes).
+ * Quantisierte Positionen werden im Vertex Shader über {@link VertexFormat#getPositionOffset()} und
+ * {@link VertexFormat#getPositionScale()} wieder in den Modellraum umgerechnet.
+ */
+public class VertexFormat {
+
+    /**
+     * Bytes je Vertex im bisherigen Format aus drei getrennten Float-Buffern (3 + 2 + 3 Floats)
+     */
+    public static final int UNPACKED_STRIDE = 8 * 4;
+
+    /**
+     * Information, ob die Positionen als 16-Bit-Werte relativ zur Bounding Box gespeichert sind
+     */
+    private final boolean quantizedPositions;
+    /**
+     * Information, ob die Texturkoordinaten als normalisierte 16-Bit-Werte (statt Half Floats) gespeichert sind
+     */
+    private final boolean normalizedTextureCoords;
+    /**
+     * Position, die dem quantisierten Wert 0 entspricht (Minimum der Bounding Box)
+     */
+    private final Vector3f positionOffset;
+    /**
+     * Ausdehnung, die dem quantisierten Wert 1 entspricht. Für alle Achsen gleich, damit die Umrechnung eine
+     * gleichmäßige Skalierung bleibt und die Normalenvektoren nicht verzerrt.
+     */
+    private final float positionScale;
+
+    /**
+     * Ein Vertex-Format wird aus seinen Eigenschaften erstellt.
+     *
+     * @param quantizedPositions      Information, ob die Positionen quantisiert sind
+     * @param normalizedTextureCoords Information, ob die Texturkoordinaten als normalisierte 16-Bit-Werte vorliegen
+     * @param positionOffset          Position des quantisierten Wertes 0
+     * @param positionScale           Ausdehnung des quantisierten Wertes 1
+     */
+    public VertexFormat(boolean quantizedPositions, boolean normalizedTextureCoords, Vector3f positionOffset, float positionScale) {
+        this.quantizedPositions = quantizedPositions;
+        this.normalizedTextureCoords = normalizedTextureCoords;
+        this.positionOffset = positionOffset;
+        this.positionScale = positionScale;
+    }
+
+    /**
+     * Diese Funktion wählt das kompakteste Format für die Vertex-Daten eines Modells.
+     *
+     * @param positions         Vertex Positionen
+     * @param textureCoords     Texturkoordinaten
+     * @param quantizePositions Information, ob die Positionen quantisiert werden sollen
+     * @return {@link VertexFormat} für die Daten
+     */
+    public static VertexFormat forMesh(float[] positions, float[] textureCoords, boolean quantizePositions) {
+        boolean normalizedTextureCoords = true;
+        for (float textureCoord : textureCoords) {
+            if (textureCoord < 0 || textureCoord > 1) {
+                normalizedTextureCoords = false;
+                break;
+            }
+        }
+        if (!quantizePositions || positions.length == 0) {
+            return new VertexFormat(false, normalizedTextureCoords, new Vector3f(0, 0, 0), 1);
+        }
+        Vector3f min = new Vector3f(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+        Vector3f max = new Vector3f(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        for (int i = 0; i < positions.length; i += 3) {
+            min.set(Math.min(min.x, positions[i]), Math.min(min.y, positions[i + 1]), Math.min(min.z, positions[i + 2]));
+            max.set(Math.max(max.x, positions[i]), Math.max(max.y, positions[i + 1]), Math.max(max.z, positions[i + 2]));
+        }
+        float scale = Math.max(max.x - min.x, Math.max(max.y - min.y, max.z - min.z));
+        return new VertexFormat(true, normalizedTextureCoords, min, scale > 0 ? scale : 1);
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Positionen quantisiert sind.
+     *
+     * @return Information, ob die Positionen als 16-Bit-Werte vorliegen
+     */
+    public boolean isQuantizedPositions() {
+        return quantizedPositions;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Texturkoordinaten als normalisierte 16-Bit-Werte vorliegen.
+     *
+     * @return true für normalisierte 16-Bit-Werte, false für Half Floats
+     */
+    public boolean isNormalizedTextureCoords() {
+        return normalizedTextureCoords;
+    }
+
+    /**
+     * Diese Funktion übergibt die Position des quantisierten Wertes 0.
+     *
+     * @return Verschiebung der Positionen im Modellraum
+     */
+    public Vector3f getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * Diese Funktion übergibt die Ausdehnung des quantisierten Wertes 1.
+     *
+     * @return Skalierung der Positionen
+     */
+    public float getPositionScale() {
+        return positionScale;
+    }
+
+    /**
+     * Diese Funktion übergibt den Byte-Offset der Texturkoordinaten innerhalb eines Vertex.
+     *
+     * @return Byte-Offset
+     */
+    public int getTextureCoordsOffset() {
+        return quantizedPositions ? 4 * 2 : 3 * 4;
+    }
+
+    /**
+     * Diese Funktion übergibt den Byte-Offset des Normalenvektors innerhalb eines Vertex.
+     *
+     * @return Byte-Offset
+     */
+    public int getNormalOffset() {
+        return getTextureCoordsOffset() + 2 * 2;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Bytes je Vertex.
+     *
+     * @return Bytes je Vertex
+     */
+    public int getStride() {
+        return getNormalOffset() + 4;
+    }
+}
@@ -0,0 +1,132 @@
+package models;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Diese Klasse packt getrennte Float-Arrays aus Positionen, Texturkoordinaten und Normalenvektoren in einen
+ * verschränkten, quantisierten Vertex-Buffer im {@link VertexFormat}. Sie verwendet kein OpenGL und kann daher
+ * in Hintergrund-Threads aufgerufen werden.
+ */
+public class VertexPacker {
+
+    /**
+     * Größter Wert eines vorzeichenlosen 16-Bit-Wertes
+     */
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+    /**
+     * Größter Wert einer vorzeichenbehafteten 10-Bit-Komponente
+     */
+    private static final int MAX_SIGNED_10_BIT = 511;
+
+    /**
+     * Diese Funktion packt die Vertex-Daten eines Modells.
+     *
+     * @param positions     Vertex Positionen
+     * @param textureCoords Texturkoordinaten
+     * @param normals       Normalenvektoren
+     * @param format        Vertex-Format, z.B. aus {@link VertexFormat#forMesh(float[], float[], boolean)}
+     * @return Vertex-Buffer in nativer Byte-Reihenfolge
+     */
+    public static ByteBuffer pack(float[] positions, float[] textureCoords, float[] normals, VertexFormat format) {
+        int vertexCount = positions.length / 3;
+        ByteBuffer buffer = BufferUtils.createByteBuffer(vertexCount * format.getStride());
+        float offsetX = format.getPositionOffset().x;
+        float offsetY = format.getPositionOffset().y;
+        float offsetZ = format.getPositionOffset().z;
+        float scale = MAX_UNSIGNED_SHORT / format.getPositionScale();
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (format.isQuantizedPositions()) {
+                buffer.putShort(toUnsignedShort((positions[vertex * 3] - offsetX) * scale));
+                buffer.putShort(toUnsignedShort((positions[vertex * 3 + 1] - offsetY) * scale));
+                buffer.putShort(toUnsignedShort((positions[vertex * 3 + 2] - offsetZ) * scale));
+                buffer.putShort((short) 0);
+            } else {
+                buffer.putFloat(positions[vertex * 3]);
+                buffer.putFloat(positions[vertex * 3 + 1]);
+                buffer.putFloat(positions[vertex * 3 + 2]);
+            }
+            for (int i = 0; i < 2; i++) {
+                float textureCoord = textureCoords[vertex * 2 + i];
+                buffer.putShort(format.isNormalizedTextureCoords()
+                        ? toUnsignedShort(textureCoord * MAX_UNSIGNED_SHORT) : toHalfFloat(textureCoord));
+            }
+            buffer.putInt(packNormal(normals[vertex * 3], normals[vertex * 3 + 1], normals[vertex * 3 + 2]));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Diese Funktion packt einen Normalenvektor in das Format GL_INT_2_10_10_10_REV (x in den untersten 10 Bits,
+     * w = 0 in den obersten 2 Bits). Der Vektor wird vorher normiert, da OpenGL nur Werte in [-1, 1] darstellen kann.
+     *
+     * @param x x-Komponente
+     * @param y y-Komponente
+     * @param z z-Komponente
+     * @return gepackter Normalenvektor
+     */
+    public static int packNormal(float x, float y, float z) {
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length > 0) {
+            x /= length;
+            y /= length;
+            z /= length;
+        }
+        return toSigned10Bit(x) | toSigned10Bit(y) << 10 | toSigned10Bit(z) << 20;
+    }
+
+    /**
+     * Diese Funktion wandelt einen Float in einen Half Float (IEEE 754, 16 Bit) um. Zu kleine Werte werden als
+     * denormalisierte Zahlen bzw. 0, zu große als Unendlich dargestellt.
+     *
+     * @param value Float
+     * @return Bits des Half Floats
+     */
+    public static short toHalfFloat(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+        if (((bits >>> 23) & 0xFF) == 0xFF) {
+            // Unendlich oder NaN
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            // denormalisiert: implizite 1 ergänzen und gerundet verschieben
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            return (short) (sign | (mantissa + (1 << (shift - 1))) >> shift);
+        }
+        // auf die nächste darstellbare Zahl runden, ein Überlauf der Mantisse erhöht korrekt den Exponenten
+        return (short) (sign | ((exponent << 10 | mantissa >> 13) + ((mantissa >> 12) & 1)));
+    }
+
+    /**
+     * Diese Funktion rundet einen Wert auf einen vorzeichenlosen 16-Bit-Wert.
+     *
+     * @param value Wert im Bereich [0, 65535]
+     * @return gerundeter Wert
+     */
+    private static short toUnsignedShort(float value) {
+        return (short) Math.max(0, Math.min(MAX_UNSIGNED_SHORT, Math.round(value)));
+    }
+
+    /**
+     * Diese Funktion rundet eine Komponente im Bereich [-1, 1] auf einen vorzeichenbehafteten 10-Bit-Wert.
+     *
+     * @param value Komponente
+     * @return 10 Bits im Zweierkomplement
+     */
+    private static int toSigned10Bit(float value) {
+        int quantized = Math.max(-MAX_SIGNED_10_BIT, Math.min(MAX_SIGNED_10_BIT, Math.round(value * MAX_SIGNED_10_BIT)));
+        return quantized & 0x3FF;
+    }
+}
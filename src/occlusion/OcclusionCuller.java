@@ -0,0 +1,302 @@
+package occlusion;
+
+import entities.Entity;
+import models.RawModel;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.util.vector.Vector3f;
+import renderEngine.GLState;
+import renderEngine.Loader;
+import renderEngine.MasterRenderer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diese Klasse schließt Gruppen von Entities, die hinter großen Objekten wie Haus, Höhle oder Hügeln des Terrains
+ * liegen, über Verdeckungsabfragen der GPU vom Rendern aus.
+ * <p>
+ * Die sichtbaren Entities werden nach ihrer Position in Zellen über der xz-Ebene gruppiert. Nachdem die Szene
+ * gerendert ist, wird der umschließende Quader jeder Gruppe ohne Farb- und Tiefenschreiben in einer
+ * GL_ANY_SAMPLES_PASSED-Abfrage gezeichnet. Im nächsten Frame rendert die GPU die Gruppe über
+ * glBeginConditionalRender nur, wenn ihr Quader sichtbar war. Gerendert wird mit GL_QUERY_WAIT: Die GPU wartet auf das
+ * Ergebnis der Abfrage, die einen Frame zuvor ausgelöst wurde und daher meist längst vorliegt, die CPU blockiert nie.
+ * So treffen Tiefen-Vorpass und Farbpass für eine Gruppe dieselbe Entscheidung; mit GL_QUERY_NO_WAIT könnte das
+ * Ergebnis zwischen beiden Durchläufen eintreffen und Tiefe ohne Farbe hinterlassen. Neu sichtbare Gruppen erscheinen
+ * einen Frame verspätet.
+ * <p>
+ * Entities, deren umschließende Kugel größer als eine Zelle ist, verdecken selbst viel und sind kaum vollständig
+ * verdeckt. Sie werden daher ohne Abfrage in einer eigenen Gruppe gerendert.
+ */
+public class OcclusionCuller {
+
+    /**
+     * Kantenlänge einer Zelle. Größere Zellen sparen Abfragen und Draw Calls, werden aber seltener ganz verdeckt.
+     */
+    private static final float CELL_SIZE = 100;
+    /**
+     * Abstand, den die Kamera mindestens zum Quader einer Gruppe halten muss, damit dieser abgefragt wird. Ein Quader,
+     * der die Near Plane schneidet, würde fälschlich als verdeckt gemeldet.
+     */
+    private static final float CAMERA_MARGIN = 1;
+
+    /**
+     * Eckpunkte des Einheitswürfels als Triangle Strip
+     */
+    private static final float[] CUBE = {
+            0, 1, 1, 1, 1, 1, 0, 0, 1, 1, 0, 1, 1, 0, 0, 1, 1, 1, 1, 1, 0,
+            0, 1, 1, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0
+    };
+
+    /**
+     * Shader zum Zeichnen der Quader
+     */
+    private final OcclusionShader shader = new OcclusionShader();
+    /**
+     * Einheitswürfel, der auf den Quader einer Gruppe gestreckt wird
+     */
+    private final RawModel cube;
+    /**
+     * Gruppen je Zelle, Schlüssel aus den Zellkoordinaten. Gruppen bleiben erhalten, damit ihre Abfragen über
+     * mehrere Frames gültig sind.
+     */
+    private final Map<Long, OcclusionGroup> cells = new HashMap<>();
+    /**
+     * Gruppe der Entities, die ohne Abfrage gerendert werden
+     */
+    private final OcclusionGroup unconditional = new OcclusionGroup(false);
+    /**
+     * Gruppen, die im aktuellen Frame Entities enthalten
+     */
+    private final List<OcclusionGroup> activeGroups = new ArrayList<>();
+    /**
+     * Information, ob Gruppen über Verdeckungsabfragen ausgeschlossen werden
+     */
+    private boolean enabled = true;
+    /**
+     * Nummer des aktuellen Frames
+     */
+    private long frame = 0;
+
+    /**
+     * Anzahl der Abfragen, die im letzten Frame ausgelöst wurden
+     */
+    private int issuedQueryCount = 0;
+    /**
+     * Anzahl der Ergebnisse, die im letzten Frame gelesen wurden
+     */
+    private int readResultCount = 0;
+    /**
+     * Summe der Latenzen der im letzten Frame gelesenen Ergebnisse in Frames
+     */
+    private long latencySum = 0;
+    /**
+     * Anzahl der Ergebnisse, die im letzten Frame nicht vor dem erneuten Auslösen bereitstanden
+     */
+    private int lostResultCount = 0;
+    /**
+     * Anzahl der Gruppen, deren Rendern laut gelesenem Ergebnis im letzten Frame übersprungen wurde
+     */
+    private int occludedGroupCount = 0;
+    /**
+     * Anzahl der Dreiecke, deren Rendern laut gelesenem Ergebnis im letzten Frame übersprungen wurde
+     */
+    private int skippedTriangleCount = 0;
+
+    /**
+     * Ein {@link OcclusionCuller} wird erstellt.
+     *
+     * @param loader {@link Loader} zum Laden des Einheitswürfels
+     */
+    public OcclusionCuller(Loader loader) {
+        cube = loader.loadToVAO(CUBE, 3);
+    }
+
+    /**
+     * Diese Funktion beginnt einen neuen Frame und leert alle Gruppen.
+     */
+    public void begin() {
+        frame++;
+        for (OcclusionGroup group : activeGroups) {
+            group.clear();
+        }
+        activeGroups.clear();
+    }
+
+    /**
+     * Diese Funktion fügt eine sichtbare Entity in die Gruppe ihrer Zelle ein.
+     *
+     * @param entity Entity
+     * @param center Mittelpunkt der umschließenden Kugel
+     * @param radius Radius der umschließenden Kugel
+     */
+    public void add(Entity entity, Vector3f center, float radius) {
+        OcclusionGroup group;
+        if (!enabled || 2 * radius > CELL_SIZE) {
+            group = unconditional;
+        } else {
+            long cellX = (long) Math.floor(center.x / CELL_SIZE);
+            long cellZ = (long) Math.floor(center.z / CELL_SIZE);
+            group = cells.computeIfAbsent((cellX << 32) | (cellZ & 0xFFFFFFFFL), key -> new OcclusionGroup(true));
+        }
+        if (group.isEmpty()) {
+            group.selectCondition(frame);
+            activeGroups.add(group);
+        }
+        group.add(entity, center, radius);
+    }
+
+    /**
+     * Diese Funktion übergibt alle Gruppen, die im aktuellen Frame Entities enthalten.
+     *
+     * @return Gruppen des aktuellen Frames
+     */
+    public List<OcclusionGroup> getGroups() {
+        return activeGroups;
+    }
+
+    /**
+     * Diese Funktion lässt die GPU alle folgenden Draw Calls verwerfen, falls der Quader der Gruppe im vorherigen
+     * Frame verdeckt war. Die GPU wartet dafür auf das Ergebnis, damit alle Durchläufe eines Frames gleich entscheiden.
+     * Wurde im vorherigen Frame keine Abfrage ausgelöst, wird ohne Bedingung gerendert.
+     *
+     * @param group Gruppe
+     */
+    public void beginConditionalRender(OcclusionGroup group) {
+        int query = group.getConditionQuery();
+        if (query != 0) {
+            GL30.glBeginConditionalRender(query, GL30.GL_QUERY_WAIT);
+        }
+    }
+
+    /**
+     * Diese Funktion beendet das bedingte Rendern einer Gruppe.
+     *
+     * @param group     Gruppe
+     * @param triangles Anzahl der Dreiecke, die für die Gruppe gerendert wurden
+     */
+    public void endConditionalRender(OcclusionGroup group, int triangles) {
+        if (group.getConditionQuery() != 0) {
+            GL30.glEndConditionalRender();
+            group.addConditionedTriangles(triangles);
+        }
+    }
+
+    /**
+     * Diese Funktion liest alle bereitstehenden Ergebnisse und zeichnet anschließend den Quader jeder Gruppe in einer
+     * neuen Abfrage. Sie muss aufgerufen werden, nachdem alle verdeckenden Objekte der Szene gerendert wurden.
+     *
+     * @param cameraPosition Position der Kamera
+     */
+    public void issueQueries(Vector3f cameraPosition) {
+        readResults();
+        issuedQueryCount = 0;
+        if (!enabled) {
+            return;
+        }
+
+        shader.start();
+        GLState.setColorMask(false);
+        GLState.setDepthMask(false);
+        MasterRenderer.disableCulling();
+        GLState.bindVertexArray(cube.getVaoID());
+        GLState.enableVertexAttribArray(0);
+        for (OcclusionGroup group : activeGroups) {
+            if (!group.isQueried() || group.contains(cameraPosition, CAMERA_MARGIN)) {
+                continue;
+            }
+            group.loadBox(shader);
+            GL15.glBeginQuery(GL33.GL_ANY_SAMPLES_PASSED, group.issueQuery(frame));
+            GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, cube.getVertexCount());
+            GL15.glEndQuery(GL33.GL_ANY_SAMPLES_PASSED);
+            issuedQueryCount++;
+        }
+        GLState.bindVertexArray(0);
+        MasterRenderer.enableCulling();
+        GLState.setDepthMask(true);
+        GLState.setColorMask(true);
+        shader.stop();
+    }
+
+    /**
+     * Diese Funktion liest die Ergebnisse aller Abfragen, deren Bedingung bereits verwendet wurde und die die GPU
+     * bereitgestellt hat. Ein Ergebnis, das vor dem erneuten Auslösen seines Abfrage-Objekts nicht bereitsteht, wird
+     * verworfen; die gelesenen Ergebnisse dienen nur der Statistik.
+     */
+    private void readResults() {
+        readResultCount = 0;
+        latencySum = 0;
+        lostResultCount = 0;
+        occludedGroupCount = 0;
+        skippedTriangleCount = 0;
+        for (OcclusionGroup group : cells.values()) {
+            for (int i = 0; i < OcclusionGroup.QUERY_COUNT; i++) {
+                if (!group.isPending(i) || group.getIssuedFrame(i) >= frame) {
+                    continue;
+                }
+                int query = group.getQuery(i);
+                if (GL15.glGetQueryObjecti(query, GL15.GL_QUERY_RESULT_AVAILABLE) == GL11.GL_TRUE) {
+                    readResultCount++;
+                    latencySum += frame - group.getIssuedFrame(i);
+                    if (GL15.glGetQueryObjecti(query, GL15.GL_QUERY_RESULT) == GL11.GL_FALSE) {
+                        occludedGroupCount++;
+                        skippedTriangleCount += group.getConditionedTriangles(i);
+                    }
+                    group.markRead(i);
+                } else if (!group.isEmpty() && frame - group.getIssuedFrame(i) >= OcclusionGroup.QUERY_COUNT) {
+                    lostResultCount++;
+                    group.markRead(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert die Verdeckungsabfragen. Ohne Abfragen werden alle Entities in einer
+     * Gruppe ohne Bedingung gerendert.
+     *
+     * @param enabled Information, ob Verdeckungsabfragen verwendet werden
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob Verdeckungsabfragen verwendet werden.
+     *
+     * @return Information, ob Verdeckungsabfragen verwendet werden
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Diese Funktion fasst die Abfragen des letzten Frames zusammen. Übersprungene Dreiecke werden erst gezählt, wenn
+     * das Ergebnis der steuernden Abfrage gelesen wurde, und sind daher einen Frame alt.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        if (!enabled) {
+            return "Verdeckung: deaktiviert";
+        }
+        return String.format("Verdeckung: %d Abfragen, %.2f Frames Latenz, %d nicht rechtzeitig, "
+                        + "%d Gruppen verdeckt, %d Dreiecke übersprungen",
+                issuedQueryCount, readResultCount > 0 ? (double) latencySum / readResultCount : 0.0, lostResultCount,
+                occludedGroupCount, skippedTriangleCount);
+    }
+
+    /**
+     * Löscht den Shader und die Abfrage-Objekte aller Gruppen.
+     */
+    public void cleanUp() {
+        shader.cleanUp();
+        for (OcclusionGroup group : cells.values()) {
+            group.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package occlusion;
+
+import entities.Entity;
+import models.TexturedModel;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.util.vector.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diese Klasse fasst die sichtbaren Entities einer Zelle des {@link OcclusionCuller} zusammen, die gemeinsam über eine
+ * Verdeckungsabfrage ihres umschließenden Quaders vom Rendern ausgeschlossen werden.
+ * <p>
+ * Jede Gruppe besitzt zwei Abfrage-Objekte im Wechsel: Das Ergebnis des vorherigen Frames steuert das bedingte Rendern
+ * des aktuellen Frames, während das andere Objekt die neue Abfrage aufnimmt.
+ */
+public class OcclusionGroup {
+
+    /**
+     * Anzahl der Abfrage-Objekte je Gruppe
+     */
+    static final int QUERY_COUNT = 2;
+
+    /**
+     * Information, ob die Gruppe über Verdeckungsabfragen ausgeschlossen werden kann
+     */
+    private final boolean queried;
+    /**
+     * Entities der Gruppe im aktuellen Frame, nach {@link TexturedModel} indiziert
+     */
+    private final Map<TexturedModel, List<Entity>> entities = new HashMap<>();
+    /**
+     * minimale Ecke des umschließenden Quaders im aktuellen Frame
+     */
+    private final Vector3f min = new Vector3f();
+    /**
+     * maximale Ecke des umschließenden Quaders im aktuellen Frame
+     */
+    private final Vector3f max = new Vector3f();
+    /**
+     * Kantenlängen des umschließenden Quaders, Zwischenspeicher für den Shader
+     */
+    private final Vector3f size = new Vector3f();
+
+    /**
+     * Referenzen auf die Abfrage-Objekte
+     */
+    private final int[] queries = new int[QUERY_COUNT];
+    /**
+     * Frame je Abfrage-Objekt, in dem es zuletzt ausgelöst wurde (-1 = noch nie)
+     */
+    private final long[] issuedFrames = new long[QUERY_COUNT];
+    /**
+     * Information je Abfrage-Objekt, ob sein Ergebnis noch nicht gelesen wurde
+     */
+    private final boolean[] pending = new boolean[QUERY_COUNT];
+    /**
+     * Anzahl der Dreiecke je Abfrage-Objekt, die unter der Bedingung seines Ergebnisses gerendert wurden
+     */
+    private final int[] conditionedTriangles = new int[QUERY_COUNT];
+    /**
+     * Index des Abfrage-Objekts, das als nächstes ausgelöst wird
+     */
+    private int current = 0;
+    /**
+     * Index des Abfrage-Objekts, dessen Ergebnis im aktuellen Frame das Rendern steuert (-1 = ohne Bedingung)
+     */
+    private int condition = -1;
+
+    /**
+     * Eine {@link OcclusionGroup} wird erstellt. Nur abgefragte Gruppen legen Abfrage-Objekte an.
+     *
+     * @param queried Information, ob die Gruppe über Verdeckungsabfragen ausgeschlossen werden kann
+     */
+    OcclusionGroup(boolean queried) {
+        this.queried = queried;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = queried ? GL15.glGenQueries() : 0;
+            issuedFrames[i] = -1;
+        }
+        clear();
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity hinzu und vergrößert den umschließenden Quader um ihre umschließende Kugel.
+     *
+     * @param entity Entity
+     * @param center Mittelpunkt der umschließenden Kugel
+     * @param radius Radius der umschließenden Kugel
+     */
+    void add(Entity entity, Vector3f center, float radius) {
+        List<Entity> batch = entities.get(entity.getModel());
+        if (batch != null) {
+            batch.add(entity);
+        } else {
+            List<Entity> newBatch = new ArrayList<>();
+            newBatch.add(entity);
+            entities.put(entity.getModel(), newBatch);
+        }
+        min.set(Math.min(min.x, center.x - radius), Math.min(min.y, center.y - radius), Math.min(min.z, center.z - radius));
+        max.set(Math.max(max.x, center.x + radius), Math.max(max.y, center.y + radius), Math.max(max.z, center.z + radius));
+    }
+
+    /**
+     * Diese Funktion entfernt alle Entities und setzt den umschließenden Quader zurück.
+     */
+    void clear() {
+        entities.clear();
+        min.set(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+        max.set(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+    }
+
+    /**
+     * Diese Funktion übergibt die Entities der Gruppe im aktuellen Frame.
+     *
+     * @return Entities, nach {@link TexturedModel} indiziert
+     */
+    public Map<TexturedModel, List<Entity>> getEntities() {
+        return entities;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Gruppe im aktuellen Frame Entities enthält.
+     *
+     * @return Information, ob die Gruppe leer ist
+     */
+    boolean isEmpty() {
+        return entities.isEmpty();
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Gruppe über Verdeckungsabfragen ausgeschlossen werden kann.
+     *
+     * @return Information, ob die Gruppe abgefragt wird
+     */
+    boolean isQueried() {
+        return queried;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob ein Punkt im um einen Rand vergrößerten umschließenden Quader liegt.
+     *
+     * @param point  Punkt
+     * @param margin Rand
+     * @return Information, ob der Punkt im Quader liegt
+     */
+    boolean contains(Vector3f point, float margin) {
+        return point.x >= min.x - margin && point.x <= max.x + margin
+                && point.y >= min.y - margin && point.y <= max.y + margin
+                && point.z >= min.z - margin && point.z <= max.z + margin;
+    }
+
+    /**
+     * Diese Funktion lädt den umschließenden Quader in den Shader.
+     *
+     * @param shader gestarteter {@link OcclusionShader}
+     */
+    void loadBox(OcclusionShader shader) {
+        Vector3f.sub(max, min, size);
+        shader.loadBox(min, size);
+    }
+
+    /**
+     * Diese Funktion wählt das Abfrage-Objekt, dessen Ergebnis im aktuellen Frame das Rendern steuert. Nur eine
+     * Abfrage aus dem direkt vorherigen Frame ist aussagekräftig, sonst wird die Gruppe ohne Bedingung gerendert.
+     *
+     * @param frame aktueller Frame
+     */
+    void selectCondition(long frame) {
+        condition = -1;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            if (issuedFrames[i] == frame - 1) {
+                condition = i;
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Referenz auf das Abfrage-Objekt, dessen Ergebnis im aktuellen Frame das Rendern
+     * steuert.
+     *
+     * @return Referenz auf das Abfrage-Objekt oder 0, falls die Gruppe ohne Bedingung gerendert wird
+     */
+    int getConditionQuery() {
+        return condition >= 0 ? queries[condition] : 0;
+    }
+
+    /**
+     * Diese Funktion vermerkt Dreiecke, die unter der Bedingung des aktuellen Abfrage-Ergebnisses gerendert wurden.
+     *
+     * @param triangles Anzahl der Dreiecke
+     */
+    void addConditionedTriangles(int triangles) {
+        if (condition >= 0) {
+            conditionedTriangles[condition] += triangles;
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Referenz auf das nächste Abfrage-Objekt und vermerkt es als ausgelöst. Ein noch
+     * nicht gelesenes Ergebnis dieses Objekts wird verworfen.
+     *
+     * @param frame aktueller Frame
+     * @return Referenz auf das Abfrage-Objekt
+     */
+    int issueQuery(long frame) {
+        int query = queries[current];
+        issuedFrames[current] = frame;
+        pending[current] = true;
+        conditionedTriangles[current] = 0;
+        current = (current + 1) % QUERY_COUNT;
+        return query;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob das Ergebnis eines Abfrage-Objekts noch nicht gelesen wurde.
+     *
+     * @param index Index des Abfrage-Objekts
+     * @return Information, ob das Ergebnis aussteht
+     */
+    boolean isPending(int index) {
+        return pending[index];
+    }
+
+    /**
+     * Diese Funktion markiert das Ergebnis eines Abfrage-Objekts als gelesen.
+     *
+     * @param index Index des Abfrage-Objekts
+     */
+    void markRead(int index) {
+        pending[index] = false;
+    }
+
+    /**
+     * Diese Funktion übergibt die Referenz auf ein Abfrage-Objekt.
+     *
+     * @param index Index des Abfrage-Objekts
+     * @return Referenz auf das Abfrage-Objekt
+     */
+    int getQuery(int index) {
+        return queries[index];
+    }
+
+    /**
+     * Diese Funktion übergibt den Frame, in dem ein Abfrage-Objekt zuletzt ausgelöst wurde.
+     *
+     * @param index Index des Abfrage-Objekts
+     * @return Frame der Abfrage
+     */
+    long getIssuedFrame(int index) {
+        return issuedFrames[index];
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Dreiecke, die unter der Bedingung eines Abfrage-Objekts gerendert wurden.
+     *
+     * @param index Index des Abfrage-Objekts
+     * @return Anzahl der Dreiecke
+     */
+    int getConditionedTriangles(int index) {
+        return conditionedTriangles[index];
+    }
+
+    /**
+     * Löscht die Abfrage-Objekte.
+     */
+    void cleanUp() {
+        if (queried) {
+            for (int query : queries) {
+                GL15.glDeleteQueries(query);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package occlusion;
+
+import org.lwjgl.util.vector.Vector3f;
+import shaders.ShaderProgram;
+
+/**
+ * Diese Klasse implementiert und erweitert das {@link ShaderProgram} für die umschließenden Quader der
+ * Verdeckungsabfragen. Die Kamera liest der Shader aus dem gemeinsamen Uniform-Block {@link shaders.FrameData}.
+ */
+public class OcclusionShader extends ShaderProgram {
+
+    /**
+     * Referenz auf die Vertex Shader Datei der Verdeckungsabfragen
+     */
+    private static final String VERTEX_FILE = "src/occlusion/occlusionVertexShader";
+    /**
+     * Referenz auf die Fragment Shader Datei der Verdeckungsabfragen
+     */
+    private static final String FRAGMENT_FILE = "src/occlusion/occlusionFragmentShader";
+
+    /**
+     * Referenz auf die minimale Ecke des Quaders in dem Shader Programm
+     */
+    private int locationBoxMin;
+    /**
+     * Referenz auf die Kantenlängen des Quaders in dem Shader Programm
+     */
+    private int locationBoxSize;
+
+    /**
+     * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
+     * in der OpenGL-Shader-Language für die Verdeckungsabfragen erstellt.
+     */
+    public OcclusionShader() {
+        super(VERTEX_FILE, FRAGMENT_FILE);
+    }
+
+    /**
+     * Diese Funktion macht die Eckpunkte des Einheitswürfels im Shader zugängig.
+     */
+    @Override
+    protected void bindAttributes() {
+        super.bindAttribute(0, "position");
+    }
+
+    /**
+     * Diese Funktion bestimmt die Referenzen auf genutzte OpenGL Ressourcen, um Daten aus Java in den Shader zu laden.
+     */
+    @Override
+    protected void getAllUniformLocations() {
+        locationBoxMin = super.getUniformLocation("boxMin");
+        locationBoxSize = super.getUniformLocation("boxSize");
+    }
+
+    /**
+     * Diese Funktion hinterlegt den Quader, auf den der Einheitswürfel gestreckt wird.
+     *
+     * @param min  minimale Ecke des Quaders
+     * @param size Kantenlängen des Quaders
+     */
+    public void loadBox(Vector3f min, Vector3f size) {
+        super.loadVector(locationBoxMin, min);
+        super.loadVector(locationBoxSize, size);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Dieses Paket stellt Klassen bereit, um Gruppen von Entities, die hinter großen Objekten oder dem Terrain verdeckt
+ * sind, mit Verdeckungsabfragen der GPU vom Rendern auszuschließen.
+ */
+package occlusion;
@@ -0,0 +1,335 @@
+package renderEngine;
+
+import models.ModelData;
+import models.OBJLoader;
+import models.RawModel;
+import models.TexturedModel;
+import org.lwjgl.opengl.GLContext;
+import org.lwjgl.util.WaveData;
+import sound.AudioMaster;
+import textures.MipmappedTextureData;
+import textures.ModelTexture;
+import textures.TextureCache;
+import textures.TextureData;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Diese Klasse lädt Modelle, Texturen und Audiospuren parallel.
+ *
+ * Das Übersetzen der OBJ-Dateien, das Dekodieren der PNG- und WAV-Dateien erfolgt in Hintergrund-Threads. Die
+ * fertigen Daten werden in eine Warteschlange gelegt, die im OpenGL-Thread durch {@link AssetPipeline#await(Future)}
+ * abgearbeitet wird, da nur dort OpenGL- und OpenAL-Aufrufe erlaubt sind.
+ * Alle Ladefunktionen kehren sofort zurück und übergeben ein {@link Future} auf das Ergebnis. Daher sollten zuerst
+ * alle benötigten Ressourcen angefordert und erst danach auf die Ergebnisse gewartet werden.
+ */
+public class AssetPipeline {
+
+    /**
+     * Wartezeit in Millisekunden, nach der beim Warten auf ein Ergebnis erneut geprüft wird, ob es fertig ist
+     */
+    private static final long POLL_INTERVAL_MS = 5;
+
+    /**
+     * Loader zum Hochladen der Daten auf die GPU
+     */
+    private final Loader loader;
+    /**
+     * Hintergrund-Threads zum Dekodieren der Dateien (einer je Prozessorkern)
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "asset-decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /**
+     * Warteschlange der Uploads, die im OpenGL-Thread ausgeführt werden müssen
+     */
+    private final BlockingQueue<Runnable> uploads = new LinkedBlockingQueue<>();
+    /**
+     * Information, ob die Grafikkarte S3TC-komprimierte Texturen unterstützt
+     */
+    private final boolean textureCompressionSupported;
+
+    /**
+     * Anzahl der im OpenGL-Thread hochgeladenen Ressourcen
+     */
+    private int uploadCount = 0;
+    /**
+     * Gesamtdauer der Uploads im OpenGL-Thread in Nanosekunden
+     */
+    private long uploadTime = 0;
+
+    /**
+     * Die Pipeline wird mit dem {@link Loader} erstellt, der die fertigen Daten auf die GPU lädt.
+     *
+     * @param loader {@link Loader}
+     */
+    public AssetPipeline(Loader loader) {
+        this.loader = loader;
+        this.textureCompressionSupported = GLContext.getCapabilities().GL_EXT_texture_compression_s3tc;
+        if (!textureCompressionSupported) {
+            System.err.println("S3TC texture compression is not supported, textures are loaded uncompressed");
+        }
+    }
+
+    /**
+     * Diese Funktion fordert ein OBJ Modell an. Siehe {@link OBJLoader#loadObjModel(String, Loader)}.
+     *
+     * @param fileName Name der OBJ-Datei im Ressourcen-Verzeichnis
+     * @return {@link Future} auf das {@link RawModel}
+     */
+    public CompletableFuture<RawModel> loadModel(String fileName) {
+        return submitModel(fileName);
+    }
+
+    /**
+     * Diese Funktion fordert eine Textur im PNG Format an. Die Textur wird blockkomprimiert, sofern die Grafikkarte
+     * dies unterstützt. Siehe {@link TextureCache#loadTexture(String, boolean)}.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @return {@link Future} auf die Referenz der Textur in der GPU
+     */
+    public CompletableFuture<Integer> loadTexture(String fileName) {
+        return submitTexture(fileName, true);
+    }
+
+    /**
+     * Diese Funktion fordert eine Textur im PNG Format an. Siehe {@link TextureCache#loadTexture(String, boolean)}.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur blockkomprimiert werden soll. Texturen, deren Werte exakt
+     *                 ausgelesen werden (z.B. die Blend Map), sollten unkomprimiert bleiben.
+     * @return {@link Future} auf die Referenz der Textur in der GPU
+     */
+    public CompletableFuture<Integer> loadTexture(String fileName, boolean compress) {
+        return submitTexture(fileName, compress);
+    }
+
+    /**
+     * Diese Funktion fordert ein Modell und die gleichnamige Textur an und fasst beide zu einem
+     * {@link TexturedModel} zusammen.
+     *
+     * @param fileName Name des Modells und der Textur im Ressourcen-Verzeichnis
+     * @return {@link Future} auf das {@link TexturedModel}
+     */
+    public Future<TexturedModel> loadTexturedModel(String fileName) {
+        return submitModel(fileName).thenCombine(submitTexture(fileName, true),
+                (rawModel, textureId) -> new TexturedModel(rawModel, new ModelTexture(textureId)));
+    }
+
+    /**
+     * Diese Funktion fordert eine CubeMap an. Die einzelnen Seiten werden parallel dekodiert.
+     * Siehe {@link Loader#loadCubeMap(String[])}.
+     *
+     * @param textureFiles Name der Texturen
+     * @return {@link Future} auf die Referenz der CubeMap in der GPU
+     */
+    public Future<Integer> loadCubeMap(String[] textureFiles) {
+        CompletableFuture<?>[] faces = new CompletableFuture<?>[textureFiles.length];
+        for (int i = 0; i < textureFiles.length; i++) {
+            String textureFile = textureFiles[i];
+            faces[i] = CompletableFuture.supplyAsync(() -> Loader.decodeTextureFile(textureFile), executor);
+        }
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        CompletableFuture.allOf(faces).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            try {
+                TextureData[] data = new TextureData[faces.length];
+                for (int i = 0; i < faces.length; i++) {
+                    data[i] = (TextureData) faces[i].join();
+                }
+                enqueue(result, data, (TextureData[] decoded) -> loader.loadCubeMap(decoded));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Diese Funktion fordert mehrere gleich große Texturen als Textur-Array an. Die Ebenen werden parallel geladen.
+     * Wurden die Texturen in unterschiedliche Formate komprimiert, werden alle Ebenen unkomprimiert verwendet,
+     * da ein Textur-Array nur ein Format haben kann. Siehe {@link Loader#loadTextureArray(MipmappedTextureData[])}.
+     *
+     * @param fileNames Name der Texturen im Ressourcen-Verzeichnis in der Reihenfolge der Ebenen
+     * @return {@link Future} auf die Referenz des Textur-Arrays in der GPU
+     */
+    public CompletableFuture<Integer> loadTextureArray(String[] fileNames) {
+        CompletableFuture<?>[] layers = new CompletableFuture<?>[fileNames.length];
+        for (int i = 0; i < fileNames.length; i++) {
+            String fileName = fileNames[i];
+            layers[i] = CompletableFuture.supplyAsync(
+                    () -> TextureCache.loadTexture(fileName, textureCompressionSupported), executor);
+        }
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        CompletableFuture.allOf(layers).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            try {
+                MipmappedTextureData[] data = new MipmappedTextureData[layers.length];
+                boolean sameFormat = true;
+                for (int i = 0; i < layers.length; i++) {
+                    data[i] = (MipmappedTextureData) layers[i].join();
+                    sameFormat &= data[i].getFormat() == data[0].getFormat();
+                }
+                if (!sameFormat) {
+                    for (int i = 0; i < fileNames.length; i++) {
+                        data[i] = TextureCache.loadTexture(fileNames[i], false);
+                    }
+                }
+                enqueue(result, data, (MipmappedTextureData[] decoded) -> loader.loadTextureArray(decoded));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Diese Funktion fordert eine Audiospur an. Siehe {@link AudioMaster#loadSound(String)}.
+     *
+     * @param file Pfad der Audiodatei
+     * @return {@link Future} auf die Buffer-ID
+     */
+    public Future<Integer> loadSound(String file) {
+        return submit(() -> AudioMaster.decodeSound(file), (WaveData data) -> AudioMaster.loadSound(data));
+    }
+
+    /**
+     * Diese Funktion wartet auf das Ergebnis einer angeforderten Ressource. Während des Wartens werden alle fertig
+     * dekodierten Ressourcen hochgeladen. Muss im OpenGL-Thread aufgerufen werden.
+     *
+     * @param future angeforderte Ressource
+     * @param <T>    Typ der Ressource
+     * @return Ressource oder null, falls sie nicht geladen werden konnte
+     */
+    public <T> T await(Future<T> future) {
+        try {
+            while (!future.isDone()) {
+                Runnable upload = uploads.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (upload != null) {
+                    runUpload(upload);
+                }
+            }
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Could not load asset!");
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl und Dauer der Uploads im OpenGL-Thread.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        return String.format("Assets: %d im OpenGL-Thread hochgeladen in %.1f ms, %d Decoder-Threads",
+                uploadCount, uploadTime / 1e6, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Beendet die Hintergrund-Threads.
+     */
+    public void cleanUp() {
+        executor.shutdownNow();
+        uploads.clear();
+    }
+
+    /**
+     * Diese Funktion übersetzt ein OBJ Modell in einem Hintergrund-Thread und lädt es anschließend hoch.
+     *
+     * @param fileName Name der OBJ-Datei im Ressourcen-Verzeichnis
+     * @return Ergebnis des Uploads
+     */
+    private CompletableFuture<RawModel> submitModel(String fileName) {
+        return submit(() -> OBJLoader.parseObjModel(fileName), (ModelData data) -> OBJLoader.uploadModel(data, loader));
+    }
+
+    /**
+     * Diese Funktion lädt eine Textur mit allen Mipmap-Stufen in einem Hintergrund-Thread aus dem {@link TextureCache}
+     * und lädt sie anschließend hoch.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur blockkomprimiert werden soll
+     * @return Ergebnis des Uploads
+     */
+    private CompletableFuture<Integer> submitTexture(String fileName, boolean compress) {
+        boolean compressed = compress && textureCompressionSupported;
+        return submit(() -> TextureCache.loadTexture(fileName, compressed),
+                (MipmappedTextureData data) -> loader.loadTexture(data));
+    }
+
+    /**
+     * Diese Funktion dekodiert eine Ressource in einem Hintergrund-Thread und legt den Upload anschließend
+     * in die Warteschlange des OpenGL-Threads.
+     *
+     * @param decode Dekodieren der Datei (Hintergrund-Thread)
+     * @param upload Hochladen der dekodierten Daten (OpenGL-Thread)
+     * @param <D>    Typ der dekodierten Daten
+     * @param <T>    Typ der Ressource
+     * @return Ergebnis des Uploads
+     */
+    private <D, T> CompletableFuture<T> submit(Supplier<D> decode, Function<D, T> upload) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                enqueue(result, decode.get(), upload);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Diese Funktion legt den Upload dekodierter Daten in die Warteschlange des OpenGL-Threads.
+     *
+     * @param result Ergebnis, das nach dem Upload abgeschlossen wird
+     * @param data   dekodierte Daten
+     * @param upload Hochladen der dekodierten Daten
+     * @param <D>    Typ der dekodierten Daten
+     * @param <T>    Typ der Ressource
+     */
+    private <D, T> void enqueue(CompletableFuture<T> result, D data, Function<D, T> upload) {
+        uploads.add(() -> {
+            try {
+                result.complete(upload.apply(data));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Diese Funktion führt einen Upload aus und erfasst dessen Dauer.
+     *
+     * @param upload Upload
+     */
+    private void runUpload(Runnable upload) {
+        long start = System.nanoTime();
+        upload.run();
+        uploadTime += System.nanoTime() - start;
+        uploadCount++;
+    }
+}
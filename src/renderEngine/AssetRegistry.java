@@ -0,0 +1,424 @@
+package renderEngine;
+
+import models.RawModel;
+import models.TexturedModel;
+import textures.ModelTexture;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Diese Klasse verwaltet alle geladenen Modelle, Texturen und {@link TexturedModel}s anhand ihrer Ressourcen-Datei.
+ *
+ * Wird dieselbe Datei mehrfach angefordert, wird sie nur einmal über die {@link AssetPipeline} geladen und alle
+ * Anfragen erhalten dasselbe Objekt. Insbesondere teilen sich alle Entities eines Modells dasselbe
+ * {@link TexturedModel}, sodass der {@link MasterRenderer} sie in einem gemeinsamen Batch rendert.
+ * Jede Anforderung erhöht einen Referenzzähler. Wird dieser durch {@link AssetRegistry#release(TexturedModel)} wieder
+ * auf 0 gesenkt, werden die Daten auf der GPU freigegeben.
+ *
+ * Da die Materialeigenschaften der {@link ModelTexture} geteilt werden, gelten Änderungen daran für alle Entities
+ * des Modells. Alle Funktionen müssen im OpenGL-Thread aufgerufen werden.
+ */
+public class AssetRegistry {
+
+    /**
+     * Pfad zum Ressourcen-Verzeichnis
+     */
+    private static final String RESOURCES = "res/";
+    /**
+     * Endung des Schlüssels einer Textur, die unkomprimiert geladen wird. Dadurch erhalten die komprimierte und die
+     * unkomprimierte Variante derselben Datei getrennte Einträge.
+     */
+    private static final String UNCOMPRESSED = "#rgba8";
+
+    /**
+     * Geladene Ressource mit Referenzzähler
+     *
+     * @param <T> Typ der Ressource
+     */
+    private static class Entry<T> {
+
+        /**
+         * Ergebnis des Ladevorgangs
+         */
+        private final CompletableFuture<T> future;
+        /**
+         * Schlüssel des Modells (nur bei {@link TexturedModel}s)
+         */
+        private final String modelKey;
+        /**
+         * Schlüssel der Textur (nur bei {@link TexturedModel}s)
+         */
+        private final String textureKey;
+        /**
+         * Anzahl der Anforderungen, die noch nicht freigegeben wurden
+         */
+        private int references = 0;
+
+        /**
+         * Ein Eintrag wird aus dem Ergebnis des Ladevorgangs erstellt.
+         *
+         * @param future     Ergebnis des Ladevorgangs
+         * @param modelKey   Schlüssel des Modells oder null
+         * @param textureKey Schlüssel der Textur oder null
+         */
+        private Entry(CompletableFuture<T> future, String modelKey, String textureKey) {
+            this.future = future;
+            this.modelKey = modelKey;
+            this.textureKey = textureKey;
+        }
+    }
+
+    /**
+     * Pipeline zum parallelen Laden der Ressourcen
+     */
+    private final AssetPipeline assets;
+    /**
+     * Loader zum Freigeben der Ressourcen auf der GPU
+     */
+    private final Loader loader;
+
+    /**
+     * Modelle nach Schlüssel ihrer OBJ-Datei
+     */
+    private final Map<String, Entry<RawModel>> models = new HashMap<>();
+    /**
+     * Texturen nach Schlüssel ihrer PNG-Datei
+     */
+    private final Map<String, Entry<Integer>> textures = new HashMap<>();
+    /**
+     * Textur-Arrays nach den Schlüsseln ihrer PNG-Dateien
+     */
+    private final Map<String, Entry<Integer>> textureArrays = new HashMap<>();
+    /**
+     * Texturierte Modelle nach Schlüssel des Modells und der Textur
+     */
+    private final Map<String, Entry<TexturedModel>> texturedModels = new HashMap<>();
+    /**
+     * Schlüssel der ausgegebenen {@link TexturedModel}s zum Freigeben
+     */
+    private final Map<TexturedModel, String> texturedModelKeys = new IdentityHashMap<>();
+
+    /**
+     * Anzahl aller Anforderungen
+     */
+    private int requestCount = 0;
+    /**
+     * Anzahl der Anforderungen, die durch eine bereits geladene oder ladende Ressource bedient wurden
+     */
+    private int sharedCount = 0;
+    /**
+     * Anzahl der Ressourcen, die wieder freigegeben wurden
+     */
+    private int releasedCount = 0;
+
+    /**
+     * Die Registry wird mit der {@link AssetPipeline} zum Laden und dem {@link Loader} zum Freigeben erstellt.
+     *
+     * @param assets {@link AssetPipeline}
+     * @param loader {@link Loader}, mit dem die Pipeline die Daten hochlädt
+     */
+    public AssetRegistry(AssetPipeline assets, Loader loader) {
+        this.assets = assets;
+        this.loader = loader;
+    }
+
+    /**
+     * Diese Funktion fordert ein OBJ Modell an. Siehe {@link AssetPipeline#loadModel(String)}.
+     *
+     * @param fileName Name der OBJ-Datei im Ressourcen-Verzeichnis
+     * @return {@link Future} auf das geteilte {@link RawModel}
+     */
+    public Future<RawModel> loadModel(String fileName) {
+        requestCount++;
+        return acquireModel(key(fileName, ".obj")).future;
+    }
+
+    /**
+     * Diese Funktion fordert eine Textur im PNG Format an. Siehe {@link AssetPipeline#loadTexture(String)}.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @return {@link Future} auf die geteilte Referenz der Textur in der GPU
+     */
+    public Future<Integer> loadTexture(String fileName) {
+        return loadTexture(fileName, true);
+    }
+
+    /**
+     * Diese Funktion fordert eine Textur im PNG Format an. Siehe {@link AssetPipeline#loadTexture(String, boolean)}.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur blockkomprimiert werden soll
+     * @return {@link Future} auf die geteilte Referenz der Textur in der GPU
+     */
+    public Future<Integer> loadTexture(String fileName, boolean compress) {
+        requestCount++;
+        return acquireTexture(textureKey(fileName, compress)).future;
+    }
+
+    /**
+     * Diese Funktion fordert mehrere Texturen als Textur-Array an. Dieselben Dateien in derselben Reihenfolge ergeben
+     * dasselbe Array. Siehe {@link AssetPipeline#loadTextureArray(String[])}.
+     *
+     * @param fileNames Name der Texturen im Ressourcen-Verzeichnis in der Reihenfolge der Ebenen
+     * @return {@link Future} auf die geteilte Referenz des Textur-Arrays in der GPU
+     */
+    public Future<Integer> loadTextureArray(String... fileNames) {
+        String key = textureArrayKey(fileNames);
+        requestCount++;
+        Entry<Integer> entry = textureArrays.get(key);
+        if (entry == null) {
+            entry = new Entry<>(assets.loadTextureArray(fileNames), null, null);
+            textureArrays.put(key, entry);
+        } else {
+            sharedCount++;
+        }
+        entry.references++;
+        return entry.future;
+    }
+
+    /**
+     * Diese Funktion fordert ein Modell und die gleichnamige Textur als {@link TexturedModel} an.
+     *
+     * @param fileName Name des Modells und der Textur im Ressourcen-Verzeichnis
+     * @return {@link Future} auf das geteilte {@link TexturedModel}
+     */
+    public Future<TexturedModel> loadTexturedModel(String fileName) {
+        return loadTexturedModel(fileName, fileName);
+    }
+
+    /**
+     * Diese Funktion fordert ein Modell und eine Textur als {@link TexturedModel} an.
+     *
+     * @param modelFileName   Name der OBJ-Datei im Ressourcen-Verzeichnis
+     * @param textureFileName Name der Textur im Ressourcen-Verzeichnis
+     * @return {@link Future} auf das geteilte {@link TexturedModel}
+     */
+    public Future<TexturedModel> loadTexturedModel(String modelFileName, String textureFileName) {
+        String modelKey = key(modelFileName, ".obj");
+        String textureKey = textureKey(textureFileName, true);
+        String key = modelKey + "|" + textureKey;
+        requestCount++;
+        Entry<TexturedModel> entry = texturedModels.get(key);
+        if (entry == null) {
+            CompletableFuture<TexturedModel> future = acquireModel(modelKey).future.thenCombine(
+                    acquireTexture(textureKey).future,
+                    (rawModel, textureId) -> new TexturedModel(rawModel, new ModelTexture(textureId)));
+            entry = new Entry<>(future.thenApply(texturedModel -> {
+                texturedModelKeys.put(texturedModel, key);
+                return texturedModel;
+            }), modelKey, textureKey);
+            texturedModels.put(key, entry);
+        } else {
+            sharedCount++;
+        }
+        entry.references++;
+        return entry.future;
+    }
+
+    /**
+     * Diese Funktion gibt eine Anforderung eines {@link TexturedModel} zurück. Wird das Modell nicht mehr verwendet,
+     * werden auch Modell und Textur freigegeben.
+     *
+     * @param texturedModel durch die Registry geladenes {@link TexturedModel}
+     */
+    public void release(TexturedModel texturedModel) {
+        String key = texturedModelKeys.get(texturedModel);
+        Entry<TexturedModel> entry = key == null ? null : texturedModels.get(key);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        texturedModels.remove(key);
+        texturedModelKeys.remove(texturedModel);
+        releasedCount++;
+        releaseModelEntry(entry.modelKey);
+        releaseTextureEntry(entry.textureKey);
+    }
+
+    /**
+     * Diese Funktion gibt eine Anforderung eines Modells zurück.
+     *
+     * @param fileName Name der OBJ-Datei im Ressourcen-Verzeichnis
+     */
+    public void releaseModel(String fileName) {
+        releaseModelEntry(key(fileName, ".obj"));
+    }
+
+    /**
+     * Diese Funktion gibt eine Anforderung einer Textur zurück.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     */
+    public void releaseTexture(String fileName) {
+        releaseTexture(fileName, true);
+    }
+
+    /**
+     * Diese Funktion gibt eine Anforderung einer Textur zurück.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur komprimiert angefordert wurde
+     */
+    public void releaseTexture(String fileName, boolean compress) {
+        releaseTextureEntry(textureKey(fileName, compress));
+    }
+
+    /**
+     * Diese Funktion gibt eine Anforderung eines Textur-Arrays zurück.
+     *
+     * @param fileNames Name der Texturen im Ressourcen-Verzeichnis in der Reihenfolge der Ebenen
+     */
+    public void releaseTextureArray(String... fileNames) {
+        String key = textureArrayKey(fileNames);
+        Entry<Integer> entry = textureArrays.get(key);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        textureArrays.remove(key);
+        releasedCount++;
+        Integer textureId = entry.future.getNow(null);
+        if (textureId != null) {
+            loader.deleteTexture(textureId);
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Anforderungen und wie viele doppelte Ladevorgänge vermieden wurden.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        return String.format("Asset Registry: %d Anforderungen, %d doppelte Ladevorgänge vermieden, "
+                        + "%d Modelle, %d Texturen, %d Textur-Arrays, %d texturierte Modelle geladen, %d freigegeben",
+                requestCount, sharedCount, models.size(), textures.size(), textureArrays.size(), texturedModels.size(),
+                releasedCount);
+    }
+
+    /**
+     * Diese Funktion senkt den Referenzzähler eines Modells und gibt es bei 0 auf der GPU frei.
+     *
+     * @param key Schlüssel der OBJ-Datei
+     */
+    private void releaseModelEntry(String key) {
+        Entry<RawModel> entry = models.get(key);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        models.remove(key);
+        releasedCount++;
+        RawModel model = entry.future.getNow(null);
+        if (model != null) {
+            loader.deleteModel(model);
+        }
+    }
+
+    /**
+     * Diese Funktion senkt den Referenzzähler einer Textur und gibt sie bei 0 auf der GPU frei.
+     *
+     * @param key Schlüssel der PNG-Datei
+     */
+    private void releaseTextureEntry(String key) {
+        Entry<Integer> entry = textures.get(key);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        textures.remove(key);
+        releasedCount++;
+        Integer textureId = entry.future.getNow(null);
+        if (textureId != null) {
+            loader.deleteTexture(textureId);
+        }
+    }
+
+    /**
+     * Diese Funktion fordert ein Modell über seinen Schlüssel an und lädt es, falls es noch nicht geladen wurde.
+     *
+     * @param key Schlüssel der OBJ-Datei
+     * @return Eintrag des Modells
+     */
+    private Entry<RawModel> acquireModel(String key) {
+        Entry<RawModel> entry = models.get(key);
+        if (entry == null) {
+            entry = new Entry<>(assets.loadModel(key.substring(RESOURCES.length())), null, null);
+            models.put(key, entry);
+        } else {
+            sharedCount++;
+        }
+        entry.references++;
+        return entry;
+    }
+
+    /**
+     * Diese Funktion fordert eine Textur über ihren Schlüssel an und lädt sie, falls sie noch nicht geladen wurde.
+     *
+     * @param key Schlüssel der PNG-Datei
+     * @return Eintrag der Textur
+     */
+    private Entry<Integer> acquireTexture(String key) {
+        Entry<Integer> entry = textures.get(key);
+        if (entry == null) {
+            boolean compress = !key.endsWith(UNCOMPRESSED);
+            String fileName = key.substring(RESOURCES.length(), key.length() - (compress ? 0 : UNCOMPRESSED.length()));
+            entry = new Entry<>(assets.loadTexture(fileName, compress), null, null);
+            textures.put(key, entry);
+        } else {
+            sharedCount++;
+        }
+        entry.references++;
+        return entry;
+    }
+
+    /**
+     * Diese Funktion bestimmt den Schlüssel einer Textur. Unkomprimierte Texturen erhalten eine eigene Endung.
+     *
+     * @param fileName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur blockkomprimiert wird
+     * @return Schlüssel beginnend mit dem Ressourcen-Verzeichnis
+     */
+    private static String textureKey(String fileName, boolean compress) {
+        return key(fileName, ".png") + (compress ? "" : UNCOMPRESSED);
+    }
+
+    /**
+     * Diese Funktion bestimmt den Schlüssel eines Textur-Arrays aus den Schlüsseln seiner Ebenen.
+     *
+     * @param fileNames Name der Texturen im Ressourcen-Verzeichnis in der Reihenfolge der Ebenen
+     * @return Schlüssel des Textur-Arrays
+     */
+    private static String textureArrayKey(String[] fileNames) {
+        StringBuilder key = new StringBuilder();
+        for (String fileName : fileNames) {
+            key.append(key.length() == 0 ? "" : "|").append(key(fileName, ".png"));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Diese Funktion bestimmt den Schlüssel einer Ressource: den normalisierten Pfad der Datei relativ zum
+     * Arbeitsverzeichnis, sodass z.B. "trees/flower", "trees/flower.obj" und "trees/../trees/flower" auf denselben
+     * Eintrag verweisen.
+     *
+     * @param fileName  Name der Datei im Ressourcen-Verzeichnis
+     * @param extension Dateiendung, die ergänzt wird, falls sie fehlt
+     * @return Schlüssel beginnend mit dem Ressourcen-Verzeichnis
+     */
+    private static String key(String fileName, String extension) {
+        String name = fileName.endsWith(extension) ? fileName : fileName + extension;
+        File resources = new File(RESOURCES);
+        try {
+            String path = new File(resources, name).getCanonicalPath();
+            String root = resources.getCanonicalPath() + File.separator;
+            if (path.startsWith(root)) {
+                name = path.substring(root.length()).replace(File.separatorChar, '/');
+            }
+        } catch (IOException e) {
+            // Der Name wird dann unverändert als Schlüssel verwendet
+        }
+        return RESOURCES + name;
+    }
+}
@@ -3,14 +3,25 @@ package renderEngine;
 import entities.Entity;
 import models.RawModel;
 import models.TexturedModel;
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
 import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector2f;
+import org.lwjgl.util.vector.Vector3f;
 import shaders.StaticShader;
 import textures.ModelTexture;
 
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,89 +30,617 @@ import java.util.Map;
  */
 public class EntityRenderer {
 
+    /**
+     * Standardwert der Batchgröße, ab der ein Batch instanziert gerendert wird
+     */
+    public static final int DEFAULT_INSTANCING_THRESHOLD = 16;
+
+    /**
+     * Bildschirmgrößen (Radius der umschließenden Kugel / Abstand * Projektionsskalierung), unterhalb derer
+     * jeweils zum nächsten, gröberen Level of Detail gewechselt wird
+     */
+    private static final float[] LOD_SCREEN_SIZES = {0.25f, 0.1f, 0.04f};
+    /**
+     * Relative Breite des Bereichs um eine Schwelle, in dem zwei Level of Detail gerastert überblendet werden
+     */
+    private static final float LOD_FADE_BAND = 0.15f;
+
+    /**
+     * Anzahl der Floats pro Instanz im Instanz-VBO (Transformationsmatrix + Texture Offset, LOD-Überblendung,
+     * Ebene im Textur-Array)
+     */
+    private static final int INSTANCE_DATA_LENGTH = 16 + 4;
+    /**
+     * Erste Attribut-Nummer der Transformationsmatrix einer Instanz (belegt vier Attribute)
+     */
+    private static final int INSTANCE_MATRIX_ATTRIBUTE = 3;
+    /**
+     * Attribut-Nummer der weiteren Instanzdaten (Texture Offset, LOD-Überblendung und Ebene im Textur-Array)
+     */
+    private static final int INSTANCE_OFFSET_ATTRIBUTE = 7;
+    /**
+     * Anzahl der Instanzen, für die das Instanz-VBO initial angelegt wird
+     */
+    private static final int INITIAL_INSTANCE_CAPACITY = 1024;
+    /**
+     * Tiefe eines Abschnitts, innerhalb dessen Entities bei der Sortierung von vorne nach hinten als gleich weit
+     * entfernt gelten
+     */
+    private static final float SORT_BUCKET_DEPTH = 8;
+    /**
+     * Anzahl der Abschnitte bei der Sortierung von vorne nach hinten, weiter entfernte Entities landen im letzten
+     */
+    private static final int SORT_BUCKET_COUNT = 128;
+
     /**
      * Shader, der die Logik zum Rendern der Entities enthält
      */
     private final StaticShader shader;
+    /**
+     * Shader des Tiefen-Vorpasses, der nur Tiefenwerte schreibt
+     */
+    private final StaticShader depthShader;
+    /**
+     * Shader des aktuellen Durchlaufs
+     */
+    private StaticShader activeShader;
+
+    /**
+     * VBO, in das die Instanzdaten eines Batches gestreamt werden
+     */
+    private final int instanceVbo;
+    /**
+     * Buffer zum Zusammenstellen der Instanzdaten eines Batches
+     */
+    private FloatBuffer instanceBuffer = BufferUtils.createFloatBuffer(INITIAL_INSTANCE_CAPACITY * INSTANCE_DATA_LENGTH);
+    /**
+     * Batchgröße, ab der ein Batch instanziert gerendert wird
+     */
+    private int instancingThreshold = DEFAULT_INSTANCING_THRESHOLD;
+    /**
+     * Skalierung der Projektionsmatrix in y-Richtung zur Berechnung der Bildschirmgröße
+     */
+    private final float projectionScale;
+    /**
+     * Entities eines Batches, aufgeteilt nach Level of Detail
+     */
+    private final LodBatch[] lodBatches = new LodBatch[LOD_SCREEN_SIZES.length + 1];
+    /**
+     * Zwischenspeicher für den Mittelpunkt der umschließenden Kugel einer Entity
+     */
+    private final Vector3f sphereCenter = new Vector3f();
+    /**
+     * Anzahl der Dreiecke, die im letzten Frame gerendert wurden
+     */
+    private int renderedTriangleCount = 0;
+    /**
+     * Modelle eines Frames, sortiert nach ihrer Textur bzw. im Tiefen-Vorpass nach ihrer Entfernung
+     */
+    private final List<TexturedModel> sortedModels = new ArrayList<>();
+    /**
+     * Entfernung der nächsten Entity je Modell im Tiefen-Vorpass
+     */
+    private final Map<TexturedModel, Float> nearestDistances = new IdentityHashMap<>();
+    /**
+     * Zuletzt gebundene Textur bzw. Textur-Array oder 0
+     */
+    private int boundTextureId = 0;
+    /**
+     * Zuletzt in den Shader geladene Modeltextur, deren Materialwerte noch gelten
+     */
+    private ModelTexture loadedMaterial = null;
+    /**
+     * Anzahl der Texturwechsel im letzten Frame
+     */
+    private int textureBindCount = 0;
+    /**
+     * Zuletzt gebundenes Vertex Array Object oder 0
+     */
+    private int boundVaoId = 0;
+    /**
+     * Anzahl der VAO-Wechsel im letzten Frame
+     */
+    private int vaoBindCount = 0;
 
     /**
-     * Ein {@link EntityRenderer} wird mit einem {@link StaticShader} für Entities und einer Projektionsmatrix erstellt.
+     * Ein {@link EntityRenderer} wird mit einem {@link StaticShader} für Entities, einem für den Tiefen-Vorpass und
+     * einer Projektionsmatrix erstellt.
      *
      * @param shader           {@link StaticShader} für Entities
+     * @param depthShader      {@link StaticShader} mit {@link StaticShader#DEPTH_FRAGMENT_FILE} für den Tiefen-Vorpass
      * @param projectionMatrix Projektionsmatrix
+     * @param loader           {@link Loader} zum Anlegen des Instanz-VBOs
      */
-    public EntityRenderer(StaticShader shader, Matrix4f projectionMatrix) {
+    public EntityRenderer(StaticShader shader, StaticShader depthShader, Matrix4f projectionMatrix, Loader loader) {
         this.shader = shader;
-        shader.start();
-        shader.loadProjectionMatrix(projectionMatrix);
-        shader.stop();
+        this.depthShader = depthShader;
+        this.instanceVbo = loader.createEmptyVbo(INITIAL_INSTANCE_CAPACITY * INSTANCE_DATA_LENGTH);
+        this.projectionScale = projectionMatrix.m11;
+        for (int lod = 0; lod < lodBatches.length; lod++) {
+            lodBatches[lod] = new LodBatch();
+        }
     }
 
     /**
      * Diese Funktion rendert eine Hashmap gefüllt Listen von Entities. Entities sind hier nach Ihren TexturedModels gehashed, um diese
      * nur einmal Modell- und Texturendaten nur einmal pro Textur- und Modell zu Binden und Unbinden.
+     * Jede Entity wird abhängig von ihrer Bildschirmgröße mit einem Level of Detail ihres Modells gerendert.
+     * Batches ab der Größe {@link EntityRenderer#instancingThreshold} werden mit einem einzigen instanzierten Draw Call
+     * pro Level of Detail gerendert.
+     * Die Modelle werden nach ihrer Textur sortiert, sodass Modelle, deren Texturen Ebenen desselben Textur-Arrays
+     * sind, ohne Texturwechsel nacheinander gerendert werden. Modelle im selben {@link MeshBuffer} teilen sich ein VAO,
+     * das nur einmal gebunden wird; sie werden über ihren Base Vertex und Index-Offset gezeichnet.
+     * Innerhalb eines Level of Detail werden die Entities grob von vorne nach hinten gerendert, damit verdeckte
+     * Fragmente möglichst früh am Tiefentest scheitern.
+     * Der {@link StaticShader} muss gestartet sein.
+     *
+     * @param entities       Entities in Hashmap
+     * @param cameraPosition Position der Kamera zur Auswahl der Level of Detail
+     */
+    public void render(Map<TexturedModel, List<Entity>> entities, Vector3f cameraPosition) {
+        sortedModels.clear();
+        sortedModels.addAll(entities.keySet());
+        sortedModels.sort(Comparator.comparingInt((TexturedModel model) -> model.getTexture().getId()));
+        renderPass(shader, entities, cameraPosition);
+    }
+
+    /**
+     * Diese Funktion setzt die Zähler der gerenderten Dreiecke, Textur- und VAO-Wechsel zurück. Da ein Frame aus
+     * mehreren Aufrufen von {@link EntityRenderer#render(Map, Vector3f)} bestehen kann, wird sie vor dem ersten
+     * Aufruf des Farbpasses aufgerufen.
+     */
+    public void resetStatistics() {
+        renderedTriangleCount = 0;
+        textureBindCount = 0;
+        vaoBindCount = 0;
+    }
+
+    /**
+     * Diese Funktion schreibt nur die Tiefenwerte aller Entities, bevor {@link EntityRenderer#render(Map, Vector3f)}
+     * mit GL_EQUAL jedes sichtbare Pixel genau einmal beleuchtet. Der Alpha-Test und die Überblendung der Level of
+     * Detail entsprechen dem Farbpass, damit beide Durchläufe dieselben Tiefenwerte erzeugen.
+     * Die Modelle werden nach ihrer nächsten Entity von vorne nach hinten sortiert, Texturwechsel sind hier weniger
+     * wichtig als ein früh gefüllter Tiefenpuffer.
+     * Der Tiefen-{@link StaticShader} muss gestartet sein.
+     *
+     * @param entities       Entities in Hashmap
+     * @param cameraPosition Position der Kamera zur Auswahl der Level of Detail
+     */
+    public void renderDepth(Map<TexturedModel, List<Entity>> entities, Vector3f cameraPosition) {
+        nearestDistances.clear();
+        for (Map.Entry<TexturedModel, List<Entity>> batch : entities.entrySet()) {
+            float nearest = Float.MAX_VALUE;
+            for (Entity entity : batch.getValue()) {
+                nearest = Math.min(nearest, getDistance(entity, cameraPosition));
+            }
+            nearestDistances.put(batch.getKey(), nearest);
+        }
+        sortedModels.clear();
+        sortedModels.addAll(entities.keySet());
+        sortedModels.sort(Comparator.comparingDouble(nearestDistances::get));
+        renderPass(depthShader, entities, cameraPosition);
+    }
+
+    /**
+     * Diese Funktion rendert alle Modelle in der Reihenfolge von {@link EntityRenderer#sortedModels} mit einem Shader.
      *
-     * @param entities Entities in Hashmap
+     * @param passShader     Shader des Durchlaufs
+     * @param entities       Entities in Hashmap
+     * @param cameraPosition Position der Kamera zur Auswahl der Level of Detail
      */
-    public void render(Map<TexturedModel, List<Entity>> entities) {
-        for (TexturedModel model : entities.keySet()) {
+    private void renderPass(StaticShader passShader, Map<TexturedModel, List<Entity>> entities, Vector3f cameraPosition) {
+        activeShader = passShader;
+        boundTextureId = 0;
+        boundVaoId = 0;
+        loadedMaterial = null;
+        for (TexturedModel model : sortedModels) {
             // Binded die Modelldaten und Texturen für ein Textured Modell
             prepareTexturedModel(model);
-            List<Entity> batch = entities.get(model);
-            for (Entity entity : batch) {
-                // Rendert alle Entities in Ihrer individuellen Transformation
-                prepareInstance(entity);
-                GL11.glDrawElements(GL11.GL_TRIANGLES, model.getRawModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+            RawModel rawModel = model.getRawModel();
+            assignLevelsOfDetail(rawModel, entities.get(model), cameraPosition);
+            for (int lod = 0; lod < rawModel.getLodCount(); lod++) {
+                LodBatch lodBatch = lodBatches[lod];
+                if (lodBatch.size() == 0) {
+                    continue;
+                }
+                lodBatch.sortFrontToBack();
+                if (lodBatch.size() >= instancingThreshold) {
+                    renderInstanced(rawModel, lod, lodBatch);
+                } else {
+                    activeShader.loadUseInstancing(false);
+                    for (int i = 0; i < lodBatch.size(); i++) {
+                        // Rendert alle Entities in Ihrer individuellen Transformation
+                        prepareInstance(lodBatch.getEntity(i), lodBatch.getFade(i));
+                        GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, rawModel.getIndexCount(lod), GL11.GL_UNSIGNED_INT,
+                                rawModel.getIndexOffset(lod), rawModel.getBaseVertex());
+                    }
+                }
+                renderedTriangleCount += lodBatch.size() * (rawModel.getIndexCount(lod) / 3);
             }
             unbindTexturedModel();
         }
+        unbindVao();
+    }
+
+    /**
+     * Diese Funktion verteilt die Entities eines Batches anhand ihrer Bildschirmgröße auf die Level of Detail des Modells.
+     * Liegt eine Entity nahe an einer Schwelle, wird sie in beiden Level of Detail mit komplementärer, gerasterter
+     * Überblendung eingetragen, damit der Wechsel nicht als Springen sichtbar ist.
+     *
+     * @param rawModel       Modell des Batches
+     * @param batch          Entities des Batches
+     * @param cameraPosition Position der Kamera
+     */
+    private void assignLevelsOfDetail(RawModel rawModel, List<Entity> batch, Vector3f cameraPosition) {
+        for (LodBatch lodBatch : lodBatches) {
+            lodBatch.clear();
+        }
+        int lodCount = Math.min(rawModel.getLodCount(), lodBatches.length);
+        if (lodCount == 1) {
+            for (Entity entity : batch) {
+                lodBatches[0].add(entity, 1, getDistance(entity, cameraPosition));
+            }
+            return;
+        }
+
+        for (Entity entity : batch) {
+            float distance = getDistance(entity, cameraPosition);
+            float radius = entity.getBoundingSphereRadius();
+            float screenSize = distance > radius ? radius / distance * projectionScale : Float.MAX_VALUE;
+
+            int lod = 0;
+            while (lod < lodCount - 1 && screenSize < LOD_SCREEN_SIZES[lod] * (1 - LOD_FADE_BAND)) {
+                lod++;
+            }
+            if (lod < lodCount - 1 && screenSize < LOD_SCREEN_SIZES[lod] * (1 + LOD_FADE_BAND)) {
+                // Übergangsbereich: Anteil des feineren Level of Detail
+                float lower = LOD_SCREEN_SIZES[lod] * (1 - LOD_FADE_BAND);
+                float fade = (screenSize - lower) / (LOD_SCREEN_SIZES[lod] * 2 * LOD_FADE_BAND);
+                lodBatches[lod].add(entity, fade, distance);
+                lodBatches[lod + 1].add(entity, -fade, distance);
+            } else {
+                lodBatches[lod].add(entity, 1, distance);
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Entfernung der umschließenden Kugel einer Entity zur Kamera.
+     *
+     * @param entity         Entity
+     * @param cameraPosition Position der Kamera
+     * @return Entfernung des Kugelmittelpunkts
+     */
+    private float getDistance(Entity entity, Vector3f cameraPosition) {
+        entity.getBoundingSphereCenter(sphereCenter);
+        float dx = sphereCenter.x - cameraPosition.x;
+        float dy = sphereCenter.y - cameraPosition.y;
+        float dz = sphereCenter.z - cameraPosition.z;
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Batchgröße, ab der ein Batch instanziert gerendert wird.
+     * Kleinere Batches werden weiterhin mit einem Draw Call pro Entity gerendert.
+     *
+     * @param instancingThreshold minimale Batchgröße für instanziertes Rendern
+     */
+    public void setInstancingThreshold(int instancingThreshold) {
+        this.instancingThreshold = Math.max(1, instancingThreshold);
+    }
+
+    /**
+     * Diese Funktion übergibt die Batchgröße, ab der ein Batch instanziert gerendert wird.
+     *
+     * @return minimale Batchgröße für instanziertes Rendern
+     */
+    public int getInstancingThreshold() {
+        return instancingThreshold;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Dreiecke, die im letzten Frame gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Dreiecke
+     */
+    public int getRenderedTriangleCount() {
+        return renderedTriangleCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Texturwechsel im letzten Frame.
+     *
+     * @return Anzahl der gebundenen Texturen und Textur-Arrays
+     */
+    public int getTextureBindCount() {
+        return textureBindCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der VAO-Wechsel im letzten Frame.
+     *
+     * @return Anzahl der gebundenen Vertex Array Objects
+     */
+    public int getVaoBindCount() {
+        return vaoBindCount;
+    }
+
+    /**
+     * Diese Funktion rendert alle Entities eines Level of Detail mit einem einzigen instanzierten Draw Call.
+     * Die Transformationsmatrizen, Texture Offsets und Überblendungen werden dazu in das Instanz-VBO gestreamt.
+     *
+     * @param model    Modell des Batches
+     * @param lod      Level of Detail
+     * @param lodBatch Entities des Level of Detail
+     */
+    private void renderInstanced(RawModel model, int lod, LodBatch lodBatch) {
+        ensureInstanceCapacity(lodBatch.size());
+        instanceBuffer.clear();
+        for (int i = 0; i < lodBatch.size(); i++) {
+            Entity entity = lodBatch.getEntity(i);
+            entity.getTransformationMatrix().store(instanceBuffer);
+            Vector2f offset = entity.getTextureOffset();
+            instanceBuffer.put(offset.x);
+            instanceBuffer.put(offset.y);
+            instanceBuffer.put(lodBatch.getFade(i));
+            instanceBuffer.put(entity.getTextureLayer());
+        }
+        instanceBuffer.flip();
+
+        bindInstanceAttributes();
+        activeShader.loadUseInstancing(true);
+        GL32.glDrawElementsInstancedBaseVertex(GL11.GL_TRIANGLES, model.getIndexCount(lod), GL11.GL_UNSIGNED_INT,
+                model.getIndexOffset(lod), lodBatch.size(), model.getBaseVertex());
+    }
+
+    /**
+     * Diese Funktion vergrößert den Buffer für die Instanzdaten, falls dieser für den Batch nicht ausreicht.
+     *
+     * @param instanceCount Anzahl der Instanzen im Batch
+     */
+    private void ensureInstanceCapacity(int instanceCount) {
+        int required = instanceCount * INSTANCE_DATA_LENGTH;
+        if (instanceBuffer.capacity() < required) {
+            instanceBuffer = BufferUtils.createFloatBuffer(Math.max(required, instanceBuffer.capacity() * 2));
+        }
+    }
+
+    /**
+     * Diese Funktion lädt die Instanzdaten in das Instanz-VBO und verknüpft dieses mit den Instanz-Attributen
+     * des aktuell gebundenen VAOs. Die Attribute werden nur einmal pro Instanz (nicht pro Vertex) weitergeschaltet.
+     * Sie bleiben bis zum Ende des Frames aktiviert, nicht instanzierte Draw Calls ignorieren sie im Shader.
+     */
+    private void bindInstanceAttributes() {
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instanceBuffer, GL15.GL_STREAM_DRAW);
+        int stride = INSTANCE_DATA_LENGTH * 4;
+        for (int column = 0; column < 4; column++) {
+            int attribute = INSTANCE_MATRIX_ATTRIBUTE + column;
+            GL20.glVertexAttribPointer(attribute, 4, GL11.GL_FLOAT, false, stride, column * 4 * 4);
+            GL33.glVertexAttribDivisor(attribute, 1);
+            GLState.enableVertexAttribArray(attribute);
+        }
+        GL20.glVertexAttribPointer(INSTANCE_OFFSET_ATTRIBUTE, 4, GL11.GL_FLOAT, false, stride, 16 * 4);
+        GL33.glVertexAttribDivisor(INSTANCE_OFFSET_ATTRIBUTE, 1);
+        GLState.enableVertexAttribArray(INSTANCE_OFFSET_ATTRIBUTE);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
     }
 
     /**
      * Diese Funktion bindet die Modell- und Texturdaten für ein TexturedModel Objekt in OpenGl,
      * um dieses danach rendern zu können.
+     * Ist das VAO, die Textur bzw. das Textur-Array bereits gebunden und stimmen die Materialwerte mit dem vorherigen
+     * Modell überein, werden diese nicht erneut gebunden bzw. geladen.
      *
      * @param texturedModel Texturiertes Modell
      */
     private void prepareTexturedModel(TexturedModel texturedModel) {
         RawModel model = texturedModel.getRawModel();
-        GL30.glBindVertexArray(model.getVaoID());
-        GL20.glEnableVertexAttribArray(0);
-        GL20.glEnableVertexAttribArray(1);
-        GL20.glEnableVertexAttribArray(2);
+        if (model.getVaoID() != boundVaoId) {
+            disableInstanceAttributes();
+            GLState.bindVertexArray(model.getVaoID());
+            GLState.enableVertexAttribArray(0);
+            GLState.enableVertexAttribArray(1);
+            GLState.enableVertexAttribArray(2);
+            boundVaoId = model.getVaoID();
+            vaoBindCount++;
+        }
+
+        activeShader.loadVertexFormat(model.getVertexFormat());
 
         ModelTexture texture = texturedModel.getTexture();
-        shader.loadNumberOfRows(texture.getNumberOfRows());
         if (texture.isTransparent()) {
             MasterRenderer.disableCulling();
         }
+        if (!texture.hasSameMaterial(loadedMaterial)) {
+            activeShader.loadNumberOfRows(texture.getNumberOfRows());
+            activeShader.loadIsFakeLit(texture.isFakeLit());
+            activeShader.loadShineVariables(texture.getShineDamper(), texture.getReflectivity());
+            loadedMaterial = texture;
+        }
 
-        shader.loadIsFakeLit(texture.isFakeLit());
-        shader.loadShineVariables(texture.getShineDamper(), texture.getReflectivity());
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texturedModel.getTexture().getId());
+        if (texture.getId() != boundTextureId) {
+            if (texture.isTextureArray()) {
+                GLState.bindTexture(1, GL30.GL_TEXTURE_2D_ARRAY, texture.getId());
+            } else {
+                GLState.bindTexture(0, GL11.GL_TEXTURE_2D, texture.getId());
+            }
+            activeShader.loadUseTextureArray(texture.isTextureArray());
+            boundTextureId = texture.getId();
+            textureBindCount++;
+        }
     }
 
     /**
-     * Diese Funktion unbindend die Modell- und Texturdaten für ein TexturedModel Objekt in OpenGL,
-     * wenn diese nach dem Rendern nicht mehr benötigt werden.
+     * Diese Funktion setzt die Einstellungen eines TexturedModel Objekts nach dem Rendern zurück.
+     * Das VAO bleibt für das nächste Modell gebunden.
      */
     private void unbindTexturedModel() {
         MasterRenderer.enableCulling();
-        GL20.glDisableVertexAttribArray(0);
-        GL20.glDisableVertexAttribArray(1);
-        GL20.glDisableVertexAttribArray(2);
-        GL30.glBindVertexArray(0);
+    }
+
+    /**
+     * Diese Funktion unbindet das zuletzt gebundene VAO, wenn alle Modelle gerendert wurden.
+     * Die Attribute 0 bis 2 bleiben im VAO aktiviert.
+     */
+    private void unbindVao() {
+        disableInstanceAttributes();
+        boundVaoId = 0;
+        GLState.bindVertexArray(0);
+    }
+
+    /**
+     * Diese Funktion deaktiviert die Instanz-Attribute des aktuell gebundenen VAOs, bevor ein anderes VAO gebunden wird.
+     */
+    private void disableInstanceAttributes() {
+        if (boundVaoId == 0) {
+            return;
+        }
+        for (int attribute = INSTANCE_MATRIX_ATTRIBUTE; attribute <= INSTANCE_OFFSET_ATTRIBUTE; attribute++) {
+            GLState.disableVertexAttribArray(attribute);
+        }
     }
 
     /**
      * Diese Funktion lädt die Transformationsmatrix für ein Entity Object in den Shader.
      *
      * @param entity Entity
+     * @param fade   Überblendung des Level of Detail (1 = vollständig sichtbar)
      */
-    private void prepareInstance(Entity entity) {
+    private void prepareInstance(Entity entity, float fade) {
         Matrix4f transformationMatrix = entity.getTransformationMatrix();
-        shader.loadTransformationMatrix(transformationMatrix);
-        shader.loadOffset(entity.getTextureOffset());
+        activeShader.loadTransformationMatrix(transformationMatrix);
+        activeShader.loadOffset(entity.getTextureOffset());
+        activeShader.loadTextureLayer(entity.getTextureLayer());
+        activeShader.loadLodFade(fade);
+    }
+
+    /**
+     * Diese Klasse sammelt die Entities, die in einem Level of Detail gerendert werden, zusammen mit ihrer Überblendung.
+     * Eine positive Überblendung t zeigt den Anteil t der Pixel, eine negative den komplementären Anteil 1 - |t|.
+     */
+    private static class LodBatch {
+
+        /**
+         * Entities des Level of Detail
+         */
+        private final List<Entity> entities = new ArrayList<>();
+        /**
+         * Überblendung je Entity
+         */
+        private float[] fades = new float[64];
+        /**
+         * Entfernung zur Kamera je Entity
+         */
+        private float[] distances = new float[64];
+        /**
+         * Anzahl der Entities je Abschnitt bzw. nach dem Aufsummieren der erste Platz eines Abschnitts
+         */
+        private final int[] bucketStarts = new int[SORT_BUCKET_COUNT + 1];
+        /**
+         * Zwischenspeicher der Entities beim Sortieren
+         */
+        private Entity[] sortedEntities = new Entity[64];
+        /**
+         * Zwischenspeicher der Überblendungen beim Sortieren
+         */
+        private float[] sortedFades = new float[64];
+
+        /**
+         * Diese Funktion fügt eine Entity mit ihrer Überblendung hinzu.
+         *
+         * @param entity   Entity
+         * @param fade     Überblendung
+         * @param distance Entfernung zur Kamera
+         */
+        private void add(Entity entity, float fade, float distance) {
+            if (entities.size() == fades.length) {
+                fades = Arrays.copyOf(fades, fades.length * 2);
+                distances = Arrays.copyOf(distances, distances.length * 2);
+            }
+            fades[entities.size()] = fade;
+            distances[entities.size()] = distance;
+            entities.add(entity);
+        }
+
+        /**
+         * Diese Funktion sortiert die Entities grob von vorne nach hinten. Dazu werden sie in Abschnitte der Tiefe
+         * {@link EntityRenderer#SORT_BUCKET_DEPTH} einsortiert (Counting Sort); die Reihenfolge innerhalb eines
+         * Abschnitts bleibt erhalten.
+         */
+        private void sortFrontToBack() {
+            int size = entities.size();
+            if (size < 2) {
+                return;
+            }
+            if (sortedEntities.length < size) {
+                sortedEntities = new Entity[fades.length];
+                sortedFades = new float[fades.length];
+            }
+            Arrays.fill(bucketStarts, 0);
+            for (int i = 0; i < size; i++) {
+                bucketStarts[getBucket(i) + 1]++;
+            }
+            for (int bucket = 1; bucket <= SORT_BUCKET_COUNT; bucket++) {
+                bucketStarts[bucket] += bucketStarts[bucket - 1];
+            }
+            for (int i = 0; i < size; i++) {
+                int target = bucketStarts[getBucket(i)]++;
+                sortedEntities[target] = entities.get(i);
+                sortedFades[target] = fades[i];
+            }
+            entities.clear();
+            for (int i = 0; i < size; i++) {
+                entities.add(sortedEntities[i]);
+                sortedEntities[i] = null;
+            }
+            System.arraycopy(sortedFades, 0, fades, 0, size);
+        }
+
+        /**
+         * Diese Funktion übergibt den Abschnitt einer Entity für die Sortierung von vorne nach hinten.
+         *
+         * @param index Position der Entity
+         * @return Abschnitt
+         */
+        private int getBucket(int index) {
+            return Math.min(SORT_BUCKET_COUNT - 1, (int) (distances[index] / SORT_BUCKET_DEPTH));
+        }
+
+        /**
+         * Diese Funktion entfernt alle Entities.
+         */
+        private void clear() {
+            entities.clear();
+        }
+
+        /**
+         * Diese Funktion übergibt die Anzahl der Entities.
+         *
+         * @return Anzahl der Entities
+         */
+        private int size() {
+            return entities.size();
+        }
+
+        /**
+         * Diese Funktion übergibt eine Entity.
+         *
+         * @param index Position der Entity
+         * @return Entity
+         */
+        private Entity getEntity(int index) {
+            return entities.get(index);
+        }
+
+        /**
+         * Diese Funktion übergibt die Überblendung einer Entity.
+         *
+         * @param index Position der Entity
+         * @return Überblendung
+         */
+        private float getFade(int index) {
+            return fades[index];
+        }
     }
 }
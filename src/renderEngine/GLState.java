@@ -0,0 +1,445 @@
+package renderEngine;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse merkt sich den aktuellen OpenGL-Zustand (Programm, VAO, aktivierte Attribute, Texturen, Culling,
+ * Blending und Tiefentest) und überspringt Aufrufe, die an diesem Zustand nichts ändern würden.
+ *
+ * Damit der gemerkte Zustand stimmt, müssen alle Renderer diese Funktionen statt der OpenGL-Funktionen verwenden.
+ * Ändert fremder Code den Zustand (z.B. Slick beim Laden einer Textur), muss anschließend {@link GLState#invalidate()}
+ * aufgerufen werden. Alle Funktionen müssen im OpenGL-Thread aufgerufen werden.
+ */
+public class GLState {
+
+    /**
+     * Anzahl der Textureinheiten, deren gebundene Texturen gemerkt werden
+     */
+    private static final int TEXTURE_UNITS = 16;
+    /**
+     * Textur-Ziele, deren gebundene Texturen je Textureinheit gemerkt werden
+     */
+    private static final int[] TEXTURE_TARGETS = {GL11.GL_TEXTURE_2D, GL30.GL_TEXTURE_2D_ARRAY, GL13.GL_TEXTURE_CUBE_MAP, GL31.GL_TEXTURE_BUFFER};
+    /**
+     * Wert für einen unbekannten Zustand, der beim nächsten Aufruf in jedem Fall gesetzt wird
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * Aktuelles Shader-Programm
+     */
+    private static int program = UNKNOWN;
+    /**
+     * Aktuelles Vertex Array Object
+     */
+    private static int vao = UNKNOWN;
+    /**
+     * Bitmaske der aktivierten Attribute je VAO (Index = VAO Id), da dieser Zustand zum VAO gehört
+     */
+    private static int[] enabledAttributes = new int[64];
+    /**
+     * Aktive Textureinheit
+     */
+    private static int activeTextureUnit = UNKNOWN;
+    /**
+     * Gebundene Texturen je Textureinheit und Textur-Ziel
+     */
+    private static final int[][] boundTextures = new int[TEXTURE_UNITS][TEXTURE_TARGETS.length];
+    /**
+     * Zustand des Face Cullings (1 = aktiviert, 0 = deaktiviert)
+     */
+    private static int culling = UNKNOWN;
+    /**
+     * Zustand des Blendings (1 = aktiviert, 0 = deaktiviert)
+     */
+    private static int blending = UNKNOWN;
+    /**
+     * Zustand des Tiefentests (1 = aktiviert, 0 = deaktiviert)
+     */
+    private static int depthTest = UNKNOWN;
+    /**
+     * Aktuelle Vergleichsfunktion des Tiefentests
+     */
+    private static int depthFunction = UNKNOWN;
+    /**
+     * Zustand des Schreibens in den Tiefenpuffer (1 = aktiviert, 0 = deaktiviert)
+     */
+    private static int depthMask = UNKNOWN;
+    /**
+     * Zustand des Schreibens in den Farbpuffer (1 = aktiviert, 0 = deaktiviert)
+     */
+    private static int colorMask = UNKNOWN;
+    /**
+     * Aktuelle Blend-Funktion (Quellfaktor)
+     */
+    private static int blendSource = UNKNOWN;
+    /**
+     * Aktuelle Blend-Funktion (Zielfaktor)
+     */
+    private static int blendDestination = UNKNOWN;
+    /**
+     * Anzahl der übersprungenen OpenGL-Aufrufe seit {@link GLState#resetStatistics()}
+     */
+    private static int avoidedCallCount = 0;
+    /**
+     * Anzahl der ausgeführten OpenGL-Aufrufe seit {@link GLState#resetStatistics()}
+     */
+    private static int issuedCallCount = 0;
+
+    static {
+        invalidate();
+    }
+
+    /**
+     * Diese Funktion vergisst den gemerkten Zustand, sodass alle folgenden Aufrufe wieder ausgeführt werden.
+     * Sie muss aufgerufen werden, nachdem fremder Code den OpenGL-Zustand verändert hat.
+     */
+    public static void invalidate() {
+        program = UNKNOWN;
+        vao = UNKNOWN;
+        Arrays.fill(enabledAttributes, UNKNOWN);
+        activeTextureUnit = UNKNOWN;
+        for (int[] unit : boundTextures) {
+            Arrays.fill(unit, UNKNOWN);
+        }
+        culling = UNKNOWN;
+        blending = UNKNOWN;
+        depthTest = UNKNOWN;
+        depthFunction = UNKNOWN;
+        depthMask = UNKNOWN;
+        colorMask = UNKNOWN;
+        blendSource = UNKNOWN;
+        blendDestination = UNKNOWN;
+    }
+
+    /**
+     * Diese Funktion aktiviert ein Shader-Programm.
+     *
+     * @param programId Programm Id oder 0
+     */
+    public static void useProgram(int programId) {
+        if (program == programId) {
+            avoidedCallCount++;
+            return;
+        }
+        GL20.glUseProgram(programId);
+        program = programId;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion bindet ein Vertex Array Object.
+     *
+     * @param vaoId VAO Id oder 0
+     */
+    public static void bindVertexArray(int vaoId) {
+        if (vao == vaoId) {
+            avoidedCallCount++;
+            return;
+        }
+        GL30.glBindVertexArray(vaoId);
+        vao = vaoId;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion aktiviert ein Attribut des aktuell gebundenen VAOs.
+     *
+     * @param attribute Attribut-Nummer
+     */
+    public static void enableVertexAttribArray(int attribute) {
+        setVertexAttribArray(attribute, true);
+    }
+
+    /**
+     * Diese Funktion deaktiviert ein Attribut des aktuell gebundenen VAOs.
+     *
+     * @param attribute Attribut-Nummer
+     */
+    public static void disableVertexAttribArray(int attribute) {
+        setVertexAttribArray(attribute, false);
+    }
+
+    /**
+     * Diese Funktion vergisst den Zustand eines gelöschten VAOs, da OpenGL dessen Id wiederverwenden kann.
+     *
+     * @param vaoId gelöschtes VAO
+     */
+    public static void forgetVertexArray(int vaoId) {
+        if (vaoId < enabledAttributes.length) {
+            enabledAttributes[vaoId] = UNKNOWN;
+        }
+        if (vao == vaoId) {
+            vao = UNKNOWN;
+        }
+    }
+
+    /**
+     * Diese Funktion bindet eine Textur an eine Textureinheit. Die aktive Textureinheit wird nur gewechselt,
+     * wenn die Textur tatsächlich gebunden werden muss.
+     *
+     * @param unit      Textureinheit (0 für GL_TEXTURE0)
+     * @param target    Textur-Ziel, z.B. GL_TEXTURE_2D
+     * @param textureId Textur Id oder 0
+     */
+    public static void bindTexture(int unit, int target, int textureId) {
+        int targetIndex = getTargetIndex(target);
+        if (unit < TEXTURE_UNITS && targetIndex >= 0 && boundTextures[unit][targetIndex] == textureId) {
+            avoidedCallCount++;
+            return;
+        }
+        activeTexture(unit);
+        GL11.glBindTexture(target, textureId);
+        issuedCallCount++;
+        if (unit < TEXTURE_UNITS && targetIndex >= 0) {
+            boundTextures[unit][targetIndex] = textureId;
+        }
+    }
+
+    /**
+     * Diese Funktion vergisst eine gelöschte Textur in allen Textureinheiten, da OpenGL deren Id wiederverwenden kann.
+     *
+     * @param textureId gelöschte Textur
+     */
+    public static void forgetTexture(int textureId) {
+        for (int[] unit : boundTextures) {
+            for (int i = 0; i < unit.length; i++) {
+                if (unit[i] == textureId) {
+                    unit[i] = UNKNOWN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert das Face Culling. Beim Aktivieren werden die Rückseiten verworfen.
+     *
+     * @param enabled Information, ob Rückseiten verworfen werden
+     */
+    public static void setCulling(boolean enabled) {
+        if (culling == UNKNOWN && enabled) {
+            GL11.glCullFace(GL11.GL_BACK);
+            issuedCallCount++;
+        }
+        culling = setCapability(GL11.GL_CULL_FACE, culling, enabled);
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert das Blending.
+     *
+     * @param enabled Information, ob geblendet wird
+     */
+    public static void setBlending(boolean enabled) {
+        blending = setCapability(GL11.GL_BLEND, blending, enabled);
+    }
+
+    /**
+     * Diese Funktion setzt die Blend-Funktion.
+     *
+     * @param source      Quellfaktor, z.B. GL_SRC_ALPHA
+     * @param destination Zielfaktor, z.B. GL_ONE_MINUS_SRC_ALPHA
+     */
+    public static void setBlendFunction(int source, int destination) {
+        if (blendSource == source && blendDestination == destination) {
+            avoidedCallCount++;
+            return;
+        }
+        GL11.glBlendFunc(source, destination);
+        blendSource = source;
+        blendDestination = destination;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert den Tiefentest.
+     *
+     * @param enabled Information, ob der Tiefentest aktiv ist
+     */
+    public static void setDepthTest(boolean enabled) {
+        depthTest = setCapability(GL11.GL_DEPTH_TEST, depthTest, enabled);
+    }
+
+    /**
+     * Diese Funktion setzt die Vergleichsfunktion des Tiefentests.
+     *
+     * @param function Vergleichsfunktion, z.B. GL_LESS oder GL_EQUAL
+     */
+    public static void setDepthFunction(int function) {
+        if (depthFunction == function) {
+            avoidedCallCount++;
+            return;
+        }
+        GL11.glDepthFunc(function);
+        depthFunction = function;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert das Schreiben in den Tiefenpuffer.
+     *
+     * @param enabled Information, ob Tiefenwerte geschrieben werden
+     */
+    public static void setDepthMask(boolean enabled) {
+        int state = enabled ? 1 : 0;
+        if (depthMask == state) {
+            avoidedCallCount++;
+            return;
+        }
+        GL11.glDepthMask(enabled);
+        depthMask = state;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert das Schreiben aller Kanäle in den Farbpuffer.
+     *
+     * @param enabled Information, ob Farben geschrieben werden
+     */
+    public static void setColorMask(boolean enabled) {
+        int state = enabled ? 1 : 0;
+        if (colorMask == state) {
+            avoidedCallCount++;
+            return;
+        }
+        GL11.glColorMask(enabled, enabled, enabled, enabled);
+        colorMask = state;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion setzt die Zähler der ausgeführten und übersprungenen Aufrufe zurück, z.B. zu Beginn eines Frames.
+     */
+    public static void resetStatistics() {
+        avoidedCallCount = 0;
+        issuedCallCount = 0;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Aufrufe, die seit dem letzten Zurücksetzen übersprungen wurden.
+     * Dazu zählen auch Uniforms, deren Wert sich nicht geändert hat.
+     *
+     * @return Anzahl der übersprungenen Aufrufe
+     */
+    public static int getAvoidedCallCount() {
+        return avoidedCallCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Aufrufe, die seit dem letzten Zurücksetzen ausgeführt wurden.
+     *
+     * @return Anzahl der ausgeführten Aufrufe
+     */
+    public static int getIssuedCallCount() {
+        return issuedCallCount;
+    }
+
+    /**
+     * Diese Funktion zählt einen übersprungenen Aufruf, z.B. für einen unveränderten Uniform-Wert.
+     */
+    public static void countAvoidedCall() {
+        avoidedCallCount++;
+    }
+
+    /**
+     * Diese Funktion zählt einen ausgeführten Aufruf, z.B. für einen geänderten Uniform-Wert.
+     */
+    public static void countIssuedCall() {
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion wechselt die aktive Textureinheit.
+     *
+     * @param unit Textureinheit (0 für GL_TEXTURE0)
+     */
+    private static void activeTexture(int unit) {
+        if (activeTextureUnit == unit) {
+            avoidedCallCount++;
+            return;
+        }
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+        issuedCallCount++;
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert ein Attribut des aktuell gebundenen VAOs, falls nötig.
+     *
+     * @param attribute Attribut-Nummer
+     * @param enabled   Information, ob das Attribut aktiviert wird
+     */
+    private static void setVertexAttribArray(int attribute, boolean enabled) {
+        if (vao >= 0 && vao < enabledAttributes.length && enabledAttributes[vao] != UNKNOWN
+                && ((enabledAttributes[vao] >>> attribute & 1) == 1) == enabled) {
+            avoidedCallCount++;
+            return;
+        }
+        if (enabled) {
+            GL20.glEnableVertexAttribArray(attribute);
+        } else {
+            GL20.glDisableVertexAttribArray(attribute);
+        }
+        issuedCallCount++;
+        if (vao < 0) {
+            return;
+        }
+        if (vao >= enabledAttributes.length) {
+            int oldLength = enabledAttributes.length;
+            enabledAttributes = Arrays.copyOf(enabledAttributes, Math.max(vao + 1, oldLength * 2));
+            Arrays.fill(enabledAttributes, oldLength, enabledAttributes.length, UNKNOWN);
+        }
+        if (enabledAttributes[vao] == UNKNOWN) {
+            // Neue VAOs haben alle Attribute deaktiviert
+            enabledAttributes[vao] = 0;
+        }
+        if (enabled) {
+            enabledAttributes[vao] |= 1 << attribute;
+        } else {
+            enabledAttributes[vao] &= ~(1 << attribute);
+        }
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert eine OpenGL-Fähigkeit, falls sich ihr Zustand ändert.
+     *
+     * @param capability OpenGL-Fähigkeit, z.B. GL_BLEND
+     * @param current    gemerkter Zustand
+     * @param enabled    gewünschter Zustand
+     * @return neuer gemerkter Zustand
+     */
+    private static int setCapability(int capability, int current, boolean enabled) {
+        int state = enabled ? 1 : 0;
+        if (current == state) {
+            avoidedCallCount++;
+            return current;
+        }
+        if (enabled) {
+            GL11.glEnable(capability);
+        } else {
+            GL11.glDisable(capability);
+        }
+        issuedCallCount++;
+        return state;
+    }
+
+    /**
+     * Diese Funktion übergibt den Index eines Textur-Ziels in {@link GLState#TEXTURE_TARGETS}.
+     *
+     * @param target Textur-Ziel
+     * @return Index oder -1, falls das Ziel nicht gemerkt wird
+     */
+    private static int getTargetIndex(int target) {
+        for (int i = 0; i < TEXTURE_TARGETS.length; i++) {
+            if (TEXTURE_TARGETS[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -3,10 +3,12 @@ package renderEngine;
 import de.matthiasmann.twl.utils.PNGDecoder;
 import de.matthiasmann.twl.utils.PNGDecoder.Format;
 import models.RawModel;
+import models.VertexFormat;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.*;
 import org.newdawn.slick.opengl.Texture;
 import org.newdawn.slick.opengl.TextureLoader;
+import textures.MipmappedTextureData;
 import textures.TextureData;
 
 import java.io.FileInputStream;
@@ -15,7 +17,10 @@ import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Diese Klasse lädt die 3D Objekt-Modelle und Texturen in die Vertex Array Buffers (VAO)
@@ -40,6 +45,22 @@ public class Loader {
      * Texturen
      */
     private final List<Integer> textures = new ArrayList();
+    /**
+     * Vertex Buffer Objects je Vertex Array Object, damit einzelne Modelle wieder freigegeben werden können
+     */
+    private final Map<Integer, List<Integer>> vaoBuffers = new HashMap<>();
+    /**
+     * Zuletzt erstelltes Vertex Array Object, dem neue Vertex Buffer Objects zugeordnet werden
+     */
+    private int currentVao = 0;
+    /**
+     * Gemeinsame Buffer der statischen Modelle, einer je Vertex-Layout
+     */
+    private final List<MeshBuffer> meshBuffers = new ArrayList<>();
+    /**
+     * Bereiche der Modelle in den gemeinsamen Buffern, damit einzelne Modelle wieder freigegeben werden können
+     */
+    private final Map<RawModel, MeshBuffer.Allocation> meshAllocations = new IdentityHashMap<>();
 
 
     /**
@@ -63,6 +84,79 @@ public class Loader {
         return new RawModel(vaoId, indices.length);
     }
 
+    /**
+     * Läd ein Array aus Positionen, Texturkoordinaten, Normalenvektoren und mehreren Level of Detail als ein VAO
+     * auf die GPU. Die Indizes aller Level of Detail werden hintereinander in einem gemeinsamen Index-Buffer abgelegt.
+     *
+     * @param positions         Vertex Positionen des 3D Modells
+     * @param textureCoordinate Textur Koordinaten des 3D Modells
+     * @param normals           Normalenvektoren des 3D Modells
+     * @param lodIndices        Indizes je Level of Detail, beginnend mit der vollen Detailstufe
+     * @return {@link RawModel} mit allen Level of Detail
+     */
+    public RawModel loadToVAO(float[] positions, float[] textureCoordinate, float[] normals, int[][] lodIndices) {
+        int[] lodIndexCounts = new int[lodIndices.length];
+        int totalIndices = 0;
+        for (int lod = 0; lod < lodIndices.length; lod++) {
+            lodIndexCounts[lod] = lodIndices[lod].length;
+            totalIndices += lodIndices[lod].length;
+        }
+        int[] indices = new int[totalIndices];
+        int pointer = 0;
+        for (int[] lodIndex : lodIndices) {
+            System.arraycopy(lodIndex, 0, indices, pointer, lodIndex.length);
+            pointer += lodIndex.length;
+        }
+
+        int vaoId = createVAO();
+        bindIndicesBuffer(indices);
+        storeDataInAttributeList(0, 3, positions);
+        storeDataInAttributeList(1, 2, textureCoordinate);
+        storeDataInAttributeList(2, 3, normals);
+        unbindVAO();
+        return new RawModel(vaoId, lodIndexCounts);
+    }
+
+    /**
+     * Läd bereits verschränkt und gepackt vorliegende Vertex-Daten und die Indizes mehrerer Level of Detail in den
+     * gemeinsamen {@link MeshBuffer} ihres Vertex-Layouts. Die Buffer werden ohne Umweg über Arrays direkt an OpenGL
+     * übergeben, z.B. aus einer gemappten Cache-Datei. Position, Texturkoordinaten und Normalenvektor liegen wie bisher
+     * auf den Attributen 0, 1 und 2. Das Modell muss mit glDrawElementsBaseVertex gezeichnet werden.
+     *
+     * @param vertices       verschränkte Vertex-Daten, siehe {@link VertexFormat}
+     * @param format         Format der Vertex-Daten
+     * @param indices        Indizes aller Level of Detail hintereinander
+     * @param lodIndexCounts Anzahl der Indizes je Level of Detail
+     * @return {@link RawModel} mit allen Level of Detail
+     */
+    public RawModel loadToVAO(ByteBuffer vertices, VertexFormat format, ByteBuffer indices, int[] lodIndexCounts) {
+        MeshBuffer meshBuffer = getMeshBuffer(format);
+        MeshBuffer.Allocation allocation = meshBuffer.allocate(vertices, vertices.remaining() / format.getStride(),
+                indices, indices.remaining() / 4);
+        RawModel model = new RawModel(meshBuffer.getVaoId(), lodIndexCounts, allocation.getBaseVertex(),
+                allocation.getFirstIndex());
+        model.setVertexFormat(format);
+        meshAllocations.put(model, allocation);
+        return model;
+    }
+
+    /**
+     * Läd verschränkt und gepackt vorliegende Vertex-Daten und ein Array aus Indizes in den gemeinsamen
+     * {@link MeshBuffer} ihres Vertex-Layouts.
+     *
+     * Wird z.B. für das Terrain verwendet.
+     *
+     * @param vertices verschränkte Vertex-Daten, siehe {@link VertexFormat}
+     * @param format   Format der Vertex-Daten
+     * @param indices  Indizes
+     * @return {@link RawModel}
+     */
+    public RawModel loadToVAO(ByteBuffer vertices, VertexFormat format, int[] indices) {
+        ByteBuffer indexBuffer = BufferUtils.createByteBuffer(indices.length * 4);
+        indexBuffer.asIntBuffer().put(indices);
+        return loadToVAO(vertices, format, indexBuffer, new int[]{indices.length});
+    }
+
     /**
      * Läd ein Array aus Positionen beliebiger Dimensionen als ein VAO auf die GPU
      *
@@ -79,6 +173,23 @@ public class Loader {
         return new RawModel(vaoId, positions.length / dimensions);
     }
 
+    /**
+     * Erstellt ein leeres Vertex Buffer Object (VBO), das jeden Frame mit neuen Daten befüllt werden kann.
+     *
+     * Wird z.B. für die Instanzdaten beim instanzierten Rendern verwendet.
+     *
+     * @param floatCount Anzahl der Floats, für die initial Speicher reserviert wird
+     * @return VBO Id
+     */
+    public int createEmptyVbo(int floatCount) {
+        int vboId = GL15.glGenBuffers();
+        vbos.add(vboId);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, floatCount * 4L, GL15.GL_STREAM_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        return vboId;
+    }
+
     /**
      * Läd eine Texturdatei im PNG Format in die GPU
      * @param fileName Dateiname der Textur
@@ -90,6 +201,8 @@ public class Loader {
         String name = fileName.endsWith(".png") ? fileName : fileName + ".png";
         try {
             texture = TextureLoader.getTexture("PNG", new FileInputStream(RESOURCES + name));
+            // Slick bindet die Textur selbst
+            GLState.invalidate();
             GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
             GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
             GL11.glTexParameterf(GL11.GL_TEXTURE_2D, GL14.GL_TEXTURE_LOD_BIAS, -1);
@@ -102,21 +215,223 @@ public class Loader {
         return textureId;
     }
 
+    /**
+     * Läd bereits dekodierte Texturdaten (RGBA) in die GPU und erzeugt die Mipmaps.
+     * Die Filterung entspricht {@link Loader#loadTexture(String)}.
+     *
+     * @param data dekodierte Texturdaten, z.B. aus {@link Loader#decodeTextureFile(String)}
+     * @return Referenz auf die Textur in der GPU
+     */
+    public int loadTexture(TextureData data) {
+        int textureId = GL11.glGenTextures();
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, textureId);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, data.getWidth(), data.getHeight(), 0,
+                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data.getBuffer());
+        GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+        GL11.glTexParameterf(GL11.GL_TEXTURE_2D, GL14.GL_TEXTURE_LOD_BIAS, -1);
+        textures.add(textureId);
+        return textureId;
+    }
+
+    /**
+     * Läd eine Textur mit bereits berechneten Mipmap-Stufen in die GPU. Komprimierte Stufen werden unverändert mit
+     * glCompressedTexImage2D übertragen, die GPU dekodiert sie erst beim Sampeln.
+     * Die Filterung entspricht {@link Loader#loadTexture(String)}.
+     *
+     * @param data Textur mit allen Mipmap-Stufen, z.B. aus {@link textures.TextureCache#loadTexture(String, boolean)}
+     * @return Referenz auf die Textur in der GPU
+     */
+    public int loadTexture(MipmappedTextureData data) {
+        int textureId = GL11.glGenTextures();
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, textureId);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        for (int level = 0; level < data.getLevelCount(); level++) {
+            int width = Math.max(1, data.getWidth() >> level);
+            int height = Math.max(1, data.getHeight() >> level);
+            if (data.isCompressed()) {
+                GL13.glCompressedTexImage2D(GL11.GL_TEXTURE_2D, level, getCompressedFormat(data.getFormat()),
+                        width, height, 0, data.getLevel(level));
+            } else {
+                GL11.glTexImage2D(GL11.GL_TEXTURE_2D, level, GL11.GL_RGBA8, width, height, 0,
+                        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data.getLevel(level));
+            }
+        }
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, data.getLevelCount() - 1);
+        if (data.getFormat() == MipmappedTextureData.FORMAT_RGTC1) {
+            // Graustufen liegen nur im Rot-Kanal, daher wird dieser auf alle Farbkanäle verteilt
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_G, GL11.GL_RED);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_B, GL11.GL_RED);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_A, GL11.GL_ONE);
+        }
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+        GL11.glTexParameterf(GL11.GL_TEXTURE_2D, GL14.GL_TEXTURE_LOD_BIAS, -1);
+        textures.add(textureId);
+        return textureId;
+    }
+
+    /**
+     * Läd mehrere gleich große Texturen im gleichen Format als Ebenen eines Textur-Arrays (GL_TEXTURE_2D_ARRAY)
+     * in die GPU. Die Mipmap-Stufen aller Ebenen werden je Stufe zusammengefasst übertragen.
+     * Die Filterung entspricht {@link Loader#loadTexture(String)}.
+     *
+     * @param layers Texturen der Ebenen mit allen Mipmap-Stufen, z.B. aus
+     *               {@link textures.TextureCache#loadTexture(String, boolean)}
+     * @return Referenz auf das Textur-Array in der GPU
+     */
+    public int loadTextureArray(MipmappedTextureData[] layers) {
+        MipmappedTextureData first = layers[0];
+        for (MipmappedTextureData layer : layers) {
+            if (layer.getWidth() != first.getWidth() || layer.getHeight() != first.getHeight()
+                    || layer.getFormat() != first.getFormat() || layer.getLevelCount() != first.getLevelCount()) {
+                throw new IllegalArgumentException("All layers of a texture array need the same size and format");
+            }
+        }
+
+        int textureId = GL11.glGenTextures();
+        GLState.bindTexture(0, GL30.GL_TEXTURE_2D_ARRAY, textureId);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        for (int level = 0; level < first.getLevelCount(); level++) {
+            ByteBuffer levelData = BufferUtils.createByteBuffer(first.getLevel(level).remaining() * layers.length);
+            for (MipmappedTextureData layer : layers) {
+                levelData.put(layer.getLevel(level).duplicate());
+            }
+            levelData.flip();
+            int width = Math.max(1, first.getWidth() >> level);
+            int height = Math.max(1, first.getHeight() >> level);
+            if (first.isCompressed()) {
+                GL13.glCompressedTexImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, getCompressedFormat(first.getFormat()),
+                        width, height, layers.length, 0, levelData);
+            } else {
+                GL12.glTexImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, GL11.GL_RGBA8, width, height, layers.length, 0,
+                        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, levelData);
+            }
+        }
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL12.GL_TEXTURE_MAX_LEVEL, first.getLevelCount() - 1);
+        if (first.getFormat() == MipmappedTextureData.FORMAT_RGTC1) {
+            GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL33.GL_TEXTURE_SWIZZLE_G, GL11.GL_RED);
+            GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL33.GL_TEXTURE_SWIZZLE_B, GL11.GL_RED);
+            GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL33.GL_TEXTURE_SWIZZLE_A, GL11.GL_ONE);
+        }
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+        GL11.glTexParameterf(GL30.GL_TEXTURE_2D_ARRAY, GL14.GL_TEXTURE_LOD_BIAS, -1);
+        GLState.bindTexture(0, GL30.GL_TEXTURE_2D_ARRAY, 0);
+        textures.add(textureId);
+        return textureId;
+    }
+
+    /**
+     * Diese Funktion übergibt das OpenGL-Format eines komprimierten Formats.
+     *
+     * @param format Format (siehe {@link MipmappedTextureData})
+     * @return internes Format für glCompressedTexImage2D
+     */
+    private static int getCompressedFormat(int format) {
+        switch (format) {
+            case MipmappedTextureData.FORMAT_BC3:
+                return EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case MipmappedTextureData.FORMAT_RGTC1:
+                return GL30.GL_COMPRESSED_RED_RGTC1;
+            default:
+                return EXTTextureCompressionS3TC.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+        }
+    }
+
+    /**
+     * Diese Funktion gibt das VAO eines Modells und alle zugehörigen VBOs wieder frei,
+     * z.B. wenn ein Terrain-Abschnitt nicht mehr benötigt wird.
+     *
+     * @param model freizugebendes Modell
+     */
+    public void deleteModel(RawModel model) {
+        MeshBuffer.Allocation allocation = meshAllocations.remove(model);
+        if (allocation != null) {
+            allocation.free();
+            return;
+        }
+        int vaoId = model.getVaoID();
+        List<Integer> buffers = vaoBuffers.remove(vaoId);
+        if (buffers != null) {
+            for (int vbo : buffers) {
+                GL15.glDeleteBuffers(vbo);
+                vbos.remove(Integer.valueOf(vbo));
+            }
+        }
+        GL30.glDeleteVertexArrays(vaoId);
+        GLState.forgetVertexArray(vaoId);
+        vaos.remove(Integer.valueOf(vaoId));
+    }
+
+    /**
+     * Diese Funktion gibt eine Textur wieder frei, wenn sie nicht mehr benötigt wird.
+     *
+     * @param textureId Referenz auf die Textur in der GPU
+     */
+    public void deleteTexture(int textureId) {
+        GL11.glDeleteTextures(textureId);
+        GLState.forgetTexture(textureId);
+        textures.remove(Integer.valueOf(textureId));
+    }
+
     /**
      * Nachdem die Anwendung beendet wurde, sollten die gebundenen Ressourcen wieder freigegeben werden.
      */
     public void cleanUp() {
         for (int vao : vaos) {
             GL30.glDeleteVertexArrays(vao);
+            GLState.forgetVertexArray(vao);
         }
         for (int vbo : vbos) {
             GL15.glDeleteBuffers(vbo);
         }
         for (int texture : textures) {
             GL11.glDeleteTextures(texture);
+            GLState.forgetTexture(texture);
+        }
+        for (MeshBuffer meshBuffer : meshBuffers) {
+            meshBuffer.cleanUp();
         }
     }
 
+    /**
+     * Diese Funktion übergibt die Belegung der gemeinsamen Buffer.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        long used = 0;
+        long capacity = 0;
+        for (MeshBuffer meshBuffer : meshBuffers) {
+            used += meshBuffer.getUsedBytes();
+            capacity += meshBuffer.getCapacityBytes();
+        }
+        return String.format("Mesh-Buffer: %d Modelle in %d gemeinsamen Buffern, %.1f KiB von %.1f KiB belegt",
+                meshAllocations.size(), meshBuffers.size(), used / 1024.0, capacity / 1024.0);
+    }
+
+    /**
+     * Diese Funktion übergibt den gemeinsamen Buffer für ein Vertex-Layout und legt ihn bei Bedarf an.
+     *
+     * @param format Vertex-Format des Modells
+     * @return {@link MeshBuffer} mit passendem Vertex-Layout
+     */
+    private MeshBuffer getMeshBuffer(VertexFormat format) {
+        for (MeshBuffer meshBuffer : meshBuffers) {
+            if (meshBuffer.isCompatible(format)) {
+                return meshBuffer;
+            }
+        }
+        MeshBuffer meshBuffer = new MeshBuffer(format);
+        meshBuffers.add(meshBuffer);
+        return meshBuffer;
+    }
+
     /**
      * Diese Funktion läd eine CubeMap Textur, bestehend aus mehreren Texturdateien in den Texturspeicher.
      * CubeMaps werden für die Quadratische Skybox benötigt.
@@ -125,13 +440,25 @@ public class Loader {
      * @return Id zur Referenz auf die geladenen Texturen.
      */
     public int loadCubeMap(String[] textureFiles) {
+        TextureData[] faces = new TextureData[textureFiles.length];
+        for (int i = 0; i < textureFiles.length; i++) {
+            faces[i] = decodeTextureFile(textureFiles[i]);
+        }
+        return loadCubeMap(faces);
+    }
+
+    /**
+     * Diese Funktion läd bereits dekodierte Seiten einer CubeMap in den Texturspeicher.
+     *
+     * @param faces Texturdaten der Seiten in der Reihenfolge +X, -X, +Y, -Y, +Z, -Z
+     * @return Id zur Referenz auf die geladenen Texturen.
+     */
+    public int loadCubeMap(TextureData[] faces) {
         int texId = GL11.glGenTextures();
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texId);
+        GLState.bindTexture(0, GL13.GL_TEXTURE_CUBE_MAP, texId);
 
-        for (int i = 0; i < textureFiles.length; i++) {
-            String textureName = textureFiles[i].endsWith(".png") ? textureFiles[i] : textureFiles[i] + ".png";
-            TextureData data = decodeTextureFile(RESOURCES + textureName);
+        for (int i = 0; i < faces.length; i++) {
+            TextureData data = faces[i];
             GL11.glTexImage2D(GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X + i,
                     0,
                     GL11.GL_RGBA,
@@ -154,11 +481,13 @@ public class Loader {
 
     /**
      * Diese Funktion läd mithilfe einer PNG-Decoder-Library PNG Daten in ein Buffer Objekt.
+     * Sie verwendet kein OpenGL und kann daher auch in Hintergrund-Threads aufgerufen werden.
      *
-     * @param fileName Dateiname der Textur, die dekodiert werden soll.
+     * @param textureName Name der Textur im Ressourcen-Verzeichnis, die dekodiert werden soll.
      * @return Texturdaten
      */
-    private TextureData decodeTextureFile(String fileName) {
+    public static TextureData decodeTextureFile(String textureName) {
+        String fileName = RESOURCES + (textureName.endsWith(".png") ? textureName : textureName + ".png");
         int width = 0;
         int height = 0;
         ByteBuffer buffer = null;
@@ -185,7 +514,9 @@ public class Loader {
     private int createVAO() {
         int vaoId = GL30.glGenVertexArrays();
         vaos.add(vaoId);
-        GL30.glBindVertexArray(vaoId);
+        vaoBuffers.put(vaoId, new ArrayList<>());
+        currentVao = vaoId;
+        GLState.bindVertexArray(vaoId);
         return vaoId;
     }
 
@@ -198,20 +529,32 @@ public class Loader {
      * @param data            Daten, z.B. Vertex Positionen, Texturkoordinaten, o.Ä.
      */
     private void storeDataInAttributeList(int attributeNumber, int coordinateSize, float[] data) {
-        int vboId = GL15.glGenBuffers();
-        vbos.add(vboId);
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        createVBO(GL15.GL_ARRAY_BUFFER);
         FloatBuffer buffer = storeDataInFloatBuffer(data);
         GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
         GL20.glVertexAttribPointer(attributeNumber, coordinateSize, GL11.GL_FLOAT, false, 0, 0);
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
     }
 
+    /**
+     * Erstellt ein neues Vertex Buffer Object (VBO), ordnet es dem aktuellen VAO zu und bindet es.
+     *
+     * @param target Buffer-Ziel, z.B. GL_ARRAY_BUFFER
+     * @return VBO Id
+     */
+    private int createVBO(int target) {
+        int vboId = GL15.glGenBuffers();
+        vbos.add(vboId);
+        vaoBuffers.get(currentVao).add(vboId);
+        GL15.glBindBuffer(target, vboId);
+        return vboId;
+    }
+
     /**
      * Entbindet das VAO
      */
     private void unbindVAO() {
-        GL30.glBindVertexArray(0);
+        GLState.bindVertexArray(0);
     }
 
     /**
@@ -219,9 +562,7 @@ public class Loader {
      * @param indices
      */
     private void bindIndicesBuffer(int[] indices) {
-        int vboId = GL15.glGenBuffers();
-        vbos.add(vboId);
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboId);
+        createVBO(GL15.GL_ELEMENT_ARRAY_BUFFER);
         IntBuffer buffer = storeDataInIntBuffer(indices);
         GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
     }
@@ -2,20 +2,28 @@ package renderEngine;
 
 import entities.Camera;
 import entities.Entity;
-import entities.Light;
+import impostors.ImpostorRenderer;
 import models.TexturedModel;
+import occlusion.OcclusionCuller;
+import occlusion.OcclusionGroup;
 import org.lwjgl.opengl.Display;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import shaders.FrameData;
+import shaders.LightClusters;
 import shaders.StaticShader;
 import terrain.TerrainShader;
 import skybox.SkyboxRenderer;
+import spatial.LightManager;
+import spatial.QuadTree;
 import terrain.Terrain;
+import toolbox.Frustum;
+import toolbox.HorizonCuller;
+import toolbox.Maths;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Diese Klasse verwaltet den {@link EntityRenderer}, {@link TerrainRenderer} und {@link SkyboxRenderer} um aus diesen
@@ -71,6 +79,11 @@ public class MasterRenderer {
      */
     private static final float FOG_GRADIENT = 3.5f;     // Nebelübergang
 
+    /**
+     * Standardabstand zur Kamera, ab dem Entities mit vorgerendertem Modell als Impostor dargestellt werden
+     */
+    public static final float DEFAULT_IMPOSTOR_DISTANCE = 150f;
+
     /**
      * Überblendung zur Nacht
      */
@@ -85,6 +98,30 @@ public class MasterRenderer {
      * Shader zum Rendern von Entities
      */
     private final StaticShader shader = new StaticShader();
+    /**
+     * Shader für den Tiefen-Vorpass der Entities
+     */
+    private final StaticShader depthShader = new StaticShader(StaticShader.DEPTH_FRAGMENT_FILE);
+    /**
+     * Information, ob vor dem Farbpass der Entities ein Tiefen-Vorpass gerendert wird
+     */
+    private boolean depthPrepass = true;
+    /**
+     * Zählt die Fragmente, die im Farbpass der Entities den Tiefentest bestehen
+     */
+    private final SampleQuery colorPassQuery = new SampleQuery();
+    /**
+     * Zählt die Fragmente, die im Tiefen-Vorpass der Entities den Tiefentest bestehen
+     */
+    private final SampleQuery depthPassQuery = new SampleQuery();
+    /**
+     * Uniform Buffer mit den Daten eines Frames, den alle Shader der Szene teilen
+     */
+    private final FrameData frameData = new FrameData();
+    /**
+     * Zuordnung der Lichter zu Clustern des Sichtvolumens, die von Entity- und Terrain-Shadern gelesen wird
+     */
+    private final LightClusters lightClusters = new LightClusters(NEAR_PLANE, FAR_PLANE);
     /**
      * Renderer zum Rendern von Entities
      */
@@ -100,10 +137,23 @@ public class MasterRenderer {
     private final TerrainRenderer terrainRenderer;
 
     /**
-     * Map von Listen von Entities, die gerendert werden sollen.
-     * Nach TexturedModels indizierte Hashmap von Entities, um Effizienz zu steigern.
+     * Gruppiert die Entities, die gerendert werden sollen, nach Zellen, deren Rendern über Verdeckungsabfragen des
+     * vorherigen Frames übersprungen wird. Innerhalb einer Gruppe sind die Entities nach TexturedModels indiziert, um
+     * Effizienz zu steigern.
      */
-    private final Map<TexturedModel, List<Entity>> entities = new HashMap<>();
+    private final OcclusionCuller occlusionCuller;
+    /**
+     * Entities, die für den nächsten Frame übergeben wurden, aber noch nicht gegen das Frustum getestet sind.
+     */
+    private final List<Entity> pendingEntities = new ArrayList<>();
+    /**
+     * Räumliche Indizes, deren sichtbare Entities im nächsten Frame gerendert werden sollen.
+     */
+    private final List<QuadTree> pendingIndices = new ArrayList<>();
+    /**
+     * Zwischenspeicher für das Ergebnis einer Frustum-Abfrage auf einem räumlichen Index
+     */
+    private final List<Entity> visibleEntities = new ArrayList<>();
     /**
      * Liste von Terrains, doe gerendert werden sollen.
      */
@@ -114,20 +164,75 @@ public class MasterRenderer {
      */
     private final SkyboxRenderer skyboxRenderer;
 
-    public MasterRenderer(Loader loader) {
+    /**
+     * Renderer zum Rendern weit entfernter Entities als Impostors
+     */
+    private final ImpostorRenderer impostorRenderer;
+    /**
+     * Abstand zur Kamera, ab dem Entities mit vorgerendertem Modell als Impostor dargestellt werden
+     */
+    private float impostorDistance = DEFAULT_IMPOSTOR_DISTANCE;
+    /**
+     * Position der Kamera im aktuellen Frame
+     */
+    private Vector3f cameraPosition = new Vector3f();
+
+    /**
+     * Sichtvolumen der Kamera im aktuellen Frame
+     */
+    private final Frustum frustum = new Frustum();
+    /**
+     * Horizont des Terrains um die Kamera im aktuellen Frame, hinter dem Entities verworfen werden
+     */
+    private final HorizonCuller horizonCuller = new HorizonCuller();
+    /**
+     * Information, ob Entities hinter dem Horizont des Terrains verworfen werden
+     */
+    private boolean horizonCulling = true;
+    /**
+     * Zwischenspeicher für den Mittelpunkt der umschließenden Kugel einer Entity
+     */
+    private final Vector3f sphereCenter = new Vector3f();
+    /**
+     * Anzahl der Entities, die im letzten Frame an den {@link EntityRenderer} übergeben wurden
+     */
+    private int submittedEntityCount = 0;
+    /**
+     * Anzahl der Entities, die im letzten Frame außerhalb des Frustums oder hinter dem Horizont lagen und verworfen
+     * wurden
+     */
+    private int culledEntityCount = 0;
+    /**
+     * Anzahl aller Lichter der Szene im letzten Frame
+     */
+    private int lightCount = 0;
+    /**
+     * Anzahl der Batches (verschiedene {@link TexturedModel}s je Gruppe des {@link OcclusionCuller}), die im letzten
+     * Frame gerendert wurden
+     */
+    private int batchCount = 0;
+
+    /**
+     * Ein {@link MasterRenderer} wird mit allen untergeordneten Renderern erstellt.
+     *
+     * @param loader {@link Loader} zum Laden der Skybox und der Instanz-Buffer
+     * @param assets {@link AssetPipeline} zum parallelen Laden der Skybox-Texturen
+     */
+    public MasterRenderer(Loader loader, AssetPipeline assets) {
         enableCulling();
         createProjectionMatrix();
-        renderer = new EntityRenderer(shader, projectionMatrix);
-        terrainRenderer = new TerrainRenderer(terrainShader, projectionMatrix);
-        skyboxRenderer = new SkyboxRenderer(loader, projectionMatrix);
+        renderer = new EntityRenderer(shader, depthShader, projectionMatrix, loader);
+        terrainRenderer = new TerrainRenderer(terrainShader);
+        skyboxRenderer = new SkyboxRenderer(loader, assets, projectionMatrix);
+        impostorRenderer = new ImpostorRenderer(loader);
+        occlusionCuller = new OcclusionCuller(loader);
     }
 
     /**
      * Überspringe das Rendern der Rückseiten von Polygonen, um Ressourcen zu sparen
      */
     public static void enableCulling() {
-        GL11.glEnable(GL11.GL_CULL_FACE);
-        GL11.glCullFace(GL11.GL_BACK);
+        GLState.setCulling(true);
     }
 
     /**
@@ -135,47 +240,98 @@ public class MasterRenderer {
      * z.B. Gras
      */
     public static void disableCulling() {
-        GL11.glDisable(GL11.GL_CULL_FACE);
+        GLState.setCulling(false);
     }
 
     /**
      * Dies ist die Haupt-Render-Funktion und ruft alle anderen Renderer auf. Sie muss jeden Frame aufgerufen werden.
-     * @param lights Alle Lichter in der Szene. Vom Shader werden aktuell bis zu vier Lichter berücksichtigt.
+     * @param lights Alle Lichter in der Szene. Jedes Fragment berücksichtigt nur die stärksten Lichter seines Clusters.
      * @param camera Die Kamera, die die Szene rendern soll.
      */
-    public void render(List<Light> lights, Camera camera) {
+    public void render(LightManager lights, Camera camera) {
         prepare();
+        Matrix4f viewMatrix = Maths.createViewMatrix(camera);
+        frustum.update(projectionMatrix, viewMatrix);
+        cameraPosition = camera.getPosition();
+        occlusionCuller.begin();
+        if (horizonCulling) {
+            horizonCuller.update(terrains, cameraPosition);
+        }
+        batchVisibleEntities();
 
         // Bestimme die aktuelle Nebenfarbe
         float skyR = SKY_R * (1 - nightFade) + SKY_R_N * nightFade;
         float skyG = SKY_G * (1 - nightFade) + SKY_G_N * nightFade;
         float skyB = SKY_B * (1 - nightFade) + SKY_B_N * nightFade;
 
+        // Verteile die Lichter auf die Cluster und lade Kamera, Nebel und Cluster-Aufteilung einmal für alle Shader hoch
+        lightClusters.update(lights.getVisibleLights(frustum), viewMatrix, projectionMatrix);
+        lightCount = lights.size();
+        lightClusters.bind();
+        frameData.update(viewMatrix, projectionMatrix, camera.getPosition(), skyR, skyG, skyB,
+                FOG_DENSITY, FOG_GRADIENT, lightClusters);
+
+        // Schreibe die Tiefe aller Entities vor, damit der Farbpass jedes Pixel nur einmal beleuchtet
+        if (depthPrepass) {
+            GLState.setColorMask(false);
+            depthShader.start();
+            depthPassQuery.begin();
+            renderGroups(true);
+            depthPassQuery.end();
+            depthShader.stop();
+            GLState.setColorMask(true);
+            GLState.setDepthFunction(GL11.GL_EQUAL);
+            GLState.setDepthMask(false);
+        }
+
         // Render alle Entities
         shader.start();
-        shader.loadSkyColor(skyR, skyG, skyB);
-        shader.loadFog(FOG_DENSITY, FOG_GRADIENT);
-        shader.loadLights(lights);
-        shader.loadViewMatrix(camera);
-        renderer.render(entities);
+        colorPassQuery.begin();
+        renderer.resetStatistics();
+        renderGroups(false);
+        colorPassQuery.end();
         shader.stop();
+        GLState.setDepthFunction(GL11.GL_LESS);
+        GLState.setDepthMask(true);
+
+        // Render weit entfernte Entities als Impostors
+        impostorRenderer.render(lights.getLights());
 
         // Render den Boden
         terrainShader.start();
-        terrainShader.loadSkyColor(skyR, skyG, skyB);
-        terrainShader.loadFog(FOG_DENSITY, FOG_GRADIENT);
-        terrainShader.loadLights(lights);
-        terrainShader.loadViewMatrix(camera);
-        terrainRenderer.render(terrains);
+        terrainRenderer.render(terrains, frustum, camera.getPosition());
         terrainShader.stop();
 
+        // Frage die Sichtbarkeit der Gruppen gegen alle verdeckenden Objekte für den nächsten Frame ab
+        occlusionCuller.issueQueries(camera.getPosition());
+
         // Render die Skybox
         skyboxRenderer.render(camera, skyR, skyG, skyB);
 
         // Entferne die gerenderten Objekte,
         // da diese nächsten Frame wieder hinzugefügt werden
         terrains.clear();
-        entities.clear();
+    }
+
+    /**
+     * Diese Funktion rendert die Entities aller Gruppen. Jede Gruppe wird nur gerendert, falls ihr umschließender
+     * Quader im vorherigen Frame sichtbar war. Der Shader des Durchlaufs muss gestartet sein.
+     *
+     * @param depth Information, ob der Tiefen-Vorpass oder der Farbpass gerendert wird
+     */
+    private void renderGroups(boolean depth) {
+        batchCount = 0;
+        for (OcclusionGroup group : occlusionCuller.getGroups()) {
+            int renderedTriangles = renderer.getRenderedTriangleCount();
+            occlusionCuller.beginConditionalRender(group);
+            if (depth) {
+                renderer.renderDepth(group.getEntities(), cameraPosition);
+            } else {
+                renderer.render(group.getEntities(), cameraPosition);
+            }
+            occlusionCuller.endConditionalRender(group, depth ? 0 : renderer.getRenderedTriangleCount() - renderedTriangles);
+            batchCount += group.getEntities().size();
+        }
     }
 
     /**
@@ -188,19 +344,78 @@ public class MasterRenderer {
 
     /**
      * Diese Funktion übergibt dem {@link EntityRenderer} alle Entities, die im nächsten Frame angezeigt werden sollen.
-     * Diese werden zum optimierten Rendering nach Ihrem {@link TexturedModel} indiziert eingefügt.
+     * Beim Rendern werden Entities außerhalb des Frustums verworfen, die übrigen werden zum optimierten Rendering
+     * nach Ihrem {@link TexturedModel} indiziert eingefügt.
      * @param entity
      */
     public void processEntity(Entity entity) {
+        pendingEntities.add(entity);
+    }
+
+    /**
+     * Diese Funktion übergibt dem {@link EntityRenderer} alle Entities eines räumlichen Index, die im nächsten Frame
+     * angezeigt werden sollen. Beim Rendern wird nur der Teil des Index durchlaufen, der im Frustum liegt.
+     *
+     * @param index räumlicher Index ({@link QuadTree})
+     */
+    public void processEntities(QuadTree index) {
+        pendingIndices.add(index);
+    }
+
+    /**
+     * Diese Funktion testet alle übergebenen Entities mit ihrer umschließenden Kugel gegen das Frustum des aktuellen
+     * Frames und fügt nur die sichtbaren in die Gruppen des {@link OcclusionCuller} ein. Entities, die vollständig
+     * hinter dem Horizont des Terrains liegen, werden ebenfalls verworfen.
+     */
+    private void batchVisibleEntities() {
+        submittedEntityCount = 0;
+        culledEntityCount = 0;
+        for (Entity entity : pendingEntities) {
+            entity.getBoundingSphereCenter(sphereCenter);
+            float radius = entity.getBoundingSphereRadius();
+            if (frustum.intersectsSphere(sphereCenter.x, sphereCenter.y, sphereCenter.z, radius) && (!horizonCulling
+                    || !horizonCuller.isOccluded(sphereCenter.x, sphereCenter.y, sphereCenter.z, radius))) {
+                addToBatch(entity);
+                submittedEntityCount++;
+            } else {
+                culledEntityCount++;
+            }
+        }
+        pendingEntities.clear();
+
+        for (QuadTree index : pendingIndices) {
+            visibleEntities.clear();
+            index.queryFrustum(frustum, horizonCulling ? horizonCuller : null, visibleEntities);
+            for (Entity entity : visibleEntities) {
+                addToBatch(entity);
+            }
+            submittedEntityCount += visibleEntities.size();
+            culledEntityCount += index.size() - visibleEntities.size();
+        }
+        pendingIndices.clear();
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity in die Gruppe ihrer Zelle und dort in den Batch ihres {@link TexturedModel}
+     * ein. Liegt die Entity weiter als
+     * {@link MasterRenderer#impostorDistance} von der Kamera entfernt und gibt es für ihr Modell einen Impostor,
+     * wird sie stattdessen an den {@link ImpostorRenderer} übergeben.
+     *
+     * @param entity Entity
+     */
+    private void addToBatch(Entity entity) {
         TexturedModel entityModel = entity.getModel();
-        List<Entity> batch = entities.get(entityModel);
-        if (batch != null) {
-            batch.add(entity);
-        } else {
-            List<Entity> newBatch = new ArrayList<>();
-            newBatch.add(entity);
-            entities.put(entityModel, newBatch);
+        if (impostorRenderer.hasImpostor(entityModel)) {
+            Vector3f position = entity.getPosition();
+            float dx = position.x - cameraPosition.x;
+            float dz = position.z - cameraPosition.z;
+            if (dx * dx + dz * dz > impostorDistance * impostorDistance) {
+                impostorRenderer.processEntity(entity);
+                return;
+            }
         }
+        entity.getBoundingSphereCenter(sphereCenter);
+        occlusionCuller.add(entity, sphereCenter, entity.getBoundingSphereRadius());
     }
 
     /**
@@ -208,8 +423,15 @@ public class MasterRenderer {
      */
     public void cleanUp() {
         shader.cleanUp();
+        depthShader.cleanUp();
+        colorPassQuery.cleanUp();
+        depthPassQuery.cleanUp();
         terrainShader.cleanUp();
         skyboxRenderer.getShader().cleanUp();
+        impostorRenderer.cleanUp();
+        occlusionCuller.cleanUp();
+        frameData.cleanUp();
+        lightClusters.cleanUp();
     }
 
     /**
@@ -217,7 +439,11 @@ public class MasterRenderer {
      * der Nebelfarbe zu zeichnen.
      */
     public void prepare() {
-        GL11.glEnable(GL11.GL_DEPTH_TEST);
+        GLState.resetStatistics();
+        GLState.setDepthTest(true);
+        GLState.setDepthFunction(GL11.GL_LESS);
+        GLState.setDepthMask(true);
+        GLState.setColorMask(true);
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
         GL11.glClearColor(SKY_R,SKY_G,SKY_B,1);
     }
@@ -249,6 +475,167 @@ public class MasterRenderer {
         skyboxRenderer.setFade(nightFade);
     }
 
+    /**
+     * Diese Funktion hinterlegt die Batchgröße, ab der Entities eines {@link TexturedModel} instanziert
+     * mit einem einzigen Draw Call gerendert werden. Damit lässt sich der Punkt bestimmen, ab dem sich
+     * instanziertes Rendern gegenüber einem Draw Call pro Entity lohnt.
+     *
+     * @param instancingThreshold minimale Batchgröße für instanziertes Rendern
+     */
+    public void setInstancingThreshold(int instancingThreshold) {
+        renderer.setInstancingThreshold(instancingThreshold);
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert den Tiefen-Vorpass der Entities. Mit Vorpass schreibt ein
+     * günstiger Shader mit Alpha-Test zuerst alle Tiefenwerte, der beleuchtende Farbpass rendert anschließend mit
+     * GL_EQUAL nur noch die sichtbaren Fragmente.
+     *
+     * @param depthPrepass Information, ob der Tiefen-Vorpass gerendert wird
+     */
+    public void setDepthPrepass(boolean depthPrepass) {
+        this.depthPrepass = depthPrepass;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob der Tiefen-Vorpass der Entities gerendert wird.
+     *
+     * @return Information, ob der Tiefen-Vorpass gerendert wird
+     */
+    public boolean isDepthPrepass() {
+        return depthPrepass;
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert die Verdeckungsabfragen. Mit Abfragen werden Gruppen von Entities,
+     * deren umschließender Quader im vorherigen Frame verdeckt war, von der GPU übersprungen.
+     *
+     * @param occlusionCulling Information, ob Verdeckungsabfragen verwendet werden
+     */
+    public void setOcclusionCulling(boolean occlusionCulling) {
+        occlusionCuller.setEnabled(occlusionCulling);
+    }
+
+    /**
+     * Diese Funktion übergibt, ob Verdeckungsabfragen verwendet werden.
+     *
+     * @return Information, ob Verdeckungsabfragen verwendet werden
+     */
+    public boolean isOcclusionCulling() {
+        return occlusionCuller.isEnabled();
+    }
+
+    /**
+     * Diese Funktion aktiviert oder deaktiviert das Verwerfen von Entities hinter dem Horizont des Terrains.
+     *
+     * @param horizonCulling Information, ob Entities hinter dem Horizont verworfen werden
+     */
+    public void setHorizonCulling(boolean horizonCulling) {
+        this.horizonCulling = horizonCulling;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob Entities hinter dem Horizont des Terrains verworfen werden.
+     *
+     * @return Information, ob Entities hinter dem Horizont verworfen werden
+     */
+    public boolean isHorizonCulling() {
+        return horizonCulling;
+    }
+
+    /**
+     * Diese Funktion rendert ein {@link TexturedModel} aus mehreren Blickrichtungen vor, damit dessen Entities ab
+     * {@link MasterRenderer#impostorDistance} als Impostor dargestellt werden. Sie muss vor dem ersten Frame
+     * aufgerufen werden.
+     *
+     * @param model texturiertes Modell
+     */
+    public void registerImpostor(TexturedModel model) {
+        impostorRenderer.bake(model);
+    }
+
+    /**
+     * Diese Funktion hinterlegt den Abstand zur Kamera, ab dem Entities mit vorgerendertem Modell
+     * als Impostor dargestellt werden.
+     *
+     * @param impostorDistance Abstand zur Kamera
+     */
+    public void setImpostorDistance(float impostorDistance) {
+        this.impostorDistance = impostorDistance;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Entities, die im letzten Frame gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Entities
+     */
+    public int getSubmittedEntityCount() {
+        return submittedEntityCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Batches, d.h. der verschiedenen {@link TexturedModel}s je Gruppe des
+     * {@link OcclusionCuller}, die im letzten Frame gerendert wurden. Jeder Batch bindet das VAO und die Textur
+     * seines Modells einmal.
+     *
+     * @return Anzahl der Batches
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Entities, die im letzten Frame durch das Frustum Culling oder hinter dem
+     * Horizont des Terrains verworfen wurden.
+     *
+     * @return Anzahl der verworfenen Entities
+     */
+    public int getCulledEntityCount() {
+        return culledEntityCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Dreiecke, die im letzten Frame für Entities gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Dreiecke
+     */
+    public int getRenderedTriangleCount() {
+        return renderer.getRenderedTriangleCount();
+    }
+
+    /**
+     * Diese Funktion fasst die Statistiken des letzten Frames in einem Text zusammen.
+     *
+     * @return Statistiken des letzten Frames
+     */
+    public String getStatistics() {
+        return "Entities: " + submittedEntityCount + " gerendert in " + batchCount + " Batches mit "
+                + renderer.getTextureBindCount() + " Texturwechseln und " + renderer.getVaoBindCount() + " VAO-Wechseln, "
+                + culledEntityCount + " verworfen (Frustum" + (horizonCulling ? " und Horizont" : "") + "), "
+                + renderer.getRenderedTriangleCount() + " Dreiecke, " + impostorRenderer.getRenderedCount() + " Impostors | "
+                + getOverdrawStatistics() + " | " + occlusionCuller.getStatistics() + " | "
+                + (horizonCulling ? horizonCuller.getStatistics() : "Horizont: deaktiviert") + " | "
+                + "Terrain: " + terrainRenderer.getRenderedChunkCount() + " Chunks gerendert, "
+                + terrainRenderer.getCulledChunkCount() + " verworfen, " + terrainRenderer.getRenderedTriangleCount() + " Dreiecke | "
+                + "Lichter: " + lightCount + ", " + lightClusters.getStatistics() + " | "
+                + "GL-Zustand: " + GLState.getIssuedCallCount() + " Aufrufe, " + GLState.getAvoidedCallCount() + " vermieden";
+    }
+
+    /**
+     * Diese Funktion fasst zusammen, wie oft jedes Pixel im Farbpass der Entities im Mittel beleuchtet wurde.
+     * Die Zählung stammt aus Sample-Abfragen und ist daher einige Frames alt.
+     *
+     * @return Überzeichnung als lesbarer Text
+     */
+    private String getOverdrawStatistics() {
+        float pixelCount = Display.getWidth() * Display.getHeight();
+        String overdraw = String.format("Überzeichnung: %.2f beleuchtete Fragmente pro Pixel", colorPassQuery.getSampleCount() / pixelCount);
+        if (depthPrepass) {
+            overdraw += String.format(" (Tiefen-Vorpass: %.2f)", depthPassQuery.getSampleCount() / pixelCount);
+        }
+        return overdraw;
+    }
+
     /**
      * Diese Funktion übergibt die Projektionsmatrix der perspektivischen Kamera
      *
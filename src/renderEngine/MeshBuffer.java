@@ -0,0 +1,310 @@
+package renderEngine;
+
+import models.VertexFormat;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Diese Klasse verwaltet einen großen, gemeinsamen Vertex- und Index-Buffer unter einem einzigen Vertex Array Object,
+ * aus dem die Speicherbereiche vieler statischer Modelle mit demselben Vertex-Layout vergeben werden.
+ *
+ * Die Indizes eines Modells bleiben relativ zu seinem ersten Vertex, gezeichnet wird mit glDrawElementsBaseVertex.
+ * Da alle Modelle dasselbe VAO verwenden, kostet ein Wechsel zwischen ihnen kein erneutes Binden.
+ * Reicht der Platz nicht aus, werden die Buffer auf der GPU vergrößert und der bisherige Inhalt kopiert.
+ * Freigegebene Bereiche werden für spätere Modelle wiederverwendet. Alle Funktionen müssen im OpenGL-Thread
+ * aufgerufen werden.
+ */
+public class MeshBuffer {
+
+    /**
+     * Anzahl der Vertices, für die der Vertex-Buffer initial angelegt wird
+     */
+    private static final int INITIAL_VERTEX_CAPACITY = 1 << 18;
+    /**
+     * Anzahl der Indizes, für die der Index-Buffer initial angelegt wird
+     */
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 20;
+
+    /**
+     * Vergebener Bereich eines Modells im gemeinsamen Buffer
+     */
+    public static class Allocation {
+
+        /**
+         * Buffer, aus dem der Bereich vergeben wurde
+         */
+        private final MeshBuffer buffer;
+        /**
+         * Position des ersten Vertex im Vertex-Buffer
+         */
+        private final int baseVertex;
+        /**
+         * Anzahl der Vertices
+         */
+        private final int vertexCount;
+        /**
+         * Position des ersten Index im Index-Buffer
+         */
+        private final int firstIndex;
+        /**
+         * Anzahl der Indizes
+         */
+        private final int indexCount;
+
+        /**
+         * Ein vergebener Bereich wird mit seiner Lage in beiden Buffern erstellt.
+         *
+         * @param buffer      Buffer, aus dem der Bereich vergeben wurde
+         * @param baseVertex  Position des ersten Vertex
+         * @param vertexCount Anzahl der Vertices
+         * @param firstIndex  Position des ersten Index
+         * @param indexCount  Anzahl der Indizes
+         */
+        private Allocation(MeshBuffer buffer, int baseVertex, int vertexCount, int firstIndex, int indexCount) {
+            this.buffer = buffer;
+            this.baseVertex = baseVertex;
+            this.vertexCount = vertexCount;
+            this.firstIndex = firstIndex;
+            this.indexCount = indexCount;
+        }
+
+        /**
+         * Diese Funktion übergibt die Position des ersten Vertex, die bei jedem Draw Call als Base Vertex
+         * angegeben wird.
+         *
+         * @return Position des ersten Vertex im Vertex-Buffer
+         */
+        public int getBaseVertex() {
+            return baseVertex;
+        }
+
+        /**
+         * Diese Funktion übergibt die Position des ersten Index.
+         *
+         * @return Position des ersten Index im Index-Buffer
+         */
+        public int getFirstIndex() {
+            return firstIndex;
+        }
+
+        /**
+         * Diese Funktion gibt den Bereich im Buffer wieder frei.
+         */
+        public void free() {
+            buffer.vertices.free(baseVertex, vertexCount);
+            buffer.indices.free(firstIndex, indexCount);
+        }
+    }
+
+    /**
+     * Vertex-Layout aller Modelle im Buffer
+     */
+    private final VertexFormat layout;
+    /**
+     * Gemeinsames Vertex Array Object
+     */
+    private final int vaoId;
+    /**
+     * Vertex Buffer Object der Vertices
+     */
+    private int vertexVbo;
+    /**
+     * Vertex Buffer Object der Indizes
+     */
+    private int indexVbo;
+    /**
+     * Anzahl der Vertices, für die der Vertex-Buffer angelegt ist
+     */
+    private int vertexCapacity;
+    /**
+     * Anzahl der Indizes, für die der Index-Buffer angelegt ist
+     */
+    private int indexCapacity;
+    /**
+     * Belegung des Vertex-Buffers
+     */
+    private final RangeAllocator vertices = new RangeAllocator();
+    /**
+     * Belegung des Index-Buffers
+     */
+    private final RangeAllocator indices = new RangeAllocator();
+
+    /**
+     * Ein Buffer wird für ein Vertex-Layout mit leeren Vertex- und Index-Buffern erstellt.
+     *
+     * @param layout Vertex-Layout aller Modelle im Buffer
+     */
+    public MeshBuffer(VertexFormat layout) {
+        this.layout = layout;
+        this.vaoId = GL30.glGenVertexArrays();
+        this.vertexCapacity = INITIAL_VERTEX_CAPACITY;
+        this.indexCapacity = INITIAL_INDEX_CAPACITY;
+        this.vertexVbo = createBuffer(GL15.GL_ARRAY_BUFFER, (long) vertexCapacity * layout.getStride());
+        this.indexVbo = createBuffer(GL15.GL_ARRAY_BUFFER, indexCapacity * 4L);
+        bindBuffers();
+    }
+
+    /**
+     * Diese Funktion übergibt, ob Modelle eines Vertex-Formats in diesem Buffer abgelegt werden können.
+     * Verschiebung und Skalierung der Positionen werden je Modell als Uniform geladen und müssen nicht übereinstimmen.
+     *
+     * @param format Vertex-Format des Modells
+     * @return Information, ob die Attribute gleich aufgebaut sind
+     */
+    public boolean isCompatible(VertexFormat format) {
+        return format.getStride() == layout.getStride()
+                && format.isQuantizedPositions() == layout.isQuantizedPositions()
+                && format.isNormalizedTextureCoords() == layout.isNormalizedTextureCoords();
+    }
+
+    /**
+     * Diese Funktion vergibt Bereiche für die Vertices und Indizes eines Modells und lädt diese hoch.
+     *
+     * @param vertexData  verschränkte Vertex-Daten im Layout des Buffers
+     * @param vertexCount Anzahl der Vertices
+     * @param indexData   Indizes relativ zum ersten Vertex des Modells
+     * @param indexCount  Anzahl der Indizes
+     * @return vergebener Bereich
+     */
+    public Allocation allocate(ByteBuffer vertexData, int vertexCount, ByteBuffer indexData, int indexCount) {
+        ensureCapacity(vertexCount, indexCount);
+        int baseVertex = vertices.allocate(vertexCount);
+        int firstIndex = indices.allocate(indexCount);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexVbo);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, (long) baseVertex * layout.getStride(), vertexData);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, indexVbo);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, firstIndex * 4L, indexData);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        return new Allocation(this, baseVertex, vertexCount, firstIndex, indexCount);
+    }
+
+    /**
+     * Diese Funktion übergibt das gemeinsame Vertex Array Object.
+     *
+     * @return VAO Id
+     */
+    public int getVaoId() {
+        return vaoId;
+    }
+
+    /**
+     * Diese Funktion übergibt den belegten Speicher beider Buffer.
+     *
+     * @return belegter Speicher in Bytes
+     */
+    public long getUsedBytes() {
+        return (long) vertices.getUsed() * layout.getStride() + indices.getUsed() * 4L;
+    }
+
+    /**
+     * Diese Funktion übergibt den angelegten Speicher beider Buffer.
+     *
+     * @return angelegter Speicher in Bytes
+     */
+    public long getCapacityBytes() {
+        return (long) vertexCapacity * layout.getStride() + indexCapacity * 4L;
+    }
+
+    /**
+     * Gibt das VAO und beide Buffer wieder frei.
+     */
+    public void cleanUp() {
+        GL30.glDeleteVertexArrays(vaoId);
+        GLState.forgetVertexArray(vaoId);
+        GL15.glDeleteBuffers(vertexVbo);
+        GL15.glDeleteBuffers(indexVbo);
+    }
+
+    /**
+     * Diese Funktion vergrößert die Buffer, falls die Daten eines Modells weder in einen freien Bereich noch an das Ende
+     * passen. Die Kapazität wird mindestens verdoppelt, der bisherige Inhalt wird auf der GPU kopiert.
+     *
+     * @param vertexCount Anzahl der neuen Vertices
+     * @param indexCount  Anzahl der neuen Indizes
+     */
+    private void ensureCapacity(int vertexCount, int indexCount) {
+        boolean resized = false;
+        if (!vertices.fitsInFreeRange(vertexCount) && vertices.getEnd() + vertexCount > vertexCapacity) {
+            int capacity = Math.max(vertexCapacity * 2, vertices.getEnd() + vertexCount);
+            vertexVbo = resize(vertexVbo, (long) vertices.getEnd() * layout.getStride(), (long) capacity * layout.getStride());
+            vertexCapacity = capacity;
+            resized = true;
+        }
+        if (!indices.fitsInFreeRange(indexCount) && indices.getEnd() + indexCount > indexCapacity) {
+            int capacity = Math.max(indexCapacity * 2, indices.getEnd() + indexCount);
+            indexVbo = resize(indexVbo, indices.getEnd() * 4L, capacity * 4L);
+            indexCapacity = capacity;
+            resized = true;
+        }
+        if (resized) {
+            bindBuffers();
+        }
+    }
+
+    /**
+     * Diese Funktion legt einen größeren Buffer an, kopiert den belegten Teil hinein und löscht den alten Buffer.
+     *
+     * @param oldBuffer alter Buffer
+     * @param usedBytes belegter Teil in Bytes
+     * @param size      Größe des neuen Buffers in Bytes
+     * @return neuer Buffer
+     */
+    private static int resize(int oldBuffer, long usedBytes, long size) {
+        int newBuffer = createBuffer(GL31.GL_COPY_WRITE_BUFFER, size);
+        GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, oldBuffer);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, newBuffer);
+        GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER, 0, 0, usedBytes);
+        GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, 0);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+        GL15.glDeleteBuffers(oldBuffer);
+        return newBuffer;
+    }
+
+    /**
+     * Diese Funktion legt einen leeren Buffer an. Auch Index-Buffer werden über ein anderes Ziel als
+     * GL_ELEMENT_ARRAY_BUFFER angelegt, da dessen Bindung zum Zustand des gerade gebundenen VAOs gehört.
+     *
+     * @param target Buffer-Ziel zum Anlegen
+     * @param size   Größe in Bytes
+     * @return Buffer Id
+     */
+    private static int createBuffer(int target, long size) {
+        int buffer = GL15.glGenBuffers();
+        GL15.glBindBuffer(target, buffer);
+        GL15.glBufferData(target, size, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(target, 0);
+        return buffer;
+    }
+
+    /**
+     * Diese Funktion verknüpft die aktuellen Buffer mit dem VAO und legt Position, Texturkoordinaten und
+     * Normalenvektor mit gemeinsamem Abstand (Stride) unter den Attribut-Nummern 0, 1 und 2 ab.
+     * Gepackte Werte werden von OpenGL beim Lesen normalisiert, sodass die Shader weiterhin Floats erhalten.
+     */
+    private void bindBuffers() {
+        GLState.bindVertexArray(vaoId);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexVbo);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexVbo);
+        int stride = layout.getStride();
+        if (layout.isQuantizedPositions()) {
+            GL20.glVertexAttribPointer(0, 3, GL11.GL_UNSIGNED_SHORT, true, stride, 0);
+        } else {
+            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, stride, 0);
+        }
+        if (layout.isNormalizedTextureCoords()) {
+            GL20.glVertexAttribPointer(1, 2, GL11.GL_UNSIGNED_SHORT, true, stride, layout.getTextureCoordsOffset());
+        } else {
+            GL20.glVertexAttribPointer(1, 2, GL30.GL_HALF_FLOAT, false, stride, layout.getTextureCoordsOffset());
+        }
+        GL20.glVertexAttribPointer(2, 4, GL33.GL_INT_2_10_10_10_REV, true, stride, layout.getNormalOffset());
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+    }
+}
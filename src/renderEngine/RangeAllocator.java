@@ -0,0 +1,121 @@
+package renderEngine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Diese Klasse verwaltet die freien Bereiche eines Buffers in Elementen (Vertices bzw. Indizes), siehe
+ * {@link MeshBuffer}. Sie verwendet kein OpenGL.
+ */
+public class RangeAllocator {
+
+    /**
+     * Freie Bereiche vor dem Ende des belegten Teils (Anfang -> Länge)
+     */
+    private final TreeMap<Integer, Integer> freeRanges = new TreeMap<>();
+    /**
+     * Ende des belegten Teils
+     */
+    private int end = 0;
+    /**
+     * Anzahl der belegten Elemente
+     */
+    private int used = 0;
+
+    /**
+     * Diese Funktion vergibt einen Bereich. Zuerst wird der erste ausreichend große freie Bereich verwendet,
+     * sonst wird der Bereich am Ende angehängt.
+     *
+     * @param count Anzahl der Elemente
+     * @return Anfang des Bereichs
+     */
+    public int allocate(int count) {
+        used += count;
+        for (Map.Entry<Integer, Integer> range : freeRanges.entrySet()) {
+            if (range.getValue() >= count) {
+                // Anfang und Länge werden vor dem Entfernen gelesen: TreeMap kann beim Entfernen eines Knotens mit
+                // zwei Kindern Schlüssel und Wert des Nachfolgers in genau diesen Eintrag kopieren
+                int start = range.getKey();
+                int length = range.getValue();
+                freeRanges.remove(start);
+                if (length > count) {
+                    freeRanges.put(start + count, length - count);
+                }
+                return start;
+            }
+        }
+        int start = end;
+        end += count;
+        return start;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob ein Bereich in einen freien Bereich passt.
+     *
+     * @param count Anzahl der Elemente
+     * @return Information, ob kein Anhängen am Ende nötig ist
+     */
+    public boolean fitsInFreeRange(int count) {
+        for (int length : freeRanges.values()) {
+            if (length >= count) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Funktion gibt einen Bereich frei und verbindet ihn mit angrenzenden freien Bereichen.
+     *
+     * @param start Anfang des Bereichs
+     * @param count Anzahl der Elemente
+     */
+    public void free(int start, int count) {
+        used -= count;
+        Map.Entry<Integer, Integer> before = freeRanges.floorEntry(start);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            int beforeStart = before.getKey();
+            int beforeLength = before.getValue();
+            freeRanges.remove(beforeStart);
+            start = beforeStart;
+            count += beforeLength;
+        }
+        Integer after = freeRanges.remove(start + count);
+        if (after != null) {
+            count += after;
+        }
+        if (start + count == end) {
+            end = start;
+        } else {
+            freeRanges.put(start, count);
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt das Ende des belegten Teils.
+     *
+     * @return Ende des belegten Teils in Elementen
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der belegten Elemente.
+     *
+     * @return Anzahl der belegten Elemente
+     */
+    public int getUsed() {
+        return used;
+    }
+
+    /**
+     * Diese Funktion übergibt die freien Bereiche vor dem Ende des belegten Teils.
+     *
+     * @return freie Bereiche (Anfang -> Länge), nur lesend
+     */
+    public Map<Integer, Integer> getFreeRanges() {
+        return Collections.unmodifiableMap(freeRanges);
+    }
+}
@@ -0,0 +1,87 @@
+package renderEngine;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * Diese Klasse zählt mit einer GL_SAMPLES_PASSED-Abfrage, wie viele Samples zwischen {@link SampleQuery#begin()} und
+ * {@link SampleQuery#end()} den Tiefentest bestanden haben.
+ *
+ * Die Abfrage läuft über mehrere Abfrage-Objekte im Wechsel. Ein Ergebnis wird erst gelesen, wenn die GPU es
+ * bereitgestellt hat, sodass die CPU nie auf die GPU wartet; das Ergebnis ist dadurch einige Frames alt.
+ */
+public class SampleQuery {
+
+    /**
+     * Anzahl der Abfrage-Objekte, die im Wechsel verwendet werden
+     */
+    private static final int QUERY_COUNT = 3;
+
+    /**
+     * Referenzen auf die Abfrage-Objekte
+     */
+    private final int[] queries = new int[QUERY_COUNT];
+    /**
+     * Information je Abfrage-Objekt, ob sein Ergebnis noch aussteht
+     */
+    private final boolean[] pending = new boolean[QUERY_COUNT];
+    /**
+     * Index des Abfrage-Objekts, das als nächstes verwendet wird
+     */
+    private int current = 0;
+    /**
+     * zuletzt gelesenes Ergebnis
+     */
+    private int sampleCount = 0;
+
+    /**
+     * Die Abfrage-Objekte werden angelegt.
+     */
+    public SampleQuery() {
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = GL15.glGenQueries();
+        }
+    }
+
+    /**
+     * Diese Funktion liest alle bereitstehenden Ergebnisse und beginnt die Zählung mit dem nächsten Abfrage-Objekt.
+     * Ein noch ausstehendes Ergebnis dieses Objekts wird verworfen.
+     */
+    public void begin() {
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            int index = (current + i) % QUERY_COUNT;
+            if (pending[index] && GL15.glGetQueryObjecti(queries[index], GL15.GL_QUERY_RESULT_AVAILABLE) == GL11.GL_TRUE) {
+                sampleCount = GL15.glGetQueryObjecti(queries[index], GL15.GL_QUERY_RESULT);
+                pending[index] = false;
+            }
+        }
+        GL15.glBeginQuery(GL15.GL_SAMPLES_PASSED, queries[current]);
+    }
+
+    /**
+     * Diese Funktion beendet die Zählung.
+     */
+    public void end() {
+        GL15.glEndQuery(GL15.GL_SAMPLES_PASSED);
+        pending[current] = true;
+        current = (current + 1) % QUERY_COUNT;
+    }
+
+    /**
+     * Diese Funktion übergibt das zuletzt bereitgestellte Ergebnis.
+     *
+     * @return Anzahl der Samples, die den Tiefentest bestanden haben
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Löscht die Abfrage-Objekte.
+     */
+    public void cleanUp() {
+        for (int query : queries) {
+            GL15.glDeleteQueries(query);
+        }
+    }
+}
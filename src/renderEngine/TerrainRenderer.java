@@ -2,14 +2,14 @@ package renderEngine;
 
 import models.RawModel;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector3f;
 import terrain.Terrain;
+import terrain.TerrainChunk;
 import terrain.TerrainShader;
 import textures.TerrainTexturePack;
+import toolbox.Frustum;
 import toolbox.Maths;
 
 import java.util.List;
@@ -24,34 +24,107 @@ public class TerrainRenderer {
      */
     private TerrainShader shader;
 
+    /**
+     * Anzahl der Chunks, die im letzten Frame gerendert wurden
+     */
+    private int renderedChunkCount = 0;
+    /**
+     * Anzahl der Chunks, die im letzten Frame außerhalb des Frustums lagen
+     */
+    private int culledChunkCount = 0;
+    /**
+     * Anzahl der Dreiecke (inklusive Schürzen), die im letzten Frame für das Terrain gerendert wurden
+     */
+    private int renderedTriangleCount = 0;
+
     /**
      * Diese Funktion erstellt einen neuen TerrainRenderer, der zum Rendern von Terrainstücken benötigt wird.
      * @param shader TerrainShader der zum Rendern verwendet werden soll.
-     * @param projectionMatrix Projektionsmatrix
      */
-    public TerrainRenderer(TerrainShader shader, Matrix4f projectionMatrix) {
+    public TerrainRenderer(TerrainShader shader) {
         this.shader = shader;
-        shader.start();
-        shader.loadProjectionMatrix(projectionMatrix);
-        shader.connectTextureUnits();
-        shader.stop();
     }
 
     /**
      * Diese Funktion rendert eine Liste von Terrains aus dem Gitter.
      * In der Beispielszene wird nur ein Terrain verwendet.
+     * Jedes Terrain wird chunkweise gerendert: Chunks außerhalb des Frustums werden übersprungen und entfernte
+     * Chunks mit einem gröberen Level of Detail gezeichnet.
      *
-     * @param terrains Alle Terrains aus dem Gitter, die dargestellt werden sollen.
+     * @param terrains       Alle Terrains aus dem Gitter, die dargestellt werden sollen.
+     * @param frustum        Sichtvolumen der Kamera
+     * @param cameraPosition Position der Kamera
      */
-    public void render(List<Terrain> terrains) {
+    public void render(List<Terrain> terrains, Frustum frustum, Vector3f cameraPosition) {
+        renderedChunkCount = 0;
+        culledChunkCount = 0;
+        renderedTriangleCount = 0;
         for (Terrain terrain : terrains) {
+            RawModel model = terrain.getModel();
             prepareTerrain(terrain);
             loadTranslationMatrix(terrain);
-            GL11.glDrawElements(GL11.GL_TRIANGLES, terrain.getModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+            float localX = cameraPosition.x - terrain.getX();
+            float localZ = cameraPosition.z - terrain.getZ();
+            for (TerrainChunk chunk : terrain.getChunks()) {
+                if (!frustum.intersectsBox(
+                        chunk.getMinX() + terrain.getX(), chunk.getMinY(), chunk.getMinZ() + terrain.getZ(),
+                        chunk.getMaxX() + terrain.getX(), chunk.getMaxY(), chunk.getMaxZ() + terrain.getZ())) {
+                    culledChunkCount++;
+                    continue;
+                }
+                int lod = selectLod(chunk, chunk.distanceTo(localX, cameraPosition.y, localZ));
+                GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, chunk.getIndexCount(lod), GL11.GL_UNSIGNED_INT,
+                        model.getIndexOffset(0) + chunk.getIndexOffset(lod), model.getBaseVertex());
+                renderedChunkCount++;
+                renderedTriangleCount += chunk.getIndexCount(lod) / 3;
+            }
             unbindTexturedModel();
         }
     }
 
+    /**
+     * Diese Funktion wählt das Level of Detail eines Chunks anhand seines Abstands zur Kamera.
+     *
+     * @param chunk    Chunk
+     * @param distance Abstand der Kamera zum Chunk
+     * @return Level of Detail
+     */
+    private static int selectLod(TerrainChunk chunk, float distance) {
+        int lod = 0;
+        while (lod < chunk.getLodCount() - 1 && lod < Terrain.LOD_DISTANCES.length
+                && distance >= Terrain.LOD_DISTANCES[lod]) {
+            lod++;
+        }
+        return lod;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Chunks, die im letzten Frame gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Chunks
+     */
+    public int getRenderedChunkCount() {
+        return renderedChunkCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Chunks, die im letzten Frame durch das Frustum Culling verworfen wurden.
+     *
+     * @return Anzahl der verworfenen Chunks
+     */
+    public int getCulledChunkCount() {
+        return culledChunkCount;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Dreiecke, die im letzten Frame für das Terrain gerendert wurden.
+     *
+     * @return Anzahl der gerenderten Dreiecke
+     */
+    public int getRenderedTriangleCount() {
+        return renderedTriangleCount;
+    }
+
     /**
      * Diese Funktion binded die Modell- und Texturdaten für ein Terrain Objekt in OpenGl,
      * um dieses danach rendern zu können.
@@ -60,10 +133,10 @@ public class TerrainRenderer {
      */
     private void prepareTerrain(Terrain terrain) {
         RawModel model = terrain.getModel();
-        GL30.glBindVertexArray(model.getVaoID());
-        GL20.glEnableVertexAttribArray(0);
-        GL20.glEnableVertexAttribArray(1);
-        GL20.glEnableVertexAttribArray(2);
+        GLState.bindVertexArray(model.getVaoID());
+        GLState.enableVertexAttribArray(0);
+        GLState.enableVertexAttribArray(1);
+        GLState.enableVertexAttribArray(2);
 
         bindTextures(terrain);
         shader.loadShineVariables(1, 0);
@@ -78,27 +151,19 @@ public class TerrainRenderer {
      */
     private void bindTextures(Terrain terrain) {
         TerrainTexturePack texturePack = terrain.getTexturePack();
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texturePack.getBackgroundTexture().getId());
-        GL13.glActiveTexture(GL13.GL_TEXTURE1);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texturePack.getRTexture().getId());
-        GL13.glActiveTexture(GL13.GL_TEXTURE2);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texturePack.getGTexture().getId());
-        GL13.glActiveTexture(GL13.GL_TEXTURE3);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texturePack.getBTexture().getId());
-        GL13.glActiveTexture(GL13.GL_TEXTURE4);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, terrain.getBlendMap().getId());
+        GLState.bindTexture(0, GL11.GL_TEXTURE_2D, texturePack.getBackgroundTexture().getId());
+        GLState.bindTexture(1, GL11.GL_TEXTURE_2D, texturePack.getRTexture().getId());
+        GLState.bindTexture(2, GL11.GL_TEXTURE_2D, texturePack.getGTexture().getId());
+        GLState.bindTexture(3, GL11.GL_TEXTURE_2D, texturePack.getBTexture().getId());
+        GLState.bindTexture(4, GL11.GL_TEXTURE_2D, terrain.getBlendMap().getId());
     }
 
     /**
-     * Diese Funktion unbindend die Modell- und Texturdaten für ein Terrain Objekt in OpenGL,
-     * wenn diese nach dem Rendern nicht mehr benötigt werden.
+     * Diese Funktion unbindend die Modelldaten für ein Terrain Objekt in OpenGL,
+     * wenn diese nach dem Rendern nicht mehr benötigt werden. Die Attribute bleiben im VAO aktiviert.
      */
     private void unbindTexturedModel() {
-        GL20.glDisableVertexAttribArray(0);
-        GL20.glDisableVertexAttribArray(1);
-        GL20.glDisableVertexAttribArray(2);
-        GL30.glBindVertexArray(0);
+        GLState.bindVertexArray(0);
     }
 
     /**
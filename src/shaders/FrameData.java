@@ -0,0 +1,116 @@
+package shaders;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import org.lwjgl.util.vector.Vector4f;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Diese Klasse verwaltet einen Uniform Buffer mit allen Daten, die sich nur einmal pro Frame ändern: Ansichts- und
+ * Projektionsmatrix, Kameraposition, Himmelfarbe, Nebel und die Aufteilung der {@link LightClusters}.
+ *
+ * Der Buffer wird pro Frame mit einem einzigen glBufferSubData aktualisiert und ist dauerhaft an den Binding-Punkt
+ * {@link FrameData#BINDING} gebunden. Jedes {@link ShaderProgram}, das den Block "FrameData" aus der Datei
+ * {@link FrameData#INCLUDE_FILE} einbindet, liest ihn dort. Das Layout folgt den std140-Regeln: Matrizen und
+ * Vektoren belegen je 16 Bytes pro Spalte bzw. Element.
+ */
+public class FrameData {
+
+    /**
+     * Name des Uniform-Blocks in den Shadern
+     */
+    public static final String BLOCK_NAME = "FrameData";
+    /**
+     * Datei mit der Deklaration des Uniform-Blocks, die per #include in die Shader eingebunden wird
+     */
+    public static final String INCLUDE_FILE = "src/shaders/frameData";
+    /**
+     * Binding-Punkt des Uniform Buffers
+     */
+    public static final int BINDING = 0;
+
+    /**
+     * Anzahl der Floats im Block: drei Matrizen und fünf Vektoren
+     */
+    private static final int FLOAT_COUNT = 3 * 16 + 5 * 4;
+
+    /**
+     * Referenz auf den Uniform Buffer
+     */
+    private final int ubo;
+    /**
+     * Buffer zum Zusammenstellen der Daten eines Frames
+     */
+    private final FloatBuffer buffer = BufferUtils.createFloatBuffer(FLOAT_COUNT);
+    /**
+     * Zwischenspeicher für das Produkt aus Projektions- und Ansichtsmatrix
+     */
+    private final Matrix4f viewProjectionMatrix = new Matrix4f();
+
+    /**
+     * Der Uniform Buffer wird angelegt und an den Binding-Punkt {@link FrameData#BINDING} gebunden.
+     */
+    public FrameData() {
+        ubo = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, ubo);
+        GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, FLOAT_COUNT * 4L, GL15.GL_DYNAMIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+        GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING, ubo);
+    }
+
+    /**
+     * Diese Funktion lädt die Daten des aktuellen Frames mit einem einzigen Aufruf in den Uniform Buffer.
+     *
+     * @param viewMatrix       Ansichtsmatrix
+     * @param projectionMatrix Projektionsmatrix
+     * @param cameraPosition   Position der Kamera
+     * @param skyR             Rotwert der Himmelfarbe
+     * @param skyG             Grünwert der Himmelfarbe
+     * @param skyB             Blauwert der Himmelfarbe
+     * @param fogDensity       Dichte des Nebels
+     * @param fogGradient      Gradient des Nebels
+     * @param lightClusters    {@link LightClusters} des aktuellen Frames
+     */
+    public void update(Matrix4f viewMatrix, Matrix4f projectionMatrix, Vector3f cameraPosition,
+                       float skyR, float skyG, float skyB, float fogDensity, float fogGradient, LightClusters lightClusters) {
+        Matrix4f.mul(projectionMatrix, viewMatrix, viewProjectionMatrix);
+        buffer.clear();
+        viewMatrix.store(buffer);
+        projectionMatrix.store(buffer);
+        viewProjectionMatrix.store(buffer);
+        putVector(cameraPosition.x, cameraPosition.y, cameraPosition.z);
+        putVector(skyR, skyG, skyB);
+        putVector(fogDensity, fogGradient, 0);
+        Vector4f clusterScale = lightClusters.getScale();
+        buffer.put(clusterScale.x).put(clusterScale.y).put(clusterScale.z).put(clusterScale.w);
+        putVector(LightClusters.TILES_X, LightClusters.TILES_Y, LightClusters.SLICES);
+        buffer.flip();
+
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, ubo);
+        GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, buffer);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+    }
+
+    /**
+     * Löscht den Uniform Buffer.
+     */
+    public void cleanUp() {
+        GL15.glDeleteBuffers(ubo);
+    }
+
+    /**
+     * Diese Funktion schreibt einen 3D-Vektor mit der std140-Ausrichtung eines vec4 in den Buffer.
+     *
+     * @param x x-Komponente
+     * @param y y-Komponente
+     * @param z z-Komponente
+     */
+    private void putVector(float x, float y, float z) {
+        buffer.put(x).put(y).put(z).put(0);
+    }
+}
@@ -0,0 +1,416 @@
+package shaders;
+
+import entities.Light;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.Display;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import org.lwjgl.util.vector.Vector4f;
+import renderEngine.GLState;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Diese Klasse verteilt beliebig viele Punktlichter auf Cluster des Sichtvolumens (Clustered Forward Shading).
+ *
+ * Das Sichtvolumen wird in {@link LightClusters#TILES_X} x {@link LightClusters#TILES_Y} Bildschirmkacheln und
+ * {@link LightClusters#SLICES} exponentiell wachsende Tiefenschichten geteilt. Jedes Licht wird pro Frame allen
+ * Clustern zugewiesen, die seine Reichweite ({@link Light#getRange()}) schneidet. Die Tiefenschichten werden dabei
+ * parallel bearbeitet. Lichter ohne Abschwächung (z.B. die Sonne) erreichen jeden Cluster, schwarze Lichter keinen.
+ * Jeder Cluster behält nur die {@link LightClusters#MAX_LIGHTS_PER_CLUSTER} Lichter mit dem größten Beitrag in seiner
+ * Mitte, sodass ein Fragment nie mehr Lichter berechnet als mit den früheren vier festen Lichtern.
+ *
+ * Die Shader lesen die Zuweisungen aus drei Buffer-Texturen, deren Deklaration in {@link LightClusters#INCLUDE_FILE}
+ * liegt: je Cluster Offset und Anzahl, die Licht-Indizes und je Licht Position mit Reichweite, Farbe und Abschwächung.
+ * Ein Fragment berechnet damit nur die Lichter seines Clusters.
+ */
+public class LightClusters {
+
+    /**
+     * Datei mit der Deklaration der Buffer-Texturen und der Beleuchtungsfunktion, die per #include eingebunden wird
+     */
+    public static final String INCLUDE_FILE = "src/shaders/lightClusters";
+    /**
+     * Namen der Sampler in den Shadern, in der Reihenfolge ihrer Textureinheiten
+     */
+    public static final String[] SAMPLER_NAMES = {"clusterLights", "lightIndices", "lightData"};
+    /**
+     * Erste Textureinheit der Buffer-Texturen, die Einheiten davor bleiben den Materialien vorbehalten
+     */
+    public static final int FIRST_TEXTURE_UNIT = 5;
+
+    /**
+     * Anzahl der Kacheln in horizontaler Richtung
+     */
+    public static final int TILES_X = 16;
+    /**
+     * Anzahl der Kacheln in vertikaler Richtung
+     */
+    public static final int TILES_Y = 9;
+    /**
+     * Anzahl der Tiefenschichten
+     */
+    public static final int SLICES = 24;
+    /**
+     * Gesamtzahl der Cluster
+     */
+    private static final int CLUSTER_COUNT = TILES_X * TILES_Y * SLICES;
+    /**
+     * maximale Anzahl an Lichtern in einem Cluster, schwächere Lichter werden dort verdrängt
+     */
+    public static final int MAX_LIGHTS_PER_CLUSTER = 4;
+    /**
+     * Tiefe, bis zu der die erste Tiefenschicht reicht; ab hier wachsen die Schichten exponentiell
+     */
+    private static final float CLUSTER_NEAR = 5f;
+    /**
+     * Anzahl aktiver Lichter, ab der die Tiefenschichten parallel zugewiesen werden
+     */
+    private static final int PARALLEL_THRESHOLD = 32;
+    /**
+     * Anzahl der RGBA-Texel je Licht (Position und Reichweite, Farbe, Abschwächung)
+     */
+    private static final int TEXELS_PER_LIGHT = 3;
+
+    /**
+     * Projektionsebene, ab der gerendert wird
+     */
+    private final float nearPlane;
+    /**
+     * Tiefe, an der jede Tiefenschicht beginnt, plus das Ende der letzten Schicht
+     */
+    private final float[] sliceDepths = new float[SLICES + 1];
+    /**
+     * Faktoren zur Bestimmung des Clusters im Shader (Kacheln je Pixel, 1 / CLUSTER_NEAR, Schichten je log-Einheit)
+     */
+    private final Vector4f scale = new Vector4f();
+
+    /**
+     * Referenzen auf die Buffer der Cluster, Licht-Indizes und Lichtdaten
+     */
+    private final int[] buffers = new int[SAMPLER_NAMES.length];
+    /**
+     * Referenzen auf die Buffer-Texturen der Cluster, Licht-Indizes und Lichtdaten
+     */
+    private final int[] textures = new int[SAMPLER_NAMES.length];
+
+    /**
+     * Anzahl der Lichter je Cluster
+     */
+    private final int[] clusterCounts = new int[CLUSTER_COUNT];
+    /**
+     * Licht-Indizes je Cluster, mit {@link LightClusters#MAX_LIGHTS_PER_CLUSTER} Plätzen pro Cluster
+     */
+    private final int[] clusterIndices = new int[CLUSTER_COUNT * MAX_LIGHTS_PER_CLUSTER];
+    /**
+     * Beitrag der Lichter je Cluster in der Mitte des Clusters, absteigend sortiert
+     */
+    private final float[] clusterInfluences = new float[CLUSTER_COUNT * MAX_LIGHTS_PER_CLUSTER];
+    /**
+     * Offset und Anzahl je Cluster zum Hochladen
+     */
+    private final IntBuffer clusterBuffer = BufferUtils.createIntBuffer(CLUSTER_COUNT * 2);
+    /**
+     * lückenlose Licht-Indizes aller Cluster zum Hochladen
+     */
+    private final ShortBuffer indexBuffer = BufferUtils.createShortBuffer(CLUSTER_COUNT * MAX_LIGHTS_PER_CLUSTER);
+    /**
+     * Lichtdaten zum Hochladen, wächst mit der Anzahl der Lichter
+     */
+    private FloatBuffer lightBuffer = BufferUtils.createFloatBuffer(64 * TEXELS_PER_LIGHT * 4);
+
+    /**
+     * Position der aktiven Lichter im Kameraraum (x, y, Tiefe vor der Kamera) und deren Reichweite
+     */
+    private float[] lightViewData = new float[64 * 4];
+    /**
+     * aktive Lichter in der Reihenfolge ihrer Indizes
+     */
+    private Light[] activeLights = new Light[64];
+    /**
+     * Anzahl der Lichter, die im letzten Frame mindestens einen Cluster erreichen konnten
+     */
+    private int activeLightCount = 0;
+    /**
+     * horizontaler und vertikaler Skalierungsfaktor der aktuellen Projektionsmatrix
+     */
+    private float projectionX, projectionY;
+    /**
+     * Anzahl der Licht-Zuweisungen an Cluster im letzten Frame
+     */
+    private int assignmentCount = 0;
+    /**
+     * höchste Anzahl an Lichtern in einem Cluster im letzten Frame
+     */
+    private int maxClusterLightCount = 0;
+    /**
+     * Anzahl der Zuweisungen, die im letzten Frame von stärkeren Lichtern aus einem vollen Cluster verdrängt wurden
+     */
+    private int droppedAssignmentCount = 0;
+
+    /**
+     * Die Buffer-Texturen werden angelegt und die Tiefenschichten aus den Projektionsebenen berechnet.
+     *
+     * @param nearPlane nahe Projektionsebene
+     * @param farPlane  ferne Projektionsebene
+     */
+    public LightClusters(float nearPlane, float farPlane) {
+        this.nearPlane = nearPlane;
+        double logRatio = Math.log(farPlane / CLUSTER_NEAR);
+        sliceDepths[0] = nearPlane;
+        for (int slice = 1; slice <= SLICES; slice++) {
+            sliceDepths[slice] = (float) (CLUSTER_NEAR * Math.exp(logRatio * (slice - 1) / (SLICES - 1)));
+        }
+        sliceDepths[SLICES] = farPlane;
+        scale.z = 1 / CLUSTER_NEAR;
+        scale.w = (float) ((SLICES - 1) / logRatio);
+
+        int[] formats = {GL30.GL_RG32UI, GL30.GL_R16UI, GL30.GL_RGBA32F};
+        for (int i = 0; i < SAMPLER_NAMES.length; i++) {
+            buffers[i] = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, buffers[i]);
+            GL15.glBufferData(GL31.GL_TEXTURE_BUFFER, 16, GL15.GL_STREAM_DRAW);
+            textures[i] = GL11.glGenTextures();
+            GLState.bindTexture(FIRST_TEXTURE_UNIT + i, GL31.GL_TEXTURE_BUFFER, textures[i]);
+            GL31.glTexBuffer(GL31.GL_TEXTURE_BUFFER, formats[i], buffers[i]);
+        }
+        GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, 0);
+    }
+
+    /**
+     * Diese Funktion weist die Lichter des aktuellen Frames den Clustern zu und lädt das Ergebnis hoch.
+     *
+     * @param lights           Lichter, die das Sichtvolumen erreichen können
+     * @param viewMatrix       Ansichtsmatrix
+     * @param projectionMatrix Projektionsmatrix
+     */
+    public void update(List<Light> lights, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        scale.x = TILES_X / (float) Display.getWidth();
+        scale.y = TILES_Y / (float) Display.getHeight();
+        projectionX = projectionMatrix.m00;
+        projectionY = projectionMatrix.m11;
+
+        prepareLights(lights, viewMatrix);
+        if (activeLightCount >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, SLICES).parallel().forEach(this::assignSlice);
+        } else {
+            for (int slice = 0; slice < SLICES; slice++) {
+                assignSlice(slice);
+            }
+        }
+        upload();
+    }
+
+    /**
+     * Diese Funktion bindet die Buffer-Texturen an ihre Textureinheiten. Sie muss vor dem Rendern beleuchteter
+     * Objekte aufgerufen werden.
+     */
+    public void bind() {
+        for (int i = 0; i < textures.length; i++) {
+            GLState.bindTexture(FIRST_TEXTURE_UNIT + i, GL31.GL_TEXTURE_BUFFER, textures[i]);
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Faktoren, mit denen ein Shader aus Pixelposition und Tiefe seinen Cluster bestimmt.
+     *
+     * @return Kacheln je Pixel (x, y), Kehrwert der Tiefe der ersten Schicht (z) und Schichten je log-Einheit (w)
+     */
+    public Vector4f getScale() {
+        return scale;
+    }
+
+    /**
+     * Diese Funktion fasst die Verteilung der Lichter im letzten Frame zusammen.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        return activeLightCount + " im Sichtfeld, " + assignmentCount + " Cluster-Zuweisungen, max. "
+                + maxClusterLightCount + " pro Cluster" + (droppedAssignmentCount > 0 ? ", " + droppedAssignmentCount + " verdrängt" : "");
+    }
+
+    /**
+     * Löscht die Buffer und Buffer-Texturen.
+     */
+    public void cleanUp() {
+        for (int i = 0; i < textures.length; i++) {
+            GLState.forgetTexture(textures[i]);
+            GL11.glDeleteTextures(textures[i]);
+            GL15.glDeleteBuffers(buffers[i]);
+        }
+    }
+
+    /**
+     * Diese Funktion überträgt alle sichtbaren Lichter in den Kameraraum und schreibt ihre Daten in den Upload-Buffer.
+     *
+     * @param lights     Lichter, die das Sichtvolumen erreichen können
+     * @param viewMatrix Ansichtsmatrix
+     */
+    private void prepareLights(List<Light> lights, Matrix4f viewMatrix) {
+        if (lightViewData.length < lights.size() * 4) {
+            lightViewData = new float[lights.size() * 8];
+            activeLights = new Light[lights.size() * 2];
+            lightBuffer = BufferUtils.createFloatBuffer(lights.size() * 2 * TEXELS_PER_LIGHT * 4);
+        }
+        lightBuffer.clear();
+        activeLightCount = 0;
+        for (Light light : lights) {
+            if (light.getBrightness() <= 0) {
+                continue;
+            }
+            Vector3f color = light.getColor();
+            Vector3f position = light.getPosition();
+            Vector3f attenuation = light.getAttenuation();
+            float range = light.getRange();
+            float viewX = viewMatrix.m00 * position.x + viewMatrix.m10 * position.y + viewMatrix.m20 * position.z + viewMatrix.m30;
+            float viewY = viewMatrix.m01 * position.x + viewMatrix.m11 * position.y + viewMatrix.m21 * position.z + viewMatrix.m31;
+            float depth = -(viewMatrix.m02 * position.x + viewMatrix.m12 * position.y + viewMatrix.m22 * position.z + viewMatrix.m32);
+            if (depth + range < nearPlane || depth - range > sliceDepths[SLICES]) {
+                continue;
+            }
+            int offset = activeLightCount * 4;
+            lightViewData[offset] = viewX;
+            lightViewData[offset + 1] = viewY;
+            lightViewData[offset + 2] = depth;
+            lightViewData[offset + 3] = range;
+            activeLights[activeLightCount] = light;
+            lightBuffer.put(position.x).put(position.y).put(position.z).put(range);
+            lightBuffer.put(color.x).put(color.y).put(color.z).put(0);
+            lightBuffer.put(attenuation.x).put(attenuation.y).put(attenuation.z).put(0);
+            activeLightCount++;
+        }
+        lightBuffer.flip();
+    }
+
+    /**
+     * Diese Funktion weist alle aktiven Lichter den Clustern einer Tiefenschicht zu. Jede Schicht schreibt nur in ihre
+     * eigenen Cluster, sodass mehrere Schichten gleichzeitig bearbeitet werden können. Ist ein Cluster voll, wird das
+     * Licht mit dem kleinsten Beitrag in der Mitte des Clusters verdrängt.
+     *
+     * @param slice Tiefenschicht
+     */
+    private void assignSlice(int slice) {
+        int firstCluster = slice * TILES_X * TILES_Y;
+        Arrays.fill(clusterCounts, firstCluster, firstCluster + TILES_X * TILES_Y, 0);
+        float sliceNear = sliceDepths[slice];
+        float sliceFar = sliceDepths[slice + 1];
+        float centerDepth = (sliceNear + sliceFar) / 2;
+        for (int light = 0; light < activeLightCount; light++) {
+            float viewX = lightViewData[light * 4];
+            float viewY = lightViewData[light * 4 + 1];
+            float depth = lightViewData[light * 4 + 2];
+            float range = lightViewData[light * 4 + 3];
+            if (depth + range < sliceNear || depth - range > sliceFar) {
+                continue;
+            }
+            float minDepth = Math.max(depth - range, sliceNear);
+            float maxDepth = Math.min(depth + range, sliceFar);
+            int minTileX = toTile(viewX - range, true, minDepth, maxDepth, projectionX, TILES_X);
+            int maxTileX = toTile(viewX + range, false, minDepth, maxDepth, projectionX, TILES_X);
+            int minTileY = toTile(viewY - range, true, minDepth, maxDepth, projectionY, TILES_Y);
+            int maxTileY = toTile(viewY + range, false, minDepth, maxDepth, projectionY, TILES_Y);
+            for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+                float dy = viewY - ((tileY + 0.5f) * 2f / TILES_Y - 1) * centerDepth / projectionY;
+                for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                    float dx = viewX - ((tileX + 0.5f) * 2f / TILES_X - 1) * centerDepth / projectionX;
+                    float dz = depth - centerDepth;
+                    float influence = activeLights[light].getInfluence((float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+                    insert(firstCluster + tileY * TILES_X + tileX, light, influence);
+                }
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion fügt ein Licht nach seinem Beitrag sortiert in einen Cluster ein. Ist der Cluster voll, fällt das
+     * schwächste Licht heraus.
+     *
+     * @param cluster   Cluster
+     * @param light     Index des Lichts
+     * @param influence Beitrag des Lichts in der Mitte des Clusters
+     */
+    private void insert(int cluster, int light, float influence) {
+        int first = cluster * MAX_LIGHTS_PER_CLUSTER;
+        int count = clusterCounts[cluster]++;
+        int position = Math.min(count, MAX_LIGHTS_PER_CLUSTER);
+        while (position > 0 && clusterInfluences[first + position - 1] < influence) {
+            if (position < MAX_LIGHTS_PER_CLUSTER) {
+                clusterInfluences[first + position] = clusterInfluences[first + position - 1];
+                clusterIndices[first + position] = clusterIndices[first + position - 1];
+            }
+            position--;
+        }
+        if (position < MAX_LIGHTS_PER_CLUSTER) {
+            clusterInfluences[first + position] = influence;
+            clusterIndices[first + position] = light;
+        }
+    }
+
+    /**
+     * Diese Funktion bestimmt die Kachel, in die eine Kante einer Lichtkugel projiziert wird. Die Projektion einer
+     * festen Koordinate wird mit wachsender Tiefe kleiner, das äußerste Ergebnis liegt daher an der nahen Tiefe, wenn
+     * die Kante vom Bildzentrum weg zeigt, sonst an der fernen Tiefe.
+     *
+     * @param edge       Koordinate der Kante im Kameraraum
+     * @param lowerEdge  Information, ob die untere bzw. linke Kante gesucht ist
+     * @param minDepth   kleinste Tiefe der Kugel in der Schicht
+     * @param maxDepth   größte Tiefe der Kugel in der Schicht
+     * @param projection Skalierungsfaktor der Projektionsmatrix in dieser Richtung
+     * @param tiles      Anzahl der Kacheln in dieser Richtung
+     * @return Kachel, auf den gültigen Bereich beschränkt
+     */
+    private static int toTile(float edge, boolean lowerEdge, float minDepth, float maxDepth, float projection, int tiles) {
+        float depth = (edge < 0) == lowerEdge ? minDepth : maxDepth;
+        float ndc = edge * projection / depth;
+        int tile = (int) Math.floor((ndc * 0.5f + 0.5f) * tiles);
+        return Math.max(0, Math.min(tiles - 1, tile));
+    }
+
+    /**
+     * Diese Funktion schreibt die Zuweisungen lückenlos in die Upload-Buffer und lädt alle drei Buffer hoch.
+     */
+    private void upload() {
+        clusterBuffer.clear();
+        indexBuffer.clear();
+        assignmentCount = 0;
+        maxClusterLightCount = 0;
+        droppedAssignmentCount = 0;
+        for (int cluster = 0; cluster < CLUSTER_COUNT; cluster++) {
+            int count = clusterCounts[cluster];
+            maxClusterLightCount = Math.max(maxClusterLightCount, count);
+            if (count > MAX_LIGHTS_PER_CLUSTER) {
+                droppedAssignmentCount += count - MAX_LIGHTS_PER_CLUSTER;
+                count = MAX_LIGHTS_PER_CLUSTER;
+            }
+            clusterBuffer.put(indexBuffer.position()).put(count);
+            for (int i = 0; i < count; i++) {
+                indexBuffer.put((short) clusterIndices[cluster * MAX_LIGHTS_PER_CLUSTER + i]);
+            }
+            assignmentCount += count;
+        }
+        clusterBuffer.flip();
+        indexBuffer.flip();
+
+        GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, buffers[0]);
+        GL15.glBufferData(GL31.GL_TEXTURE_BUFFER, clusterBuffer, GL15.GL_STREAM_DRAW);
+        if (indexBuffer.hasRemaining()) {
+            GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, buffers[1]);
+            GL15.glBufferData(GL31.GL_TEXTURE_BUFFER, indexBuffer, GL15.GL_STREAM_DRAW);
+        }
+        if (lightBuffer.hasRemaining()) {
+            GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, buffers[2]);
+            GL15.glBufferData(GL31.GL_TEXTURE_BUFFER, lightBuffer, GL15.GL_STREAM_DRAW);
+        }
+        GL15.glBindBuffer(GL31.GL_TEXTURE_BUFFER, 0);
+    }
+}
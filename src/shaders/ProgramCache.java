@@ -0,0 +1,249 @@
+package shaders;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.ARBGetProgramBinary;
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL41;
+import org.lwjgl.opengl.GLContext;
+import toolbox.CacheFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Diese Klasse speichert gelinkte Shader-Programme als treiberspezifische Binärdaten (GL_ARB_get_program_binary),
+ * damit spätere Starts den GLSL-Quellcode nicht erneut kompilieren und linken müssen.
+ *
+ * Der Schlüssel einer Cache-Datei ist ein Hash über den Quellcode beider Shader sowie Hersteller, Renderer und
+ * Version des Treibers. Ändert sich eines davon, wird das Programm neu kompiliert und die Datei überschrieben.
+ * Lehnt der Treiber die Binärdaten trotz passendem Schlüssel ab, wird ebenfalls neu kompiliert.
+ *
+ * Aufbau einer Cache-Datei (in nativer Byte-Reihenfolge):
+ * Header (Magic, Version, Schlüssel, Binärformat, Länge), Binärdaten des Programms.
+ * Alle Funktionen müssen im OpenGL-Thread aufgerufen werden.
+ */
+public class ProgramCache {
+
+    /**
+     * Dateiendung der Cache-Dateien
+     */
+    private static final String EXTENSION = ".prog";
+    /**
+     * Kennung am Anfang jeder Cache-Datei ("SFPC")
+     */
+    private static final int MAGIC = 0x53465043;
+    /**
+     * Version des Dateiformats, muss bei Änderungen am Format erhöht werden
+     */
+    private static final int VERSION = 1;
+    /**
+     * Größe des Headers in Bytes
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    /**
+     * Information, ob der Treiber Programme als Binärdaten ausgeben und laden kann (null = noch nicht geprüft)
+     */
+    private static Boolean supported = null;
+    /**
+     * Anzahl der Programme, die aus dem Cache geladen wurden
+     */
+    private static int cachedPrograms = 0;
+    /**
+     * Anzahl der Programme, die aus dem Quellcode kompiliert wurden
+     */
+    private static int compiledPrograms = 0;
+    /**
+     * Dauer, die beim ersten Verwenden der Programme auf das Kompilieren und Linken gewartet wurde, in Nanosekunden
+     */
+    private static long linkWaitTime = 0;
+
+    /**
+     * Diese Funktion übergibt, ob der Treiber Programme als Binärdaten ausgeben und laden kann.
+     *
+     * @return Information, ob der Cache verwendet werden kann
+     */
+    public static boolean isSupported() {
+        if (supported == null) {
+            ContextCapabilities capabilities = GLContext.getCapabilities();
+            supported = (capabilities.OpenGL41 || capabilities.GL_ARB_get_program_binary)
+                    && GL11.glGetInteger(GL41.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+        }
+        return supported;
+    }
+
+    /**
+     * Diese Funktion berechnet den Schlüssel eines Programms aus dem Quellcode beider Shader und dem Treiber.
+     *
+     * @param vertexSource   Quellcode des Vertex Shaders
+     * @param fragmentSource Quellcode des Fragment Shaders
+     * @return Schlüssel
+     */
+    public static long createKey(String vertexSource, String fragmentSource) {
+        String text = vertexSource + '\0' + fragmentSource + '\0' + GL11.glGetString(GL11.GL_VENDOR) + '\0'
+                + GL11.glGetString(GL11.GL_RENDERER) + '\0' + GL11.glGetString(GL11.GL_VERSION);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            return text.hashCode();
+        }
+    }
+
+    /**
+     * Diese Funktion lädt die Binärdaten eines Programms aus dem Cache, sofern eine Cache-Datei mit passendem
+     * Schlüssel existiert und der Treiber die Daten akzeptiert.
+     *
+     * @param programId Referenz auf das leere Programm
+     * @param name      Name des Programms
+     * @param key       Schlüssel aus {@link ProgramCache#createKey(String, String)}
+     * @return Information, ob das Programm aus dem Cache geladen und gelinkt wurde
+     */
+    public static boolean load(int programId, String name, long key) {
+        if (!isSupported()) {
+            return false;
+        }
+        File file = CacheFiles.getCacheFile(name, "", EXTENSION);
+        if (!file.isFile()) {
+            return false;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            ByteBuffer header = ByteBuffer.wrap(content).order(ByteOrder.nativeOrder());
+            if (content.length < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getLong() != key) {
+                return false;
+            }
+            int binaryFormat = header.getInt();
+            int length = header.getInt();
+            if (content.length != HEADER_SIZE + length) {
+                return false;
+            }
+            ByteBuffer binary = BufferUtils.createByteBuffer(length);
+            binary.put(content, HEADER_SIZE, length).flip();
+            programBinary(programId, binaryFormat, binary);
+        } catch (IOException e) {
+            System.err.println("Could not read program cache file " + file);
+            e.printStackTrace();
+            return false;
+        }
+        // Binärdaten werden ohne Kompilieren gelinkt, die Abfrage blockiert daher nicht
+        if (GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            return false;
+        }
+        cachedPrograms++;
+        return true;
+    }
+
+    /**
+     * Diese Funktion markiert ein Programm vor dem Linken, damit der Treiber seine Binärdaten bereithält, je nach
+     * Treiber über OpenGL 4.1 oder die Erweiterung.
+     *
+     * @param programId Referenz auf das Programm
+     */
+    public static void prepareForStore(int programId) {
+        if (!isSupported()) {
+            return;
+        }
+        if (GLContext.getCapabilities().OpenGL41) {
+            GL41.glProgramParameteri(programId, GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11.GL_TRUE);
+        } else {
+            ARBGetProgramBinary.glProgramParameteri(programId, ARBGetProgramBinary.GL_PROGRAM_BINARY_RETRIEVABLE_HINT,
+                    GL11.GL_TRUE);
+        }
+    }
+
+    /**
+     * Diese Funktion schreibt die Binärdaten eines erfolgreich gelinkten Programms in den Cache.
+     *
+     * @param programId Referenz auf das gelinkte Programm
+     * @param name      Name des Programms
+     * @param key       Schlüssel aus {@link ProgramCache#createKey(String, String)}
+     */
+    public static void store(int programId, String name, long key) {
+        compiledPrograms++;
+        if (!isSupported()) {
+            return;
+        }
+        int length = GL20.glGetProgrami(programId, GL41.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer binary = BufferUtils.createByteBuffer(length);
+        IntBuffer binaryLength = BufferUtils.createIntBuffer(1);
+        IntBuffer binaryFormat = BufferUtils.createIntBuffer(1);
+        getProgramBinary(programId, binaryLength, binaryFormat, binary);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + binaryLength.get(0)).order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(key).putInt(binaryFormat.get(0)).putInt(binaryLength.get(0));
+        binary.limit(binaryLength.get(0));
+        buffer.put(binary);
+        File file = CacheFiles.getCacheFile(name, "", EXTENSION);
+        try {
+            CacheFiles.write(file, buffer.array());
+        } catch (IOException e) {
+            System.err.println("Could not write program cache file " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Diese Funktion summiert die Dauer, die beim ersten Verwenden eines Programms auf das Linken gewartet wurde.
+     *
+     * @param nanos Wartezeit in Nanosekunden
+     */
+    public static void reportLinkWait(long nanos) {
+        linkWaitTime += nanos;
+    }
+
+    /**
+     * Diese Funktion fasst zusammen, wie viele Programme aus dem Cache geladen bzw. kompiliert wurden.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public static String getStatistics() {
+        return String.format("Shader: %d Programme aus dem Cache, %d kompiliert, %.1f ms auf das Linken gewartet%s",
+                cachedPrograms, compiledPrograms, linkWaitTime / 1e6,
+                isSupported() ? "" : " (Programm-Binärdaten werden vom Treiber nicht unterstützt)");
+    }
+
+    /**
+     * Diese Funktion lädt Binärdaten in ein Programm, je nach Treiber über OpenGL 4.1 oder die Erweiterung.
+     *
+     * @param programId    Referenz auf das Programm
+     * @param binaryFormat Binärformat
+     * @param binary       Binärdaten
+     */
+    private static void programBinary(int programId, int binaryFormat, ByteBuffer binary) {
+        if (GLContext.getCapabilities().OpenGL41) {
+            GL41.glProgramBinary(programId, binaryFormat, binary);
+        } else {
+            ARBGetProgramBinary.glProgramBinary(programId, binaryFormat, binary);
+        }
+    }
+
+    /**
+     * Diese Funktion liest die Binärdaten eines Programms, je nach Treiber über OpenGL 4.1 oder die Erweiterung.
+     *
+     * @param programId    Referenz auf das Programm
+     * @param length       Ziel der Länge
+     * @param binaryFormat Ziel des Binärformats
+     * @param binary       Ziel der Binärdaten
+     */
+    private static void getProgramBinary(int programId, IntBuffer length, IntBuffer binaryFormat, ByteBuffer binary) {
+        if (GLContext.getCapabilities().OpenGL41) {
+            GL41.glGetProgramBinary(programId, length, binaryFormat, binary);
+        } else {
+            ARBGetProgramBinary.glGetProgramBinary(programId, length, binaryFormat, binary);
+        }
+    }
+}
@@ -3,44 +3,68 @@ package shaders;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
+import renderEngine.GLState;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 /**
  * Diese Klasse ist eine Oberklasse für alle Shaderrepräsentationen und enthält grundlegende Funktionen,
  * um den Shaderquellcode und verschiedene Java-Datentypen auf die GPU zu laden.
+ *
+ * Uniform-Werte bleiben in einem Programm erhalten, bis sie überschrieben werden. Jedes Programm merkt sich daher
+ * die zuletzt geladenen Werte und überspringt Aufrufe, die den Wert nicht ändern würden.
+ * Daten, die sich nur einmal pro Frame ändern, liegen im gemeinsamen Uniform-Block {@link FrameData}.
+ *
+ * Gelinkte Programme werden über den {@link ProgramCache} als Binärdaten gespeichert, sodass spätere Starts den
+ * GLSL-Quellcode nicht kompilieren müssen. Fehlt der Cache, stößt der Konstruktor das Kompilieren und Linken nur an;
+ * der Status wird erst beim ersten {@link ShaderProgram#start()} abgefragt. Der Treiber kann die Shader dadurch
+ * kompilieren, während das Spiel weitere Ressourcen lädt.
  */
 public abstract class ShaderProgram {
 
-    /**
-     * maximale Anzahl an Lichtern in einem Shader
-     */
-    protected static final int MAX_LIGHTS = 4;
-
     /**
      * Referenz auf das Programm mit beiden Shadern
      */
     private final int programId;
     /**
-     * Referenz auf den Vertex Shader
+     * Referenz auf den Vertex Shader, 0 falls das Programm aus dem Cache geladen wurde oder die Shader bereits gelöscht sind
+     */
+    private int vertexShaderId = 0;
+    /**
+     * Referenz auf den Fragment Shader, 0 falls das Programm aus dem Cache geladen wurde oder die Shader bereits gelöscht sind
+     */
+    private int fragmentShaderId = 0;
+    /**
+     * Name des Programms im {@link ProgramCache} aus den Dateinamen beider Shader
+     */
+    private final String name;
+    /**
+     * Schlüssel des Programms im {@link ProgramCache}
      */
-    private final int vertexShaderId;
+    private final long cacheKey;
     /**
-     * Referenz auf den Fragment Shader
+     * Information, ob der Link-Status bereits geprüft und die Uniform-Referenzen bestimmt wurden
      */
-    private final int fragmentShaderId;
+    private boolean linked = false;
 
     /**
      * Buffer zum Laden einer Matrix
      */
     private static final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
 
+    /**
+     * Zuletzt geladene Werte je Uniform-Referenz, werden beim ersten Laden einer Referenz angelegt
+     */
+    private float[][] uniformValues = new float[16][];
+
     /**
      * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
      * in der OpenGL-Shader-Language erstellt.
@@ -49,15 +73,100 @@ public abstract class ShaderProgram {
      * @param fragmentFile Dateiname des zu ladenden Fragment Shaders
      */
     public ShaderProgram(String vertexFile, String fragmentFile) {
-        vertexShaderId = loadShader(vertexFile, GL20.GL_VERTEX_SHADER);
-        fragmentShaderId = loadShader(fragmentFile, GL20.GL_FRAGMENT_SHADER);
+        String vertexSource = readShaderSource(vertexFile);
+        String fragmentSource = readShaderSource(fragmentFile);
+        name = (vertexFile.startsWith("src/") ? vertexFile.substring(4) : vertexFile) + "-"
+                + fragmentFile.substring(fragmentFile.lastIndexOf('/') + 1);
+        cacheKey = ProgramCache.createKey(vertexSource, fragmentSource);
         programId = GL20.glCreateProgram();
-        GL20.glAttachShader(programId, vertexShaderId);
-        GL20.glAttachShader(programId, fragmentShaderId);
-        bindAttributes();
-        GL20.glLinkProgram(programId);
-        GL20.glValidateProgram(programId);
+        if (!ProgramCache.load(programId, name, cacheKey)) {
+            vertexShaderId = compileShader(vertexSource, GL20.GL_VERTEX_SHADER);
+            fragmentShaderId = compileShader(fragmentSource, GL20.GL_FRAGMENT_SHADER);
+            GL20.glAttachShader(programId, vertexShaderId);
+            GL20.glAttachShader(programId, fragmentShaderId);
+            bindAttributes();
+            ProgramCache.prepareForStore(programId);
+            GL20.glLinkProgram(programId);
+        }
+    }
+
+    /**
+     * Diese Funktion prüft beim ersten Verwenden, ob das Programm fehlerfrei kompiliert und gelinkt wurde, speichert es
+     * im {@link ProgramCache} und bestimmt anschließend die Uniform-Referenzen und Textureinheiten.
+     * Die Abfrage des Link-Status wartet, bis der Treiber das Kompilieren und Linken abgeschlossen hat.
+     */
+    private void finishLinking() {
+        long start = System.nanoTime();
+        boolean success = GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == GL11.GL_TRUE;
+        ProgramCache.reportLinkWait(System.nanoTime() - start);
+        if (!success) {
+            printShaderLog(vertexShaderId);
+            printShaderLog(fragmentShaderId);
+            System.out.println(GL20.glGetProgramInfoLog(programId, 500));
+            System.err.println("Could not link shader program." + name);
+            System.exit(-1);
+        }
+        if (vertexShaderId != 0) {
+            ProgramCache.store(programId, name, cacheKey);
+            deleteShaders();
+        }
+        linked = true;
+        bindFrameData();
         getAllUniformLocations();
+        GLState.useProgram(programId);
+        connectLightClusters();
+        connectTextureUnits();
+    }
+
+    /**
+     * Diese Funktion gibt das Compiler-Protokoll eines Shaders aus, falls dieser nicht kompiliert werden konnte.
+     *
+     * @param shaderId Referenz auf den Shader
+     */
+    private static void printShaderLog(int shaderId) {
+        if (shaderId != 0 && GL20.glGetShaderi(shaderId, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+            System.out.println(GL20.glGetShaderInfoLog(shaderId, 500));
+        }
+    }
+
+    /**
+     * Diese Funktion löst die Shader vom Programm und löscht sie. Das gelinkte Programm bleibt davon unberührt.
+     */
+    private void deleteShaders() {
+        GL20.glDetachShader(programId, vertexShaderId);
+        GL20.glDetachShader(programId, fragmentShaderId);
+        GL20.glDeleteShader(vertexShaderId);
+        GL20.glDeleteShader(fragmentShaderId);
+        vertexShaderId = 0;
+        fragmentShaderId = 0;
+    }
+
+    /**
+     * Diese Funktion verbindet die Sampler des Shaders mit ihren Textureinheiten. Sie wird einmalig nach dem Linken
+     * bei gebundenem Programm aufgerufen.
+     */
+    protected void connectTextureUnits() {
+    }
+
+    /**
+     * Diese Funktion verbindet den Uniform-Block {@link FrameData} mit seinem Binding-Punkt,
+     * falls der Shader ihn verwendet.
+     */
+    private void bindFrameData() {
+        int blockIndex = GL31.glGetUniformBlockIndex(programId, FrameData.BLOCK_NAME);
+        if (blockIndex != GL31.GL_INVALID_INDEX) {
+            GL31.glUniformBlockBinding(programId, blockIndex, FrameData.BINDING);
+        }
+    }
+
+    /**
+     * Diese Funktion verbindet die Buffer-Texturen der {@link LightClusters} mit ihren Textureinheiten,
+     * falls der Shader sie verwendet.
+     */
+    private void connectLightClusters() {
+        for (int i = 0; i < LightClusters.SAMPLER_NAMES.length; i++) {
+            loadInt(getUniformLocation(LightClusters.SAMPLER_NAMES[i]), LightClusters.FIRST_TEXTURE_UNIT + i);
+        }
     }
 
     /**
@@ -72,7 +181,64 @@ public abstract class ShaderProgram {
      * @return Referenz auf eine genutzte OpenGL Ressource
      */
     protected int getUniformLocation(String uniformName) {
-        return GL20.glGetUniformLocation(programId, uniformName);
+        int location = GL20.glGetUniformLocation(programId, uniformName);
+        if (location >= uniformValues.length) {
+            uniformValues = Arrays.copyOf(uniformValues, location + 1);
+        }
+        return location;
+    }
+
+    /**
+     * Diese Funktion übergibt die zuletzt geladenen Werte einer Uniform-Referenz. Noch nie geladene Werte sind NaN
+     * und damit zu keinem Wert gleich.
+     *
+     * @param location Referenz
+     * @param size     Anzahl der Werte der Uniform
+     * @return zuletzt geladene Werte oder null, falls die Uniform im Shader nicht verwendet wird
+     */
+    private float[] getUniformValues(int location, int size) {
+        if (location < 0 || location >= uniformValues.length) {
+            return null;
+        }
+        float[] values = uniformValues[location];
+        if (values == null || values.length != size) {
+            values = new float[size];
+            Arrays.fill(values, Float.NaN);
+            uniformValues[location] = values;
+        }
+        return values;
+    }
+
+    /**
+     * Diese Funktion vergleicht bis zu vier Werte mit den zuletzt geladenen Werten einer Uniform und übernimmt sie.
+     *
+     * @param location Referenz
+     * @param size     Anzahl der Werte der Uniform
+     * @param x        erster Wert
+     * @param y        zweiter Wert
+     * @param z        dritter Wert
+     * @return Information, ob sich mindestens ein Wert geändert hat und die Uniform geladen werden muss
+     */
+    private boolean updateUniform(int location, int size, float x, float y, float z) {
+        float[] values = getUniformValues(location, size);
+        if (values == null) {
+            GLState.countAvoidedCall();
+            return false;
+        }
+        boolean changed = values[0] != x || (size > 1 && values[1] != y) || (size > 2 && values[2] != z);
+        if (!changed) {
+            GLState.countAvoidedCall();
+            return false;
+        }
+        values[0] = x;
+        if (size > 1) {
+            values[1] = y;
+        }
+        if (size > 2) {
+            values[2] = z;
+        }
+        GLState.countIssuedCall();
+        return true;
     }
 
     /**
@@ -82,7 +248,9 @@ public abstract class ShaderProgram {
      * @param value    zu hinterlegender Wert
      */
     protected void loadInt(int location, int value) {
-        GL20.glUniform1i(location, value);
+        if (updateUniform(location, 1, value, 0, 0)) {
+            GL20.glUniform1i(location, value);
+        }
     }
 
     /**
@@ -92,7 +260,9 @@ public abstract class ShaderProgram {
      * @param value    zu hinterlegender Wert
      */
     protected void loadFloat(int location, float value) {
-        GL20.glUniform1f(location, value);
+        if (updateUniform(location, 1, value, 0, 0)) {
+            GL20.glUniform1f(location, value);
+        }
     }
 
     /**
@@ -102,7 +272,9 @@ public abstract class ShaderProgram {
      * @param vector   zu hinterlegender Vektor
      */
     protected void loadVector(int location, Vector3f vector) {
-        GL20.glUniform3f(location, vector.x, vector.y, vector.z);
+        if (updateUniform(location, 3, vector.x, vector.y, vector.z)) {
+            GL20.glUniform3f(location, vector.x, vector.y, vector.z);
+        }
     }
 
     /**
@@ -112,7 +284,9 @@ public abstract class ShaderProgram {
      * @param vector   zu hinterlegender Vektor
      */
     protected void loadVector2(int location, Vector2f vector) {
-        GL20.glUniform2f(location, vector.x, vector.y);
+        if (updateUniform(location, 2, vector.x, vector.y, 0)) {
+            GL20.glUniform2f(location, vector.x, vector.y);
+        }
     }
 
     /**
@@ -122,7 +296,7 @@ public abstract class ShaderProgram {
      * @param value    zu hinterlegender Wert
      */
     protected void loadBoolean(int location, boolean value) {
-        GL20.glUniform1f(location, value ? 1f : 0f);
+        loadFloat(location, value ? 1f : 0f);
     }
 
     /**
@@ -132,8 +306,26 @@ public abstract class ShaderProgram {
      * @param matrix   zu hinterlegende Matrix
      */
     protected void loadMatrix(int location, Matrix4f matrix) {
+        float[] values = getUniformValues(location, 16);
+        if (values == null) {
+            GLState.countAvoidedCall();
+            return;
+        }
         matrix.store(matrixBuffer);
         matrixBuffer.flip();
+        boolean changed = false;
+        for (int i = 0; i < 16; i++) {
+            float value = matrixBuffer.get(i);
+            if (values[i] != value) {
+                values[i] = value;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            GLState.countAvoidedCall();
+            return;
+        }
+        GLState.countIssuedCall();
         GL20.glUniformMatrix4(location, false, matrixBuffer);
     }
 
@@ -141,14 +333,17 @@ public abstract class ShaderProgram {
      * Diese Funktion start das Programm, welches die beiden Shader implementiert.
      */
     public void start() {
-        GL20.glUseProgram(programId);
+        if (!linked) {
+            finishLinking();
+        }
+        GLState.useProgram(programId);
     }
 
     /**
      * Diese Funktion stoppt das Shader-Programm.
      */
     public void stop() {
-        GL20.glUseProgram(0);
+        GLState.useProgram(0);
     }
 
     /**
@@ -156,10 +351,9 @@ public abstract class ShaderProgram {
      */
     public void cleanUp() {
         stop();
-        GL20.glDetachShader(programId, vertexShaderId);
-        GL20.glDetachShader(programId, fragmentShaderId);
-        GL20.glDeleteShader(vertexShaderId);
-        GL20.glDeleteShader(fragmentShaderId);
+        if (vertexShaderId != 0) {
+            deleteShaders();
+        }
         GL20.glDeleteProgram(programId);
     }
 
@@ -179,17 +373,28 @@ public abstract class ShaderProgram {
     }
 
     /**
-     * Diese Funktion lädt eine Shaderdatei ein, generiert mithilfe von {@link GL20} den Shader und übergibt die Referenz auf diesen Shader.
+     * Diese Funktion lädt den Quellcode einer Shaderdatei ein.
+     * Zeilen der Form {@code #include "datei"} werden durch den Inhalt der angegebenen Datei ersetzt,
+     * z.B. für die Deklaration von {@link FrameData}.
      *
      * @param file Name der Shaderdatei
-     * @param type {@link GL20#GL_VERTEX_SHADER} or {@link GL20#GL_FRAGMENT_SHADER}
-     * @return Referenz auf diesen Shader
+     * @return Quellcode des Shaders
      */
-    private static int loadShader(String file, int type) {
+    private static String readShaderSource(String file) {
         StringBuilder shaderSource = new StringBuilder();
         String line;
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#include")) {
+                    String includeFile = line.substring(line.indexOf('"') + 1, line.lastIndexOf('"'));
+                    try (BufferedReader includeReader = new BufferedReader(new FileReader(includeFile))) {
+                        String includeLine;
+                        while ((includeLine = includeReader.readLine()) != null) {
+                            shaderSource.append(includeLine).append("\n");
+                        }
+                    }
+                    continue;
+                }
                 shaderSource.append(line).append("\n");
             }
         } catch (IOException e) {
@@ -197,17 +402,21 @@ public abstract class ShaderProgram {
             e.printStackTrace();
             System.exit(-1);
         }
+        return shaderSource.toString();
+    }
 
+    /**
+     * Diese Funktion generiert mithilfe von {@link GL20} einen Shader und stößt das Kompilieren an. Der Status wird
+     * nicht abgefragt, damit der Treiber im Hintergrund kompilieren kann; Fehler meldet erst das Linken.
+     *
+     * @param source Quellcode des Shaders
+     * @param type   {@link GL20#GL_VERTEX_SHADER} or {@link GL20#GL_FRAGMENT_SHADER}
+     * @return Referenz auf diesen Shader
+     */
+    private static int compileShader(String source, int type) {
         int shaderId = GL20.glCreateShader(type);
-        GL20.glShaderSource(shaderId, shaderSource);
+        GL20.glShaderSource(shaderId, source);
         GL20.glCompileShader(shaderId);
-
-        if (GL20.glGetShader(shaderId, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
-            System.out.println(GL20.glGetShaderInfoLog(shaderId, 500));
-            System.err.println("Could not compile shader file." + file);
-            System.exit(-1);
-        }
-
         return shaderId;
     }
 }
@@ -1,16 +1,13 @@
 package shaders;
 
-import entities.Camera;
-import entities.Light;
+import models.VertexFormat;
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
-import toolbox.Maths;
-
-import java.util.List;
 
 /**
  * Diese Klasse implementiert und erweitert das {@link ShaderProgram} für die Darstellung der Entities.
+ * Kamera, Nebel, Himmelfarbe und Lichtquellen liest der Shader aus dem gemeinsamen Uniform-Block {@link FrameData}.
  */
 public class StaticShader extends ShaderProgram {
 
@@ -22,73 +19,88 @@ public class StaticShader extends ShaderProgram {
      * Referenz auf die Terrain Fragment Shader Datei
      */
     private static final String FRAGMENT_FILE = "src/shaders/fragmentShader";
+    /**
+     * Referenz auf die Fragment Shader Datei des Tiefen-Vorpasses, der nur Tiefenwerte schreibt
+     */
+    public static final String DEPTH_FRAGMENT_FILE = "src/shaders/depthFragmentShader";
 
     /**
      * Referenz auf die Transformationsmatrix in dem Shader Programm
      */
     private int locationTransformationMatrix;
+
     /**
-     * Referenz auf die Projektionsmatrix in dem Shader Programm
+     * Referenz auf die Stärke, mit der das Glanzlicht für größere Winkel gedämpft wird
      */
-    private int locationProjectionMatrix;
+    private int locationShineDamper;
     /**
-     * Referenz auf die Ansichtsmatrix in dem Shader Programm
+     * Referenz auf die Reflektionsstärke der Oberfläche
      */
-    private int locationViewMatrix;
+    private int locationReflectivity;
 
     /**
-     * Referenz auf die Positionen der Lichtquellen in dem Shader Programm
+     * Referenz auf die Information, ob pysikalisch richtige Beleuchtung genutzt werden soll
      */
-    private int[] locationLightPosition;
+    private int locationIsFakeLit;
+
     /**
-     * Referenz auf die Farben der Lichtquellen in dem Shader Programm
+     * Referenz auf die Anzahl der Texturen
      */
-    private int[] locationLightColor;
+    private int locationNumberOfRows;
     /**
-     * Referenz auf die Abschwächung der Lichtquellen in dem Shader Programm
+     * Referenz auf die ausgewählte Textur (bei mehreren möglichen)
      */
-    private int[] locationAttenuation;
+    private int locationOffset;
     /**
-     * Referenz auf die Stärke, mit der das Glanzlicht für größere Winkel gedämpft wird
+     * Referenz auf die Ebene im Textur-Array
      */
-    private int locationShineDamper;
+    private int locationTextureLayer;
     /**
-     * Referenz auf die Reflektionsstärke der Oberfläche
+     * Referenz auf die Information, ob aus dem Textur-Array statt der einzelnen Textur gelesen werden soll
      */
-    private int locationReflectivity;
-
+    private int locationUseTextureArray;
     /**
-     * Referenz auf die Information, ob pysikalisch richtige Beleuchtung genutzt werden soll
+     * Referenz auf den Sampler der einzelnen Textur
      */
-    private int locationIsFakeLit;
+    private int locationTextureSampler;
     /**
-     * Referenz auf die Himmelfarbe in dem Shader Programm
+     * Referenz auf den Sampler des Textur-Arrays
      */
-    private int locationSkyColor;
+    private int locationTextureArraySampler;
     /**
-     * Referenz auf die Dichte des Nebels in dem Shader Programm
+     * Referenz auf die Information, ob die Transformation aus den Instanz-Attributen gelesen werden soll
      */
-    private int locationFogDensity;
+    private int locationUseInstancing;
     /**
-     * Referenz auf den Gradienten des Nebels in dem Shader Programm
+     * Referenz auf die gerasterte Überblendung zwischen zwei Level of Detail
      */
-    private int locationFogGradient;
-
+    private int locationLodFade;
     /**
-     * Referenz auf die Anzahl der Texturen
+     * Referenz auf die Verschiebung quantisierter Positionen in den Modellraum
      */
-    private int locationNumberOfRows;
+    private int locationPositionOffset;
     /**
-     * Referenz auf die ausgewählte Textur (bei mehreren möglichen)
+     * Referenz auf die Skalierung quantisierter Positionen in den Modellraum
      */
-    private int locationOffset;
+    private int locationPositionScale;
 
     /**
      * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
      * in der OpenGL-Shader-Language für das Terrain erstellt.
      */
     public StaticShader() {
-        super(VERTEX_FILE, FRAGMENT_FILE);
+        this(FRAGMENT_FILE);
+    }
+
+    /**
+     * Es wird eine Shaderrepräsentation mit dem Vertex Shader der Entities und einem eigenen Fragment Shader erstellt,
+     * z.B. {@link StaticShader#DEPTH_FRAGMENT_FILE} für den Tiefen-Vorpass. Uniforms, die der Fragment Shader nicht
+     * verwendet, werden beim Laden übersprungen.
+     *
+     * @param fragmentFile Dateiname des Fragment Shaders
+     */
+    public StaticShader(String fragmentFile) {
+        super(VERTEX_FILE, fragmentFile);
     }
 
     /**
@@ -99,6 +111,8 @@ public class StaticShader extends ShaderProgram {
         super.bindAttribute(0, "position");
         super.bindAttribute(1, "textureCoordinates");
         super.bindAttribute(2, "normal");
+        super.bindAttribute(3, "instanceTransformationMatrix");
+        super.bindAttribute(7, "instanceData");
     }
 
     /**
@@ -107,25 +121,20 @@ public class StaticShader extends ShaderProgram {
     @Override
     protected void getAllUniformLocations() {
         locationTransformationMatrix = super.getUniformLocation("transformationMatrix");
-        locationProjectionMatrix = super.getUniformLocation("projectionMatrix");
-        locationViewMatrix = super.getUniformLocation("viewMatrix");
         locationShineDamper = super.getUniformLocation("shineDamper");
         locationReflectivity = super.getUniformLocation("reflectivity");
         locationIsFakeLit = super.getUniformLocation("isFakeLit");
-        locationSkyColor = super.getUniformLocation("skyColor");
-        locationFogDensity = super.getUniformLocation("density");
-        locationFogGradient = super.getUniformLocation("gradient");
         locationNumberOfRows = super.getUniformLocation("numberOfRows");
         locationOffset = super.getUniformLocation("offset");
+        locationTextureLayer = super.getUniformLocation("textureLayer");
+        locationUseTextureArray = super.getUniformLocation("useTextureArray");
+        locationTextureSampler = super.getUniformLocation("textureSampler");
+        locationTextureArraySampler = super.getUniformLocation("textureArraySampler");
+        locationUseInstancing = super.getUniformLocation("useInstancing");
+        locationLodFade = super.getUniformLocation("lodFade");
+        locationPositionOffset = super.getUniformLocation("positionOffset");
+        locationPositionScale = super.getUniformLocation("positionScale");
 
-        locationLightPosition = new int[MAX_LIGHTS];
-        locationLightColor = new int[MAX_LIGHTS];
-        locationAttenuation = new int[MAX_LIGHTS];
-        for (int i = 0; i < MAX_LIGHTS; i++) {
-            locationLightPosition[i] = super.getUniformLocation("lightPosition[" + i + "]");
-            locationLightColor[i] = super.getUniformLocation("lightColor[" + i + "]");
-            locationAttenuation[i] = super.getUniformLocation("attenuation[" + i + "]");
-        }
     }
 
     /**
@@ -147,25 +156,51 @@ public class StaticShader extends ShaderProgram {
     }
 
     /**
-     * Diese Funktion hinterlegt die Dichte und den Gradienten des Nebels.
+     * Diese Funktion verbindet den Sampler der einzelnen Textur mit der Textur-Einheit 0
+     * und den Sampler des Textur-Arrays mit der Textur-Einheit 1.
+     */
+    @Override
+    public void connectTextureUnits() {
+        super.loadInt(locationTextureSampler, 0);
+        super.loadInt(locationTextureArraySampler, 1);
+    }
+
+    /**
+     * Diese Funktion hinterlegt, ob aus dem Textur-Array gelesen werden soll.
+     *
+     * @param useTextureArray Information, ob die Textur eine Ebene eines Textur-Arrays ist
+     */
+    public void loadUseTextureArray(boolean useTextureArray) {
+        super.loadBoolean(locationUseTextureArray, useTextureArray);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Ebene im Textur-Array.
+     *
+     * @param textureLayer Ebene im Textur-Array
+     */
+    public void loadTextureLayer(int textureLayer) {
+        super.loadFloat(locationTextureLayer, textureLayer);
+    }
+
+    /**
+     * Diese Funktion hinterlegt, ob Transformationsmatrix und Texture Offset aus den Instanz-Attributen
+     * (instanziertes Rendern) oder aus den Uniforms gelesen werden sollen.
      *
-     * @param density  Dichte des Nebels
-     * @param gradient Gradient des Nebels
+     * @param useInstancing Information, ob instanziert gerendert wird
      */
-    public void loadFog(float density, float gradient) {
-        super.loadFloat(locationFogDensity, density);
-        super.loadFloat(locationFogGradient, gradient);
+    public void loadUseInstancing(boolean useInstancing) {
+        super.loadBoolean(locationUseInstancing, useInstancing);
     }
 
     /**
-     * Diese Funktion hinterlegt einen RGB-Wert für die Himmelfarbe.
+     * Diese Funktion hinterlegt die Überblendung des Level of Detail für nicht instanziert gerenderte Entities.
+     * Ein Wert t in [0, 1) zeigt den Anteil t der Pixel, -t den komplementären Anteil, 1 zeigt alle Pixel.
      *
-     * @param r Rotwert
-     * @param g Grünwert
-     * @param b Blauwert
+     * @param lodFade Überblendung des Level of Detail
      */
-    public void loadSkyColor(float r, float g, float b) {
-        super.loadVector(locationSkyColor, new Vector3f(r, g, b));
+    public void loadLodFade(float lodFade) {
+        super.loadFloat(locationLodFade, lodFade);
     }
 
     /**
@@ -188,25 +223,6 @@ public class StaticShader extends ShaderProgram {
         super.loadFloat(locationReflectivity, reflection);
     }
 
-    /**
-     * Diese Funktion hinterlegt alle Positionen, Farben und Abschwächung der Lichtquellen.
-     *
-     * @param lights die darzustellenden Lichtquellen
-     */
-    public void loadLights(List<Light> lights) {
-        for (int i = 0; i < MAX_LIGHTS; i++) {
-            if (i < lights.size()) {
-                super.loadVector(locationLightPosition[i], lights.get(i).getPosition());
-                super.loadVector(locationLightColor[i], lights.get(i).getColor());
-                super.loadVector(locationAttenuation[i], lights.get(i).getAttenuation());
-            } else {
-                super.loadVector(locationLightPosition[i], new Vector3f(0, 0, 0));
-                super.loadVector(locationLightColor[i], new Vector3f(0, 0, 0));
-                super.loadVector(locationAttenuation[i], new Vector3f(1, 0, 0));
-            }
-        }
-    }
-
     /**
      * Diese Funktion hinterlegt eine {@link Matrix4f} als Tranformationsmatrix.
      *
@@ -217,21 +233,18 @@ public class StaticShader extends ShaderProgram {
     }
 
     /**
-     * Diese Funktion hinterlegt eine {@link Camera} als Ansichtsmatrix.
+     * Diese Funktion hinterlegt die Umrechnung quantisierter Positionen eines Modells in den Modellraum.
+     * Ohne {@link VertexFormat} werden die Positionen unverändert verwendet.
      *
-     * @param camera Kamera ({@link Camera})
-     */
-    public void loadViewMatrix(Camera camera) {
-        Matrix4f viewMatrix = Maths.createViewMatrix(camera);
-        super.loadMatrix(locationViewMatrix, viewMatrix);
-    }
-
-    /**
-     * Diese Funktion hinterlegt eine {@link Matrix4f} als Projektionsmatrix.
-     *
-     * @param matrix Projektionsmatrix ({@link Matrix4f})
-     */
-    public void loadProjectionMatrix(Matrix4f matrix) {
-        super.loadMatrix(locationProjectionMatrix, matrix);
+     * @param format {@link VertexFormat} des Modells oder null
+     */
+    public void loadVertexFormat(VertexFormat format) {
+        if (format == null) {
+            super.loadVector(locationPositionOffset, new Vector3f(0, 0, 0));
+            super.loadFloat(locationPositionScale, 1);
+        } else {
+            super.loadVector(locationPositionOffset, format.getPositionOffset());
+            super.loadFloat(locationPositionScale, format.getPositionScale());
+        }
     }
 }
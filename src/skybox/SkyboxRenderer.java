@@ -4,11 +4,13 @@ import entities.Camera;
 import models.RawModel;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
 import org.lwjgl.util.vector.Matrix4f;
+import renderEngine.AssetPipeline;
+import renderEngine.GLState;
 import renderEngine.Loader;
 
+import java.util.concurrent.Future;
+
 /**
  * Diese Klasse ist ein Renderer zum Darstellen der Skybox.
  */
@@ -105,6 +107,10 @@ public class SkyboxRenderer {
      * Shader der Skybox
      */
     private final SkyboxShader shader;
+    /**
+     * Projektionsmatrix der Skybox
+     */
+    private final Matrix4f projectionMatrix;
 
     /**
      * Vermischungsfaktor der Tages- und Nachttextur der Skybox
@@ -114,18 +120,18 @@ public class SkyboxRenderer {
     /**
      * Ein Renderer für die Skybox mit dem dazugehörigen Shader wird erstellt.
      *
-     * @param loader           {@link Loader} zum Laden der Tages- und Nachttexturen
+     * @param loader           {@link Loader} zum Laden des Würfels
+     * @param assets           {@link AssetPipeline} zum parallelen Laden der Tages- und Nachttexturen
      * @param projectionMatrix Projektionsmatrix der Skybox
      */
-    public SkyboxRenderer(Loader loader, Matrix4f projectionMatrix) {
-        cube = loader.loadToVAO(VERTICES, 3);
-        texture = loader.loadCubeMap(TEXTURE_FILES);
-        textureNight = loader.loadCubeMap(TEXTURE_FILES_NIGHT);
+    public SkyboxRenderer(Loader loader, AssetPipeline assets, Matrix4f projectionMatrix) {
+        Future<Integer> dayCubeMap = assets.loadCubeMap(TEXTURE_FILES);
+        Future<Integer> nightCubeMap = assets.loadCubeMap(TEXTURE_FILES_NIGHT);
         shader = new SkyboxShader();
-        shader.start();
-        shader.connectTextureUnits();
-        shader.loadProjectionMatrix(projectionMatrix);
-        shader.stop();
+        this.projectionMatrix = projectionMatrix;
+        cube = loader.loadToVAO(VERTICES, 3);
+        texture = assets.await(dayCubeMap);
+        textureNight = assets.await(nightCubeMap);
     }
 
 
@@ -139,14 +145,14 @@ public class SkyboxRenderer {
      */
     public void render(Camera camera, float r, float g, float b) {
         shader.start();
+        shader.loadProjectionMatrix(projectionMatrix);
         shader.loadViewMatrix(camera);
         shader.loadFogColor(r, g, b);
-        GL30.glBindVertexArray(cube.getVaoID());
-        GL20.glEnableVertexAttribArray(0);
+        GLState.bindVertexArray(cube.getVaoID());
+        GLState.enableVertexAttribArray(0);
         bindTextures();
         GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, cube.getVertexCount());
-        GL20.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
+        GLState.bindVertexArray(0);
         shader.stop();
     }
 
@@ -164,10 +170,8 @@ public class SkyboxRenderer {
      * sowie den Vermischungsfaktor der beiden.
      */
     private void bindTextures() {
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
-        GL13.glActiveTexture(GL13.GL_TEXTURE1);
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, textureNight);
+        GLState.bindTexture(0, GL13.GL_TEXTURE_CUBE_MAP, texture);
+        GLState.bindTexture(1, GL13.GL_TEXTURE_CUBE_MAP, textureNight);
         shader.loadBlendFactor(fade);
     }
 
@@ -89,6 +89,7 @@ public class SkyboxShader extends ShaderProgram {
     /**
      * Diese Funktion hinterlegt die Tages- und Nachttextur der Skybox.
      */
+    @Override
     public void connectTextureUnits() {
         super.loadInt(locationCubeMap, 0);
         super.loadInt(locationCubeMap2, 1);
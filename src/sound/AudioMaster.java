@@ -38,10 +38,30 @@ public class AudioMaster {
      * @return Buffer-ID
      */
     public static int loadSound(String file) {
+        return loadSound(decodeSound(file));
+    }
+
+    /**
+     * Diese Funktion dekodiert eine Audiospur aus dem angegebenen Dateipfad (mit Dateiendung), ohne OpenAL zu
+     * verwenden. Sie kann daher auch in Hintergrund-Threads aufgerufen werden.
+     *
+     * @param file Pfad der Audiodatei
+     * @return dekodierte Audiospur
+     */
+    public static WaveData decodeSound(String file) {
+        return WaveData.create(file);
+    }
+
+    /**
+     * Diese Funktion lädt eine bereits dekodierte Audiospur in einen Buffer und übergibt die Buffer-ID.
+     *
+     * @param waveFile dekodierte Audiospur, wird anschließend freigegeben
+     * @return Buffer-ID
+     */
+    public static int loadSound(WaveData waveFile) {
         int buffer = AL10.alGenBuffers();
         buffers.add(buffer);
 
-        WaveData waveFile = WaveData.create(file);
         AL10.alBufferData(buffer, waveFile.format, waveFile.data, waveFile.samplerate);
         waveFile.dispose();
         return buffer;
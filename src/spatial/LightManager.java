@@ -0,0 +1,182 @@
+package spatial;
+
+import entities.Light;
+import org.lwjgl.util.vector.Vector3f;
+import toolbox.Frustum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diese Klasse verwaltet beliebig viele {@link Light}-Objekte in einem losen Gitter über der xz-Ebene der Welt.
+ * <p>
+ * Lichter mit einer Reichweite bis {@link LightManager#MAX_CELL_RANGE} werden nach ihrer Position in eine Zelle
+ * einsortiert; eine Zelle wird bei der Abfrage um diese Reichweite vergrößert gegen das Frustum getestet. Lichter mit
+ * größerer Reichweite, z.B. die Sonne, werden einzeln geprüft. Da sich Lichter jederzeit bewegen oder ihre Farbe
+ * ändern können, wird das Gitter bei jeder Abfrage neu befüllt. Welche der sichtbaren Lichter ein Fragment
+ * tatsächlich berechnet, entscheidet anschließend {@link shaders.LightClusters} anhand der Abschwächung.
+ */
+public class LightManager {
+
+    /**
+     * Kantenlänge einer Zelle
+     */
+    private static final float CELL_SIZE = 32;
+    /**
+     * größte Reichweite eines Lichts, das noch in einer Zelle einsortiert wird
+     */
+    private static final float MAX_CELL_RANGE = 2 * CELL_SIZE;
+
+    /**
+     * alle Lichter in der Reihenfolge, in der sie hinzugefügt wurden
+     */
+    private final List<Light> lights = new ArrayList<>();
+    /**
+     * Lichter mit kleiner Reichweite je Zelle, Schlüssel aus den Zellkoordinaten
+     */
+    private final Map<Long, List<Light>> cells = new HashMap<>();
+    /**
+     * Lichter, deren Reichweite für eine Zelle zu groß ist
+     */
+    private final List<Light> largeLights = new ArrayList<>();
+    /**
+     * Ergebnis der letzten Abfrage
+     */
+    private final List<Light> visibleLights = new ArrayList<>();
+    /**
+     * minimale und maximale Höhe der Lichter in Zellen
+     */
+    private float minY, maxY;
+
+    /**
+     * Diese Funktion fügt ein Licht hinzu.
+     *
+     * @param light Licht
+     * @return das hinzugefügte Licht
+     */
+    public Light add(Light light) {
+        lights.add(light);
+        return light;
+    }
+
+    /**
+     * Diese Funktion entfernt ein Licht.
+     *
+     * @param light Licht
+     */
+    public void remove(Light light) {
+        lights.remove(light);
+    }
+
+    /**
+     * Diese Funktion übergibt ein Licht in der Reihenfolge, in der die Lichter hinzugefügt wurden.
+     *
+     * @param index Index des Lichts
+     * @return Licht
+     */
+    public Light get(int index) {
+        return lights.get(index);
+    }
+
+    /**
+     * Diese Funktion übergibt alle Lichter.
+     *
+     * @return unveränderbare Liste aller Lichter
+     */
+    public List<Light> getLights() {
+        return Collections.unmodifiableList(lights);
+    }
+
+    /**
+     * Diese Funktion sortiert alle Lichter neu in das Gitter ein und übergibt die Lichter, deren Reichweite das Frustum
+     * schneidet. Schwarze Lichter werden übersprungen.
+     *
+     * @param frustum Frustum der Kamera
+     * @return sichtbare Lichter, gültig bis zum nächsten Aufruf
+     */
+    public List<Light> getVisibleLights(Frustum frustum) {
+        rebuild();
+        visibleLights.clear();
+        for (Light light : largeLights) {
+            addIfVisible(light, frustum);
+        }
+        for (Map.Entry<Long, List<Light>> cell : cells.entrySet()) {
+            List<Light> cellLights = cell.getValue();
+            if (cellLights.isEmpty()) {
+                continue;
+            }
+            float minX = (int) (cell.getKey() >> 32) * CELL_SIZE - MAX_CELL_RANGE;
+            float minZ = cell.getKey().intValue() * CELL_SIZE - MAX_CELL_RANGE;
+            float size = CELL_SIZE + 2 * MAX_CELL_RANGE;
+            if (!frustum.intersectsBox(minX, minY - MAX_CELL_RANGE, minZ, minX + size, maxY + MAX_CELL_RANGE, minZ + size)) {
+                continue;
+            }
+            for (Light light : cellLights) {
+                addIfVisible(light, frustum);
+            }
+        }
+        return visibleLights;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Lichter, die bei der letzten Abfrage sichtbar waren.
+     *
+     * @return Anzahl sichtbarer Lichter
+     */
+    public int getVisibleLightCount() {
+        return visibleLights.size();
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl aller Lichter.
+     *
+     * @return Anzahl der Lichter
+     */
+    public int size() {
+        return lights.size();
+    }
+
+    /**
+     * Diese Funktion leert alle Zellen und sortiert die leuchtenden Lichter nach ihrer aktuellen Position und Reichweite
+     * neu ein. Leere Zellen bleiben erhalten, damit ihre Listen wiederverwendet werden.
+     */
+    private void rebuild() {
+        for (List<Light> cellLights : cells.values()) {
+            cellLights.clear();
+        }
+        largeLights.clear();
+        minY = Float.POSITIVE_INFINITY;
+        maxY = Float.NEGATIVE_INFINITY;
+        for (Light light : lights) {
+            if (light.getBrightness() <= 0) {
+                continue;
+            }
+            if (light.getRange() > MAX_CELL_RANGE) {
+                largeLights.add(light);
+                continue;
+            }
+            Vector3f position = light.getPosition();
+            long cellX = (long) Math.floor(position.x / CELL_SIZE);
+            long cellZ = (long) Math.floor(position.z / CELL_SIZE);
+            cells.computeIfAbsent((cellX << 32) | (cellZ & 0xFFFFFFFFL), key -> new ArrayList<>()).add(light);
+            minY = Math.min(minY, position.y);
+            maxY = Math.max(maxY, position.y);
+        }
+    }
+
+    /**
+     * Diese Funktion übernimmt ein Licht in das Ergebnis, falls seine Reichweite das Frustum schneidet.
+     *
+     * @param light   Licht
+     * @param frustum Frustum der Kamera
+     */
+    private void addIfVisible(Light light, Frustum frustum) {
+        Vector3f position = light.getPosition();
+        if (frustum.intersectsSphere(position.x, position.y, position.z, light.getRange())) {
+            visibleLights.add(light);
+        }
+    }
+}
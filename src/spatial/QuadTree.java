@@ -0,0 +1,437 @@
+package spatial;
+
+import entities.Entity;
+import org.lwjgl.util.vector.Vector3f;
+import toolbox.Frustum;
+import toolbox.HorizonCuller;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diese Klasse ist ein loser Quadtree über der xz-Ebene der Welt, der {@link Entity}-Objekte anhand ihrer
+ * umschließenden Kugel einordnet.
+ * <p>
+ * Jeder Knoten nimmt Entities auf, deren Mittelpunkt in seiner Zelle liegt und deren Radius höchstens die halbe
+ * Zellgröße beträgt. Dadurch ergibt sich die Tiefe einer Entity direkt aus ihrem Radius und das Einfügen bzw.
+ * Verschieben ist ein einzelner Abstieg ohne Umverteilung. Statische Entities werden einmal eingefügt,
+ * bewegliche Entities nach jeder Bewegung mit {@link QuadTree#update(Entity)} nachgeführt.
+ */
+public class QuadTree {
+
+    /**
+     * Standardwert der maximalen Tiefe des Baums
+     */
+    public static final int DEFAULT_MAX_DEPTH = 6;
+
+    /**
+     * Wurzelknoten, der die gesamte Welt abdeckt
+     */
+    private final QuadTreeNode root;
+    /**
+     * maximale Tiefe des Baums
+     */
+    private final int maxDepth;
+    /**
+     * Knoten, in dem eine Entity aktuell liegt
+     */
+    private final Map<Entity, QuadTreeNode> nodes = new IdentityHashMap<>();
+    /**
+     * Entities, die nicht in die losen Grenzen der Wurzel passen und daher einzeln geprüft werden
+     */
+    private final List<Entity> outside = new ArrayList<>();
+
+    /**
+     * Zwischenspeicher für den Mittelpunkt einer umschließenden Kugel
+     */
+    private final Vector3f sphereCenter = new Vector3f();
+
+    /**
+     * Ein {@link QuadTree} wird für ein quadratisches Gebiet der Welt mit der Standardtiefe erstellt.
+     *
+     * @param originX minimale x-Koordinate des Gebiets
+     * @param originZ minimale z-Koordinate des Gebiets
+     * @param size    Kantenlänge des Gebiets
+     */
+    public QuadTree(float originX, float originZ, float size) {
+        this(originX, originZ, size, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Ein {@link QuadTree} wird für ein quadratisches Gebiet der Welt erstellt.
+     *
+     * @param originX  minimale x-Koordinate des Gebiets
+     * @param originZ  minimale z-Koordinate des Gebiets
+     * @param size     Kantenlänge des Gebiets
+     * @param maxDepth maximale Tiefe des Baums
+     */
+    public QuadTree(float originX, float originZ, float size, int maxDepth) {
+        this.root = new QuadTreeNode(null, 0, originX + size / 2f, originZ + size / 2f, size / 2f);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity in den Baum ein.
+     *
+     * @param entity Entity
+     */
+    public void insert(Entity entity) {
+        if (nodes.containsKey(entity) || outside.contains(entity)) {
+            update(entity);
+            return;
+        }
+        entity.getBoundingSphereCenter(sphereCenter);
+        float radius = entity.getBoundingSphereRadius();
+        QuadTreeNode node = findNode(sphereCenter.x, sphereCenter.z, radius);
+        if (node == null) {
+            outside.add(entity);
+            return;
+        }
+        addToNode(node, entity, sphereCenter.y - radius, sphereCenter.y + radius);
+    }
+
+    /**
+     * Diese Funktion entfernt eine Entity aus dem Baum.
+     *
+     * @param entity Entity
+     */
+    public void remove(Entity entity) {
+        QuadTreeNode node = nodes.remove(entity);
+        if (node != null) {
+            node.entities.remove(entity);
+            for (QuadTreeNode n = node; n != null; n = n.parent) {
+                n.subtreeCount--;
+            }
+        } else {
+            outside.remove(entity);
+        }
+    }
+
+    /**
+     * Diese Funktion ordnet eine bewegte Entity neu ein. Bleibt die Entity in ihrem Knoten,
+     * wird lediglich die Höhenausdehnung des Teilbaums angepasst.
+     *
+     * @param entity bewegte Entity
+     */
+    public void update(Entity entity) {
+        entity.getBoundingSphereCenter(sphereCenter);
+        float radius = entity.getBoundingSphereRadius();
+        QuadTreeNode target = findNode(sphereCenter.x, sphereCenter.z, radius);
+        QuadTreeNode current = nodes.get(entity);
+        if (current != null && current == target) {
+            growHeight(current, sphereCenter.y - radius, sphereCenter.y + radius);
+            return;
+        }
+        remove(entity);
+        if (target == null) {
+            outside.add(entity);
+        } else {
+            addToNode(target, entity, sphereCenter.y - radius, sphereCenter.y + radius);
+        }
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Entities im Baum.
+     *
+     * @return Anzahl der Entities
+     */
+    public int size() {
+        return root.subtreeCount + outside.size();
+    }
+
+    /**
+     * Diese Funktion sammelt alle Entities, deren umschließende Kugel im Frustum liegt.
+     *
+     * @param frustum Frustum der Kamera
+     * @param result  Liste, an die die sichtbaren Entities angehängt werden
+     */
+    public void queryFrustum(Frustum frustum, List<Entity> result) {
+        queryFrustum(frustum, null, result);
+    }
+
+    /**
+     * Diese Funktion sammelt alle Entities, deren umschließende Kugel im Frustum liegt und nicht hinter dem Horizont
+     * des Terrains verschwindet. Knoten, deren lose Grenzen vollständig verdeckt sind, werden übersprungen.
+     *
+     * @param frustum Frustum der Kamera
+     * @param horizon Horizont des Terrains oder null
+     * @param result  Liste, an die die sichtbaren Entities angehängt werden
+     */
+    public void queryFrustum(Frustum frustum, HorizonCuller horizon, List<Entity> result) {
+        queryFrustum(root, frustum, horizon, result);
+        for (Entity entity : outside) {
+            addIfVisible(entity, frustum, horizon, result);
+        }
+    }
+
+    /**
+     * Diese Funktion sammelt alle Entities, deren umschließende Kugel eine Kugel um den angegebenen Punkt schneidet.
+     *
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param y      y-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Suchradius
+     * @param result Liste, an die die gefundenen Entities angehängt werden
+     */
+    public void queryRadius(float x, float y, float z, float radius, List<Entity> result) {
+        queryRadius(root, x, y, z, radius, result);
+        for (Entity entity : outside) {
+            addIfInRadius(entity, x, y, z, radius, result);
+        }
+    }
+
+    /**
+     * Diese Funktion sammelt alle Entities, deren umschließende Kugel von einem Strahl getroffen wird.
+     * Die Reihenfolge der Treffer ist nicht nach Entfernung sortiert.
+     *
+     * @param origin      Startpunkt des Strahls
+     * @param direction   normierte Richtung des Strahls
+     * @param maxDistance maximale Länge des Strahls
+     * @param result      Liste, an die die getroffenen Entities angehängt werden
+     */
+    public void queryRay(Vector3f origin, Vector3f direction, float maxDistance, List<Entity> result) {
+        queryRay(root, origin, direction, maxDistance, result);
+        for (Entity entity : outside) {
+            addIfHitByRay(entity, origin, direction, maxDistance, result);
+        }
+    }
+
+    /**
+     * Diese Funktion bestimmt den tiefsten Knoten, dessen lose Grenzen eine Kugel vollständig enthalten.
+     *
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Radius der Kugel
+     * @return Knoten oder null, falls die Kugel nicht in die Wurzel passt
+     */
+    private QuadTreeNode findNode(float x, float z, float radius) {
+        if (Math.abs(x - root.centerX) + radius > 2 * root.halfSize
+                || Math.abs(z - root.centerZ) + radius > 2 * root.halfSize) {
+            return null;
+        }
+        QuadTreeNode node = root;
+        boolean insideCell = Math.abs(x - root.centerX) <= root.halfSize && Math.abs(z - root.centerZ) <= root.halfSize;
+        // Ein Kindknoten passt, solange der Radius höchstens dessen halbe Zellgröße beträgt
+        while (insideCell && node.depth < maxDepth && radius <= node.halfSize / 2f) {
+            node = node.getOrCreateChild(x, z);
+        }
+        return node;
+    }
+
+    /**
+     * Diese Funktion legt eine Entity in einem Knoten ab und aktualisiert die Zähler und Höhen des Pfads zur Wurzel.
+     *
+     * @param node   Zielknoten
+     * @param entity Entity
+     * @param minY   minimale y-Ausdehnung der Entity
+     * @param maxY   maximale y-Ausdehnung der Entity
+     */
+    private void addToNode(QuadTreeNode node, Entity entity, float minY, float maxY) {
+        node.entities.add(entity);
+        nodes.put(entity, node);
+        for (QuadTreeNode n = node; n != null; n = n.parent) {
+            n.subtreeCount++;
+        }
+        growHeight(node, minY, maxY);
+    }
+
+    /**
+     * Diese Funktion vergrößert die Höhenausdehnung eines Knotens und aller übergeordneten Knoten.
+     *
+     * @param node Knoten
+     * @param minY minimale y-Ausdehnung
+     * @param maxY maximale y-Ausdehnung
+     */
+    private void growHeight(QuadTreeNode node, float minY, float maxY) {
+        for (QuadTreeNode n = node; n != null && (minY < n.minY || maxY > n.maxY); n = n.parent) {
+            n.minY = Math.min(n.minY, minY);
+            n.maxY = Math.max(n.maxY, maxY);
+        }
+    }
+
+    /**
+     * Diese Funktion durchläuft den Teilbaum eines Knotens für eine Frustum-Abfrage.
+     *
+     * @param node    Knoten
+     * @param frustum Frustum der Kamera
+     * @param result  Ergebnisliste
+     */
+    private void queryFrustum(QuadTreeNode node, Frustum frustum, HorizonCuller horizon, List<Entity> result) {
+        if (node.subtreeCount == 0 || !frustum.intersectsBox(node.looseMinX(), node.minY, node.looseMinZ(),
+                node.looseMaxX(), node.maxY, node.looseMaxZ())) {
+            return;
+        }
+        if (horizon != null && horizon.isBoxOccluded(node.looseMinX(), node.looseMinZ(), node.looseMaxX(), node.maxY,
+                node.looseMaxZ())) {
+            return;
+        }
+        for (Entity entity : node.entities) {
+            addIfVisible(entity, frustum, horizon, result);
+        }
+        for (QuadTreeNode child : node.children) {
+            if (child != null) {
+                queryFrustum(child, frustum, horizon, result);
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity der Ergebnisliste hinzu, falls ihre umschließende Kugel im Frustum liegt und nicht
+     * hinter dem Horizont verschwindet.
+     *
+     * @param entity  Entity
+     * @param frustum Frustum der Kamera
+     * @param horizon Horizont des Terrains oder null
+     * @param result  Ergebnisliste
+     */
+    private void addIfVisible(Entity entity, Frustum frustum, HorizonCuller horizon, List<Entity> result) {
+        entity.getBoundingSphereCenter(sphereCenter);
+        float radius = entity.getBoundingSphereRadius();
+        if (frustum.intersectsSphere(sphereCenter.x, sphereCenter.y, sphereCenter.z, radius)
+                && (horizon == null || !horizon.isOccluded(sphereCenter.x, sphereCenter.y, sphereCenter.z, radius))) {
+            result.add(entity);
+        }
+    }
+
+    /**
+     * Diese Funktion durchläuft den Teilbaum eines Knotens für eine Radius-Abfrage.
+     *
+     * @param node   Knoten
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param y      y-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Suchradius
+     * @param result Ergebnisliste
+     */
+    private void queryRadius(QuadTreeNode node, float x, float y, float z, float radius, List<Entity> result) {
+        if (node.subtreeCount == 0) {
+            return;
+        }
+        float dx = Math.max(0, Math.max(node.looseMinX() - x, x - node.looseMaxX()));
+        float dy = Math.max(0, Math.max(node.minY - y, y - node.maxY));
+        float dz = Math.max(0, Math.max(node.looseMinZ() - z, z - node.looseMaxZ()));
+        if (dx * dx + dy * dy + dz * dz > radius * radius) {
+            return;
+        }
+        for (Entity entity : node.entities) {
+            addIfInRadius(entity, x, y, z, radius, result);
+        }
+        for (QuadTreeNode child : node.children) {
+            if (child != null) {
+                queryRadius(child, x, y, z, radius, result);
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion durchläuft den Teilbaum eines Knotens für eine Strahl-Abfrage.
+     *
+     * @param node        Knoten
+     * @param origin      Startpunkt des Strahls
+     * @param direction   normierte Richtung des Strahls
+     * @param maxDistance maximale Länge des Strahls
+     * @param result      Ergebnisliste
+     */
+    private void queryRay(QuadTreeNode node, Vector3f origin, Vector3f direction, float maxDistance, List<Entity> result) {
+        if (node.subtreeCount == 0 || !rayIntersectsBox(origin, direction, maxDistance,
+                node.looseMinX(), node.minY, node.looseMinZ(), node.looseMaxX(), node.maxY, node.looseMaxZ())) {
+            return;
+        }
+        for (Entity entity : node.entities) {
+            addIfHitByRay(entity, origin, direction, maxDistance, result);
+        }
+        for (QuadTreeNode child : node.children) {
+            if (child != null) {
+                queryRay(child, origin, direction, maxDistance, result);
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity zum Ergebnis hinzu, wenn ihre Kugel die Suchkugel schneidet.
+     *
+     * @param entity Entity
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param y      y-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Suchradius
+     * @param result Ergebnisliste
+     */
+    private void addIfInRadius(Entity entity, float x, float y, float z, float radius, List<Entity> result) {
+        entity.getBoundingSphereCenter(sphereCenter);
+        float dx = sphereCenter.x - x;
+        float dy = sphereCenter.y - y;
+        float dz = sphereCenter.z - z;
+        float reach = radius + entity.getBoundingSphereRadius();
+        if (dx * dx + dy * dy + dz * dz <= reach * reach) {
+            result.add(entity);
+        }
+    }
+
+    /**
+     * Diese Funktion fügt eine Entity zum Ergebnis hinzu, wenn ihre Kugel vom Strahl getroffen wird.
+     *
+     * @param entity      Entity
+     * @param origin      Startpunkt des Strahls
+     * @param direction   normierte Richtung des Strahls
+     * @param maxDistance maximale Länge des Strahls
+     * @param result      Ergebnisliste
+     */
+    private void addIfHitByRay(Entity entity, Vector3f origin, Vector3f direction, float maxDistance, List<Entity> result) {
+        entity.getBoundingSphereCenter(sphereCenter);
+        float radius = entity.getBoundingSphereRadius();
+        float ox = sphereCenter.x - origin.x;
+        float oy = sphereCenter.y - origin.y;
+        float oz = sphereCenter.z - origin.z;
+        // nächster Punkt des Strahls zum Kugelmittelpunkt, begrenzt auf die Strahllänge
+        float t = Math.max(0, Math.min(maxDistance, ox * direction.x + oy * direction.y + oz * direction.z));
+        float dx = ox - direction.x * t;
+        float dy = oy - direction.y * t;
+        float dz = oz - direction.z * t;
+        if (dx * dx + dy * dy + dz * dz <= radius * radius) {
+            result.add(entity);
+        }
+    }
+
+    /**
+     * Diese Funktion prüft mit dem Slab-Verfahren, ob ein Strahl eine achsenparallele Box schneidet.
+     *
+     * @param origin      Startpunkt des Strahls
+     * @param direction   normierte Richtung des Strahls
+     * @param maxDistance maximale Länge des Strahls
+     * @param minX        minimale x-Koordinate
+     * @param minY        minimale y-Koordinate
+     * @param minZ        minimale z-Koordinate
+     * @param maxX        maximale x-Koordinate
+     * @param maxY        maximale y-Koordinate
+     * @param maxZ        maximale z-Koordinate
+     * @return Information, ob der Strahl die Box schneidet
+     */
+    private static boolean rayIntersectsBox(Vector3f origin, Vector3f direction, float maxDistance,
+                                            float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float tMin = 0;
+        float tMax = maxDistance;
+        float[] origins = {origin.x, origin.y, origin.z};
+        float[] directions = {direction.x, direction.y, direction.z};
+        float[] mins = {minX, minY, minZ};
+        float[] maxs = {maxX, maxY, maxZ};
+        for (int axis = 0; axis < 3; axis++) {
+            if (Math.abs(directions[axis]) < 1e-8f) {
+                if (origins[axis] < mins[axis] || origins[axis] > maxs[axis]) {
+                    return false;
+                }
+                continue;
+            }
+            float t1 = (mins[axis] - origins[axis]) / directions[axis];
+            float t2 = (maxs[axis] - origins[axis]) / directions[axis];
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package spatial;
+
+import entities.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diese Klasse repräsentiert einen Knoten des {@link QuadTree}. Ein Knoten deckt eine quadratische Zelle auf der
+ * xz-Ebene ab, nimmt aber Entities auf, deren umschließende Kugel bis zur doppelten Zellgröße reicht (lose Grenzen).
+ */
+class QuadTreeNode {
+
+    /**
+     * übergeordneter Knoten (null für die Wurzel)
+     */
+    final QuadTreeNode parent;
+    /**
+     * Tiefe des Knotens im Baum (0 = Wurzel)
+     */
+    final int depth;
+    /**
+     * x-Koordinate des Zellmittelpunkts
+     */
+    final float centerX;
+    /**
+     * z-Koordinate des Zellmittelpunkts
+     */
+    final float centerZ;
+    /**
+     * halbe Kantenlänge der (engen) Zelle
+     */
+    final float halfSize;
+
+    /**
+     * Kindknoten in der Reihenfolge (-x,-z), (+x,-z), (-x,+z), (+x,+z); werden bei Bedarf angelegt
+     */
+    final QuadTreeNode[] children = new QuadTreeNode[4];
+    /**
+     * Entities, die direkt in diesem Knoten liegen
+     */
+    final List<Entity> entities = new ArrayList<>();
+
+    /**
+     * Anzahl der Entities in diesem Knoten und allen Kindknoten
+     */
+    int subtreeCount = 0;
+    /**
+     * minimale y-Ausdehnung aller Entities im Teilbaum (wird nur vergrößert)
+     */
+    float minY = Float.MAX_VALUE;
+    /**
+     * maximale y-Ausdehnung aller Entities im Teilbaum (wird nur vergrößert)
+     */
+    float maxY = -Float.MAX_VALUE;
+
+    /**
+     * Ein Knoten wird mit seiner Zelle erstellt.
+     *
+     * @param parent   übergeordneter Knoten
+     * @param depth    Tiefe im Baum
+     * @param centerX  x-Koordinate des Zellmittelpunkts
+     * @param centerZ  z-Koordinate des Zellmittelpunkts
+     * @param halfSize halbe Kantenlänge der Zelle
+     */
+    QuadTreeNode(QuadTreeNode parent, int depth, float centerX, float centerZ, float halfSize) {
+        this.parent = parent;
+        this.depth = depth;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.halfSize = halfSize;
+    }
+
+    /**
+     * Diese Funktion übergibt den Kindknoten, in dessen Zelle der Punkt liegt, und legt diesen bei Bedarf an.
+     *
+     * @param x x-Koordinate
+     * @param z z-Koordinate
+     * @return Kindknoten
+     */
+    QuadTreeNode getOrCreateChild(float x, float z) {
+        int index = (x >= centerX ? 1 : 0) + (z >= centerZ ? 2 : 0);
+        QuadTreeNode child = children[index];
+        if (child == null) {
+            float quarter = halfSize / 2f;
+            child = new QuadTreeNode(this, depth + 1,
+                    centerX + ((index & 1) != 0 ? quarter : -quarter),
+                    centerZ + ((index & 2) != 0 ? quarter : -quarter),
+                    quarter);
+            children[index] = child;
+        }
+        return child;
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale x-Koordinate der losen Grenzen.
+     *
+     * @return minimale x-Koordinate
+     */
+    float looseMinX() {
+        return centerX - 2 * halfSize;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale x-Koordinate der losen Grenzen.
+     *
+     * @return maximale x-Koordinate
+     */
+    float looseMaxX() {
+        return centerX + 2 * halfSize;
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale z-Koordinate der losen Grenzen.
+     *
+     * @return minimale z-Koordinate
+     */
+    float looseMinZ() {
+        return centerZ - 2 * halfSize;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale z-Koordinate der losen Grenzen.
+     *
+     * @return maximale z-Koordinate
+     */
+    float looseMaxZ() {
+        return centerZ + 2 * halfSize;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Dieses Paket stellt räumliche Indizes bereit, um Entities und Lichter in der Welt schnell nach Sichtbarkeit,
+ * Entfernung oder Strahlen abzufragen, ohne alle Objekte einzeln zu prüfen.
+ */
+package spatial;
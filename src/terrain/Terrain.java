@@ -1,6 +1,8 @@
 package terrain;
 
 import models.RawModel;
+import models.VertexFormat;
+import models.VertexPacker;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 import renderEngine.Loader;
@@ -12,6 +14,9 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Diese Klasse umfasst die Daten einer Höhenkarte sowie die Funktionen, um diese zu verwenden.
@@ -27,15 +32,35 @@ public class Terrain {
     /**
      * Größe der Terrain-Karte
      */
-    private static final float SIZE = 800;
+    public static final float SIZE = 800;
     /**
      * maximale y-Höhe des Terrains
      */
-    private static final float MAX_HEIGHT = 30;
+    public static final float MAX_HEIGHT = 30;
     /**
      * höchste Pixelfarbe des zu ladenden Bildes
      */
     private static final float MAX_PIXEL_COLOR = (float) Math.pow(256, 3);
+    /**
+     * Anzahl der Gitterquadrate pro Kante eines {@link TerrainChunk}s
+     */
+    public static final int CHUNK_QUADS = 32;
+    /**
+     * Schrittweiten der Level of Detail eines {@link TerrainChunk}s (jeder n-te Eckpunkt)
+     */
+    public static final int[] LOD_STEPS = {1, 2, 4, 8};
+    /**
+     * Abstände zur Kamera, ab denen jeweils das nächste, gröbere Level of Detail eines Chunks verwendet wird
+     */
+    public static final float[] LOD_DISTANCES = {120, 240, 400};
+    /**
+     * Tiefe der Schürzen an den Chunk-Kanten, die Risse zwischen unterschiedlichen Level of Detail verdecken
+     */
+    private static final float SKIRT_DEPTH = 4;
+    /**
+     * Anzahl der Zellen pro Kante des Verdeckungsgitters
+     */
+    public static final int OCCLUDER_CELLS = 64;
 
     /**
      * x-Position im Grid der Terrains
@@ -46,9 +71,30 @@ public class Terrain {
      */
     private final float gridZ;
     /**
-     * {@link RawModel} des Terrains
+     * {@link RawModel} des Terrains (null, solange das Terrain noch nicht auf die GPU geladen wurde)
+     */
+    private RawModel model;
+    /**
+     * Information, ob die Höhenkarte in x-Richtung gespiegelt wird (ungerade Grid-Spalten)
+     */
+    private final boolean mirrorX;
+    /**
+     * Information, ob die Höhenkarte in z-Richtung gespiegelt wird (ungerade Grid-Zeilen)
+     */
+    private final boolean mirrorZ;
+
+    /**
+     * Verschränkte Vertex-Daten, die noch auf die GPU geladen werden müssen
+     */
+    private ByteBuffer meshVertices;
+    /**
+     * Format der Vertex-Daten, die noch auf die GPU geladen werden müssen
      */
-    private final RawModel model;
+    private VertexFormat meshVertexFormat;
+    /**
+     * Indizes, die noch auf die GPU geladen werden müssen
+     */
+    private int[] meshIndices;
     /**
      * {@link TerrainTexturePack} des Terrains
      */
@@ -58,6 +104,11 @@ public class Terrain {
      */
     private final TerrainTexture blendMap;
 
+    /**
+     * Ausschnitte des Terrains, die einzeln gecullt und in eigener Detailstufe gerendert werden
+     */
+    private final List<TerrainChunk> chunks = new ArrayList<>();
+
     /**
      * 2D-Map der Höhe des Terrains
      */
@@ -66,6 +117,12 @@ public class Terrain {
      * 2D-Map der Normalen des Terrains
      */
     private Vector3f[][] normals;
+    /**
+     * Gitter der minimalen Höhe je Zelle aus {@link Terrain#OCCLUDER_CELLS} x {@link Terrain#OCCLUDER_CELLS} Zellen,
+     * eines je Level of Detail. In jedem Level of Detail bis zu diesem liegt das gerenderte Terrain mindestens auf der
+     * Höhe seiner Zelle, das Gitter verdeckt also nie zu viel.
+     */
+    private float[][][] occluderHeights;
 
 
     /**
@@ -79,11 +136,83 @@ public class Terrain {
      * @param heightMapFilename Name der zuladenden Datei für die Höhenkarte
      */
     public Terrain(int gridX, int gridZ, Loader loader, TerrainTexturePack texturePack, TerrainTexture blendMap, String heightMapFilename) {
+        this(gridX, gridZ, texturePack, blendMap, loadHeightMap(heightMapFilename));
+        upload(loader);
+    }
+
+    /**
+     * Ein Terrain an der Grid-Position (x, z) wird aus einer bereits geladenen Höhenkarte erzeugt, ohne es auf die GPU
+     * zu laden. Dieser Konstruktor benötigt keinen OpenGL-Kontext und kann daher in einem Hintergrund-Thread laufen.
+     * Die Höhenkarte wird für ungerade Grid-Positionen gespiegelt, damit benachbarte Terrains nahtlos aneinander passen.
+     * Anschließend muss {@link Terrain#upload(Loader)} im OpenGL-Thread aufgerufen werden.
+     *
+     * @param gridX          x-Position im Grid der Terrains
+     * @param gridZ          z-Position im Grid der Terrains
+     * @param texturePack    Texturen für die {@link Terrain#blendMap}
+     * @param blendMap       Karte mit Einteilung der Texturen
+     * @param heightMapImage Höhenkarte
+     */
+    public Terrain(int gridX, int gridZ, TerrainTexturePack texturePack, TerrainTexture blendMap, BufferedImage heightMapImage) {
         this.texturePack = texturePack;
         this.blendMap = blendMap;
         this.gridX = gridX * SIZE;
         this.gridZ = gridZ * SIZE;
-        this.model = generateTerrain(loader, heightMapFilename);
+        this.mirrorX = Math.floorMod(gridX, 2) == 1;
+        this.mirrorZ = Math.floorMod(gridZ, 2) == 1;
+        generateTerrain(heightMapImage);
+    }
+
+    /**
+     * Diese Funktion lädt eine Höhenkarte aus dem Ressourcen-Verzeichnis.
+     *
+     * @param heightMapFilename Name der zuladenden Datei für die Höhenkarte
+     * @return Höhenkarte oder null, falls diese nicht gelesen werden konnte
+     */
+    public static BufferedImage loadHeightMap(String heightMapFilename) {
+        String name = heightMapFilename.endsWith(".png") ? heightMapFilename : heightMapFilename + ".png";
+        try (FileInputStream fileInputStream = new FileInputStream(RESOURCES + name)) {
+            return ImageIO.read(fileInputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Diese Funktion lädt das generierte Gitter als VAO auf die GPU und gibt die Daten im Hauptspeicher frei.
+     * Sie muss im OpenGL-Thread aufgerufen werden.
+     *
+     * @param loader {@link Loader} zum Konvertieren der Daten in ein {@link RawModel}
+     */
+    public void upload(Loader loader) {
+        if (model != null || meshVertices == null) {
+            return;
+        }
+        model = loader.loadToVAO(meshVertices, meshVertexFormat, meshIndices);
+        meshVertices = null;
+        meshVertexFormat = null;
+        meshIndices = null;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob das Terrain bereits auf die GPU geladen wurde.
+     *
+     * @return Information, ob das Terrain gerendert werden kann
+     */
+    public boolean isUploaded() {
+        return model != null;
+    }
+
+    /**
+     * Diese Funktion gibt das VAO des Terrains und alle zugehörigen VBOs wieder frei.
+     *
+     * @param loader {@link Loader}, mit dem das Terrain geladen wurde
+     */
+    public void cleanUp(Loader loader) {
+        if (model != null) {
+            loader.deleteModel(model);
+            model = null;
+        }
     }
 
     /**
@@ -113,6 +242,15 @@ public class Terrain {
         return model;
     }
 
+    /**
+     * Diese Funktion übergibt die Ausschnitte des Terrains.
+     *
+     * @return {@link TerrainChunk}s des Terrains
+     */
+    public List<TerrainChunk> getChunks() {
+        return chunks;
+    }
+
     /**
      * Diese Funktion übergibt das {@link TerrainTexturePack} des Terrains.
      *
@@ -133,80 +271,253 @@ public class Terrain {
 
 
     /**
-     * Diese Funktion generiert ein {@link RawModel} eines Terrains aus einer Datei mit dem angegebenen Namen.
+     * Diese Funktion generiert das Gitter eines Terrains aus einer Höhenkarte.
+     * Das Gitter wird in {@link TerrainChunk}s mit je {@link Terrain#CHUNK_QUADS} Quadraten pro Kante aufgeteilt, die sich
+     * einen Vertex-Buffer teilen. Für jeden Chunk und jede Schrittweite aus {@link Terrain#LOD_STEPS} wird ein eigener
+     * Bereich im Index-Buffer erzeugt. Eine abgesenkte Kopie des Gitters dient als Schürze an den Chunk-Kanten.
      *
-     * @param loader            {@link Loader} zum Konvertieren der Daten in ein {@link RawModel}
-     * @param heightMapFilename Name der zuladenden Datei für die Höhenkarte
-     * @return {@link RawModel} eines Terrains
+     * @param heightMapImage Höhenkarte
      */
-    private RawModel generateTerrain(Loader loader, String heightMapFilename) {
-        float[] vertices = null;
-        float[] normals = null;
-        float[] textureCoords = null;
-        int[] indices = null;
+    private void generateTerrain(BufferedImage heightMapImage) {
+        if (heightMapImage == null) {
+            heights = new float[2][2];
+            return;
+        }
+        int vertexCount = heightMapImage.getHeight();
+
+        heights = new float[vertexCount][vertexCount];
+        this.normals = new Vector3f[vertexCount][vertexCount];
+
+        // Die zweite Hälfte des Vertex-Buffers enthält die abgesenkten Eckpunkte der Schürzen
+        int count = vertexCount * vertexCount;
+        float[] vertices = new float[count * 3 * 2];
+        float[] normals = new float[count * 3 * 2];
+        float[] textureCoords = new float[count * 2 * 2];
+
+        int vertexPointer = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = 0; j < vertexCount; j++) {
+                vertices[vertexPointer * 3] = (float) j / ((float) vertexCount - 1) * SIZE;
+
+                float height = getHeight(j, i, heightMapImage);
+                heights[j][i] = height;
+                vertices[vertexPointer * 3 + 1] = height;
+                vertices[vertexPointer * 3 + 2] = (float) i / ((float) vertexCount - 1) * SIZE;
+                Vector3f normal = calculateNormal(j, i, heightMapImage);
+
+                this.normals[j][i] = normal;
+                normals[vertexPointer * 3] = normal.x;
+                normals[vertexPointer * 3 + 1] = normal.y;
+                normals[vertexPointer * 3 + 2] = normal.z;
+
+                // Die Blend Map wird zusammen mit der Höhenkarte gespiegelt
+                int textureJ = mirrorX ? vertexCount - 1 - j : j;
+                int textureI = mirrorZ ? vertexCount - 1 - i : i;
+                textureCoords[vertexPointer * 2] = (float) textureJ / ((float) vertexCount - 1);
+                textureCoords[vertexPointer * 2 + 1] = (float) textureI / ((float) vertexCount - 1);
+
+                vertexPointer++;
+            }
+        }
+        System.arraycopy(vertices, 0, vertices, count * 3, count * 3);
+        System.arraycopy(normals, 0, normals, count * 3, count * 3);
+        System.arraycopy(textureCoords, 0, textureCoords, count * 2, count * 2);
+        for (int vertex = count; vertex < count * 2; vertex++) {
+            vertices[vertex * 3 + 1] -= SKIRT_DEPTH;
+        }
 
-        String name = heightMapFilename.endsWith(".png") ? heightMapFilename : heightMapFilename + ".png";
-        try (FileInputStream fileInputStream = new FileInputStream(RESOURCES + name)) {
-            BufferedImage heightMapImage = ImageIO.read(fileInputStream);
-            int vertexCount = heightMapImage.getHeight();
-
-            heights = new float[vertexCount][vertexCount];
-            this.normals = new Vector3f[vertexCount][vertexCount];
-
-            int count = vertexCount * vertexCount;
-            vertices = new float[count * 3];
-            normals = new float[count * 3];
-            textureCoords = new float[count * 2];
-            indices = new int[6 * (vertexCount - 1) * (vertexCount - 1)];
-
-            int vertexPointer = 0;
-            for (int i = 0; i < vertexCount; i++) {
-                for (int j = 0; j < vertexCount; j++) {
-                    vertices[vertexPointer * 3] = (float) j / ((float) vertexCount - 1) * SIZE;
-
-                    float height = getHeight(j, i, heightMapImage);
-                    heights[j][i] = height;
-                    vertices[vertexPointer * 3 + 1] = height;
-                    vertices[vertexPointer * 3 + 2] = (float) i / ((float) vertexCount - 1) * SIZE;
-                    Vector3f normal = calculateNormal(j, i, heightMapImage);
-
-                    this.normals[j][i] = normal;
-                    normals[vertexPointer * 3] = normal.x;
-                    normals[vertexPointer * 3 + 1] = normal.y;
-                    normals[vertexPointer * 3 + 2] = normal.z;
-
-                    textureCoords[vertexPointer * 2] = (float) j / ((float) vertexCount - 1);
-                    textureCoords[vertexPointer * 2 + 1] = (float) i / ((float) vertexCount - 1);
-
-                    vertexPointer++;
+        // Die Positionen bleiben Floats, da die Höhen sonst an den Kanten benachbarter Terrains abweichen könnten
+        meshVertexFormat = VertexFormat.forMesh(vertices, textureCoords, false);
+        meshVertices = VertexPacker.pack(vertices, textureCoords, normals, meshVertexFormat);
+        meshIndices = generateChunks(vertexCount);
+        generateOccluderHeights(vertexCount);
+    }
+
+    /**
+     * Diese Funktion bestimmt die minimale Höhe jeder Zelle der Verdeckungsgitter. Ein gröberes Level of Detail
+     * interpoliert zwischen Eckpunkten außerhalb der Zelle, daher werden je Level of Detail alle Eckpunkte seiner
+     * Quadrate berücksichtigt, die die Zelle überdecken. Da die Schrittweiten Vielfache voneinander sind, enthalten
+     * diese Eckpunkte die aller feineren Level of Detail.
+     *
+     * @param vertexCount Anzahl der Eckpunkte pro Kante des Gitters
+     */
+    private void generateOccluderHeights(int vertexCount) {
+        int quadCount = vertexCount - 1;
+        occluderHeights = new float[LOD_STEPS.length][OCCLUDER_CELLS][OCCLUDER_CELLS];
+        int[] first = new int[OCCLUDER_CELLS];
+        int[] last = new int[OCCLUDER_CELLS];
+        for (int lod = 0; lod < LOD_STEPS.length; lod++) {
+            // Eckpunkte, deren Quadrate eine Zelle überdecken. Chunks beginnen bei Vielfachen jeder Schrittweite,
+            // ihr letzter Eckpunkt ist höchstens der Rand des Gitters.
+            int step = LOD_STEPS[lod];
+            for (int cell = 0; cell < OCCLUDER_CELLS; cell++) {
+                int start = (int) Math.floor(cell * (double) quadCount / OCCLUDER_CELLS);
+                int end = (int) Math.ceil((cell + 1) * (double) quadCount / OCCLUDER_CELLS);
+                first[cell] = start / step * step;
+                last[cell] = Math.min((end + step - 1) / step * step, quadCount);
+            }
+            for (int cellX = 0; cellX < OCCLUDER_CELLS; cellX++) {
+                for (int cellZ = 0; cellZ < OCCLUDER_CELLS; cellZ++) {
+                    float minHeight = Float.MAX_VALUE;
+                    for (int x = first[cellX]; x <= last[cellX]; x++) {
+                        for (int z = first[cellZ]; z <= last[cellZ]; z++) {
+                            minHeight = Math.min(minHeight, heights[x][z]);
+                        }
+                    }
+                    occluderHeights[lod][cellX][cellZ] = minHeight;
                 }
             }
+        }
+    }
 
-            int pointer = 0;
-            for (int gz = 0; gz < vertexCount - 1; gz++) {
-                for (int gx = 0; gx < vertexCount - 1; gx++) {
-                    int topLeft = (gz * vertexCount) + gx;
-                    int topRight = topLeft + 1;
-                    int bottomLeft = ((gz + 1) * vertexCount) + gx;
-                    int bottomRight = bottomLeft + 1;
-
-                    indices[pointer++] = topLeft;
-                    indices[pointer++] = bottomLeft;
-                    indices[pointer++] = topRight;
-                    indices[pointer++] = topRight;
-                    indices[pointer++] = bottomLeft;
-                    indices[pointer++] = bottomRight;
+    /**
+     * Diese Funktion teilt das Gitter in {@link TerrainChunk}s auf und erzeugt die Indizes aller Level of Detail.
+     *
+     * @param vertexCount Anzahl der Eckpunkte pro Kante des Gitters
+     * @return Indizes aller Chunks und Level of Detail hintereinander
+     */
+    private int[] generateChunks(int vertexCount) {
+        List<Integer> indices = new ArrayList<>();
+        int quadCount = vertexCount - 1;
+        float gridSquareSize = SIZE / quadCount;
+
+        for (int chunkZ = 0; chunkZ < quadCount; chunkZ += CHUNK_QUADS) {
+            for (int chunkX = 0; chunkX < quadCount; chunkX += CHUNK_QUADS) {
+                int endX = Math.min(chunkX + CHUNK_QUADS, quadCount);
+                int endZ = Math.min(chunkZ + CHUNK_QUADS, quadCount);
+
+                int[] indexCounts = new int[LOD_STEPS.length];
+                long[] indexOffsets = new long[LOD_STEPS.length];
+                for (int lod = 0; lod < LOD_STEPS.length; lod++) {
+                    indexOffsets[lod] = indices.size() * 4L;
+                    int[] xs = lodCoordinates(chunkX, endX, LOD_STEPS[lod]);
+                    int[] zs = lodCoordinates(chunkZ, endZ, LOD_STEPS[lod]);
+                    addGridIndices(indices, xs, zs, vertexCount);
+                    addSkirtIndices(indices, xs, zs, vertexCount);
+                    indexCounts[lod] = indices.size() - (int) (indexOffsets[lod] / 4);
                 }
+
+                float minY = Float.POSITIVE_INFINITY;
+                float maxY = Float.NEGATIVE_INFINITY;
+                for (int z = chunkZ; z <= endZ; z++) {
+                    for (int x = chunkX; x <= endX; x++) {
+                        minY = Math.min(minY, heights[x][z]);
+                        maxY = Math.max(maxY, heights[x][z]);
+                    }
+                }
+                chunks.add(new TerrainChunk(chunkX * gridSquareSize, minY - SKIRT_DEPTH, chunkZ * gridSquareSize,
+                        endX * gridSquareSize, maxY, endZ * gridSquareSize, indexCounts, indexOffsets));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return loader.loadToVAO(vertices, textureCoords, normals, indices);
+
+        int[] indicesArray = new int[indices.size()];
+        for (int i = 0; i < indicesArray.length; i++) {
+            indicesArray[i] = indices.get(i);
+        }
+        return indicesArray;
     }
 
+    /**
+     * Diese Funktion bestimmt die Gitterkoordinaten einer Chunk-Kante für eine Schrittweite.
+     * Der letzte Eckpunkt wird immer übernommen, damit benachbarte Chunks dieselbe Kante teilen.
+     *
+     * @param start erste Gitterkoordinate
+     * @param end   letzte Gitterkoordinate
+     * @param step  Schrittweite
+     * @return Gitterkoordinaten
+     */
+    private static int[] lodCoordinates(int start, int end, int step) {
+        int count = (end - start + step - 1) / step + 1;
+        int[] coordinates = new int[count];
+        for (int i = 0; i < count - 1; i++) {
+            coordinates[i] = start + i * step;
+        }
+        coordinates[count - 1] = end;
+        return coordinates;
+    }
+
+    /**
+     * Diese Funktion fügt die Dreiecke des Gitters zwischen den angegebenen Koordinaten hinzu.
+     *
+     * @param indices     Indizes
+     * @param xs          Gitterkoordinaten in x-Richtung
+     * @param zs          Gitterkoordinaten in z-Richtung
+     * @param vertexCount Anzahl der Eckpunkte pro Kante des Gitters
+     */
+    private static void addGridIndices(List<Integer> indices, int[] xs, int[] zs, int vertexCount) {
+        for (int z = 0; z < zs.length - 1; z++) {
+            for (int x = 0; x < xs.length - 1; x++) {
+                int topLeft = (zs[z] * vertexCount) + xs[x];
+                int topRight = (zs[z] * vertexCount) + xs[x + 1];
+                int bottomLeft = (zs[z + 1] * vertexCount) + xs[x];
+                int bottomRight = (zs[z + 1] * vertexCount) + xs[x + 1];
+
+                indices.add(topLeft);
+                indices.add(bottomLeft);
+                indices.add(topRight);
+                indices.add(topRight);
+                indices.add(bottomLeft);
+                indices.add(bottomRight);
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion fügt an allen vier Kanten eines Chunks senkrechte Schürzen hinzu, die bis zur abgesenkten Kopie
+     * des Gitters reichen. Die Schürzen werden in beiden Umlaufrichtungen erzeugt, damit sie trotz Backface Culling
+     * von beiden Seiten sichtbar sind.
+     *
+     * @param indices     Indizes
+     * @param xs          Gitterkoordinaten in x-Richtung
+     * @param zs          Gitterkoordinaten in z-Richtung
+     * @param vertexCount Anzahl der Eckpunkte pro Kante des Gitters
+     */
+    private static void addSkirtIndices(List<Integer> indices, int[] xs, int[] zs, int vertexCount) {
+        int skirtOffset = vertexCount * vertexCount;
+        int firstZ = zs[0];
+        int lastZ = zs[zs.length - 1];
+        int firstX = xs[0];
+        int lastX = xs[xs.length - 1];
+        for (int x = 0; x < xs.length - 1; x++) {
+            addSkirtSegment(indices, firstZ * vertexCount + xs[x], firstZ * vertexCount + xs[x + 1], skirtOffset);
+            addSkirtSegment(indices, lastZ * vertexCount + xs[x], lastZ * vertexCount + xs[x + 1], skirtOffset);
+        }
+        for (int z = 0; z < zs.length - 1; z++) {
+            addSkirtSegment(indices, zs[z] * vertexCount + firstX, zs[z + 1] * vertexCount + firstX, skirtOffset);
+            addSkirtSegment(indices, zs[z] * vertexCount + lastX, zs[z + 1] * vertexCount + lastX, skirtOffset);
+        }
+    }
+
+    /**
+     * Diese Funktion fügt ein Segment einer Schürze zwischen zwei benachbarten Eckpunkten einer Kante hinzu.
+     *
+     * @param indices     Indizes
+     * @param a           erster Eckpunkt
+     * @param b           zweiter Eckpunkt
+     * @param skirtOffset Index des ersten abgesenkten Eckpunkts
+     */
+    private static void addSkirtSegment(List<Integer> indices, int a, int b, int skirtOffset) {
+        int lowA = a + skirtOffset;
+        int lowB = b + skirtOffset;
+        indices.add(a);
+        indices.add(lowA);
+        indices.add(b);
+        indices.add(b);
+        indices.add(lowA);
+        indices.add(lowB);
+
+        indices.add(a);
+        indices.add(b);
+        indices.add(lowA);
+        indices.add(b);
+        indices.add(lowB);
+        indices.add(lowA);
+    }
 
     /**
      * Diese Funktion berechnet den Normalenvektor in einem Punkt anhand der Höhenkarte.
+     * Nachbarn außerhalb der Karte werden an der Kante gespiegelt, was genau dem angrenzenden, gespiegelten Terrain
+     * entspricht. Dadurch stimmen die Normalen an den Nahtstellen benachbarter Terrains überein.
      *
      * @param x         x-Koordinate
      * @param y         y-Koordinate
@@ -214,17 +525,36 @@ public class Terrain {
      * @return Normalenvektor im Punkt
      */
     private Vector3f calculateNormal(int x, int y, BufferedImage heightmap) {
-        float heightL = getHeight(x - 1, y, heightmap);
-        float heightR = getHeight(x + 1, y, heightmap);
-        float heightD = getHeight(x, y - 1, heightmap);
-        float heightU = getHeight(x, y + 1, heightmap);
+        int size = heightmap.getHeight();
+        float heightL = getHeight(reflect(x - 1, size), y, heightmap);
+        float heightR = getHeight(reflect(x + 1, size), y, heightmap);
+        float heightD = getHeight(x, reflect(y - 1, size), heightmap);
+        float heightU = getHeight(x, reflect(y + 1, size), heightmap);
         Vector3f normal = new Vector3f(heightL - heightR, 2f, heightD - heightU);
         normal.normalise();
         return normal;
     }
 
+    /**
+     * Diese Funktion spiegelt eine Koordinate außerhalb der Höhenkarte an deren Kante.
+     *
+     * @param coordinate Koordinate
+     * @param size       Größe der Höhenkarte
+     * @return Koordinate innerhalb der Höhenkarte
+     */
+    private static int reflect(int coordinate, int size) {
+        if (coordinate < 0) {
+            return -coordinate;
+        }
+        if (coordinate >= size) {
+            return 2 * (size - 1) - coordinate;
+        }
+        return coordinate;
+    }
+
     /**
      * Diese Funktion berechnet die Höhe eines Punktes anhand eines Bilds.
+     * Bei gespiegelten Terrains wird das Bild gespiegelt ausgelesen.
      *
      * @param x     x-Koordinate
      * @param y     y-Koordinate
@@ -235,6 +565,12 @@ public class Terrain {
         if (x < 0 || x >= image.getWidth() || y < 0 || y >= image.getHeight()) {
             return 0;
         }
+        if (mirrorX) {
+            x = image.getWidth() - 1 - x;
+        }
+        if (mirrorZ) {
+            y = image.getHeight() - 1 - y;
+        }
         float height = -image.getRGB(x, y);
         height /= MAX_PIXEL_COLOR;
         height *= MAX_HEIGHT;
@@ -276,6 +612,70 @@ public class Terrain {
 
         return finalHeight;
     }
+
+    /**
+     * Mithilfe der x- und z-Koordinate der Welt übergibt diese Funktion die Höhe an dieser Stelle, wie sie in einem
+     * Level of Detail gerendert wird. Die Dreiecke werden wie in {@link Terrain#generateChunks(int)} zwischen den
+     * Eckpunkten des Level of Detail innerhalb des Chunks gebildet.
+     *
+     * @param worldX x-Koordinate der Welt
+     * @param worldZ z-Koordinate der Welt
+     * @param lod    Index des Level of Detail in {@link Terrain#LOD_STEPS}
+     * @return Höhe (y)
+     */
+    public float getHeight(float worldX, float worldZ, int lod) {
+        int quadCount = heights.length - 1;
+        float gridSquareSize = SIZE / quadCount;
+        float terrainX = (worldX - this.gridX) / gridSquareSize;
+        float terrainZ = (worldZ - this.gridZ) / gridSquareSize;
+        if (terrainX < 0 || terrainZ < 0 || terrainX >= quadCount || terrainZ >= quadCount) {
+            return 0;
+        }
+
+        int step = LOD_STEPS[lod];
+        int x0 = lodStart((int) terrainX, step);
+        int z0 = lodStart((int) terrainZ, step);
+        int x1 = Math.min(x0 + step, Math.min((int) terrainX / CHUNK_QUADS * CHUNK_QUADS + CHUNK_QUADS, quadCount));
+        int z1 = Math.min(z0 + step, Math.min((int) terrainZ / CHUNK_QUADS * CHUNK_QUADS + CHUNK_QUADS, quadCount));
+        float xCoord = (terrainX - x0) / (x1 - x0);
+        float zCoord = (terrainZ - z0) / (z1 - z0);
+        if (xCoord <= (1 - zCoord)) {
+            return Maths.baryCentric(new Vector3f(0, heights[x0][z0], 0), new Vector3f(1, heights[x1][z0], 0),
+                    new Vector3f(0, heights[x0][z1], 1), new Vector2f(xCoord, zCoord));
+        }
+        return Maths.baryCentric(new Vector3f(1, heights[x1][z0], 0), new Vector3f(1, heights[x1][z1], 1),
+                new Vector3f(0, heights[x0][z1], 1), new Vector2f(xCoord, zCoord));
+    }
+
+    /**
+     * Diese Funktion bestimmt den Eckpunkt eines Level of Detail, mit dem das Quadrat um eine Gitterkoordinate beginnt.
+     *
+     * @param coordinate Gitterkoordinate
+     * @param step       Schrittweite des Level of Detail
+     * @return erste Gitterkoordinate des Quadrats
+     */
+    private static int lodStart(int coordinate, int step) {
+        int chunkStart = coordinate / CHUNK_QUADS * CHUNK_QUADS;
+        return chunkStart + (coordinate - chunkStart) / step * step;
+    }
+
+    /**
+     * Diese Funktion kopiert das Verdeckungsgitter zeilenweise (z) in ein größeres Feld, z.B. um die Gitter
+     * benachbarter Terrains zusammenzusetzen. Ohne Höhenkarte werden die Zellen auf -Float.MAX_VALUE gesetzt.
+     *
+     * @param lod       Index des gröbsten Level of Detail in {@link Terrain#LOD_STEPS}, für das die Höhen gelten
+     * @param dest      Zielfeld
+     * @param offset    Index der Zelle (0, 0) im Zielfeld
+     * @param rowLength Anzahl der Zellen einer Zeile des Zielfelds
+     */
+    public void copyOccluderHeights(int lod, float[] dest, int offset, int rowLength) {
+        for (int cellZ = 0; cellZ < OCCLUDER_CELLS; cellZ++) {
+            for (int cellX = 0; cellX < OCCLUDER_CELLS; cellX++) {
+                dest[offset + cellZ * rowLength + cellX] = occluderHeights != null
+                        ? occluderHeights[lod][cellX][cellZ] : -Float.MAX_VALUE;
+            }
+        }
+    }
 }
 
 
@@ -0,0 +1,162 @@
+package terrain;
+
+/**
+ * Diese Klasse beschreibt einen quadratischen Ausschnitt eines {@link Terrain}s mit seiner Ausdehnung und den
+ * Bereichen seiner Level of Detail im gemeinsamen Index-Buffer des Terrains.
+ */
+public class TerrainChunk {
+
+    /**
+     * minimale x-Koordinate im Terrain
+     */
+    private final float minX;
+    /**
+     * minimale Höhe (inklusive Schürze)
+     */
+    private final float minY;
+    /**
+     * minimale z-Koordinate im Terrain
+     */
+    private final float minZ;
+    /**
+     * maximale x-Koordinate im Terrain
+     */
+    private final float maxX;
+    /**
+     * maximale Höhe
+     */
+    private final float maxY;
+    /**
+     * maximale z-Koordinate im Terrain
+     */
+    private final float maxZ;
+    /**
+     * Anzahl der Indizes je Level of Detail
+     */
+    private final int[] indexCounts;
+    /**
+     * Byte-Offsets der Level of Detail im Index-Buffer
+     */
+    private final long[] indexOffsets;
+
+    /**
+     * Ein {@link TerrainChunk} wird mit seiner Ausdehnung im Terrain und den Bereichen seiner Level of Detail erstellt.
+     *
+     * @param minX         minimale x-Koordinate im Terrain
+     * @param minY         minimale Höhe
+     * @param minZ         minimale z-Koordinate im Terrain
+     * @param maxX         maximale x-Koordinate im Terrain
+     * @param maxY         maximale Höhe
+     * @param maxZ         maximale z-Koordinate im Terrain
+     * @param indexCounts  Anzahl der Indizes je Level of Detail
+     * @param indexOffsets Byte-Offsets der Level of Detail im Index-Buffer
+     */
+    public TerrainChunk(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] indexCounts, long[] indexOffsets) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.indexCounts = indexCounts;
+        this.indexOffsets = indexOffsets;
+    }
+
+    /**
+     * Diese Funktion berechnet den Abstand eines Punktes zur Ausdehnung dieses Ausschnitts.
+     *
+     * @param x x-Koordinate im Terrain
+     * @param y Höhe
+     * @param z z-Koordinate im Terrain
+     * @return Abstand (0, falls der Punkt innerhalb liegt)
+     */
+    public float distanceTo(float x, float y, float z) {
+        float dx = Math.max(Math.max(minX - x, 0), x - maxX);
+        float dy = Math.max(Math.max(minY - y, 0), y - maxY);
+        float dz = Math.max(Math.max(minZ - z, 0), z - maxZ);
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale x-Koordinate im Terrain.
+     *
+     * @return minimale x-Koordinate
+     */
+    public float getMinX() {
+        return minX;
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale Höhe.
+     *
+     * @return minimale Höhe
+     */
+    public float getMinY() {
+        return minY;
+    }
+
+    /**
+     * Diese Funktion übergibt die minimale z-Koordinate im Terrain.
+     *
+     * @return minimale z-Koordinate
+     */
+    public float getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale x-Koordinate im Terrain.
+     *
+     * @return maximale x-Koordinate
+     */
+    public float getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale Höhe.
+     *
+     * @return maximale Höhe
+     */
+    public float getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Diese Funktion übergibt die maximale z-Koordinate im Terrain.
+     *
+     * @return maximale z-Koordinate
+     */
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Level of Detail.
+     *
+     * @return Anzahl der Level of Detail
+     */
+    public int getLodCount() {
+        return indexCounts.length;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Indizes eines Level of Detail.
+     *
+     * @param lod Level of Detail (0 = volle Auflösung)
+     * @return Anzahl der Indizes
+     */
+    public int getIndexCount(int lod) {
+        return indexCounts[lod];
+    }
+
+    /**
+     * Diese Funktion übergibt den Byte-Offset eines Level of Detail im Index-Buffer.
+     *
+     * @param lod Level of Detail (0 = volle Auflösung)
+     * @return Byte-Offset für glDrawElements
+     */
+    public long getIndexOffset(int lod) {
+        return indexOffsets[lod];
+    }
+}
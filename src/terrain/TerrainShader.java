@@ -1,18 +1,14 @@
 package terrain;
 
-import entities.Camera;
-import entities.Light;
 import org.lwjgl.util.vector.Matrix4f;
-import org.lwjgl.util.vector.Vector3f;
 import shaders.ShaderProgram;
 import textures.TerrainTexturePack;
-import toolbox.Maths;
-
-import java.util.List;
 
 
 /**
  * Diese Klasse implementiert und erweitert das {@link ShaderProgram} für die Darstellung des Terrains.
+ * Kamera, Nebel, Himmelfarbe und Lichtquellen liest der Shader aus dem gemeinsamen Uniform-Block
+ * {@link shaders.FrameData}.
  */
 public class TerrainShader extends ShaderProgram {
 
@@ -29,27 +25,7 @@ public class TerrainShader extends ShaderProgram {
      * Referenz auf die Transformationsmatrix in dem Shader Programm
      */
     private int locationTransformationMatrix;
-    /**
-     * Referenz auf die Projektionsmatrix in dem Shader Programm
-     */
-    private int locationProjectionMatrix;
-    /**
-     * Referenz auf die Ansichtsmatrix in dem Shader Programm
-     */
-    private int locationViewMatrix;
 
-    /**
-     * Referenz auf die Positionen der Lichtquellen in dem Shader Programm
-     */
-    private int[] locationLightPosition;
-    /**
-     * Referenz auf die Farben der Lichtquellen in dem Shader Programm
-     */
-    private int[] locationLightColor;
-    /**
-     * Referenz auf die Abschwächung der Lichtquellen in dem Shader Programm
-     */
-    private int[] locationAttenuation;
     /**
      * Referenz auf die Stärke, mit der das Glanzlicht für größere Winkel gedämpft wird
      */
@@ -59,19 +35,6 @@ public class TerrainShader extends ShaderProgram {
      */
     private int locationReflectivity;
 
-    /**
-     * Referenz auf die Himmelfarbe in dem Shader Programm
-     */
-    private int locationSkyColor;
-    /**
-     * Referenz auf die Dichte des Nebels in dem Shader Programm
-     */
-    private int locationFogDensity;
-    /**
-     * Referenz auf den Gradienten des Nebels in dem Shader Programm
-     */
-    private int locationFogGradient;
-
     /**
      * Referenz auf die Hintergrundtexture in dem Shader Programm
      */
@@ -93,7 +56,6 @@ public class TerrainShader extends ShaderProgram {
      */
     private int locationBlendMap;
 
-
     /**
      * Es wird eine Shaderrepräsentation mit den zugehörigen Vertex- und Fragmentshadern
      * in der OpenGL-Shader-Language für das Terrain erstellt.
@@ -119,33 +81,20 @@ public class TerrainShader extends ShaderProgram {
     @Override
     protected void getAllUniformLocations() {
         locationTransformationMatrix = super.getUniformLocation("transformationMatrix");
-        locationProjectionMatrix = super.getUniformLocation("projectionMatrix");
-        locationViewMatrix = super.getUniformLocation("viewMatrix");
         locationShineDamper = super.getUniformLocation("shineDamper");
         locationReflectivity = super.getUniformLocation("reflectivity");
-        locationSkyColor = super.getUniformLocation("skyColor");
-        locationFogDensity = super.getUniformLocation("density");
-        locationFogGradient = super.getUniformLocation("gradient");
         locationBackgroundTexture = super.getUniformLocation("backgroundTexture");
         locationRTexture = super.getUniformLocation("rTexture");
         locationGTexture = super.getUniformLocation("gTexture");
         locationBTexture = super.getUniformLocation("bTexture");
         locationBlendMap = super.getUniformLocation("blendMap");
-
-        locationLightPosition = new int[MAX_LIGHTS];
-        locationLightColor = new int[MAX_LIGHTS];
-        locationAttenuation = new int[MAX_LIGHTS];
-        for (int i = 0; i < MAX_LIGHTS; i++) {
-            locationLightPosition[i] = super.getUniformLocation("lightPosition[" + i + "]");
-            locationLightColor[i] = super.getUniformLocation("lightColor[" + i + "]");
-            locationAttenuation[i] = super.getUniformLocation("attenuation[" + i + "]");
-        }
     }
 
 
     /**
      * Diese Funktion hinterlegt das {@link TerrainTexturePack} und die dazugehörige BlendMap.
      */
+    @Override
     public void connectTextureUnits() {
         super.loadInt(locationBackgroundTexture, 0);
         super.loadInt(locationRTexture, 1);
@@ -154,47 +103,6 @@ public class TerrainShader extends ShaderProgram {
         super.loadInt(locationBlendMap, 4);
 
     }
-    
-    /**
-     * Diese Funktion hinterlegt alle Positionen, Farben und Abschwächung der Lichtquellen.
-     *
-     * @param lights die darzustellenden Lichtquellen
-     */
-    public void loadLights(List<Light> lights) {
-        for (int i = 0; i < MAX_LIGHTS; i++) {
-            if (i < lights.size()) {
-                super.loadVector(locationLightPosition[i], lights.get(i).getPosition());
-                super.loadVector(locationLightColor[i], lights.get(i).getColor());
-                super.loadVector(locationAttenuation[i], lights.get(i).getAttenuation());
-            } else {
-                super.loadVector(locationLightPosition[i], new Vector3f(0, 0, 0));
-                super.loadVector(locationLightColor[i], new Vector3f(0, 0, 0));
-                super.loadVector(locationAttenuation[i], new Vector3f(1, 0, 0));
-            }
-        }
-    }
-
-    /**
-     * Diese Funktion hinterlegt die Dichte und den Gradienten des Nebels.
-     *
-     * @param density  Dichte des Nebels
-     * @param gradient Gradient des Nebels
-     */
-    public void loadFog(float density, float gradient) {
-        super.loadFloat(locationFogDensity, density);
-        super.loadFloat(locationFogGradient, gradient);
-    }
-
-    /**
-     * Diese Funktion hinterlegt einen RGB-Wert für die Himmelfarbe.
-     *
-     * @param r Rotwert
-     * @param g Grünwert
-     * @param b Blauwert
-     */
-    public void loadSkyColor(float r, float g, float b) {
-        super.loadVector(locationSkyColor, new Vector3f(r, g, b));
-    }
 
     /**
      * Diese Funktion hinterlegt die Stärke des Glanzes der Lichter.
@@ -216,23 +124,4 @@ public class TerrainShader extends ShaderProgram {
         super.loadMatrix(locationTransformationMatrix, matrix);
     }
 
-    /**
-     * Diese Funktion hinterlegt eine {@link Camera} als Ansichtsmatrix.
-     *
-     * @param camera Kamera ({@link Camera})
-     */
-    public void loadViewMatrix(Camera camera) {
-        Matrix4f viewMatrix = Maths.createViewMatrix(camera);
-        super.loadMatrix(locationViewMatrix, viewMatrix);
-    }
-
-    /**
-     * Diese Funktion hinterlegt eine {@link Matrix4f} als Projektionsmatrix.
-     *
-     * @param matrix Projektionsmatrix ({@link Matrix4f})
-     */
-    public void loadProjectionMatrix(Matrix4f matrix) {
-        super.loadMatrix(locationProjectionMatrix, matrix);
-    }
-
 }
@@ -0,0 +1,324 @@
+package terrain;
+
+import org.lwjgl.util.vector.Vector3f;
+import renderEngine.Loader;
+import renderEngine.MasterRenderer;
+import textures.TerrainTexture;
+import textures.TerrainTexturePack;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Diese Klasse verwaltet eine aus mehreren {@link Terrain}s zusammengesetzte Welt, die um den Spieler herum nachgeladen wird.
+ * <p>
+ * Terrains im Umkreis {@link TerrainWorld#loadRadius} um das Terrain des Spielers werden in Hintergrund-Threads erzeugt
+ * und anschließend im OpenGL-Thread innerhalb eines Zeitbudgets pro Frame auf die GPU geladen. Nicht mehr benötigte
+ * Terrains bleiben bis zu {@link TerrainWorld#maxCachedTiles} im Speicher und werden danach in der Reihenfolge ihrer
+ * letzten Nutzung wieder freigegeben.
+ */
+public class TerrainWorld {
+
+    /**
+     * Standardumkreis (in Terrains) um das Terrain des Spielers, der geladen gehalten wird
+     */
+    public static final int DEFAULT_LOAD_RADIUS = 1;
+    /**
+     * Standardanzahl an Terrains, die maximal im Speicher gehalten werden
+     */
+    public static final int DEFAULT_MAX_CACHED_TILES = 16;
+    /**
+     * Standardzeit pro Frame in Millisekunden, die für das Laden von Terrains auf die GPU genutzt werden darf
+     */
+    public static final float DEFAULT_UPLOAD_BUDGET_MS = 2;
+
+    /**
+     * {@link Loader} zum Laden und Freigeben der Terrains
+     */
+    private final Loader loader;
+    /**
+     * Texturen aller Terrains
+     */
+    private final TerrainTexturePack texturePack;
+    /**
+     * Blend Map aller Terrains
+     */
+    private final TerrainTexture blendMap;
+    /**
+     * Höhenkarte, aus der alle Terrains (gespiegelt) erzeugt werden
+     */
+    private final BufferedImage heightMapImage;
+
+    /**
+     * Hintergrund-Threads zum Erzeugen der Terrains
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "terrain-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Geladene Terrains in der Reihenfolge ihrer letzten Nutzung
+     */
+    private final LinkedHashMap<Long, Terrain> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Terrains, die gerade in einem Hintergrund-Thread erzeugt werden
+     */
+    private final Map<Long, Future<Terrain>> pending = new HashMap<>();
+    /**
+     * Terrains im Umkreis des Spielers, die im aktuellen Frame gerendert werden
+     */
+    private final List<Terrain> visibleTiles = new ArrayList<>();
+
+    /**
+     * Umkreis (in Terrains) um das Terrain des Spielers, der geladen gehalten wird
+     */
+    private int loadRadius = DEFAULT_LOAD_RADIUS;
+    /**
+     * Anzahl an Terrains, die maximal im Speicher gehalten werden
+     */
+    private int maxCachedTiles = DEFAULT_MAX_CACHED_TILES;
+    /**
+     * Zeit pro Frame in Nanosekunden, die für das Laden von Terrains auf die GPU genutzt werden darf
+     */
+    private long uploadBudgetNanos = (long) (DEFAULT_UPLOAD_BUDGET_MS * 1_000_000);
+
+    /**
+     * Eine {@link TerrainWorld} wird mit den gemeinsamen Texturen und der Höhenkarte aller Terrains erstellt.
+     * Das Terrain an der Grid-Position (0, 0) wird sofort geladen.
+     *
+     * @param loader            {@link Loader} zum Laden und Freigeben der Terrains
+     * @param texturePack       Texturen für die Blend Map
+     * @param blendMap          Karte mit Einteilung der Texturen
+     * @param heightMapFilename Name der zuladenden Datei für die Höhenkarte
+     */
+    public TerrainWorld(Loader loader, TerrainTexturePack texturePack, TerrainTexture blendMap, String heightMapFilename) {
+        this.loader = loader;
+        this.texturePack = texturePack;
+        this.blendMap = blendMap;
+        this.heightMapImage = Terrain.loadHeightMap(heightMapFilename);
+        loadTile(0, 0);
+    }
+
+    /**
+     * Diese Funktion lädt ein Terrain sofort im aktuellen Thread, z.B. für die Startposition.
+     *
+     * @param gridX x-Position im Grid der Terrains
+     * @param gridZ z-Position im Grid der Terrains
+     * @return geladenes {@link Terrain}
+     */
+    public Terrain loadTile(int gridX, int gridZ) {
+        long key = key(gridX, gridZ);
+        Terrain terrain = tiles.get(key);
+        if (terrain == null) {
+            terrain = new Terrain(gridX, gridZ, texturePack, blendMap, heightMapImage);
+            terrain.upload(loader);
+            tiles.put(key, terrain);
+        }
+        return terrain;
+    }
+
+    /**
+     * Diese Funktion aktualisiert die geladenen Terrains anhand der Position des Spielers. Sie muss einmal pro Frame
+     * im OpenGL-Thread aufgerufen werden.
+     * Fehlende Terrains im Umkreis werden im Hintergrund angefordert, fertig erzeugte Terrains innerhalb des
+     * Zeitbudgets auf die GPU geladen und überzählige Terrains außerhalb des Umkreises freigegeben.
+     *
+     * @param position Position des Spielers
+     */
+    public void update(Vector3f position) {
+        int centerX = toGrid(position.x);
+        int centerZ = toGrid(position.z);
+
+        // Terrains im Umkreis anfordern (nächste zuerst)
+        visibleTiles.clear();
+        for (int ring = 0; ring <= loadRadius; ring++) {
+            for (int gridZ = centerZ - ring; gridZ <= centerZ + ring; gridZ++) {
+                for (int gridX = centerX - ring; gridX <= centerX + ring; gridX++) {
+                    if (Math.max(Math.abs(gridX - centerX), Math.abs(gridZ - centerZ)) != ring) {
+                        continue;
+                    }
+                    long key = key(gridX, gridZ);
+                    Terrain terrain = tiles.get(key);
+                    if (terrain != null) {
+                        visibleTiles.add(terrain);
+                    } else if (!pending.containsKey(key)) {
+                        final int x = gridX;
+                        final int z = gridZ;
+                        pending.put(key, executor.submit(() -> new Terrain(x, z, texturePack, blendMap, heightMapImage)));
+                    }
+                }
+            }
+        }
+
+        uploadFinishedTiles();
+        evictTiles(centerX, centerZ);
+    }
+
+    /**
+     * Diese Funktion übergibt dem Renderer alle geladenen Terrains im Umkreis des Spielers.
+     *
+     * @param renderer {@link MasterRenderer}
+     */
+    public void processTerrains(MasterRenderer renderer) {
+        for (Terrain terrain : visibleTiles) {
+            renderer.processTerrain(terrain);
+        }
+    }
+
+    /**
+     * Mithilfe der x- und z-Koordinate der Welt übergibt diese Funktion die Höhe an dieser Stelle.
+     * Die Anfrage wird an das zuständige Terrain weitergeleitet.
+     *
+     * @param worldX x-Koordinate der Welt
+     * @param worldZ z-Koordinate der Welt
+     * @return Höhe (y) oder 0, falls das Terrain nicht geladen ist
+     */
+    public float getHeight(float worldX, float worldZ) {
+        Terrain terrain = tiles.get(key(toGrid(worldX), toGrid(worldZ)));
+        return terrain != null ? terrain.getHeight(worldX, worldZ) : 0;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob das Terrain an einer Stelle der Welt geladen ist.
+     *
+     * @param worldX x-Koordinate der Welt
+     * @param worldZ z-Koordinate der Welt
+     * @return Information, ob an dieser Stelle ein Terrain vorhanden ist
+     */
+    public boolean isLoaded(float worldX, float worldZ) {
+        return tiles.containsKey(key(toGrid(worldX), toGrid(worldZ)));
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der geladenen Terrains.
+     *
+     * @return Anzahl der geladenen Terrains
+     */
+    public int getLoadedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Terrains, die gerade im Hintergrund erzeugt werden.
+     *
+     * @return Anzahl der angeforderten Terrains
+     */
+    public int getPendingTileCount() {
+        return pending.size();
+    }
+
+    /**
+     * Diese Funktion hinterlegt den Umkreis (in Terrains) um das Terrain des Spielers, der geladen gehalten wird.
+     *
+     * @param loadRadius Umkreis in Terrains
+     */
+    public void setLoadRadius(int loadRadius) {
+        this.loadRadius = Math.max(0, loadRadius);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Anzahl an Terrains, die maximal im Speicher gehalten werden.
+     *
+     * @param maxCachedTiles Anzahl an Terrains
+     */
+    public void setMaxCachedTiles(int maxCachedTiles) {
+        this.maxCachedTiles = Math.max(1, maxCachedTiles);
+    }
+
+    /**
+     * Diese Funktion hinterlegt die Zeit pro Frame, die für das Laden von Terrains auf die GPU genutzt werden darf.
+     * Pro Frame wird höchstens ein Terrain über das Budget hinaus geladen.
+     *
+     * @param milliseconds Zeit in Millisekunden
+     */
+    public void setUploadBudget(float milliseconds) {
+        this.uploadBudgetNanos = (long) (milliseconds * 1_000_000);
+    }
+
+    /**
+     * Entbindet alle Ressourcen, die vor Beenden der Anwendung wieder freigegeben werden müssen.
+     */
+    public void cleanUp() {
+        executor.shutdownNow();
+        for (Terrain terrain : tiles.values()) {
+            terrain.cleanUp(loader);
+        }
+        tiles.clear();
+        pending.clear();
+    }
+
+    /**
+     * Diese Funktion lädt fertig erzeugte Terrains auf die GPU, solange das Zeitbudget des Frames nicht aufgebraucht ist.
+     */
+    private void uploadFinishedTiles() {
+        long start = System.nanoTime();
+        Iterator<Map.Entry<Long, Future<Terrain>>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && System.nanoTime() - start < uploadBudgetNanos) {
+            Map.Entry<Long, Future<Terrain>> entry = iterator.next();
+            if (!entry.getValue().isDone()) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                Terrain terrain = entry.getValue().get();
+                terrain.upload(loader);
+                tiles.put(entry.getKey(), terrain);
+            } catch (InterruptedException | ExecutionException e) {
+                System.err.println("Could not generate terrain tile!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Diese Funktion gibt die am längsten nicht genutzten Terrains außerhalb des Umkreises frei,
+     * solange mehr als {@link TerrainWorld#maxCachedTiles} Terrains geladen sind.
+     *
+     * @param centerX x-Position des Terrains des Spielers im Grid
+     * @param centerZ z-Position des Terrains des Spielers im Grid
+     */
+    private void evictTiles(int centerX, int centerZ) {
+        Iterator<Map.Entry<Long, Terrain>> iterator = tiles.entrySet().iterator();
+        while (tiles.size() > maxCachedTiles && iterator.hasNext()) {
+            Map.Entry<Long, Terrain> entry = iterator.next();
+            int gridX = (int) (entry.getKey() >> 32);
+            int gridZ = (int) (long) entry.getKey();
+            if (Math.max(Math.abs(gridX - centerX), Math.abs(gridZ - centerZ)) <= loadRadius) {
+                continue;
+            }
+            entry.getValue().cleanUp(loader);
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Diese Funktion bestimmt die Grid-Position zu einer Koordinate der Welt.
+     *
+     * @param world Koordinate der Welt
+     * @return Grid-Position
+     */
+    private static int toGrid(float world) {
+        return (int) Math.floor(world / Terrain.SIZE);
+    }
+
+    /**
+     * Diese Funktion bildet einen Schlüssel aus einer Grid-Position.
+     *
+     * @param gridX x-Position im Grid
+     * @param gridZ z-Position im Grid
+     * @return Schlüssel
+     */
+    private static long key(int gridX, int gridZ) {
+        return ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+    }
+}
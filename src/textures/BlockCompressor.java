@@ -0,0 +1,292 @@
+package textures;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Diese Klasse komprimiert RGBA8-Bilder in die blockbasierten GPU-Formate BC1 (DXT1), BC3 (DXT5) und RGTC1 (BC4).
+ * Alle Formate teilen das Bild in Blöcke aus 4x4 Pixeln, am Rand werden die letzten Pixel wiederholt.
+ *
+ * Die Endpunkte der Farbblöcke werden entlang der Hauptachse der Farben eines Blocks bestimmt (Power-Iteration auf
+ * der Kovarianzmatrix) und leicht nach innen versetzt. Für jeden Pixel wird anschließend die nächste der vier
+ * interpolierten Farben gewählt. Ein-Kanal-Blöcke verwenden Minimum und Maximum mit acht interpolierten Werten.
+ * Sie verwendet kein OpenGL und kann daher in Hintergrund-Threads aufgerufen werden.
+ */
+public class BlockCompressor {
+
+    /**
+     * Anzahl der Iterationen zur Bestimmung der Hauptachse der Farben eines Blocks
+     */
+    private static final int POWER_ITERATIONS = 4;
+
+    /**
+     * Diese Funktion komprimiert ein Bild ohne Alpha-Kanal in das BC1-Format (8 Bytes je Block).
+     *
+     * @param rgba   Pixel im RGBA8-Format
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @return komprimierte Blöcke
+     */
+    public static ByteBuffer compressBC1(byte[] rgba, int width, int height) {
+        return compress(rgba, width, height, MipmappedTextureData.FORMAT_BC1);
+    }
+
+    /**
+     * Diese Funktion komprimiert ein Bild mit Alpha-Kanal in das BC3-Format (16 Bytes je Block).
+     *
+     * @param rgba   Pixel im RGBA8-Format
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @return komprimierte Blöcke
+     */
+    public static ByteBuffer compressBC3(byte[] rgba, int width, int height) {
+        return compress(rgba, width, height, MipmappedTextureData.FORMAT_BC3);
+    }
+
+    /**
+     * Diese Funktion komprimiert den Rot-Kanal eines Bildes in das RGTC1-Format (8 Bytes je Block).
+     *
+     * @param rgba   Pixel im RGBA8-Format
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @return komprimierte Blöcke
+     */
+    public static ByteBuffer compressRGTC1(byte[] rgba, int width, int height) {
+        return compress(rgba, width, height, MipmappedTextureData.FORMAT_RGTC1);
+    }
+
+    /**
+     * Diese Funktion übergibt die Größe eines komprimierten Bildes.
+     *
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @param format Format (siehe {@link MipmappedTextureData})
+     * @return Größe in Bytes
+     */
+    public static int getCompressedSize(int width, int height, int format) {
+        int blockSize = format == MipmappedTextureData.FORMAT_BC3 ? 16 : 8;
+        return ((width + 3) / 4) * ((height + 3) / 4) * blockSize;
+    }
+
+    /**
+     * Diese Funktion komprimiert ein Bild Block für Block.
+     *
+     * @param rgba   Pixel im RGBA8-Format
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @param format Format (siehe {@link MipmappedTextureData})
+     * @return komprimierte Blöcke
+     */
+    private static ByteBuffer compress(byte[] rgba, int width, int height, int format) {
+        ByteBuffer out = BufferUtils.createByteBuffer(getCompressedSize(width, height, format));
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        int[] block = new int[16 * 4];
+        int[] channel = new int[16];
+        for (int blockY = 0; blockY < height; blockY += 4) {
+            for (int blockX = 0; blockX < width; blockX += 4) {
+                // Block auslesen, am Rand werden die letzten Pixel wiederholt
+                for (int y = 0; y < 4; y++) {
+                    int row = Math.min(blockY + y, height - 1) * width;
+                    for (int x = 0; x < 4; x++) {
+                        int pixel = (row + Math.min(blockX + x, width - 1)) * 4;
+                        int i = (y * 4 + x) * 4;
+                        block[i] = rgba[pixel] & 0xFF;
+                        block[i + 1] = rgba[pixel + 1] & 0xFF;
+                        block[i + 2] = rgba[pixel + 2] & 0xFF;
+                        block[i + 3] = rgba[pixel + 3] & 0xFF;
+                    }
+                }
+                if (format == MipmappedTextureData.FORMAT_RGTC1 || format == MipmappedTextureData.FORMAT_BC3) {
+                    int component = format == MipmappedTextureData.FORMAT_RGTC1 ? 0 : 3;
+                    for (int i = 0; i < 16; i++) {
+                        channel[i] = block[i * 4 + component];
+                    }
+                    encodeChannelBlock(channel, out);
+                }
+                if (format != MipmappedTextureData.FORMAT_RGTC1) {
+                    encodeColorBlock(block, out);
+                }
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Diese Funktion kodiert die Farben eines Blocks im BC1-Format: zwei Endpunkte im RGB565-Format und 2 Bit je Pixel.
+     * Der erste Endpunkt ist immer größer als der zweite, damit der Block vier Farben und kein Alpha verwendet.
+     *
+     * @param block Pixel des Blocks (16 x RGBA)
+     * @param out   Ziel der 8 Bytes
+     */
+    private static void encodeColorBlock(int[] block, ByteBuffer out) {
+        // Mittelwert und Kovarianz der Farben
+        float meanR = 0, meanG = 0, meanB = 0;
+        for (int i = 0; i < 16; i++) {
+            meanR += block[i * 4];
+            meanG += block[i * 4 + 1];
+            meanB += block[i * 4 + 2];
+        }
+        meanR /= 16;
+        meanG /= 16;
+        meanB /= 16;
+        float rr = 0, rg = 0, rb = 0, gg = 0, gb = 0, bb = 0;
+        for (int i = 0; i < 16; i++) {
+            float r = block[i * 4] - meanR;
+            float g = block[i * 4 + 1] - meanG;
+            float b = block[i * 4 + 2] - meanB;
+            rr += r * r;
+            rg += r * g;
+            rb += r * b;
+            gg += g * g;
+            gb += g * b;
+            bb += b * b;
+        }
+
+        // Hauptachse durch Power-Iteration
+        float axisR = 1, axisG = 1, axisB = 1;
+        for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+            float r = rr * axisR + rg * axisG + rb * axisB;
+            float g = rg * axisR + gg * axisG + gb * axisB;
+            float b = rb * axisR + gb * axisG + bb * axisB;
+            float length = Math.max(Math.abs(r), Math.max(Math.abs(g), Math.abs(b)));
+            if (length == 0) {
+                break;
+            }
+            axisR = r / length;
+            axisG = g / length;
+            axisB = b / length;
+        }
+
+        // Endpunkte als Projektion der äußersten Farben auf die Achse
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            float t = (block[i * 4] - meanR) * axisR + (block[i * 4 + 1] - meanG) * axisG + (block[i * 4 + 2] - meanB) * axisB;
+            min = Math.min(min, t);
+            max = Math.max(max, t);
+        }
+        float lengthSquared = axisR * axisR + axisG * axisG + axisB * axisB;
+        if (lengthSquared > 0) {
+            // um 1/16 des Bereichs nach innen versetzen, da die Endpunkte sonst selten getroffen werden
+            float inset = (max - min) / 16;
+            min = (min + inset) / lengthSquared;
+            max = (max - inset) / lengthSquared;
+        } else {
+            min = 0;
+            max = 0;
+        }
+        int color0 = toRgb565(meanR + axisR * max, meanG + axisG * max, meanB + axisB * max);
+        int color1 = toRgb565(meanR + axisR * min, meanG + axisG * min, meanB + axisB * min);
+        if (color0 < color1) {
+            int swap = color0;
+            color0 = color1;
+            color1 = swap;
+        }
+
+        int indices = 0;
+        if (color0 != color1) {
+            int[] palette = new int[4 * 3];
+            expandRgb565(color0, palette, 0);
+            expandRgb565(color1, palette, 3);
+            for (int c = 0; c < 3; c++) {
+                palette[6 + c] = (2 * palette[c] + palette[3 + c]) / 3;
+                palette[9 + c] = (palette[c] + 2 * palette[3 + c]) / 3;
+            }
+            for (int i = 0; i < 16; i++) {
+                int best = 0;
+                int bestDistance = Integer.MAX_VALUE;
+                for (int candidate = 0; candidate < 4; candidate++) {
+                    int dr = block[i * 4] - palette[candidate * 3];
+                    int dg = block[i * 4 + 1] - palette[candidate * 3 + 1];
+                    int db = block[i * 4 + 2] - palette[candidate * 3 + 2];
+                    int distance = dr * dr + dg * dg + db * db;
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = candidate;
+                    }
+                }
+                indices |= best << (i * 2);
+            }
+        }
+        out.putShort((short) color0);
+        out.putShort((short) color1);
+        out.putInt(indices);
+    }
+
+    /**
+     * Diese Funktion kodiert einen Kanal eines Blocks im Format von RGTC1 bzw. des Alpha-Blocks von BC3:
+     * zwei Endpunkte mit 8 Bit und 3 Bit je Pixel für einen von acht interpolierten Werten.
+     *
+     * @param values Werte der 16 Pixel (0 bis 255)
+     * @param out    Ziel der 8 Bytes
+     */
+    private static void encodeChannelBlock(int[] values, ByteBuffer out) {
+        int max = 0;
+        int min = 255;
+        for (int value : values) {
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+        }
+        long indices = 0;
+        if (max != min) {
+            // Stufe 0 = max, 1 = min, 2 bis 7 interpoliert von max nach min
+            int[] palette = new int[8];
+            palette[0] = max;
+            palette[1] = min;
+            for (int i = 2; i < 8; i++) {
+                palette[i] = ((8 - i) * max + (i - 1) * min + 3) / 7;
+            }
+            for (int i = 0; i < 16; i++) {
+                int best = 0;
+                int bestDistance = Integer.MAX_VALUE;
+                for (int candidate = 0; candidate < 8; candidate++) {
+                    int distance = Math.abs(values[i] - palette[candidate]);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = candidate;
+                    }
+                }
+                indices |= (long) best << (i * 3);
+            }
+        }
+        out.put((byte) max);
+        out.put((byte) min);
+        for (int i = 0; i < 6; i++) {
+            out.put((byte) (indices >>> (i * 8)));
+        }
+    }
+
+    /**
+     * Diese Funktion rundet eine Farbe auf das RGB565-Format.
+     *
+     * @param r Rot (0 bis 255)
+     * @param g Grün (0 bis 255)
+     * @param b Blau (0 bis 255)
+     * @return Farbe im RGB565-Format
+     */
+    private static int toRgb565(float r, float g, float b) {
+        int r5 = Math.round(Math.max(0, Math.min(255, r)) * 31 / 255);
+        int g6 = Math.round(Math.max(0, Math.min(255, g)) * 63 / 255);
+        int b5 = Math.round(Math.max(0, Math.min(255, b)) * 31 / 255);
+        return r5 << 11 | g6 << 5 | b5;
+    }
+
+    /**
+     * Diese Funktion wandelt eine Farbe im RGB565-Format zurück in 8 Bit je Kanal, wie es die GPU beim Dekodieren tut.
+     *
+     * @param color  Farbe im RGB565-Format
+     * @param dest   Ziel-Array
+     * @param offset Index des Rot-Kanals im Ziel-Array
+     */
+    private static void expandRgb565(int color, int[] dest, int offset) {
+        int r5 = color >> 11 & 0x1F;
+        int g6 = color >> 5 & 0x3F;
+        int b5 = color & 0x1F;
+        dest[offset] = r5 << 3 | r5 >> 2;
+        dest[offset + 1] = g6 << 2 | g6 >> 4;
+        dest[offset + 2] = b5 << 3 | b5 >> 2;
+    }
+}
@@ -0,0 +1,158 @@
+package textures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Diese Klasse enthält eine Textur mit bereits vollständig berechneter Mipmap-Kette, optional blockkomprimiert.
+ * Sie wird durch den {@link TextureCache} erzeugt und durch den {@link renderEngine.Loader} Stufe für Stufe hochgeladen.
+ */
+public class MipmappedTextureData {
+
+    /**
+     * Unkomprimiertes Format mit 8 Bit je Kanal
+     */
+    public static final int FORMAT_RGBA8 = 0;
+    /**
+     * BC1 (S3TC DXT1): 8 Bytes je 4x4 Block, ohne Alpha
+     */
+    public static final int FORMAT_BC1 = 1;
+    /**
+     * BC3 (S3TC DXT5): 16 Bytes je 4x4 Block, mit Alpha
+     */
+    public static final int FORMAT_BC3 = 2;
+    /**
+     * RGTC1 (BC4): 8 Bytes je 4x4 Block, ein Kanal (Graustufen)
+     */
+    public static final int FORMAT_RGTC1 = 3;
+
+    /**
+     * Format der Stufen (siehe FORMAT_*)
+     */
+    private final int format;
+    /**
+     * Breite der größten Stufe in Pixeln
+     */
+    private final int width;
+    /**
+     * Höhe der größten Stufe in Pixeln
+     */
+    private final int height;
+    /**
+     * Daten je Mipmap-Stufe, beginnend mit der größten
+     */
+    private final ByteBuffer[] levels;
+
+    /**
+     * Die Mipmap-Kette einer Textur wird zusammengefasst.
+     *
+     * @param format Format der Stufen (siehe FORMAT_*)
+     * @param width  Breite der größten Stufe in Pixeln
+     * @param height Höhe der größten Stufe in Pixeln
+     * @param levels Daten je Mipmap-Stufe, beginnend mit der größten
+     */
+    public MipmappedTextureData(int format, int width, int height, ByteBuffer[] levels) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+    }
+
+    /**
+     * Diese Funktion übergibt das Format der Stufen.
+     *
+     * @return Format (siehe FORMAT_*)
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Stufen blockkomprimiert sind.
+     *
+     * @return Information, ob die Stufen blockkomprimiert sind
+     */
+    public boolean isCompressed() {
+        return format != FORMAT_RGBA8;
+    }
+
+    /**
+     * Diese Funktion übergibt die Breite der größten Stufe.
+     *
+     * @return Breite in Pixeln
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Diese Funktion übergibt die Höhe der größten Stufe.
+     *
+     * @return Höhe in Pixeln
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der Mipmap-Stufen.
+     *
+     * @return Anzahl der Stufen
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Diese Funktion übergibt die Daten einer Mipmap-Stufe.
+     *
+     * @param level Stufe (0 = größte Stufe)
+     * @return Daten der Stufe
+     */
+    public ByteBuffer getLevel(int level) {
+        return levels[level];
+    }
+
+    /**
+     * Diese Funktion übergibt den Speicherbedarf aller Stufen auf der GPU.
+     *
+     * @return Speicherbedarf in Bytes
+     */
+    public long getByteSize() {
+        long size = 0;
+        for (ByteBuffer level : levels) {
+            size += level.remaining();
+        }
+        return size;
+    }
+
+    /**
+     * Diese Funktion übergibt den Speicherbedarf derselben Mipmap-Kette im unkomprimierten RGBA8-Format.
+     *
+     * @return Speicherbedarf in Bytes
+     */
+    public long getUncompressedByteSize() {
+        long size = 0;
+        for (int level = 0; level < levels.length; level++) {
+            size += 4L * Math.max(1, width >> level) * Math.max(1, height >> level);
+        }
+        return size;
+    }
+
+    /**
+     * Diese Funktion übergibt den Namen des Formats für Ausgaben.
+     *
+     * @return Name des Formats
+     */
+    public String getFormatName() {
+        switch (format) {
+            case FORMAT_BC1:
+                return "BC1";
+            case FORMAT_BC3:
+                return "BC3";
+            case FORMAT_RGTC1:
+                return "RGTC1";
+            default:
+                return "RGBA8";
+        }
+    }
+}
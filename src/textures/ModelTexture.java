@@ -2,6 +2,11 @@ package textures;
 
 /**
  * Diese Klasse ermöglicht die Referenz auf eine Textur, gebunden an ein Model.
+ *
+ * Die Textur kann eine einzelne Textur oder eine Ebene eines Textur-Arrays (GL_TEXTURE_2D_ARRAY) sein.
+ * Innerhalb der Ebene können wie bisher mehrere Texturen in Zeilen und Spalten abgelegt werden
+ * (siehe {@link ModelTexture#getNumberOfRows()}). Modelle, deren Texturen Ebenen desselben Arrays sind,
+ * können ohne erneutes Binden einer Textur nacheinander gerendert werden.
  */
 public class ModelTexture {
 
@@ -9,6 +14,10 @@ public class ModelTexture {
      * Referenz zur geladenen Textur
      */
     private final int textureId;
+    /**
+     * Ebene im Textur-Array oder -1, falls die Referenz auf eine einzelne Textur zeigt
+     */
+    private final int arrayLayer;
 
     /**
      * Dämpung des Scheins
@@ -40,7 +49,48 @@ public class ModelTexture {
      * @param id Referenz zur geladenen Textur
      */
     public ModelTexture(int id) {
+        this(id, -1);
+    }
+
+    /**
+     * Eine Modeltextur wird mithilfe der Referenz zu einem Textur-Array und der Ebene darin erstellt.
+     *
+     * @param id         Referenz zum geladenen Textur-Array oder zur einzelnen Textur
+     * @param arrayLayer Ebene im Textur-Array oder -1 bei einer einzelnen Textur
+     */
+    public ModelTexture(int id, int arrayLayer) {
         this.textureId = id;
+        this.arrayLayer = arrayLayer;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob die Referenz auf ein Textur-Array zeigt.
+     *
+     * @return Information, ob die Textur eine Ebene eines Textur-Arrays ist
+     */
+    public boolean isTextureArray() {
+        return arrayLayer >= 0;
+    }
+
+    /**
+     * Diese Funktion übergibt die Ebene im Textur-Array.
+     *
+     * @return Ebene oder -1 bei einer einzelnen Textur
+     */
+    public int getArrayLayer() {
+        return arrayLayer;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob zwei Modeltexturen dieselben Werte in den Shader laden, sodass diese beim Wechsel
+     * zwischen beiden Modellen nicht erneut geladen werden müssen.
+     *
+     * @param other andere Modeltextur
+     * @return Information, ob Schein, Reflektivität, Beleuchtung und Zeilenanzahl übereinstimmen
+     */
+    public boolean hasSameMaterial(ModelTexture other) {
+        return other != null && shineDamper == other.shineDamper && reflectivity == other.reflectivity
+                && isFakeLit == other.isFakeLit && numberOfRows == other.numberOfRows;
     }
 
     /**
@@ -0,0 +1,337 @@
+package textures;
+
+import org.lwjgl.BufferUtils;
+import renderEngine.Loader;
+import toolbox.CacheFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diese Klasse bereitet PNG-Texturen einmalig auf und speichert sie in einem Binärformat, das bei späteren Starts
+ * per Memory-Mapping ohne Dekodieren direkt hochgeladen werden kann.
+ *
+ * Beim Aufbereiten wird die vollständige Mipmap-Kette bis 1x1 mit einem Box-Filter berechnet und jede Stufe
+ * optional mit dem {@link BlockCompressor} komprimiert: BC3 bei Texturen mit Transparenz, RGTC1 bei Graustufen,
+ * sonst BC1. Dadurch entfallen das PNG-Dekodieren und glGenerateMipmap beim Start und die Texturen benötigen
+ * auf der GPU nur noch 1/8 (BC1, RGTC1) bzw. 1/4 (BC3) des Speichers.
+ *
+ * Aufbau einer Cache-Datei (in nativer Byte-Reihenfolge):
+ * Header (Magic, Version, Größe, Änderungszeitpunkt und CRC32 der PNG-Datei, Format, Breite, Höhe, Anzahl Stufen),
+ * Größe je Stufe in Bytes, Daten der Stufen beginnend mit der größten.
+ */
+public class TextureCache {
+
+    /**
+     * Pfad zum Ressourcen-Verzeichnis
+     */
+    private static final String RESOURCES = "res/";
+    /**
+     * Dateiendung der Cache-Dateien blockkomprimierter Texturen
+     */
+    private static final String COMPRESSED_EXTENSION = ".bc.tex";
+    /**
+     * Dateiendung der Cache-Dateien unkomprimierter Texturen
+     */
+    private static final String UNCOMPRESSED_EXTENSION = ".rgba.tex";
+    /**
+     * Kennung am Anfang jeder Cache-Datei ("SFTC")
+     */
+    private static final int MAGIC = 0x53465443;
+    /**
+     * Version des Dateiformats, muss bei Änderungen am Format oder an der Aufbereitung erhöht werden
+     */
+    private static final int VERSION = 1;
+    /**
+     * Größe des festen Teils des Headers in Bytes
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4 + 4;
+
+    /**
+     * Anzahl der Texturen, die aus dem Cache geladen wurden
+     */
+    private static final AtomicInteger cachedLoads = new AtomicInteger();
+    /**
+     * Gesamtdauer der Ladevorgänge aus dem Cache in Nanosekunden (summiert über alle Threads)
+     */
+    private static final AtomicLong cachedLoadTime = new AtomicLong();
+    /**
+     * Anzahl der Texturen, die aus der PNG-Datei aufbereitet wurden
+     */
+    private static final AtomicInteger builtLoads = new AtomicInteger();
+    /**
+     * Gesamtdauer der Aufbereitung (Dekodieren, Mipmaps, Komprimieren, Schreiben des Caches) in Nanosekunden
+     * (summiert über alle Threads)
+     */
+    private static final AtomicLong builtLoadTime = new AtomicLong();
+    /**
+     * Texturdaten aller geladenen Texturen auf der GPU in Bytes
+     */
+    private static final AtomicLong textureBytes = new AtomicLong();
+    /**
+     * Texturdaten aller geladenen Texturen im bisherigen Format (RGBA8 mit Mipmaps) in Bytes
+     */
+    private static final AtomicLong uncompressedTextureBytes = new AtomicLong();
+
+    /**
+     * Diese Funktion lädt eine Textur mit allen Mipmap-Stufen aus dem Cache oder bereitet sie aus der PNG-Datei auf
+     * und schreibt den Cache. Komprimierte und unkomprimierte Aufbereitungen liegen in getrennten Cache-Dateien,
+     * damit eine Anforderung im jeweils anderen Format den Cache nicht überschreibt.
+     * Sie verwendet kein OpenGL und kann daher in Hintergrund-Threads aufgerufen werden.
+     *
+     * @param textureName Name der Textur im Ressourcen-Verzeichnis
+     * @param compress    Information, ob die Textur blockkomprimiert werden soll
+     * @return Textur mit allen Mipmap-Stufen
+     */
+    public static MipmappedTextureData loadTexture(String textureName, boolean compress) {
+        long start = System.nanoTime();
+        String name = textureName.endsWith(".png") ? textureName : textureName + ".png";
+        File source = new File(RESOURCES + name);
+
+        MipmappedTextureData cachedData = load(name, source, compress);
+        if (cachedData != null) {
+            reportTextureMemory(name, cachedData);
+            cachedLoads.incrementAndGet();
+            cachedLoadTime.addAndGet(System.nanoTime() - start);
+            return cachedData;
+        }
+
+        TextureData decoded = Loader.decodeTextureFile(name);
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        byte[] pixels = new byte[width * height * 4];
+        decoded.getBuffer().duplicate().get(pixels);
+
+        int format = compress ? chooseFormat(pixels) : MipmappedTextureData.FORMAT_RGBA8;
+        List<ByteBuffer> levels = new ArrayList<>();
+        while (true) {
+            levels.add(encode(pixels, width, height, format));
+            if (width == 1 && height == 1) {
+                break;
+            }
+            int nextWidth = Math.max(1, width / 2);
+            int nextHeight = Math.max(1, height / 2);
+            pixels = downsample(pixels, width, height, nextWidth, nextHeight);
+            width = nextWidth;
+            height = nextHeight;
+        }
+        MipmappedTextureData data = new MipmappedTextureData(format, decoded.getWidth(), decoded.getHeight(),
+                levels.toArray(new ByteBuffer[0]));
+        if (source.isFile()) {
+            store(name, source, data, compress);
+        }
+        reportTextureMemory(name, data);
+
+        builtLoads.incrementAndGet();
+        builtLoadTime.addAndGet(System.nanoTime() - start);
+        return data;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl und Gesamtdauer der Ladevorgänge aus dem Cache und aus PNG-Dateien sowie den
+     * Speicherbedarf der Texturen auf der GPU.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public static String getStatistics() {
+        return String.format("Texturen: %d aus dem Cache in %.1f ms, %d aufbereitet in %.1f ms, "
+                        + "Texturdaten %.1f KiB statt %.1f KiB",
+                cachedLoads.get(), cachedLoadTime.get() / 1e6, builtLoads.get(), builtLoadTime.get() / 1e6,
+                textureBytes.get() / 1024.0, uncompressedTextureBytes.get() / 1024.0);
+    }
+
+    /**
+     * Diese Funktion lädt eine Textur aus dem Cache, sofern eine gültige Cache-Datei zur PNG-Datei existiert.
+     * Die Stufen werden nicht kopiert, sondern als Ausschnitte der gemappten Datei übergeben.
+     *
+     * @param name     Name der PNG-Datei relativ zum Ressourcen-Verzeichnis
+     * @param source   PNG-Datei
+     * @param compress Information, ob die Textur blockkomprimiert sein soll
+     * @return Textur mit allen Mipmap-Stufen oder null, falls kein gültiger Cache existiert
+     */
+    private static MipmappedTextureData load(String name, File source, boolean compress) {
+        File file = getCacheFile(name, compress);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile cache = new RandomAccessFile(file, "r");
+             FileChannel channel = cache.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.nativeOrder());
+
+            if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                return null;
+            }
+            if (!CacheFiles.matchesSourceStamp(mapped, source)) {
+                return null;
+            }
+            int format = mapped.getInt();
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            int levelCount = mapped.getInt();
+            if (compress != (format != MipmappedTextureData.FORMAT_RGBA8)
+                    || levelCount <= 0 || mapped.remaining() < levelCount * 4) {
+                return null;
+            }
+            int[] levelSizes = new int[levelCount];
+            long totalSize = 0;
+            for (int level = 0; level < levelCount; level++) {
+                levelSizes[level] = mapped.getInt();
+                totalSize += levelSizes[level];
+            }
+            if (mapped.remaining() != totalSize) {
+                return null;
+            }
+
+            ByteBuffer[] levels = new ByteBuffer[levelCount];
+            for (int level = 0; level < levelCount; level++) {
+                levels[level] = CacheFiles.slice(mapped, levelSizes[level]);
+            }
+            return new MipmappedTextureData(format, width, height, levels);
+        } catch (IOException e) {
+            System.err.println("Could not read texture cache " + file);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Diese Funktion schreibt eine aufbereitete Textur in den Cache (siehe {@link CacheFiles#write(File, byte[])}).
+     *
+     * @param name     Name der PNG-Datei relativ zum Ressourcen-Verzeichnis
+     * @param source   PNG-Datei
+     * @param data     Textur mit allen Mipmap-Stufen
+     * @param compress Information, ob die Textur blockkomprimiert wurde
+     */
+    private static void store(String name, File source, MipmappedTextureData data, boolean compress) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + data.getLevelCount() * 4 + data.getByteSize()))
+                .order(ByteOrder.nativeOrder());
+
+        File file = getCacheFile(name, compress);
+        try {
+            buffer.putInt(MAGIC).putInt(VERSION);
+            CacheFiles.putSourceStamp(buffer, source);
+            buffer.putInt(data.getFormat()).putInt(data.getWidth()).putInt(data.getHeight());
+            buffer.putInt(data.getLevelCount());
+            for (int level = 0; level < data.getLevelCount(); level++) {
+                buffer.putInt(data.getLevel(level).remaining());
+            }
+            for (int level = 0; level < data.getLevelCount(); level++) {
+                buffer.put(data.getLevel(level).duplicate());
+            }
+
+            CacheFiles.write(file, buffer.array());
+        } catch (IOException e) {
+            System.err.println("Could not write texture cache " + file);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Diese Funktion wählt das Kompressionsformat anhand des Inhalts der Textur.
+     *
+     * @param pixels Pixel im RGBA8-Format
+     * @return BC3 bei Transparenz, RGTC1 bei Graustufen, sonst BC1
+     */
+    private static int chooseFormat(byte[] pixels) {
+        boolean grayscale = true;
+        for (int i = 0; i < pixels.length; i += 4) {
+            if (pixels[i + 3] != (byte) 0xFF) {
+                return MipmappedTextureData.FORMAT_BC3;
+            }
+            if (pixels[i] != pixels[i + 1] || pixels[i] != pixels[i + 2]) {
+                grayscale = false;
+            }
+        }
+        return grayscale ? MipmappedTextureData.FORMAT_RGTC1 : MipmappedTextureData.FORMAT_BC1;
+    }
+
+    /**
+     * Diese Funktion wandelt eine Mipmap-Stufe in das gewählte Format.
+     *
+     * @param pixels Pixel im RGBA8-Format
+     * @param width  Breite in Pixeln
+     * @param height Höhe in Pixeln
+     * @param format Format (siehe {@link MipmappedTextureData})
+     * @return Daten der Stufe
+     */
+    private static ByteBuffer encode(byte[] pixels, int width, int height, int format) {
+        switch (format) {
+            case MipmappedTextureData.FORMAT_BC1:
+                return BlockCompressor.compressBC1(pixels, width, height);
+            case MipmappedTextureData.FORMAT_BC3:
+                return BlockCompressor.compressBC3(pixels, width, height);
+            case MipmappedTextureData.FORMAT_RGTC1:
+                return BlockCompressor.compressRGTC1(pixels, width, height);
+            default:
+                ByteBuffer buffer = BufferUtils.createByteBuffer(pixels.length);
+                buffer.put(pixels);
+                buffer.flip();
+                return buffer;
+        }
+    }
+
+    /**
+     * Diese Funktion berechnet die nächste Mipmap-Stufe als Mittelwert aus je 2x2 Pixeln. Bei ungerader Größe wird
+     * der letzte Pixel einer Zeile bzw. Spalte wiederholt.
+     *
+     * @param pixels     Pixel der aktuellen Stufe im RGBA8-Format
+     * @param width      Breite der aktuellen Stufe
+     * @param height     Höhe der aktuellen Stufe
+     * @param nextWidth  Breite der nächsten Stufe
+     * @param nextHeight Höhe der nächsten Stufe
+     * @return Pixel der nächsten Stufe im RGBA8-Format
+     */
+    private static byte[] downsample(byte[] pixels, int width, int height, int nextWidth, int nextHeight) {
+        byte[] next = new byte[nextWidth * nextHeight * 4];
+        for (int y = 0; y < nextHeight; y++) {
+            int row0 = Math.min(y * 2, height - 1) * width;
+            int row1 = Math.min(y * 2 + 1, height - 1) * width;
+            for (int x = 0; x < nextWidth; x++) {
+                int column0 = Math.min(x * 2, width - 1);
+                int column1 = Math.min(x * 2 + 1, width - 1);
+                for (int c = 0; c < 4; c++) {
+                    int sum = (pixels[(row0 + column0) * 4 + c] & 0xFF) + (pixels[(row0 + column1) * 4 + c] & 0xFF)
+                            + (pixels[(row1 + column0) * 4 + c] & 0xFF) + (pixels[(row1 + column1) * 4 + c] & 0xFF);
+                    next[(y * nextWidth + x) * 4 + c] = (byte) ((sum + 2) / 4);
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Diese Funktion gibt den Speicherbedarf einer Textur vor und nach der Aufbereitung aus
+     * und summiert ihn für {@link TextureCache#getStatistics()}.
+     *
+     * @param name Name der PNG-Datei
+     * @param data aufbereitete Textur
+     */
+    private static void reportTextureMemory(String name, MipmappedTextureData data) {
+        textureBytes.addAndGet(data.getByteSize());
+        uncompressedTextureBytes.addAndGet(data.getUncompressedByteSize());
+        System.out.printf("%s: Texturdaten %.1f KiB statt %.1f KiB (%s, %d Mipmap-Stufen)%n", name,
+                data.getByteSize() / 1024.0, data.getUncompressedByteSize() / 1024.0, data.getFormatName(),
+                data.getLevelCount());
+    }
+
+    /**
+     * Diese Funktion übergibt die Cache-Datei zu einer PNG-Datei. Die Kompression ist Teil des Dateinamens.
+     *
+     * @param name     Name der PNG-Datei relativ zum Ressourcen-Verzeichnis
+     * @param compress Information, ob die Textur blockkomprimiert ist
+     * @return Cache-Datei
+     */
+    private static File getCacheFile(String name, boolean compress) {
+        return CacheFiles.getCacheFile(name, ".png", compress ? COMPRESSED_EXTENSION : UNCOMPRESSED_EXTENSION);
+    }
+}
@@ -0,0 +1,112 @@
+package toolbox;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Diese Klasse stellt gemeinsame Funktionen für die binären Cache-Dateien bereit, in denen aufbereitete Ressourcen
+ * (z.B. Modelle und Texturen) zwischen zwei Starts gespeichert werden.
+ */
+public class CacheFiles {
+
+    /**
+     * Verzeichnis, in dem die Cache-Dateien abgelegt werden
+     */
+    private static final String CACHE_DIRECTORY = "cache/";
+
+    /**
+     * Diese Funktion übergibt die Cache-Datei zu einer Ressourcen-Datei.
+     *
+     * @param name            Name der Ressourcen-Datei relativ zum Ressourcen-Verzeichnis
+     * @param sourceExtension Dateiendung der Ressourcen-Datei, die ersetzt wird
+     * @param extension       Dateiendung der Cache-Datei
+     * @return Cache-Datei
+     */
+    public static File getCacheFile(String name, String sourceExtension, String extension) {
+        String baseName = name.endsWith(sourceExtension) ? name.substring(0, name.length() - sourceExtension.length()) : name;
+        return new File(CACHE_DIRECTORY + baseName + extension);
+    }
+
+    /**
+     * Diese Funktion berechnet die CRC32-Prüfsumme einer Datei. Die Datei wird dazu gemappt statt gelesen.
+     *
+     * @param source Datei
+     * @return Prüfsumme
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    public static long checksum(File source) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(source, "r");
+             FileChannel channel = file.getChannel()) {
+            CRC32 crc = new CRC32();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Diese Funktion schreibt den Stempel einer Ressourcen-Datei (Größe, Änderungszeitpunkt und CRC32-Prüfsumme) an
+     * die aktuelle Position eines Buffers, siehe {@link CacheFiles#matchesSourceStamp(ByteBuffer, File)}.
+     *
+     * @param buffer Buffer des Headers
+     * @param source Ressourcen-Datei
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    public static void putSourceStamp(ByteBuffer buffer, File source) throws IOException {
+        buffer.putLong(source.length()).putLong(source.lastModified()).putLong(checksum(source));
+    }
+
+    /**
+     * Diese Funktion liest den Stempel einer Ressourcen-Datei ab der aktuellen Position eines Buffers und prüft, ob er
+     * zur Datei passt. Größe und Änderungszeitpunkt werden zuerst geprüft, damit die Prüfsumme nur bei Bedarf
+     * berechnet wird.
+     *
+     * @param buffer Buffer des Headers
+     * @param source Ressourcen-Datei
+     * @return Information, ob die Cache-Datei aus der aktuellen Ressourcen-Datei erstellt wurde
+     * @throws IOException falls die Datei nicht gelesen werden kann
+     */
+    public static boolean matchesSourceStamp(ByteBuffer buffer, File source) throws IOException {
+        return buffer.getLong() == source.length() && buffer.getLong() == source.lastModified()
+                && buffer.getLong() == checksum(source);
+    }
+
+    /**
+     * Diese Funktion schneidet die nächsten Bytes aus einem Buffer heraus, ohne sie zu kopieren,
+     * und setzt die Position des Buffers dahinter.
+     *
+     * @param buffer Buffer
+     * @param length Anzahl der Bytes
+     * @return Ausschnitt des Buffers
+     */
+    public static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice.order(buffer.order());
+    }
+
+    /**
+     * Diese Funktion schreibt eine Cache-Datei. Die Datei wird zunächst unter einem eindeutigen temporären Namen
+     * geschrieben und anschließend ersetzt, damit kein anderer Thread oder Start eine halb geschriebene Datei liest.
+     *
+     * @param file Cache-Datei
+     * @param data Inhalt der Datei
+     * @throws IOException falls die Datei nicht geschrieben werden kann
+     */
+    public static void write(File file, byte[] data) throws IOException {
+        file.getParentFile().mkdirs();
+        File temporary = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            Files.write(temporary.toPath(), data);
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temporary.delete();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package toolbox;
+
+import org.lwjgl.util.vector.Matrix4f;
+
+/**
+ * Diese Klasse repräsentiert das Sichtvolumen (View-Frustum) der Kamera durch sechs Ebenen in Weltkoordinaten.
+ * Damit kann geprüft werden, ob ein Objekt überhaupt im Bild liegen kann.
+ */
+public class Frustum {
+
+    /**
+     * Anzahl der Ebenen des Frustums (links, rechts, unten, oben, nah, fern)
+     */
+    private static final int PLANE_COUNT = 6;
+
+    /**
+     * Ebenengleichungen (a, b, c, d) mit nach innen zeigender, normierter Normale
+     */
+    private final float[][] planes = new float[PLANE_COUNT][4];
+    /**
+     * Zwischenspeicher für das Produkt aus Projektions- und Ansichtsmatrix
+     */
+    private final Matrix4f viewProjection = new Matrix4f();
+
+    /**
+     * Diese Funktion bestimmt die Ebenen des Frustums aus der Projektions- und Ansichtsmatrix (Gribb/Hartmann).
+     * Sie muss einmal pro Frame aufgerufen werden, nachdem sich die Kamera bewegt hat.
+     *
+     * @param projectionMatrix Projektionsmatrix
+     * @param viewMatrix       Ansichtsmatrix
+     */
+    public void update(Matrix4f projectionMatrix, Matrix4f viewMatrix) {
+        Matrix4f m = Matrix4f.mul(projectionMatrix, viewMatrix, viewProjection);
+        // Zeile i der Matrix entspricht (m0i, m1i, m2i, m3i)
+        setPlane(0, m.m03 + m.m00, m.m13 + m.m10, m.m23 + m.m20, m.m33 + m.m30);
+        setPlane(1, m.m03 - m.m00, m.m13 - m.m10, m.m23 - m.m20, m.m33 - m.m30);
+        setPlane(2, m.m03 + m.m01, m.m13 + m.m11, m.m23 + m.m21, m.m33 + m.m31);
+        setPlane(3, m.m03 - m.m01, m.m13 - m.m11, m.m23 - m.m21, m.m33 - m.m31);
+        setPlane(4, m.m03 + m.m02, m.m13 + m.m12, m.m23 + m.m22, m.m33 + m.m32);
+        setPlane(5, m.m03 - m.m02, m.m13 - m.m12, m.m23 - m.m22, m.m33 - m.m32);
+    }
+
+    /**
+     * Diese Funktion übergibt die Information, ob eine Kugel (teilweise) im Frustum liegt.
+     *
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param y      y-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Radius der Kugel
+     * @return Information, ob die Kugel sichtbar sein kann
+     */
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (float[] plane : planes) {
+            if (plane[0] * x + plane[1] * y + plane[2] * z + plane[3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Funktion übergibt die Information, ob eine achsenparallele Box (teilweise) im Frustum liegt.
+     * Dazu wird für jede Ebene die Ecke der Box getestet, die am weitesten in Richtung der Normale liegt.
+     *
+     * @param minX minimale x-Koordinate
+     * @param minY minimale y-Koordinate
+     * @param minZ minimale z-Koordinate
+     * @param maxX maximale x-Koordinate
+     * @param maxY maximale y-Koordinate
+     * @param maxZ maximale z-Koordinate
+     * @return Information, ob die Box sichtbar sein kann
+     */
+    public boolean intersectsBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (float[] plane : planes) {
+            float x = plane[0] >= 0 ? maxX : minX;
+            float y = plane[1] >= 0 ? maxY : minY;
+            float z = plane[2] >= 0 ? maxZ : minZ;
+            if (plane[0] * x + plane[1] * y + plane[2] * z + plane[3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Funktion hinterlegt eine normierte Ebenengleichung.
+     *
+     * @param index Index der Ebene
+     * @param a     x-Komponente der Normale
+     * @param b     y-Komponente der Normale
+     * @param c     z-Komponente der Normale
+     * @param d     Abstand zum Ursprung
+     */
+    private void setPlane(int index, float a, float b, float c, float d) {
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        planes[index][0] = a / length;
+        planes[index][1] = b / length;
+        planes[index][2] = c / length;
+        planes[index][3] = d / length;
+    }
+}
@@ -0,0 +1,352 @@
+package toolbox;
+
+import org.lwjgl.util.vector.Vector3f;
+import terrain.Terrain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Diese Klasse verwirft Objekte, die hinter Hügeln des Terrains liegen, anhand der Höhendaten auf der CPU.
+ * <p>
+ * Einmal pro Frame wird von der Kamera aus entlang von {@link HorizonCuller#RAY_COUNT} Strahlen über der xz-Ebene in
+ * Schritten von einer Zelle nach außen gegangen. Je Schritt wird der größte Höhenwinkel (als Steigung) gespeichert,
+ * unter dem das Terrain bis zu dieser Entfernung gesehen wurde. Als Höhe dient die minimale Höhe einer Zelle des
+ * Verdeckungsgitters ({@link Terrain#copyOccluderHeights(int, float[], int, int)}) für das gröbste Level of Detail, in
+ * dem die Zelle in dieser Entfernung gerendert werden kann. Der Horizont wird also eher zu niedrig geschätzt. Die
+ * Gitter aller Terrains werden dafür je Level of Detail zu einem Feld zusammengesetzt. Ein Objekt gilt als verdeckt,
+ * wenn der höchste Punkt seiner umschließenden Kugel auf allen Strahlen, die die Kugel überdecken, unter dem Horizont
+ * vor der Kugel liegt. Zwischen zwei Strahlen wird das Terrain nicht abgetastet, sehr schmale Einschnitte können daher
+ * übersehen werden.
+ * <p>
+ * Die Strahlen sind gleichmäßig über den Rautenwinkel (|x| + |z| normiert) statt über den Winkel verteilt, damit die
+ * Abfrage eines Objekts ohne Winkelfunktionen auskommt.
+ */
+public class HorizonCuller {
+
+    /**
+     * Anzahl der Strahlen um die Kamera
+     */
+    private static final int RAY_COUNT = 256;
+    /**
+     * Abstand zweier Schritte entlang eines Strahls, eine Zelle des Verdeckungsgitters
+     */
+    private static final float STEP = Terrain.SIZE / Terrain.OCCLUDER_CELLS;
+    /**
+     * Anzahl der Schritte entlang eines Strahls
+     */
+    private static final int STEP_COUNT = 48;
+    /**
+     * Anzahl der Schritte um die Kamera, in denen nichts verworfen wird. Das Terrain direkt unter der Kamera liegt in
+     * derselben Zelle wie nahe Objekte und verdeckt diese nicht zuverlässig.
+     */
+    private static final int NEAR_STEPS = 2;
+    /**
+     * Wertebereich des Rautenwinkels (ein voller Kreis)
+     */
+    private static final float DIAMOND_CIRCLE = 4;
+
+    /**
+     * Richtung jedes Strahls (x, z), normiert
+     */
+    private final float[] rayDirections = new float[RAY_COUNT * 2];
+    /**
+     * größte Steigung des Terrains je Strahl und Schritt bis zu dieser Entfernung
+     */
+    private final float[] horizon = new float[RAY_COUNT * STEP_COUNT];
+    /**
+     * Kehrwert der Entfernung jedes Schritts zur Kamera
+     */
+    private final float[] inverseDistances = new float[STEP_COUNT];
+    /**
+     * Terrains, aus denen {@link HorizonCuller#grids} zusammengesetzt wurden
+     */
+    private final List<Terrain> gridTerrains = new ArrayList<>();
+    /**
+     * zusammengesetzte Verdeckungsgitter aller Terrains je Level of Detail, zeilenweise (z)
+     */
+    private final float[][] grids = new float[Terrain.LOD_STEPS.length][0];
+    /**
+     * Verdeckungsgitter je Schritt, passend zum gröbsten Level of Detail, in dem seine Zellen gerendert werden können
+     */
+    private final float[][] stepGrids = new float[STEP_COUNT][];
+    /**
+     * Weltkoordinaten der Zelle (0, 0) von {@link HorizonCuller#grids}
+     */
+    private float gridOriginX, gridOriginZ;
+    /**
+     * Anzahl der Spalten (x) und Zeilen (z) von {@link HorizonCuller#grids}
+     */
+    private int gridColumns, gridRows;
+    /**
+     * Position der Kamera beim letzten Aufbau des Horizonts
+     */
+    private float cameraX, cameraY, cameraZ;
+    /**
+     * Information, ob ein Horizont aufgebaut wurde
+     */
+    private boolean valid = false;
+
+    /**
+     * Dauer des letzten Aufbaus in Nanosekunden
+     */
+    private long updateTime = 0;
+    /**
+     * Anzahl der Abfragen seit dem letzten Aufbau
+     */
+    private int testCount = 0;
+    /**
+     * Anzahl der verdeckten Abfragen seit dem letzten Aufbau
+     */
+    private int occludedCount = 0;
+
+    /**
+     * Ein {@link HorizonCuller} wird erstellt und die Richtungen der Strahlen werden berechnet.
+     */
+    public HorizonCuller() {
+        for (int ray = 0; ray < RAY_COUNT; ray++) {
+            float diamond = ray * DIAMOND_CIRCLE / RAY_COUNT;
+            int quadrant = (int) diamond;
+            float f = diamond - quadrant;
+            float x, z;
+            switch (quadrant) {
+                case 0:
+                    x = 1 - f;
+                    z = f;
+                    break;
+                case 1:
+                    x = -f;
+                    z = 1 - f;
+                    break;
+                case 2:
+                    x = f - 1;
+                    z = -f;
+                    break;
+                default:
+                    x = f;
+                    z = f - 1;
+                    break;
+            }
+            float length = (float) Math.sqrt(x * x + z * z);
+            rayDirections[ray * 2] = x / length;
+            rayDirections[ray * 2 + 1] = z / length;
+        }
+        for (int step = 0; step < STEP_COUNT; step++) {
+            inverseDistances[step] = 1 / ((step + 1) * STEP);
+        }
+    }
+
+    /**
+     * Diese Funktion baut den Horizont um die Kamera aus den Höhendaten der übergebenen Terrains auf. Sie muss einmal
+     * pro Frame vor den Abfragen aufgerufen werden.
+     *
+     * @param terrains       Terrains im Umkreis der Kamera
+     * @param cameraPosition Position der Kamera
+     */
+    public void update(List<Terrain> terrains, Vector3f cameraPosition) {
+        long start = System.nanoTime();
+        testCount = 0;
+        occludedCount = 0;
+        valid = !terrains.isEmpty();
+        if (!valid) {
+            updateTime = System.nanoTime() - start;
+            return;
+        }
+        cameraX = cameraPosition.x;
+        cameraY = cameraPosition.y;
+        cameraZ = cameraPosition.z;
+        if (!gridTerrains.equals(terrains)) {
+            buildGrids(terrains);
+        }
+        selectStepGrids();
+
+        // Position der Kamera in Zellen des Gitters, die Schritte sind genau eine Zelle lang
+        float startX = (cameraX - gridOriginX) / STEP;
+        float startZ = (cameraZ - gridOriginZ) / STEP;
+        for (int ray = 0; ray < RAY_COUNT; ray++) {
+            float directionX = rayDirections[ray * 2];
+            float directionZ = rayDirections[ray * 2 + 1];
+            float maxSlope = -Float.MAX_VALUE;
+            int offset = ray * STEP_COUNT;
+            for (int step = 0; step < NEAR_STEPS; step++) {
+                horizon[offset + step] = maxSlope;
+            }
+            for (int step = NEAR_STEPS; step < STEP_COUNT; step++) {
+                float[] grid = stepGrids[step];
+                float cellX = startX + directionX * (step + 1);
+                float cellZ = startZ + directionZ * (step + 1);
+                if (cellX >= 0 && cellZ >= 0 && cellX < gridColumns && cellZ < gridRows) {
+                    float slope = (grid[(int) cellZ * gridColumns + (int) cellX] - cameraY) * inverseDistances[step];
+                    if (slope > maxSlope) {
+                        maxSlope = slope;
+                    }
+                }
+                horizon[offset + step] = maxSlope;
+            }
+        }
+        updateTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob eine Kugel vollständig hinter dem Horizont liegt.
+     *
+     * @param x      x-Koordinate des Mittelpunkts
+     * @param y      y-Koordinate des Mittelpunkts
+     * @param z      z-Koordinate des Mittelpunkts
+     * @param radius Radius der Kugel
+     * @return Information, ob die Kugel verdeckt ist
+     */
+    public boolean isOccluded(float x, float y, float z, float radius) {
+        if (!valid) {
+            return false;
+        }
+        testCount++;
+        float dx = x - cameraX;
+        float dz = z - cameraZ;
+        float distance = (float) Math.sqrt(dx * dx + dz * dz);
+        float nearDistance = distance - radius;
+        // Nur Schritte, die vollständig vor der Kugel liegen, dürfen sie verdecken
+        int step = Math.min((int) (nearDistance / STEP) - 1, STEP_COUNT - 1);
+        if (step < NEAR_STEPS) {
+            return false;
+        }
+
+        // Steigung zum höchsten Punkt der Kugel, eher zu hoch geschätzt
+        float top = y + radius - cameraY;
+        float slope = top / (top > 0 ? nearDistance : distance + radius);
+
+        // Der Winkel der Kugel ist höchstens asin(r/d) <= r/d * pi/2, der Rautenwinkel ändert sich höchstens so schnell
+        float halfSpan = radius / distance * (float) (Math.PI / 2);
+        if (halfSpan >= DIAMOND_CIRCLE / 8) {
+            return false;
+        }
+        // Die Strahlen links und rechts der Kugel begrenzen sie; der Versatz um einen Kreis hält die Werte positiv
+        float diamond = diamondAngle(dx, dz);
+        int firstRay = (int) ((diamond - halfSpan) * (RAY_COUNT / DIAMOND_CIRCLE) + RAY_COUNT);
+        int lastRay = (int) ((diamond + halfSpan) * (RAY_COUNT / DIAMOND_CIRCLE) + RAY_COUNT) + 1;
+        for (int ray = firstRay; ray <= lastRay; ray++) {
+            if (slope >= horizon[(ray & (RAY_COUNT - 1)) * STEP_COUNT + step]) {
+                return false;
+            }
+        }
+        occludedCount++;
+        return true;
+    }
+
+    /**
+     * Diese Funktion übergibt, ob ein Quader vollständig hinter dem Horizont liegt. Der Quader wird dafür durch die
+     * Kugel um seinen Grundriss ersetzt, deren höchster Punkt auf der Oberkante des Quaders liegt.
+     *
+     * @param minX minimale x-Koordinate
+     * @param minZ minimale z-Koordinate
+     * @param maxX maximale x-Koordinate
+     * @param maxY maximale y-Koordinate
+     * @param maxZ maximale z-Koordinate
+     * @return Information, ob der Quader verdeckt ist
+     */
+    public boolean isBoxOccluded(float minX, float minZ, float maxX, float maxY, float maxZ) {
+        float halfX = (maxX - minX) / 2;
+        float halfZ = (maxZ - minZ) / 2;
+        float radius = (float) Math.sqrt(halfX * halfX + halfZ * halfZ);
+        return isOccluded(minX + halfX, maxY - radius, minZ + halfZ, radius);
+    }
+
+    /**
+     * Diese Funktion fasst den letzten Aufbau und die Abfragen seitdem zusammen.
+     *
+     * @return Statistik als lesbarer Text
+     */
+    public String getStatistics() {
+        return String.format("Horizont: %.3f ms Aufbau, %d von %d Abfragen verdeckt", updateTime / 1e6, occludedCount, testCount);
+    }
+
+    /**
+     * Diese Funktion übergibt die Dauer des letzten Aufbaus.
+     *
+     * @return Dauer in Nanosekunden
+     */
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /**
+     * Diese Funktion übergibt die Anzahl der verdeckten Abfragen seit dem letzten Aufbau.
+     *
+     * @return Anzahl verdeckter Abfragen
+     */
+    public int getOccludedCount() {
+        return occludedCount;
+    }
+
+    /**
+     * Diese Funktion wählt für jeden Schritt das Verdeckungsgitter des gröbsten Level of Detail, das der
+     * {@link renderEngine.TerrainRenderer} für die Zellen in dieser Entfernung wählen kann. Der Renderer misst den
+     * Abstand zum Quader des Chunks, der höchstens so groß ist wie der Abstand zu jedem Punkt des Terrains in der
+     * Zelle; dieser wird über die Diagonale der Zelle und die maximale Höhe nach oben abgeschätzt.
+     */
+    private void selectStepGrids() {
+        float cellDiagonal = STEP * (float) Math.sqrt(2);
+        float maxHeightDifference = Math.abs(cameraY) + Terrain.MAX_HEIGHT;
+        for (int step = 0; step < STEP_COUNT; step++) {
+            float horizontal = (step + 1) * STEP + cellDiagonal;
+            float distance = (float) Math.sqrt(horizontal * horizontal + maxHeightDifference * maxHeightDifference);
+            int lod = 0;
+            while (lod < Terrain.LOD_DISTANCES.length && distance >= Terrain.LOD_DISTANCES[lod]) {
+                lod++;
+            }
+            stepGrids[step] = grids[lod];
+        }
+    }
+
+    /**
+     * Diese Funktion setzt die Verdeckungsgitter der Terrains je Level of Detail zu einem Gitter zusammen, damit jede
+     * Höhenabfrage nur einen Feldzugriff benötigt. Die Gitter werden nur neu aufgebaut, wenn sich die Terrains ändern.
+     *
+     * @param terrains Terrains im Umkreis der Kamera
+     */
+    private void buildGrids(List<Terrain> terrains) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (Terrain terrain : terrains) {
+            int gridX = Math.round(terrain.getX() / Terrain.SIZE);
+            int gridZ = Math.round(terrain.getZ() / Terrain.SIZE);
+            minX = Math.min(minX, gridX);
+            minZ = Math.min(minZ, gridZ);
+            maxX = Math.max(maxX, gridX);
+            maxZ = Math.max(maxZ, gridZ);
+        }
+        gridOriginX = minX * Terrain.SIZE;
+        gridOriginZ = minZ * Terrain.SIZE;
+        gridColumns = (maxX - minX + 1) * Terrain.OCCLUDER_CELLS;
+        gridRows = (maxZ - minZ + 1) * Terrain.OCCLUDER_CELLS;
+        for (int lod = 0; lod < grids.length; lod++) {
+            if (grids[lod].length < gridColumns * gridRows) {
+                grids[lod] = new float[gridColumns * gridRows];
+            }
+            // Lücken ohne Terrain verdecken nichts
+            Arrays.fill(grids[lod], -Float.MAX_VALUE);
+            for (Terrain terrain : terrains) {
+                int cellX = (Math.round(terrain.getX() / Terrain.SIZE) - minX) * Terrain.OCCLUDER_CELLS;
+                int cellZ = (Math.round(terrain.getZ() / Terrain.SIZE) - minZ) * Terrain.OCCLUDER_CELLS;
+                terrain.copyOccluderHeights(lod, grids[lod], cellZ * gridColumns + cellX, gridColumns);
+            }
+        }
+        gridTerrains.clear();
+        gridTerrains.addAll(terrains);
+    }
+
+    /**
+     * Diese Funktion berechnet den Rautenwinkel einer Richtung, der wie der Winkel monoton um den Kreis läuft, aber
+     * ohne Winkelfunktionen auskommt.
+     *
+     * @param x x-Komponente der Richtung
+     * @param z z-Komponente der Richtung
+     * @return Rautenwinkel im Bereich [0, 4)
+     */
+    private static float diamondAngle(float x, float z) {
+        if (z >= 0) {
+            return x >= 0 ? z / (x + z) : 1 - x / (-x + z);
+        }
+        return x < 0 ? 2 - z / (-x - z) : 3 + x / (x - z);
+    }
+}
@@ -10,6 +10,19 @@ import org.lwjgl.util.vector.Vector3f;
  */
 public class Maths {
 
+    /**
+     * x-Achse als Rotationsachse
+     */
+    private static final Vector3f X_AXIS = new Vector3f(1, 0, 0);
+    /**
+     * y-Achse als Rotationsachse
+     */
+    private static final Vector3f Y_AXIS = new Vector3f(0, 1, 0);
+    /**
+     * z-Achse als Rotationsachse
+     */
+    private static final Vector3f Z_AXIS = new Vector3f(0, 0, 1);
+
     /**
      * Diese Funktion übergibt die Höhe für die Koordinaten (x, z) in einem beliebigen Dreieck.
      *
@@ -38,14 +51,48 @@ public class Maths {
      * @return Transformationsmatrix
      */
     public static Matrix4f createTransformationMatrix(Vector3f translation, float rx, float ry, float rz, float scale) {
-        Matrix4f matrix = new Matrix4f();
-        matrix.setIdentity();
-        Matrix4f.translate(translation, matrix, matrix);
-        Matrix4f.rotate((float) Math.toRadians(rx), new Vector3f(1, 0, 0), matrix, matrix);
-        Matrix4f.rotate((float) Math.toRadians(ry), new Vector3f(0, 1, 0), matrix, matrix);
-        Matrix4f.rotate((float) Math.toRadians(rz), new Vector3f(0, 0, 1), matrix, matrix);
-        Matrix4f.scale(new Vector3f(scale, scale, scale), matrix, matrix);
-        return matrix;
+        return createTransformationMatrix(translation, rx, ry, rz, scale, new Matrix4f());
+    }
+
+    /**
+     * Diese Funktion berechnet auf Grundlage von Translation, Rotation und Skalierung die Transformationsmatrix
+     * und schreibt diese in eine bestehende Matrix, sodass keine neuen Objekte angelegt werden.
+     * Rotationen um 0 Grad werden übersprungen.
+     *
+     * @param translation Translation ({@link Vector3f})
+     * @param rx          Rotation um x-Achse
+     * @param ry          Rotation um y-Achse
+     * @param rz          Rotation um z-Achse
+     * @param scale       Skalierung
+     * @param dest        Matrix, in die das Ergebnis geschrieben wird
+     * @return Transformationsmatrix (dest)
+     */
+    public static Matrix4f createTransformationMatrix(Vector3f translation, float rx, float ry, float rz, float scale, Matrix4f dest) {
+        dest.setIdentity();
+        Matrix4f.translate(translation, dest, dest);
+        if (rx != 0) {
+            Matrix4f.rotate((float) Math.toRadians(rx), X_AXIS, dest, dest);
+        }
+        if (ry != 0) {
+            Matrix4f.rotate((float) Math.toRadians(ry), Y_AXIS, dest, dest);
+        }
+        if (rz != 0) {
+            Matrix4f.rotate((float) Math.toRadians(rz), Z_AXIS, dest, dest);
+        }
+        // gleichmäßige Skalierung entspricht dem Skalieren der ersten drei Spalten
+        dest.m00 *= scale;
+        dest.m01 *= scale;
+        dest.m02 *= scale;
+        dest.m03 *= scale;
+        dest.m10 *= scale;
+        dest.m11 *= scale;
+        dest.m12 *= scale;
+        dest.m13 *= scale;
+        dest.m20 *= scale;
+        dest.m21 *= scale;
+        dest.m22 *= scale;
+        dest.m23 *= scale;
+        return dest;
     }
 
     /**
@@ -6,10 +6,10 @@ import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 import org.lwjgl.util.vector.Vector4f;
-import terrain.Terrain;
+import terrain.TerrainWorld;
 
 /**
- * Diese Klasse ermöglicht den Punkt auf dem {@link MousePicker#terrain},
+ * Diese Klasse ermöglicht den Punkt auf der {@link MousePicker#world},
  * welcher auf der genauen Blickachse des Spielers liegt, zu bestimmen.
  */
 public class MousePicker {
@@ -33,32 +33,32 @@ public class MousePicker {
     private final Camera camera;
 
     /**
-     * {@link Terrain}, auf dem sich der Spieler "bewegt"
+     * {@link TerrainWorld}, auf der sich der Spieler "bewegt"
      */
-    private final Terrain terrain;
+    private final TerrainWorld world;
     /**
-     * Punkt auf dem {@link MousePicker#terrain}, welcher auf der genauen Blickachse des Spielers liegt
+     * Punkt auf der {@link MousePicker#world}, welcher auf der genauen Blickachse des Spielers liegt
      */
     private Vector3f currentTerrainPoint;
 
     /**
      * Ein {@link MousePicker} wird mithilfe der {@link Camera}, der aktuellen Projektionsmatrix
-     * und dem genutzten {@link Terrain} angelegt.
+     * und der genutzten {@link TerrainWorld} angelegt.
      *
      * @param cam        {@link Camera} des Spielers
      * @param projection aktuelle Projektionsmatrix
-     * @param terrain    {@link Terrain}
+     * @param world      {@link TerrainWorld}
      */
-    public MousePicker(Camera cam, Matrix4f projection, Terrain terrain) {
+    public MousePicker(Camera cam, Matrix4f projection, TerrainWorld world) {
         camera = cam;
         projectionMatrix = projection;
-        this.terrain = terrain;
+        this.world = world;
     }
 
     /**
-     * Diese Funktion übergibt Punkt auf dem {@link MousePicker#terrain}, welcher auf der genauen Blickachse des Spielers liegt.
+     * Diese Funktion übergibt Punkt auf dem {@link MousePicker#world}, welcher auf der genauen Blickachse des Spielers liegt.
      *
-     * @return Punkt auf dem {@link MousePicker#terrain}
+     * @return Punkt auf dem {@link MousePicker#world}
      */
     public Vector3f getCurrentTerrainPoint() {
         return currentTerrainPoint;
@@ -166,7 +166,7 @@ public class MousePicker {
         float half = start + ((finish - start) / 2f);
         if (count >= RECURSION_COUNT) {
             Vector3f endPoint = getPointOnRay(ray, half);
-            if (terrain != null) {
+            if (world != null && world.isLoaded(endPoint.getX(), endPoint.getZ())) {
                 return endPoint;
             } else {
                 return null;
@@ -202,8 +202,8 @@ public class MousePicker {
      */
     private boolean isUnderGround(Vector3f point) {
         float height = 0;
-        if (terrain != null) {
-            height = terrain.getHeight(point.getX(), point.getZ());
+        if (world != null) {
+            height = world.getHeight(point.getX(), point.getZ());
         }
         return point.y < height;
     }